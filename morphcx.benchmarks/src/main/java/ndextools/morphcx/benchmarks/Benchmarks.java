@@ -0,0 +1,48 @@
+package ndextools.morphcx.benchmarks;
+
+import ndextools.morphcx.configuration.cli.base.BuilderBaseOptions;
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command-line options and always
+ * adds the GC profiler, so that every stage reports its allocation rate
+ * (gc.alloc.rate.norm, bytes per operation) next to its throughput.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * @param input CX file
+     * @return a configuration reading the given file, as the launchers would build it for "-i input"
+     */
+    static Configuration configurationFor(final Path input) {
+        BuilderBaseOptions builder = new BuilderBaseOptions();
+        builder.setCommandline(new String[0]);
+        builder.setAppName("benchmarks");
+        builder.setProcessId("0");
+        builder.setUsesInputFile(true);
+        builder.setInputFilename(Optional.of(input.toString()));
+        builder.setOutputFilename(Optional.empty());
+        builder.setWorkers(1);
+        return builder.getInstance();
+    }
+
+}
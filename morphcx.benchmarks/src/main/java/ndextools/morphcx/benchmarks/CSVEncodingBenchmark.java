@@ -0,0 +1,102 @@
+package ndextools.morphcx.benchmarks;
+
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate.CSVOptionConstants;
+import ndextools.morphcx.processors.csv.CSVByteEncoder;
+import ndextools.morphcx.processors.csv.CSVDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write stage, CSV/TSV: encoding rows into bytes, with CSVRowWriter (through a Writer) and with
+ * CSVByteEncoder (into a direct buffer). The output is discarded so that only encoding is
+ * measured. One operation is one row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CSVEncodingBenchmark {
+    private static final int ROWS = 4096;
+
+    @Param({"0", "4", "16"})
+    public int attributeDensity;
+
+    @Param({CSVOptionConstants.TAB, CSVOptionConstants.COMMA})
+    public String fileType;
+
+    private String[][] rows;
+    private CSVRowWriter writer;
+    private CSVByteEncoder encoder;
+
+    @Setup
+    public void setup() {
+        rows = Rows.edgeRows(ROWS, attributeDensity, new Random(42L));
+        CSVDialect dialect = new CSVDialect(CSVDialect.delimiterOf(fileType), "\n");
+        writer = new CSVRowWriter(OutputStream.nullOutputStream(), dialect);
+        encoder = new CSVByteEncoder(new NullChannel(), dialect);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        writer.close();
+        encoder.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void encodeRows() throws IOException {
+        for (String[] row : rows) {
+            writer.row(row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void encodeRowsToBytes() throws IOException {
+        for (String[] row : rows) {
+            encoder.row(row);
+        }
+    }
+
+    /**
+     * Channel discarding whatever is written to it.
+     */
+    private static final class NullChannel implements WritableByteChannel {
+        @Override
+        public int write(final ByteBuffer src) {
+            int count = src.remaining();
+            src.position(src.limit());
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package ndextools.morphcx.benchmarks;
+
+import ndextools.morphcx.processors.csv.CSVDialect;
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * CSVRowWriter writes each row to its output as soon as it is received, so no part of
+ * the table is held in memory beyond the output buffer. A field is quoted only when it
+ * contains the delimiter, a double quote or a line break.
+ * <p>
+ * This is the Writer-based encoder CSVProcessor used before CSVByteEncoder; it is kept here
+ * as the baseline CSVEncodingBenchmark measures CSVByteEncoder against.
+ */
+final class CSVRowWriter implements RowSink, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+    private final char delimiter;
+    private final String newline;
+
+    CSVRowWriter(final OutputStream output, final CSVDialect dialect) {
+        this.out = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.delimiter = dialect.getDelimiter();
+        this.newline = dialect.getNewline();
+    }
+
+    @Override
+    public void startTable(final List<String> columns) throws IOException {
+        writeRecord(columns.toArray(new String[0]));
+    }
+
+    @Override
+    public void row(final String[] fields) throws IOException {
+        writeRecord(fields);
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeRecord(final String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(delimiter);
+            }
+            writeField(fields[i]);
+        }
+        out.write(newline);
+    }
+
+    private void writeField(final String field) throws IOException {
+        if (field == null || field.isEmpty()) {
+            return;
+        }
+        if (!needsQuotes(field)) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        int quote;
+        while ((quote = field.indexOf('"', start)) >= 0) {
+            out.write(field, start, quote - start + 1);
+            out.write('"');
+            start = quote + 1;
+        }
+        out.write(field, start, field.length() - start);
+        out.write('"');
+    }
+
+    private boolean needsQuotes(final String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,77 @@
+package ndextools.morphcx.benchmarks;
+
+import ndextools.morphcx.readers.index.NodeTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transform stage: resolving edge end point ids to node names, through NodeTable and,
+ * for comparison, through a boxed map as NiceCXNetwork.getNodes() would. One operation is
+ * one end point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeResolutionBenchmark {
+    private static final int END_POINTS = 1 << 16;
+
+    @Param({"10000", "1000000"})
+    public int nodes;
+
+    private long[] endPoints;
+    private NodeTable table;
+    private Map<Long, String> boxed;
+
+    @Setup
+    public void setup() {
+        table = new NodeTable(nodes);
+        boxed = new HashMap<>();
+        for (int i = 0; i < nodes; i++) {
+            String name = "GENE" + i;
+            table.put(i, name, null);
+            boxed.put((long) i, name);
+        }
+
+        Random random = new Random(42L);
+        endPoints = new long[END_POINTS];
+        for (int i = 0; i < END_POINTS; i++) {
+            endPoints[i] = random.nextInt(nodes);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(END_POINTS)
+    public void nodeTable(final Blackhole blackhole) {
+        for (long id : endPoints) {
+            blackhole.consume(table.nameAt(table.ordinalOf(id)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(END_POINTS)
+    public void boxedMap(final Blackhole blackhole) {
+        for (long id : endPoints) {
+            blackhole.consume(boxed.get(id));
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package ndextools.morphcx.benchmarks;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.generator.CXGenerator;
+import ndextools.morphcx.generator.GeneratorSettings;
+import ndextools.morphcx.readers.columnar.ColumnarNetwork;
+import ndextools.morphcx.readers.columnar.ColumnarNetworkBuilder;
+import ndextools.morphcx.readers.index.StringDictionary;
+import ndextools.morphcx.readers.nicecx.ToNiceCX;
+import ndextools.morphcx.readers.streaming.CXAttribute;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+import ndextools.morphcx.readers.streaming.CXSnapshotWriter;
+import ndextools.morphcx.readers.streaming.CXStreamReader;
+import org.ndexbio.model.cx.NiceCXNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read stage: parsing a whole CX file into a NiceCXNetwork, into a ColumnarNetwork, and as a
+ * stream of elements with and without a StringDictionary; and replaying the same network from a
+ * binary snapshot. One operation is one network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int edges;
+
+    @Param({"0", "4"})
+    public int attributeDensity;
+
+    private Path input;
+    private Configuration cfg;
+    private Path snapshot;
+    private Configuration snapshotCfg;
+
+    @Setup
+    public void setup() throws IOException {
+        input = Files.createTempFile("morphcx-read", ".cx");
+        GeneratorSettings settings = new GeneratorSettings.Builder()
+                .setNodes(Math.max(1, edges / 2))
+                .setEdges(edges)
+                .setNodeAttributes(attributeDensity)
+                .setEdgeAttributes(attributeDensity)
+                .build();
+        new CXGenerator(settings).generate(input);
+        cfg = Benchmarks.configurationFor(input);
+
+        snapshot = Files.createTempFile("morphcx-read", ".cxs");
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(snapshot));
+             CXSnapshotWriter writer = new CXSnapshotWriter(output)) {
+            new CXStreamReader(cfg).read(writer);
+        }
+        snapshotCfg = Benchmarks.configurationFor(snapshot);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public NiceCXNetwork toNiceCX() throws IOException {
+        return new ToNiceCX(cfg).makeNiceCX();
+    }
+
+    @Benchmark
+    public ColumnarNetwork columnarNetwork() throws IOException {
+        ColumnarNetworkBuilder builder = new ColumnarNetworkBuilder();
+        new CXStreamReader(cfg, builder.getDictionary()).read(builder);
+        return builder.getNetwork();
+    }
+
+    @Benchmark
+    public long streamingReader() throws IOException {
+        CountingHandler handler = new CountingHandler();
+        new CXStreamReader(cfg).read(handler);
+        return handler.count;
+    }
+
+    @Benchmark
+    public long streamingReaderWithDictionary() throws IOException {
+        CountingHandler handler = new CountingHandler();
+        new CXStreamReader(cfg, new StringDictionary()).read(handler);
+        return handler.count;
+    }
+
+    @Benchmark
+    public long snapshotReader() throws IOException {
+        CountingHandler handler = new CountingHandler();
+        new CXStreamReader(snapshotCfg).read(handler);
+        return handler.count;
+    }
+
+    private static final class CountingHandler implements CXElementHandler {
+        private long count;
+
+        @Override
+        public void node(long id, String name, String represents) {
+            count++;
+        }
+
+        @Override
+        public void edge(long id, long source, long target, String interaction) {
+            count++;
+        }
+
+        @Override
+        public void nodeAttribute(CXAttribute attribute) {
+            count++;
+        }
+
+        @Override
+        public void edgeAttribute(CXAttribute attribute) {
+            count++;
+        }
+    }
+
+}
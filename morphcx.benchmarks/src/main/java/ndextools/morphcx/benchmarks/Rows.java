@@ -0,0 +1,47 @@
+package ndextools.morphcx.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rows builds edge-table rows for the write-stage benchmarks: source, interaction and
+ * target followed by a number of attribute columns. About one value in sixteen contains
+ * a comma or a double quote, so CSV quoting is exercised as well.
+ */
+final class Rows {
+
+    private Rows() {
+    }
+
+    static List<String> columns(final int attributeDensity) {
+        List<String> columns = new ArrayList<>(List.of("source", "interaction", "target"));
+        for (int a = 0; a < attributeDensity; a++) {
+            columns.add("attribute" + a);
+        }
+        return columns;
+    }
+
+    static String[][] edgeRows(final int count, final int attributeDensity, final Random random) {
+        String[][] rows = new String[count][];
+        for (int r = 0; r < count; r++) {
+            String[] row = new String[3 + attributeDensity];
+            row[0] = "GENE" + random.nextInt(100_000);
+            row[1] = "interacts-with";
+            row[2] = "GENE" + random.nextInt(100_000);
+            for (int a = 0; a < attributeDensity; a++) {
+                int kind = random.nextInt(16);
+                if (kind == 0) {
+                    row[3 + a] = "PubMed:" + random.nextInt(1_000_000) + ", \"curated\"";
+                } else if ((a & 1) == 0) {
+                    row[3 + a] = "value" + random.nextInt(100);
+                } else {
+                    row[3 + a] = Double.toString(random.nextDouble());
+                }
+            }
+            rows[r] = row;
+        }
+        return rows;
+    }
+
+}
@@ -0,0 +1,66 @@
+package ndextools.morphcx.benchmarks;
+
+import ndextools.morphcx.processors.poi.XLSXWorkbookWriter;
+import ndextools.morphcx.readers.rows.RowSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write stage, XLSX: writing a table of rows through XLSXWorkbookWriter, including the
+ * temporary sheet files and the final assembly of the workbook. The workbook itself is
+ * discarded. One operation is one complete workbook; divide by the row count for a per-row
+ * figure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class XLSXWritingBenchmark {
+    private static final int DISTINCT_ROWS = 4096;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"0", "4"})
+    public int attributeDensity;
+
+    private List<String> columns;
+    private String[][] rowData;
+
+    @Setup
+    public void setup() {
+        columns = Rows.columns(attributeDensity);
+        rowData = Rows.edgeRows(DISTINCT_ROWS, attributeDensity, new Random(42L));
+    }
+
+    @Benchmark
+    public void writeWorkbook() throws IOException {
+        try (XLSXWorkbookWriter writer = new XLSXWorkbookWriter()) {
+            RowSink table = writer.newTable("Edges");
+            table.startTable(columns);
+            for (int r = 0; r < rows; r++) {
+                table.row(rowData[r % DISTINCT_ROWS]);
+            }
+            table.endTable();
+            writer.write(OutputStream.nullOutputStream());
+        }
+    }
+
+}
@@ -1,8 +1,12 @@
 module morphcx.configuration {
 
     exports ndextools.morphcx.configuration.cli.base;
+    exports ndextools.morphcx.configuration.cli.batch;
+    exports ndextools.morphcx.configuration.cli.cache;
     exports ndextools.morphcx.configuration.cli.csv;
+    exports ndextools.morphcx.configuration.cli.server;
+    exports ndextools.morphcx.configuration.cli.startup;
 
     requires commons.cli;
-    requires java.management;
+    requires jdk.httpserver;
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package ndextools.morphcx.configuration.cli.base;
 
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Builder is an interface associated with Configuration objects. It defines:
@@ -32,6 +33,32 @@ public interface Builder {
 
     void setOutputFilename(Optional<String> outputFilename);
 
+    void setIsBatchMode(boolean batchMode);
+
+    void setWorkers(int workers);
+
+    void setIsServerMode(boolean serverMode);
+
+    void setIsClientMode(boolean clientMode);
+
+    void setServerPort(int serverPort);
+
+    void setStartupArchiveFilename(Optional<String> startupArchiveFilename);
+
+    void setSelectedAspects(Set<String> selectedAspects);
+
+    void setSelectedAttributeNames(Set<String> selectedAttributeNames);
+
+    void setCacheDirectory(Optional<String> cacheDirectory);
+
+    void setCacheSizeLimit(long cacheSizeLimit);
+
+    void setWritesSnapshot(boolean writesSnapshot);
+
+    void setWritesAttributes(boolean writesAttributes);
+
+    void setWritesSharedStrings(boolean writesSharedStrings);
+
     String toString();
 
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package ndextools.morphcx.configuration.cli.base;
 
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * AbstractBuilder is an abstract class associated with all Configuration objects. It defines:
@@ -22,6 +23,19 @@ public abstract class BuilderAbstraction implements Builder {
     protected boolean flagUsesOutputFile;
     protected Optional<String> inputFilename;
     protected Optional<String> outputFilename;
+    protected boolean flagIsBatchMode;
+    protected int workers;
+    protected boolean flagIsServerMode;
+    protected boolean flagIsClientMode;
+    protected int serverPort;
+    protected Optional<String> startupArchiveFilename;
+    protected Set<String> selectedAspects;
+    protected Set<String> selectedAttributeNames;
+    protected Optional<String> cacheDirectory;
+    protected long cacheSizeLimit;
+    protected boolean flagWritesSnapshot;
+    protected boolean flagWritesAttributes;
+    protected boolean flagWritesSharedStrings;
 
     public abstract Configuration getInstance();
 
@@ -61,4 +75,56 @@ public abstract class BuilderAbstraction implements Builder {
         this.outputFilename = filename;
     }
 
+    public void setIsBatchMode(boolean batchMode) {
+        this.flagIsBatchMode = batchMode;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public void setIsServerMode(boolean serverMode) {
+        this.flagIsServerMode = serverMode;
+    }
+
+    public void setIsClientMode(boolean clientMode) {
+        this.flagIsClientMode = clientMode;
+    }
+
+    public void setServerPort(int serverPort) {
+        this.serverPort = serverPort;
+    }
+
+    public void setStartupArchiveFilename(Optional<String> filename) {
+        this.startupArchiveFilename = filename;
+    }
+
+    public void setSelectedAspects(Set<String> aspects) {
+        this.selectedAspects = aspects;
+    }
+
+    public void setSelectedAttributeNames(Set<String> attributeNames) {
+        this.selectedAttributeNames = attributeNames;
+    }
+
+    public void setCacheDirectory(Optional<String> directory) {
+        this.cacheDirectory = directory;
+    }
+
+    public void setCacheSizeLimit(long cacheSizeLimit) {
+        this.cacheSizeLimit = cacheSizeLimit;
+    }
+
+    public void setWritesSnapshot(boolean writesSnapshot) {
+        this.flagWritesSnapshot = writesSnapshot;
+    }
+
+    public void setWritesAttributes(boolean writesAttributes) {
+        this.flagWritesAttributes = writesAttributes;
+    }
+
+    public void setWritesSharedStrings(boolean writesSharedStrings) {
+        this.flagWritesSharedStrings = writesSharedStrings;
+    }
+
 }
\ No newline at end of file
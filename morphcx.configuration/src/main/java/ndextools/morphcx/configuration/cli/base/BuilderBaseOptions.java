@@ -18,7 +18,20 @@ public class BuilderBaseOptions extends BuilderAbstraction {
                 flagUsesInputFile,
                 flagUsesOutputFile,
                 inputFilename,
-                outputFilename);
+                outputFilename,
+                flagIsBatchMode,
+                workers,
+                flagIsServerMode,
+                flagIsClientMode,
+                serverPort,
+                startupArchiveFilename,
+                selectedAspects,
+                selectedAttributeNames,
+                cacheDirectory,
+                cacheSizeLimit,
+                flagWritesSnapshot,
+                flagWritesAttributes,
+                flagWritesSharedStrings);
     }
 
     @Override
@@ -33,6 +46,19 @@ public class BuilderBaseOptions extends BuilderAbstraction {
                 ", flagUsesOutputFile=" + flagUsesOutputFile +
                 ", inputFilename=" + inputFilename +
                 ", outputFilename=" + outputFilename +
+                ", flagIsBatchMode=" + flagIsBatchMode +
+                ", workers=" + workers +
+                ", flagIsServerMode=" + flagIsServerMode +
+                ", flagIsClientMode=" + flagIsClientMode +
+                ", serverPort=" + serverPort +
+                ", startupArchiveFilename=" + startupArchiveFilename +
+                ", selectedAspects=" + selectedAspects +
+                ", selectedAttributeNames=" + selectedAttributeNames +
+                ", cacheDirectory=" + cacheDirectory +
+                ", cacheSizeLimit=" + cacheSizeLimit +
+                ", flagWritesSnapshot=" + flagWritesSnapshot +
+                ", flagWritesAttributes=" + flagWritesAttributes +
+                ", flagWritesSharedStrings=" + flagWritesSharedStrings +
                 '}';
     }
 
@@ -0,0 +1,60 @@
+package ndextools.morphcx.configuration.cli.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CommandlineArguments rewrites a launcher command-line for another process that runs the same
+ * conversion, such as a conversion server or a training run, by leaving out the options that
+ * only apply to the launching process.
+ */
+public final class CommandlineArguments {
+
+    private CommandlineArguments() {
+    }
+
+    /**
+     * Removes options, with their values, from a command-line. Options with a value are
+     * recognised in all the forms Apache Commons CLI accepts: "-i file", "-ifile",
+     * "--input file" and "--input=file".
+     *
+     * @param commandline launcher command-line
+     * @param optionNames short and long names of the options to remove, without dashes; every
+     *                    one of them must take a value
+     * @return the command-line without the given options
+     */
+    public static List<String> without(final String[] commandline, final Set<String> optionNames) {
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < commandline.length; i++) {
+            String arg = commandline[i];
+            String name = optionName(arg);
+            if (name == null || !optionNames.contains(name)) {
+                args.add(arg);
+            } else if (!hasAttachedValue(arg, name)) {
+                i++;
+            }
+        }
+        return args;
+    }
+
+    /**
+     * @return the option name of an argument such as "-i", "-ifile", "--input" or "--input=file",
+     *         or null when the argument is not an option
+     */
+    private static String optionName(final String arg) {
+        if (arg.startsWith("--") && arg.length() > 2) {
+            int equals = arg.indexOf('=');
+            return (equals > 0) ? arg.substring(2, equals) : arg.substring(2);
+        }
+        if (arg.startsWith("-") && arg.length() > 1) {
+            return arg.substring(1, 2);
+        }
+        return null;
+    }
+
+    private static boolean hasAttachedValue(final String arg, final String name) {
+        return arg.startsWith("--") ? arg.indexOf('=') > 0 : arg.length() > 1 + name.length();
+    }
+
+}
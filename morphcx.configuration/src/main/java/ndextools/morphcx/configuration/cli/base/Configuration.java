@@ -1,6 +1,7 @@
 package ndextools.morphcx.configuration.cli.base;
 
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Configuration objects are immutable and possess the configuration properties
@@ -27,6 +28,36 @@ public interface Configuration {
 
     Optional<String> getOutputFilename();
 
+    boolean isBatchMode();
+
+    int getWorkers();
+
+    boolean isServerMode();
+
+    boolean isClientMode();
+
+    int getServerPort();
+
+    Optional<String> getStartupArchiveFilename();
+
+    Set<String> getSelectedAspects();
+
+    Set<String> getSelectedAttributeNames();
+
+    Optional<String> getCacheDirectory();
+
+    long getCacheSizeLimit();
+
+    boolean writesSnapshot();
+
+    boolean writesAttributes();
+
+    boolean writesSharedStrings();
+
+    String getOutputSettings();
+
+    Configuration forFile(String inputFilename, String outputFilename);
+
     String toString();
 
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package ndextools.morphcx.configuration.cli.base;
 
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * AbstractConfiguration is a superclass object which type-specific configuration subclasses
@@ -19,19 +20,45 @@ public abstract class ConfigurationAbstraction implements Configuration {
     protected final boolean flagUsesOutputFile;
     protected final Optional<String> inputFilename;
     protected final Optional<String> outputFilename;
+    protected final boolean flagIsBatchMode;
+    protected final int workers;
+    protected final boolean flagIsServerMode;
+    protected final boolean flagIsClientMode;
+    protected final int serverPort;
+    protected final Optional<String> startupArchiveFilename;
+    protected final Set<String> selectedAspects;
+    protected final Set<String> selectedAttributeNames;
+    protected final Optional<String> cacheDirectory;
+    protected final long cacheSizeLimit;
+    protected final boolean flagWritesSnapshot;
+    protected final boolean flagWritesAttributes;
+    protected final boolean flagWritesSharedStrings;
 
     /**
      * Superclass Constructor
      *
      * @param commandline command-line options specified when the executable program was invoked
      * @param appName class name of invoking executable program
-     * @param processId process id (pid) of invoking executable program
+     * @param processId process id (pid) of invoking executable program, or null to look it up when first asked for
      * @param flagIsDebugMode a flag denoting whether the application is running in debug mode
      * @param flagShowHelpPrompt a flag indicating whether help text is to be displayed
      * @param flagUsesInputFile a flag denoting whether the input is a file (otherwise StdIn)
      * @param flagUsesOutputFile a flag denoting whether the output is a file (otherwise StdOut)
      * @param inputFilename the complete input file specification (path + filename + extension)
      * @param outputFilename the complete output file specification (path + filename + extension)
+     * @param flagIsBatchMode a flag denoting whether the input names a directory or glob of files
+     * @param workers maximum number of files converted concurrently in batch or server mode
+     * @param flagIsServerMode a flag denoting whether the application serves conversion requests on localhost
+     * @param flagIsClientMode a flag denoting whether conversions are sent to a server rather than run here
+     * @param serverPort localhost port of the conversion server, or 0 when neither mode is used
+     * @param startupArchiveFilename the class-data-sharing archive to generate instead of converting, if any
+     * @param selectedAspects names of the CX aspects to read, or an empty set for all of them
+     * @param selectedAttributeNames names of the node, edge and network attributes to read, or an empty set for all of them
+     * @param cacheDirectory directory of the conversion cache, if conversions are cached
+     * @param cacheSizeLimit number of bytes the conversion cache is trimmed to
+     * @param flagWritesSnapshot true to write the parsed network as a binary snapshot instead of converting it
+     * @param flagWritesAttributes true to write a column per attribute
+     * @param flagWritesSharedStrings true to write the strings of a workbook to its shared-strings table
      */
     public ConfigurationAbstraction(
             String[] commandline,
@@ -42,7 +69,20 @@ public abstract class ConfigurationAbstraction implements Configuration {
             boolean flagUsesInputFile,
             boolean flagUsesOutputFile,
             Optional<String> inputFilename,
-            Optional<String> outputFilename)
+            Optional<String> outputFilename,
+            boolean flagIsBatchMode,
+            int workers,
+            boolean flagIsServerMode,
+            boolean flagIsClientMode,
+            int serverPort,
+            Optional<String> startupArchiveFilename,
+            Set<String> selectedAspects,
+            Set<String> selectedAttributeNames,
+            Optional<String> cacheDirectory,
+            long cacheSizeLimit,
+            boolean flagWritesSnapshot,
+            boolean flagWritesAttributes,
+            boolean flagWritesSharedStrings)
     {
         this.commandline = commandline;
         this.appName = appName;
@@ -53,6 +93,19 @@ public abstract class ConfigurationAbstraction implements Configuration {
         this.flagUsesOutputFile = flagUsesOutputFile;
         this.inputFilename = inputFilename;
         this.outputFilename = outputFilename;
+        this.flagIsBatchMode = flagIsBatchMode;
+        this.workers = workers;
+        this.flagIsServerMode = flagIsServerMode;
+        this.flagIsClientMode = flagIsClientMode;
+        this.serverPort = serverPort;
+        this.startupArchiveFilename = startupArchiveFilename;
+        this.selectedAspects = selectedAspects;
+        this.selectedAttributeNames = selectedAttributeNames;
+        this.cacheDirectory = cacheDirectory;
+        this.cacheSizeLimit = cacheSizeLimit;
+        this.flagWritesSnapshot = flagWritesSnapshot;
+        this.flagWritesAttributes = flagWritesAttributes;
+        this.flagWritesSharedStrings = flagWritesSharedStrings;
     }
 
     /**
@@ -76,7 +129,7 @@ public abstract class ConfigurationAbstraction implements Configuration {
      * @return process id (pid) of invoking executable program.
      */
     public String getProcessId() {
-        return processId;
+        return (processId != null) ? processId : CurrentProcess.ID;
     }
 
     /**
@@ -126,9 +179,147 @@ public abstract class ConfigurationAbstraction implements Configuration {
     public Optional<String> getOutputFilename() {
         return Optional.ofNullable(outputFilename).orElse(Optional.of(""));
     }
+
+    /**
+     * Getter method
+     * @return a flag denoting whether the input names a directory or glob of files to be converted.
+     */
+    public boolean isBatchMode() {
+        return flagIsBatchMode;
+    }
+
+    /**
+     * Getter method
+     * @return maximum number of files converted concurrently in batch or server mode.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Getter method
+     * @return a flag denoting whether the application serves conversion requests on localhost.
+     */
+    public boolean isServerMode() {
+        return flagIsServerMode;
+    }
+
+    /**
+     * Getter method
+     * @return a flag denoting whether conversions are sent to a server rather than run here.
+     */
+    public boolean isClientMode() {
+        return flagIsClientMode;
+    }
+
+    /**
+     * Getter method
+     * @return localhost port of the conversion server, or 0 when neither mode is used.
+     */
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    /**
+     * Getter method
+     * @return the class-data-sharing archive to generate instead of converting, if any.
+     */
+    public Optional<String> getStartupArchiveFilename() {
+        return Optional.ofNullable(startupArchiveFilename).orElse(Optional.empty());
+    }
+
+    /**
+     * Getter method
+     * @return names of the CX aspects to read; empty when all of them are read.
+     */
+    public Set<String> getSelectedAspects() {
+        return (selectedAspects != null) ? selectedAspects : Set.of();
+    }
+
+    /**
+     * Getter method
+     * @return names of the node, edge and network attributes to read; empty when all of them are read.
+     */
+    public Set<String> getSelectedAttributeNames() {
+        return (selectedAttributeNames != null) ? selectedAttributeNames : Set.of();
+    }
+
+    /**
+     * Getter method
+     * @return directory of the conversion cache, if conversions are cached.
+     */
+    public Optional<String> getCacheDirectory() {
+        return Optional.ofNullable(cacheDirectory).orElse(Optional.empty());
+    }
+
+    /**
+     * Getter method
+     * @return number of bytes the conversion cache is trimmed to, least recently used entries first.
+     */
+    public long getCacheSizeLimit() {
+        return cacheSizeLimit;
+    }
+
+    /**
+     * Getter method
+     * @return true when the parsed network is written as a binary snapshot instead of being converted.
+     */
+    public boolean writesSnapshot() {
+        return flagWritesSnapshot;
+    }
+
+    /**
+     * Getter method
+     * @return true when the tables have a column per attribute, after their fixed columns.
+     */
+    public boolean writesAttributes() {
+        return flagWritesAttributes;
+    }
+
+    /**
+     * Getter method
+     * @return true when the strings of a workbook are written to its shared-strings table rather than inline.
+     */
+    public boolean writesSharedStrings() {
+        return flagWritesSharedStrings;
+    }
+
+    /**
+     * Describes every setting that affects the bytes of the output, so that two configurations
+     * with the same description convert the same input to the same output. Subclasses add their
+     * own settings.
+     *
+     * @return the output settings, as text
+     */
+    public String getOutputSettings() {
+        return "appName=" + appName +
+                ", selectedAspects=" + getSelectedAspects() +
+                ", selectedAttributeNames=" + getSelectedAttributeNames() +
+                ", flagWritesSnapshot=" + flagWritesSnapshot +
+                ", flagWritesAttributes=" + flagWritesAttributes +
+                ", flagWritesSharedStrings=" + flagWritesSharedStrings;
+    }
+
+    /**
+     * Derives the configuration used to convert one file of a batch.
+     *
+     * @param inputFilename the input file specification
+     * @param outputFilename the output file specification
+     * @return a copy of this configuration, not in batch mode, naming the given files
+     */
+    public abstract Configuration forFile(String inputFilename, String outputFilename);
+
     /**
      * Abstract getter method inherited from Object toString().
      */
     public abstract String toString();
 
+    /**
+     * Holds the pid of this process, looked up the first time it is asked for. Looking it up
+     * starts the JDK's process reaper thread pool, which a conversion has no use for.
+     */
+    private static final class CurrentProcess {
+        private static final String ID = Long.toString(ProcessHandle.current().pid());
+    }
+
 }
\ No newline at end of file
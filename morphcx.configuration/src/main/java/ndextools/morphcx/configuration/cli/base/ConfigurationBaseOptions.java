@@ -2,6 +2,7 @@ package ndextools.morphcx.configuration.cli.base;
 
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation class for instantiating a base options type configuration object.
@@ -17,7 +18,20 @@ public class ConfigurationBaseOptions extends ConfigurationAbstraction {
             boolean flagUsesInputFile,
             boolean flagUsesOutputFile,
             Optional<String> inputFilename,
-            Optional<String> outputFilename)
+            Optional<String> outputFilename,
+            boolean flagIsBatchMode,
+            int workers,
+            boolean flagIsServerMode,
+            boolean flagIsClientMode,
+            int serverPort,
+            Optional<String> startupArchiveFilename,
+            Set<String> selectedAspects,
+            Set<String> selectedAttributeNames,
+            Optional<String> cacheDirectory,
+            long cacheSizeLimit,
+            boolean flagWritesSnapshot,
+            boolean flagWritesAttributes,
+            boolean flagWritesSharedStrings)
     {
         super(commandline,
                 appName,
@@ -27,7 +41,47 @@ public class ConfigurationBaseOptions extends ConfigurationAbstraction {
                 flagUsesInputFile,
                 flagUsesOutputFile,
                 inputFilename,
-                outputFilename);
+                outputFilename,
+                flagIsBatchMode,
+                workers,
+                flagIsServerMode,
+                flagIsClientMode,
+                serverPort,
+                startupArchiveFilename,
+                selectedAspects,
+                selectedAttributeNames,
+                cacheDirectory,
+                cacheSizeLimit,
+                flagWritesSnapshot,
+                flagWritesAttributes,
+                flagWritesSharedStrings);
+    }
+
+    @Override
+    public Configuration forFile(String inputFilename, String outputFilename) {
+        return new ConfigurationBaseOptions(
+                getCommandline(),
+                getAppName(),
+                processId,
+                isDebugMode(),
+                isShowHelpPrompt(),
+                true,
+                true,
+                Optional.of(inputFilename),
+                Optional.of(outputFilename),
+                false,
+                getWorkers(),
+                isServerMode(),
+                isClientMode(),
+                getServerPort(),
+                startupArchiveFilename,
+                selectedAspects,
+                selectedAttributeNames,
+                cacheDirectory,
+                cacheSizeLimit,
+                flagWritesSnapshot,
+                flagWritesAttributes,
+                flagWritesSharedStrings);
     }
 
     /**
@@ -46,6 +100,19 @@ public class ConfigurationBaseOptions extends ConfigurationAbstraction {
                 ", flagUsesOutputFile=" + usesOutputFile() +
                 ", inputFilename=" + getInputFilename() +
                 ", outputFilename=" + getOutputFilename() +
+                ", flagIsBatchMode=" + isBatchMode() +
+                ", workers=" + getWorkers() +
+                ", flagIsServerMode=" + isServerMode() +
+                ", flagIsClientMode=" + isClientMode() +
+                ", serverPort=" + getServerPort() +
+                ", startupArchiveFilename=" + getStartupArchiveFilename() +
+                ", selectedAspects=" + getSelectedAspects() +
+                ", selectedAttributeNames=" + getSelectedAttributeNames() +
+                ", cacheDirectory=" + getCacheDirectory() +
+                ", cacheSizeLimit=" + getCacheSizeLimit() +
+                ", flagWritesSnapshot=" + writesSnapshot() +
+                ", flagWritesAttributes=" + writesAttributes() +
+                ", flagWritesSharedStrings=" + writesSharedStrings() +
                 '}';
     }
 
@@ -1,8 +1,13 @@
 package ndextools.morphcx.configuration.cli.base;
 
+import ndextools.morphcx.configuration.cli.batch.BatchInputs;
 import org.apache.commons.cli.*;
 
-import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * CLITemplate is an abstract class used for processing command-line options input
@@ -66,14 +71,120 @@ public abstract class TemplateAbstraction implements Template {
                 Option.builder(CLIBaseOptionConstants.OPT_INPUT)
                         .longOpt(CLIBaseOptionConstants.LONG_OPT_INPUT)
                         .hasArg()
-                        .desc("Full input path and file specification. Default: input comes from STDIN rather than a file.")
+                        .desc("Full input path and file specification, or a directory or glob pattern (e.g. 'networks/*.cx') "
+                                + "to convert many files. Default: input comes from STDIN rather than a file.")
                         .build()
         );
         options.addOption(
                 Option.builder(CLIBaseOptionConstants.OPT_OUTPUT)
                         .longOpt(CLIBaseOptionConstants.LONG_OPT_OUTPUT)
                         .hasArg()
-                        .desc("Full output path and file specification. Default: output sent to STDOUT rather than a file.")
+                        .desc("Full output path and file specification, or the output directory when converting many files. "
+                                + "Default: output sent to STDOUT rather than a file, or written next to each input file.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder(CLIBaseOptionConstants.OPT_WORKERS)
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_WORKERS)
+                        .hasArg()
+                        .desc("Maximum number of files converted concurrently when the input is a directory or glob pattern, "
+                                + "or of requests converted concurrently by a server. Default: number of available processors.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_SERVE)
+                        .hasArg()
+                        .argName("port")
+                        .desc("Runs as a long-lived conversion server on localhost:<port> instead of converting once. "
+                                + "The input and output options are given per request, with --connect.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_CONNECT)
+                        .hasArg()
+                        .argName("port")
+                        .desc("Sends the conversion to the server listening on localhost:<port> rather than running it "
+                                + "in this process. All other options keep their meaning.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_DUMP_STARTUP_ARCHIVE)
+                        .hasArg()
+                        .argName("file")
+                        .desc("Writes a class-data-sharing archive of the classes a conversion loads, by running a training "
+                                + "conversion (of the input file if given, else of a small built-in network) with the other "
+                                + "options. Launch with -XX:SharedArchiveFile=<file> to start faster. Requires Java 13 or later.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_ASPECTS)
+                        .hasArg()
+                        .argName("names")
+                        .desc("Comma-separated CX aspects to read, of nodes, edges, nodeAttributes, edgeAttributes and "
+                                + "networkAttributes; the others are skipped unparsed. Default: all of them.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_ATTRIBUTE_NAMES)
+                        .hasArg()
+                        .argName("names")
+                        .desc("Comma-separated names of the node, edge and network attributes to read; other attributes "
+                                + "are skipped. Default: all attributes.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_CACHE)
+                        .hasArg()
+                        .argName("dir")
+                        .desc("Directory of a conversion cache. A file converted before with the same options is copied "
+                                + "from the cache instead of being converted again. Default: no cache.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_CACHE_SIZE)
+                        .hasArg()
+                        .argName("MB")
+                        .desc("Size the conversion cache is trimmed to, least recently used conversions first. Default: "
+                                + CLIBaseOptionConstants.DEFAULT_CACHE_SIZE_MB + ".")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_NO_CACHE)
+                        .desc("Converts without the conversion cache, even if --" + CLIBaseOptionConstants.LONG_OPT_CACHE
+                                + " is given.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_SNAPSHOT)
+                        .desc("Writes the parsed input network as a binary snapshot instead of converting it. Every "
+                                + "converter accepts a snapshot as input, and reads it much faster than CX.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder(CLIBaseOptionConstants.OPT_ATTRIBUTES)
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_ATTRIBUTES)
+                        .desc("Adds a column per attribute: to the edge table, and in XLSX to the node table too. CSV and "
+                                + "TSV rows are spooled to a temporary file until every attribute name is known; an XLSX "
+                                + "workbook is built from the whole network held in memory, which grows with the number of "
+                                + "edges. Default: the fixed columns only, streamed in bounded memory.")
+                        .build()
+        );
+        options.addOption(
+                Option.builder()
+                        .longOpt(CLIBaseOptionConstants.LONG_OPT_SHARED_STRINGS)
+                        .desc("Writes the strings of an XLSX workbook once each, to its shared-strings table, rather than "
+                                + "inline in every cell. The workbook is smaller when values repeat, but the table is held "
+                                + "in memory until the end, growing with every distinct string, and the worksheets are "
+                                + "written one at a time. Default: inline strings.")
                         .build()
         );
 
@@ -108,17 +219,25 @@ public abstract class TemplateAbstraction implements Template {
      * @param parsedCommandline Commandline intermediary object created by Apache Commons CLI
      * @param builder Builder subclass used for setting Configuration properties
      * @return Updated Builder object used to create a Configuration object
+     * @throws ParseException if an option value is invalid
      */
-    protected final Builder resolveBaseOptions(final CommandLine parsedCommandline, final Builder builder) {
+    protected final Builder resolveBaseOptions(final CommandLine parsedCommandline, final Builder builder)
+            throws ParseException {
         processCommandline(builder);
         processAppName(builder);
-        processPID(builder);
         processShowHelpFlag(builder, parsedCommandline);
         processDebugModeFlag(builder, parsedCommandline);
         processInputFilename(builder, parsedCommandline);
         processOutputFilename(builder, parsedCommandline);
-
-        // TODO resolve other shared options
+        processBatchMode(builder, parsedCommandline);
+        processWorkers(builder, parsedCommandline);
+        processServerMode(builder, parsedCommandline);
+        processStartupArchive(builder, parsedCommandline);
+        processProjection(builder, parsedCommandline);
+        processCache(builder, parsedCommandline);
+        processSnapshot(builder, parsedCommandline);
+        builder.setWritesAttributes(parsedCommandline.hasOption(CLIBaseOptionConstants.OPT_ATTRIBUTES));
+        builder.setWritesSharedStrings(parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_SHARED_STRINGS));
 
         return builder;
     }
@@ -148,11 +267,6 @@ public abstract class TemplateAbstraction implements Template {
         builder.setAppName(appName);
     }
 
-    private void processPID(final Builder builder) {
-        String pid = Long.toString(ManagementFactory.getRuntimeMXBean().getPid());
-        builder.setProcessId(pid);
-    }
-
     private void processCommandline(final Builder builder) {
         builder.setCommandline(commandline);
     }
@@ -175,6 +289,131 @@ public abstract class TemplateAbstraction implements Template {
         }
     }
 
+    private void processBatchMode(final Builder builder, final CommandLine parsedCommandline) {
+        builder.setIsBatchMode(BatchInputs.isBatchSpec(parsedCommandline.getOptionValue(CLIBaseOptionConstants.OPT_INPUT)));
+    }
+
+    private void processWorkers(final Builder builder, final CommandLine parsedCommandline) throws ParseException {
+        int workers = Runtime.getRuntime().availableProcessors();
+        if (parsedCommandline.hasOption(CLIBaseOptionConstants.OPT_WORKERS)) {
+            String value = parsedCommandline.getOptionValue(CLIBaseOptionConstants.OPT_WORKERS);
+            try {
+                workers = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                workers = 0;
+            }
+            if (workers < 1) {
+                throw new ParseException(appName + ": invalid number of workers: " + value);
+            }
+        }
+        builder.setWorkers(workers);
+    }
+
+    private void processServerMode(final Builder builder, final CommandLine parsedCommandline) throws ParseException {
+        boolean serve = parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_SERVE);
+        boolean connect = parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_CONNECT);
+        if (serve && connect) {
+            throw new ParseException(appName + ": --" + CLIBaseOptionConstants.LONG_OPT_SERVE + " and --"
+                    + CLIBaseOptionConstants.LONG_OPT_CONNECT + " cannot be combined");
+        }
+        if (serve && (parsedCommandline.hasOption(CLIBaseOptionConstants.OPT_INPUT)
+                || parsedCommandline.hasOption(CLIBaseOptionConstants.OPT_OUTPUT))) {
+            throw new ParseException(appName + ": a server takes its input and output from each request");
+        }
+
+        builder.setIsServerMode(serve);
+        builder.setIsClientMode(connect);
+        builder.setServerPort(0);
+        if (serve || connect) {
+            String value = parsedCommandline.getOptionValue(
+                    serve ? CLIBaseOptionConstants.LONG_OPT_SERVE : CLIBaseOptionConstants.LONG_OPT_CONNECT);
+            int port;
+            try {
+                port = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                port = 0;
+            }
+            if (port < 1 || port > 65535) {
+                throw new ParseException(appName + ": invalid port: " + value);
+            }
+            builder.setServerPort(port);
+        }
+    }
+
+    private void processStartupArchive(final Builder builder, final CommandLine parsedCommandline)
+            throws ParseException {
+        if (!parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_DUMP_STARTUP_ARCHIVE)) {
+            builder.setStartupArchiveFilename(java.util.Optional.empty());
+            return;
+        }
+        if (parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_SERVE)
+                || parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_CONNECT)) {
+            throw new ParseException(appName + ": --" + CLIBaseOptionConstants.LONG_OPT_DUMP_STARTUP_ARCHIVE
+                    + " cannot be combined with server options");
+        }
+        if (Runtime.version().feature() < 13) {
+            throw new ParseException(appName + ": --" + CLIBaseOptionConstants.LONG_OPT_DUMP_STARTUP_ARCHIVE
+                    + " requires Java 13 or later");
+        }
+        builder.setStartupArchiveFilename(java.util.Optional.ofNullable(
+                parsedCommandline.getOptionValue(CLIBaseOptionConstants.LONG_OPT_DUMP_STARTUP_ARCHIVE)));
+    }
+
+    private void processProjection(final Builder builder, final CommandLine parsedCommandline) throws ParseException {
+        Set<String> aspects = new LinkedHashSet<>();
+        for (String name : listOf(parsedCommandline.getOptionValue(CLIBaseOptionConstants.LONG_OPT_ASPECTS))) {
+            String aspect = CLIBaseOptionConstants.ASPECTS.stream()
+                    .filter(known -> known.equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElseThrow(() -> new ParseException(appName + ": unknown aspect: " + name));
+            aspects.add(aspect);
+        }
+        builder.setSelectedAspects(Collections.unmodifiableSet(aspects));
+        builder.setSelectedAttributeNames(Collections.unmodifiableSet(new LinkedHashSet<>(
+                listOf(parsedCommandline.getOptionValue(CLIBaseOptionConstants.LONG_OPT_ATTRIBUTE_NAMES)))));
+    }
+
+    private void processCache(final Builder builder, final CommandLine parsedCommandline) throws ParseException {
+        long sizeMB = CLIBaseOptionConstants.DEFAULT_CACHE_SIZE_MB;
+        if (parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_CACHE_SIZE)) {
+            String value = parsedCommandline.getOptionValue(CLIBaseOptionConstants.LONG_OPT_CACHE_SIZE);
+            try {
+                sizeMB = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                sizeMB = -1;
+            }
+            if (sizeMB < 0 || sizeMB > Long.MAX_VALUE >> 20) {
+                throw new ParseException(appName + ": invalid cache size: " + value);
+            }
+        }
+        builder.setCacheSizeLimit(sizeMB << 20);
+        builder.setCacheDirectory(parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_NO_CACHE)
+                ? java.util.Optional.empty()
+                : java.util.Optional.ofNullable(parsedCommandline.getOptionValue(CLIBaseOptionConstants.LONG_OPT_CACHE)));
+    }
+
+    private void processSnapshot(final Builder builder, final CommandLine parsedCommandline) throws ParseException {
+        boolean snapshot = parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_SNAPSHOT);
+        if (snapshot && (parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_SERVE)
+                || parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_CONNECT))) {
+            throw new ParseException(appName + ": --" + CLIBaseOptionConstants.LONG_OPT_SNAPSHOT
+                    + " cannot be combined with server options");
+        }
+        builder.setWritesSnapshot(snapshot);
+    }
+
+    private static List<String> listOf(final String value) {
+        List<String> names = new ArrayList<>();
+        if (value != null) {
+            for (String name : value.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return names;
+    }
+
     /**
      * Constants shared when processing all command-line options
      */
@@ -192,6 +431,33 @@ public abstract class TemplateAbstraction implements Template {
         public static final String OPT_OUTPUT = "o";
         public static final String LONG_OPT_OUTPUT = "output";
 
+        public static final String OPT_WORKERS = "w";
+        public static final String LONG_OPT_WORKERS = "workers";
+
+        public static final String LONG_OPT_SERVE = "serve";
+        public static final String LONG_OPT_CONNECT = "connect";
+
+        public static final String LONG_OPT_DUMP_STARTUP_ARCHIVE = "dump-startup-archive";
+
+        public static final String LONG_OPT_ASPECTS = "aspects";
+        public static final String LONG_OPT_ATTRIBUTE_NAMES = "attribute-names";
+
+        public static final String LONG_OPT_CACHE = "cache";
+        public static final String LONG_OPT_CACHE_SIZE = "cache-size";
+        public static final String LONG_OPT_NO_CACHE = "no-cache";
+        public static final long DEFAULT_CACHE_SIZE_MB = 1024;
+
+        public static final String LONG_OPT_SNAPSHOT = "snapshot";
+
+        public static final String OPT_ATTRIBUTES = "a";
+        public static final String LONG_OPT_ATTRIBUTES = "attributes";
+
+        public static final String LONG_OPT_SHARED_STRINGS = "shared-strings";
+
+        /** The CX aspects that can be selected with --aspects; the only ones the converters read. */
+        public static final List<String> ASPECTS =
+                List.of("nodes", "edges", "nodeAttributes", "edgeAttributes", "networkAttributes");
+
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package ndextools.morphcx.configuration.cli.batch;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BatchInputs expands the value of the input option into the list of files to convert
+ * when it names a directory or a glob pattern rather than a single file.
+ * <p>
+ * A directory stands for the "*.cx" files directly inside it. A glob uses the syntax of
+ * java.nio.file.FileSystem.getPathMatcher(), e.g. "networks/*.cx" or "networks/**.cx". An
+ * existing file or directory is taken by its name even if the name holds glob characters,
+ * e.g. "net[v2].cx".
+ */
+public final class BatchInputs {
+    public static final String DIRECTORY_GLOB = "*.cx";
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private BatchInputs() {
+    }
+
+    /**
+     * @param inputSpec value of the input option
+     * @return true if the value names a directory, or contains glob characters and names no
+     *         existing file
+     */
+    public static boolean isBatchSpec(final String inputSpec) {
+        if (inputSpec == null || inputSpec.isEmpty() || Files.isRegularFile(Paths.get(inputSpec))) {
+            return false;
+        }
+        return hasGlob(inputSpec) || Files.isDirectory(Paths.get(inputSpec));
+    }
+
+    /**
+     * @param inputSpec a directory or glob pattern
+     * @return matching regular files, sorted by path; empty if the directory does not exist
+     * @throws IOException if a directory cannot be listed
+     */
+    public static List<Path> expand(final String inputSpec) throws IOException {
+        if (!hasGlob(inputSpec) || Files.isDirectory(Paths.get(inputSpec))) {
+            return match(Paths.get(inputSpec), DIRECTORY_GLOB, 1);
+        }
+
+        int firstGlob = indexOfGlob(inputSpec);
+        int separator = Math.max(inputSpec.lastIndexOf('/', firstGlob), inputSpec.lastIndexOf('\\', firstGlob));
+        Path base = (separator < 0) ? Paths.get(".") : Paths.get(inputSpec.substring(0, separator + 1));
+        String pattern = inputSpec.substring(separator + 1);
+        int depth = pattern.contains("**") ? Integer.MAX_VALUE : Paths.get(pattern.replaceAll("[*?\\[\\]{}]", "x")).getNameCount();
+
+        return match(base, pattern, depth);
+    }
+
+    private static List<Path> match(final Path base, final String pattern, final int depth) throws IOException {
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        try (Stream<Path> paths = Files.walk(base, depth)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(base.relativize(path)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean hasGlob(final String inputSpec) {
+        return indexOfGlob(inputSpec) >= 0;
+    }
+
+    private static int indexOfGlob(final String inputSpec) {
+        for (int i = 0; i < inputSpec.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(inputSpec.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,127 @@
+package ndextools.morphcx.configuration.cli.batch;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BatchReport records the outcome of every file in a batch conversion. A batch whose input
+ * matches no file has failed, so that a mistyped pattern or an empty directory is noticed.
+ */
+public final class BatchReport {
+    private final String inputSpec;
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param inputSpec directory or glob pattern the input files were expanded from
+     */
+    BatchReport(final String inputSpec) {
+        this.inputSpec = inputSpec;
+    }
+
+    synchronized void add(final Entry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * Getter method
+     * @return one entry per input file, in input order.
+     */
+    public synchronized List<Entry> getEntries() {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> Integer.compare(a.order, b.order));
+        return Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * @return number of files that could not be converted.
+     */
+    public synchronized int getFailureCount() {
+        int failures = 0;
+        for (Entry entry : entries) {
+            if (!entry.isSuccess()) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * @return true if the input matched at least one file and every file was converted.
+     */
+    public synchronized boolean isSuccess() {
+        return !entries.isEmpty() && getFailureCount() == 0;
+    }
+
+    /**
+     * Prints one line per file followed by a summary.
+     *
+     * @param out destination, usually StdErr
+     */
+    public void print(final PrintStream out) {
+        List<Entry> sorted = getEntries();
+        if (sorted.isEmpty()) {
+            out.println("no input matches " + inputSpec);
+            return;
+        }
+        for (Entry entry : sorted) {
+            out.println(entry);
+        }
+        int failures = getFailureCount();
+        out.println((sorted.size() - failures) + " converted, " + failures + " failed");
+    }
+
+    /**
+     * Outcome of converting a single file.
+     */
+    public static final class Entry {
+        private final int order;
+        private final Path input;
+        private final Path output;
+        private final long elapsedMillis;
+        private final String error;
+
+        Entry(int order, Path input, Path output, long elapsedMillis, String error) {
+            this.order = order;
+            this.input = input;
+            this.output = output;
+            this.elapsedMillis = elapsedMillis;
+            this.error = error;
+        }
+
+        public Path getInput() {
+            return input;
+        }
+
+        public Path getOutput() {
+            return output;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * Getter method
+         * @return reason the conversion failed, or null if it succeeded.
+         */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return isSuccess()
+                    ? "OK      " + input + " -> " + output + " (" + elapsedMillis + " ms)"
+                    : "FAILED  " + input + ": " + error;
+        }
+    }
+
+}
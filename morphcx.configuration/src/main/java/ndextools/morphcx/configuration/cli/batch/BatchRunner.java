@@ -0,0 +1,139 @@
+package ndextools.morphcx.configuration.cli.batch;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BatchRunner converts every file named by a batch-mode Configuration in one JVM, using a
+ * bounded pool of worker threads. Each input produces one output file, or one per extension
+ * given for conversions writing several: in the directory named by the output option when
+ * given, otherwise next to the input. A failing file is recorded in the BatchReport, its
+ * partial outputs are deleted, and the others carry on; so is
+ * a file whose conversion throws an Error, e.g. an OutOfMemoryError.
+ */
+public class BatchRunner {
+    private final Configuration cfg;
+    private final String outputExtension;
+    private final List<String> writtenExtensions;
+
+    /**
+     * A single-file conversion, e.g. a processor's process() method.
+     */
+    @FunctionalInterface
+    public interface Conversion {
+        void convert(Configuration fileCfg) throws Exception;
+    }
+
+    /**
+     * Constructor
+     * @param cfg batch-mode configuration
+     * @param outputExtension extension given to output files, e.g. ".csv"
+     */
+    public BatchRunner(final Configuration cfg, final String outputExtension) {
+        this(cfg, outputExtension, List.of(""));
+    }
+
+    /**
+     * Constructor for conversions writing several files per input, e.g. one per format of a
+     * fan-out, each named by the output with an extension of its own appended.
+     *
+     * @param cfg batch-mode configuration
+     * @param outputExtension extension given to output names, e.g. "" when every file appends its own
+     * @param writtenExtensions extensions appended to the output name by the conversion; the files
+     *                          so named are deleted when the conversion fails
+     */
+    public BatchRunner(final Configuration cfg, final String outputExtension, final List<String> writtenExtensions) {
+        this.cfg = cfg;
+        this.outputExtension = outputExtension;
+        this.writtenExtensions = List.copyOf(writtenExtensions);
+    }
+
+    /**
+     * Converts all input files and waits for them to finish.
+     *
+     * @param conversion the conversion applied to each file's configuration
+     * @return outcome of every file; a failure if the input matches no file
+     * @throws IOException if the input cannot be expanded or the output directory created
+     */
+    public BatchReport run(final Conversion conversion) throws IOException {
+        String inputSpec = cfg.getInputFilename().orElse("");
+        List<Path> inputs = BatchInputs.expand(inputSpec);
+        BatchReport report = new BatchReport(inputSpec);
+        if (inputs.isEmpty()) {
+            return report;
+        }
+
+        Path outputDirectory = null;
+        if (cfg.usesOutputFile()) {
+            outputDirectory = Files.createDirectories(Paths.get(cfg.getOutputFilename().orElse("")));
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        Set<Path> outputs = new HashSet<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            int order = i;
+            Path input = inputs.get(i);
+            Path output = outputFor(input, outputDirectory);
+            if (!outputs.add(output)) {
+                report.add(new BatchReport.Entry(order, input, output, 0L, "output " + output + " is produced by another input"));
+                continue;
+            }
+            tasks.add(() -> {
+                report.add(convert(order, input, output, conversion));
+                return null;
+            });
+        }
+
+        int workers = Math.max(1, Math.min(cfg.getWorkers(), tasks.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("batch conversion interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return report;
+    }
+
+    private BatchReport.Entry convert(int order, Path input, Path output, Conversion conversion) {
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            conversion.convert(cfg.forFile(input.toString(), output.toString()));
+        } catch (Throwable e) {
+            // an Error is recorded as well: invokeAll() would otherwise drop it with the task's Future
+            error = (e instanceof Exception && e.getMessage() != null) ? e.getMessage() : e.toString();
+            for (String extension : writtenExtensions) {
+                try {
+                    Files.deleteIfExists(output.resolveSibling(output.getFileName() + extension));
+                } catch (IOException ignored) {
+                    // the report already names the file as failed
+                }
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+        return new BatchReport.Entry(order, input, output, elapsedMillis, error);
+    }
+
+    private Path outputFor(final Path input, final Path outputDirectory) {
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String outputName = ((dot > 0) ? name.substring(0, dot) : name) + outputExtension;
+        return (outputDirectory != null) ? outputDirectory.resolve(outputName) : input.resolveSibling(outputName);
+    }
+
+}
@@ -0,0 +1,217 @@
+package ndextools.morphcx.configuration.cli.cache;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * ConversionCache keeps the outputs of conversions in a directory, keyed by a SHA-256 hash of
+ * the input file's bytes together with every option that affects the output, as described by
+ * Configuration.getOutputSettings(). A conversion found in the cache is not run again: the
+ * cached output is copied to the destination with FileChannel.transferTo(), which the
+ * operating system performs without passing the bytes through the JVM. A conversion not found
+ * is run into a temporary file in the cache, moved into place, and copied the same way.
+ * <p>
+ * The cache is trimmed to its size limit after every conversion, least recently used entries
+ * first; reading an entry counts as using it. Several processes can share a cache directory.
+ * <p>
+ * Only conversions of an input file to a single output, a file or STDOUT, can be cached.
+ */
+public class ConversionCache {
+    private static final String ENTRY_SUFFIX = ".cache";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int HASH_BUFFER_SIZE = 1 << 20;
+
+    private final Configuration cfg;
+    private final Path directory;
+
+    /**
+     * A single conversion, e.g. a processor's process() method.
+     */
+    @FunctionalInterface
+    public interface Conversion {
+        void convert(Configuration entryCfg) throws IOException;
+    }
+
+    /**
+     * Constructor
+     * @param cfg configuration of a conversion the cache applies to
+     */
+    public ConversionCache(final Configuration cfg) {
+        if (!appliesTo(cfg)) {
+            throw new IllegalArgumentException("conversion cannot be cached: " + cfg.getInputFilename());
+        }
+        this.cfg = cfg;
+        this.directory = Paths.get(cfg.getCacheDirectory().get());
+    }
+
+    /**
+     * @param cfg configuration of a conversion
+     * @return true when the conversion is of one input file and a cache directory is configured
+     */
+    public static boolean appliesTo(final Configuration cfg) {
+        return cfg.getCacheDirectory().isPresent() && cfg.usesInputFile()
+                && !cfg.isBatchMode() && !cfg.isServerMode() && !cfg.isClientMode();
+    }
+
+    /**
+     * Writes the output of the conversion to its destination, from the cache if it is there,
+     * otherwise by running the conversion and caching its output.
+     *
+     * @param conversion the conversion, run with a configuration writing to a file in the cache
+     * @return true if the output came from the cache
+     * @throws IOException if the input, the cache or the destination cannot be read or written,
+     *         or the conversion fails
+     */
+    public boolean convert(final Conversion conversion) throws IOException {
+        Files.createDirectories(directory);
+        String key = keyOf(Paths.get(cfg.getInputFilename().get()), cfg.getOutputSettings());
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+
+        boolean hit = copyToDestination(entry);
+        if (!hit) {
+            Path temporary = Files.createTempFile(directory, key + ".", TEMPORARY_SUFFIX);
+            try {
+                conversion.convert(cfg.forFile(cfg.getInputFilename().get(), temporary.toString()));
+                Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            if (!copyToDestination(entry)) {
+                throw new IOException("conversion cache entry " + entry + " was removed while in use");
+            }
+        }
+        trim();
+        return hit;
+    }
+
+    /**
+     * Copies a cache entry to the destination of the conversion and marks it as used.
+     *
+     * @return false if there is no such entry
+     */
+    private boolean copyToDestination(final Path entry) throws IOException {
+        FileChannel source;
+        try {
+            source = FileChannel.open(entry, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try (source) {
+            touch(entry);
+            if (cfg.usesOutputFile()) {
+                try (FileChannel target = FileChannel.open(Paths.get(cfg.getOutputFilename().get()),
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    transfer(source, target);
+                }
+            } else {
+                // STDOUT stays open for the rest of the application
+                System.out.flush();
+                transfer(source, new FileOutputStream(FileDescriptor.out).getChannel());
+            }
+        }
+        return true;
+    }
+
+    private static void transfer(final FileChannel source, final WritableByteChannel target) throws IOException {
+        long size = source.size();
+        for (long position = 0; position < size; ) {
+            position += source.transferTo(position, size - position, target);
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache is within its size limit.
+     */
+    private void trim() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX)).forEach(entries::add);
+        }
+        List<Entry> used = new ArrayList<>();
+        long total = 0;
+        for (Path path : entries) {
+            try {
+                Entry entry = new Entry(path, Files.getLastModifiedTime(path), Files.size(path));
+                used.add(entry);
+                total += entry.size;
+            } catch (NoSuchFileException e) {
+                // removed by another process sharing the cache
+            }
+        }
+        used.sort(Comparator.comparing(entry -> entry.lastUsed));
+        for (int i = 0; i < used.size() && total > cfg.getCacheSizeLimit(); i++) {
+            Files.deleteIfExists(used.get(i).path);
+            total -= used.get(i).size;
+        }
+    }
+
+    private static final class Entry {
+        private final Path path;
+        private final FileTime lastUsed;
+        private final long size;
+
+        private Entry(final Path path, final FileTime lastUsed, final long size) {
+            this.path = path;
+            this.lastUsed = lastUsed;
+            this.size = size;
+        }
+    }
+
+    private static void touch(final Path entry) throws IOException {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+        } catch (NoSuchFileException e) {
+            // removed by another process sharing the cache; the open channel still reads it
+        }
+    }
+
+    /**
+     * @return hexadecimal SHA-256 hash of the input file's bytes and the output settings
+     */
+    static String keyOf(final Path input, final String outputSettings) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        digest.update((byte) 0);
+        digest.update(outputSettings.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+}
@@ -5,6 +5,8 @@ import ndextools.morphcx.configuration.cli.base.ConfigurationAbstraction;
 import ndextools.morphcx.configuration.cli.base.Builder;
 
 import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation class for CSVBuilder objects.
@@ -12,6 +14,12 @@ import java.util.Arrays;
 public final class CSVBuilder extends BuilderAbstraction implements Builder {
     private String fileType;
     private String newline;
+    private boolean flagIsSingleThreaded;
+    private String layout;
+    private int parts;
+    private Optional<String> filter;
+    private Optional<String> previousInputFilename;
+    private Set<String> outputFormats;
 
     @Override
     public ConfigurationAbstraction getInstance() {
@@ -25,8 +33,27 @@ public final class CSVBuilder extends BuilderAbstraction implements Builder {
                 flagUsesOutputFile,
                 inputFilename,
                 outputFilename,
+                flagIsBatchMode,
+                workers,
+                flagIsServerMode,
+                flagIsClientMode,
+                serverPort,
+                startupArchiveFilename,
+                selectedAspects,
+                selectedAttributeNames,
+                cacheDirectory,
+                cacheSizeLimit,
+                flagWritesSnapshot,
+                flagWritesAttributes,
+                flagWritesSharedStrings,
                 fileType,
-                newline
+                newline,
+                flagIsSingleThreaded,
+                layout,
+                parts,
+                filter,
+                previousInputFilename,
+                outputFormats
         );
     }
 
@@ -42,8 +69,27 @@ public final class CSVBuilder extends BuilderAbstraction implements Builder {
                 ", flagUsesOutputFile=" + flagUsesOutputFile +
                 ", inputFilename=" + inputFilename +
                 ", outputFilename=" + outputFilename +
+                ", flagIsBatchMode=" + flagIsBatchMode +
+                ", workers=" + workers +
+                ", flagIsServerMode=" + flagIsServerMode +
+                ", flagIsClientMode=" + flagIsClientMode +
+                ", serverPort=" + serverPort +
+                ", startupArchiveFilename=" + startupArchiveFilename +
+                ", selectedAspects=" + selectedAspects +
+                ", selectedAttributeNames=" + selectedAttributeNames +
+                ", cacheDirectory=" + cacheDirectory +
+                ", cacheSizeLimit=" + cacheSizeLimit +
+                ", flagWritesSnapshot=" + flagWritesSnapshot +
+                ", flagWritesAttributes=" + flagWritesAttributes +
+                ", flagWritesSharedStrings=" + flagWritesSharedStrings +
                 ", fileType=" + fileType +
                 ", newline=" + newline +
+                ", flagIsSingleThreaded=" + flagIsSingleThreaded +
+                ", layout=" + layout +
+                ", parts=" + parts +
+                ", filter=" + filter +
+                ", previousInputFilename=" + previousInputFilename +
+                ", outputFormats=" + outputFormats +
                 '}';
     }
 
@@ -55,4 +101,28 @@ public final class CSVBuilder extends BuilderAbstraction implements Builder {
         this.newline = newline;
     }
 
+    public void setIsSingleThreaded(boolean singleThreaded) {
+        this.flagIsSingleThreaded = singleThreaded;
+    }
+
+    public void setLayout(String layout) {
+        this.layout = layout;
+    }
+
+    public void setParts(int parts) {
+        this.parts = parts;
+    }
+
+    public void setFilter(Optional<String> filter) {
+        this.filter = filter;
+    }
+
+    public void setPreviousInputFilename(Optional<String> previousInputFilename) {
+        this.previousInputFilename = previousInputFilename;
+    }
+
+    public void setOutputFormats(Set<String> outputFormats) {
+        this.outputFormats = outputFormats;
+    }
+
 }
\ No newline at end of file
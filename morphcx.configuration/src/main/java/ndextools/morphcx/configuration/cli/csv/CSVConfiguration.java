@@ -4,7 +4,9 @@ import ndextools.morphcx.configuration.cli.base.Configuration;
 import ndextools.morphcx.configuration.cli.base.ConfigurationAbstraction;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation class for CSVConfiguration objects.
@@ -12,6 +14,12 @@ import java.util.Optional;
 public final class CSVConfiguration extends ConfigurationAbstraction implements Configuration {
     private final String fileType;
     private final String newline;
+    private final boolean flagIsSingleThreaded;
+    private final String layout;
+    private final int parts;
+    private final Optional<String> filter;
+    private final Optional<String> previousInputFilename;
+    private final Set<String> outputFormats;
 
     public CSVConfiguration(
             String[] commandline,
@@ -23,8 +31,27 @@ public final class CSVConfiguration extends ConfigurationAbstraction implements
             boolean flagUsesOutputFile,
             Optional<String> inputFilename,
             Optional<String> outputFilename,
+            boolean flagIsBatchMode,
+            int workers,
+            boolean flagIsServerMode,
+            boolean flagIsClientMode,
+            int serverPort,
+            Optional<String> startupArchiveFilename,
+            Set<String> selectedAspects,
+            Set<String> selectedAttributeNames,
+            Optional<String> cacheDirectory,
+            long cacheSizeLimit,
+            boolean flagWritesSnapshot,
+            boolean flagWritesAttributes,
+            boolean flagWritesSharedStrings,
             String fileType,
-            String newline)
+            String newline,
+            boolean flagIsSingleThreaded,
+            String layout,
+            int parts,
+            Optional<String> filter,
+            Optional<String> previousInputFilename,
+            Set<String> outputFormats)
     {
         super(commandline,
                 appName,
@@ -34,10 +61,29 @@ public final class CSVConfiguration extends ConfigurationAbstraction implements
                 flagUsesInputFile,
                 flagUsesOutputFile,
                 inputFilename,
-                outputFilename);
+                outputFilename,
+                flagIsBatchMode,
+                workers,
+                flagIsServerMode,
+                flagIsClientMode,
+                serverPort,
+                startupArchiveFilename,
+                selectedAspects,
+                selectedAttributeNames,
+                cacheDirectory,
+                cacheSizeLimit,
+                flagWritesSnapshot,
+                flagWritesAttributes,
+                flagWritesSharedStrings);
 
         this.fileType = fileType;
         this.newline = newline;
+        this.flagIsSingleThreaded = flagIsSingleThreaded;
+        this.layout = layout;
+        this.parts = parts;
+        this.filter = filter;
+        this.previousInputFilename = previousInputFilename;
+        this.outputFormats = outputFormats;
     }
 
     /**
@@ -57,6 +103,168 @@ public final class CSVConfiguration extends ConfigurationAbstraction implements
         return newline;
     }
 
+    /**
+     * Getter method
+     * @return true when reading, transforming and writing run one after another on the calling thread,
+     *      rather than as a pipeline of three threads.
+     */
+    public boolean isSingleThreaded() {
+        return flagIsSingleThreaded;
+    }
+
+    /**
+     * Getter method
+     * @return JOINED for one edge table, or SHARDED for separate node, edge and attribute tables written
+     *      into the output directory.
+     */
+    public String getLayout() {
+        return layout;
+    }
+
+    /**
+     * Getter method
+     * @return true when the layout is SHARDED.
+     */
+    public boolean isSharded() {
+        return CSVTemplate.CSVOptionConstants.SHARDED.equals(layout);
+    }
+
+    /**
+     * Getter method
+     * @return number of part files each table of a SHARDED layout is split into.
+     */
+    public int getParts() {
+        return parts;
+    }
+
+    /**
+     * Getter method
+     * @return expression selecting the rows to be written, if any.
+     */
+    public Optional<String> getFilter() {
+        return Optional.ofNullable(filter).orElse(Optional.empty());
+    }
+
+    /**
+     * Getter method
+     * @return previous version of the input network, if only the rows changed since it are to be written.
+     */
+    public Optional<String> getPreviousInputFilename() {
+        return Optional.ofNullable(previousInputFilename).orElse(Optional.empty());
+    }
+
+    /**
+     * Getter method
+     * @return true when only the rows added, changed or removed since a previous version are written.
+     */
+    public boolean isDelta() {
+        return getPreviousInputFilename().isPresent();
+    }
+
+    /**
+     * Getter method
+     * @return formats written from one read of the input, TSV, CSV or XLSX, in order; empty for the one
+     *      output of the file type.
+     */
+    public Set<String> getOutputFormats() {
+        return (outputFormats != null) ? Collections.unmodifiableSet(outputFormats) : Collections.emptySet();
+    }
+
+    /**
+     * Getter method
+     * @return true when several formats are written from one read of the input.
+     */
+    public boolean isFanOut() {
+        return !getOutputFormats().isEmpty();
+    }
+
+    @Override
+    public String getOutputSettings() {
+        return super.getOutputSettings() +
+                ", fileType=" + fileType +
+                ", newline=" + (CSVTemplate.CSVOptionConstants.SYSTEM.equals(newline)
+                        ? "SYSTEM " + System.lineSeparator().replace("\r", "CR").replace("\n", "LF") : newline) +
+                ", layout=" + layout +
+                ", parts=" + parts +
+                ", filter=" + getFilter();
+    }
+
+    @Override
+    public Configuration forFile(String inputFilename, String outputFilename) {
+        return new CSVConfiguration(
+                getCommandline(),
+                getAppName(),
+                processId,
+                isDebugMode(),
+                isShowHelpPrompt(),
+                true,
+                true,
+                Optional.of(inputFilename),
+                Optional.of(outputFilename),
+                false,
+                getWorkers(),
+                isServerMode(),
+                isClientMode(),
+                getServerPort(),
+                startupArchiveFilename,
+                selectedAspects,
+                selectedAttributeNames,
+                cacheDirectory,
+                cacheSizeLimit,
+                flagWritesSnapshot,
+                flagWritesAttributes,
+                flagWritesSharedStrings,
+                fileType,
+                newline,
+                flagIsSingleThreaded,
+                layout,
+                parts,
+                filter,
+                previousInputFilename,
+                outputFormats);
+    }
+
+    /**
+     * Factory method
+     * @param fileType TAB or COMMA
+     * @param outputFilename output of the table
+     * @return a copy of this configuration writing one table of the file type to the output, e.g. one of the
+     *      outputs of a fan-out.
+     */
+    public CSVConfiguration forOutput(String fileType, String outputFilename) {
+        return new CSVConfiguration(
+                getCommandline(),
+                getAppName(),
+                processId,
+                isDebugMode(),
+                isShowHelpPrompt(),
+                usesInputFile(),
+                true,
+                getInputFilename(),
+                Optional.of(outputFilename),
+                false,
+                getWorkers(),
+                isServerMode(),
+                isClientMode(),
+                getServerPort(),
+                startupArchiveFilename,
+                selectedAspects,
+                selectedAttributeNames,
+                cacheDirectory,
+                cacheSizeLimit,
+                flagWritesSnapshot,
+                flagWritesAttributes,
+                flagWritesSharedStrings,
+                fileType,
+                newline,
+                flagIsSingleThreaded,
+                layout,
+                parts,
+                filter,
+                previousInputFilename,
+                Collections.emptySet());
+    }
+
     /**
      * Overrides Object.toString()
      * @return CSVConfiguration object properties as a formatted string.
@@ -73,8 +281,27 @@ public final class CSVConfiguration extends ConfigurationAbstraction implements
                 ", flagUsesOutputFile=" + usesOutputFile() +
                 ", inputFilename=" + getInputFilename() +
                 ", outputFilename=" + getOutputFilename() +
+                ", flagIsBatchMode=" + isBatchMode() +
+                ", workers=" + getWorkers() +
+                ", flagIsServerMode=" + isServerMode() +
+                ", flagIsClientMode=" + isClientMode() +
+                ", serverPort=" + getServerPort() +
+                ", startupArchiveFilename=" + getStartupArchiveFilename() +
+                ", selectedAspects=" + getSelectedAspects() +
+                ", selectedAttributeNames=" + getSelectedAttributeNames() +
+                ", cacheDirectory=" + getCacheDirectory() +
+                ", cacheSizeLimit=" + getCacheSizeLimit() +
+                ", flagWritesSnapshot=" + writesSnapshot() +
+                ", flagWritesAttributes=" + writesAttributes() +
+                ", flagWritesSharedStrings=" + writesSharedStrings() +
                 ", delimiter=" + getFileType() +
                 ", newline=" + getNewline() +
+                ", flagIsSingleThreaded=" + isSingleThreaded() +
+                ", layout=" + getLayout() +
+                ", parts=" + getParts() +
+                ", filter=" + getFilter() +
+                ", previousInputFilename=" + getPreviousInputFilename() +
+                ", outputFormats=" + getOutputFormats() +
                 '}';
     }
 
@@ -4,11 +4,17 @@ import ndextools.morphcx.configuration.cli.base.Builder;
 import ndextools.morphcx.configuration.cli.base.Configuration;
 import ndextools.morphcx.configuration.cli.base.Template;
 import ndextools.morphcx.configuration.cli.base.TemplateAbstraction;
+import ndextools.morphcx.configuration.cli.base.TemplateAbstraction.CLIBaseOptionConstants;
+import ndextools.morphcx.configuration.cli.batch.BatchInputs;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
 /**
  * Implementation class for creating CSV-type Configuration objects.
  */
@@ -62,12 +68,78 @@ public final class CSVTemplate extends TemplateAbstraction implements Template {
                         .build()
         );
 
+        options.addOption(
+                Option.builder()
+                        .longOpt(CSVOptionConstants.LONG_OPT_SINGLE_THREADED)
+                        .desc("Reads, transforms and writes one after another on a single thread, for debugging. "
+                                + "Default: as three pipelined threads when more than one processor is available.")
+                        .build()
+        );
+
+        options.addOption(
+                Option.builder()
+                        .longOpt(CSVOptionConstants.LONG_OPT_LAYOUT)
+                        .hasArg()
+                        .desc("Output layout. < JOINED | SHARDED > Default: JOINED, one edge table. SHARDED writes nodes, "
+                                + "edges, node_attributes and edge_attributes tables into the output directory, "
+                                + "each on a writer thread of its own.")
+                        .build()
+        );
+
+        options.addOption(
+                Option.builder()
+                        .longOpt(CSVOptionConstants.LONG_OPT_PARTS)
+                        .hasArg()
+                        .desc("Number of part files each SHARDED table is split into, each on a writer thread of "
+                                + "its own. Default: 1.")
+                        .build()
+        );
+
+        options.addOption(
+                Option.builder()
+                        .longOpt(CSVOptionConstants.LONG_OPT_FILTER)
+                        .hasArg()
+                        .argName("expression")
+                        .desc("Writes only the rows the expression accepts, e.g. \"interaction = 'controls-expression-of' "
+                                + "and score >= 0.5\". Comparisons = != < <= > >= and ~ (regular expression) between "
+                                + "column names, quoted strings and numbers, combined with not, and, or and parentheses.")
+                        .build()
+        );
+
+        options.addOption(
+                Option.builder()
+                        .longOpt(CSVOptionConstants.LONG_OPT_PREVIOUS)
+                        .hasArg()
+                        .argName("file")
+                        .desc("Previous version of the input network. Writes only the rows added, changed or removed "
+                                + "since, marked in a leading 'change' column. Requires the SHARDED layout, whose tables "
+                                + "have keys.")
+                        .build()
+        );
+
+        options.addOption(
+                Option.builder()
+                        .longOpt(CSVOptionConstants.LONG_OPT_FORMATS)
+                        .hasArg()
+                        .argName("formats")
+                        .desc("Comma-separated output formats written from one read of the input, each on a thread "
+                                + "of its own. < TSV | CSV | XLSX > The output names their base, e.g. -o out "
+                                + "--formats tsv,xlsx writes out.tsv and out.xlsx. XLSX requires exportall.")
+                        .build()
+        );
+
         return options;
     }
 
-    public CSVBuilder resolveExtendedOptions(CommandLine parsedCommandline, CSVBuilder bldr) {
+    public CSVBuilder resolveExtendedOptions(CommandLine parsedCommandline, CSVBuilder bldr) throws ParseException {
         bldr = processNewlineX(bldr, parsedCommandline);
         bldr = processSeparatorX(bldr, parsedCommandline);
+        bldr = processLayoutX(bldr, parsedCommandline);
+        bldr.setFilter(Optional.ofNullable(parsedCommandline.getOptionValue(CSVOptionConstants.LONG_OPT_FILTER)));
+        bldr = processPreviousX(bldr, parsedCommandline);
+        bldr = processFormatsX(bldr, parsedCommandline);
+        bldr.setIsSingleThreaded(parsedCommandline.hasOption(CSVOptionConstants.LONG_OPT_SINGLE_THREADED)
+                || Runtime.getRuntime().availableProcessors() < 2);
         return bldr;
     }
 
@@ -118,6 +190,94 @@ public final class CSVTemplate extends TemplateAbstraction implements Template {
         return builder;
     }
 
+    private CSVBuilder processLayoutX(CSVBuilder builder, CommandLine parsedCommandline) throws ParseException {
+        String layout = parsedCommandline.getOptionValue(CSVOptionConstants.LONG_OPT_LAYOUT, CSVOptionConstants.JOINED)
+                .toUpperCase();
+        if (!layout.equals(CSVOptionConstants.JOINED) && !layout.equals(CSVOptionConstants.SHARDED)) {
+            throw new ParseException(appName + ": invalid layout: " + layout);
+        }
+
+        int parts = 1;
+        if (parsedCommandline.hasOption(CSVOptionConstants.LONG_OPT_PARTS)) {
+            String value = parsedCommandline.getOptionValue(CSVOptionConstants.LONG_OPT_PARTS);
+            try {
+                parts = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                parts = 0;
+            }
+            if (parts < 1) {
+                throw new ParseException(appName + ": invalid number of parts: " + value);
+            }
+            if (!layout.equals(CSVOptionConstants.SHARDED)) {
+                throw new ParseException(appName + ": --" + CSVOptionConstants.LONG_OPT_PARTS + " requires --"
+                        + CSVOptionConstants.LONG_OPT_LAYOUT + " " + CSVOptionConstants.SHARDED);
+            }
+        }
+        if (layout.equals(CSVOptionConstants.SHARDED)
+                && !parsedCommandline.hasOption(CLIBaseOptionConstants.OPT_OUTPUT)) {
+            throw new ParseException(appName + ": the " + CSVOptionConstants.SHARDED
+                    + " layout requires an output directory");
+        }
+
+        builder.setLayout(layout);
+        builder.setParts(parts);
+        return builder;
+    }
+
+    private CSVBuilder processPreviousX(CSVBuilder builder, CommandLine parsedCommandline) throws ParseException {
+        if (!parsedCommandline.hasOption(CSVOptionConstants.LONG_OPT_PREVIOUS)) {
+            builder.setPreviousInputFilename(Optional.empty());
+            return builder;
+        }
+        if (!CSVOptionConstants.SHARDED.equalsIgnoreCase(parsedCommandline.getOptionValue(
+                CSVOptionConstants.LONG_OPT_LAYOUT, CSVOptionConstants.JOINED))) {
+            throw new ParseException(appName + ": --" + CSVOptionConstants.LONG_OPT_PREVIOUS + " requires --"
+                    + CSVOptionConstants.LONG_OPT_LAYOUT + " " + CSVOptionConstants.SHARDED);
+        }
+        if (!parsedCommandline.hasOption(CLIBaseOptionConstants.OPT_INPUT)
+                || BatchInputs.isBatchSpec(parsedCommandline.getOptionValue(CLIBaseOptionConstants.OPT_INPUT))) {
+            throw new ParseException(appName + ": --" + CSVOptionConstants.LONG_OPT_PREVIOUS
+                    + " requires a single input file");
+        }
+        builder.setPreviousInputFilename(Optional.of(parsedCommandline.getOptionValue(CSVOptionConstants.LONG_OPT_PREVIOUS)));
+        return builder;
+    }
+
+    private CSVBuilder processFormatsX(CSVBuilder builder, CommandLine parsedCommandline) throws ParseException {
+        Set<String> formats = new LinkedHashSet<>();
+        if (!parsedCommandline.hasOption(CSVOptionConstants.LONG_OPT_FORMATS)) {
+            builder.setOutputFormats(formats);
+            return builder;
+        }
+        for (String format : parsedCommandline.getOptionValue(CSVOptionConstants.LONG_OPT_FORMATS).split(",")) {
+            String name = format.trim().toUpperCase();
+            if (!name.equals(CSVOptionConstants.FORMAT_TSV) && !name.equals(CSVOptionConstants.FORMAT_CSV)
+                    && !name.equals(CSVOptionConstants.FORMAT_XLSX)) {
+                throw new ParseException(appName + ": invalid format: " + format.trim());
+            }
+            formats.add(name);
+        }
+        // the training run of a startup archive is given an output of its own
+        if (!parsedCommandline.hasOption(CLIBaseOptionConstants.OPT_OUTPUT)
+                && !parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_DUMP_STARTUP_ARCHIVE)) {
+            throw new ParseException(appName + ": --" + CSVOptionConstants.LONG_OPT_FORMATS
+                    + " requires the base name of the outputs");
+        }
+        if (CSVOptionConstants.SHARDED.equalsIgnoreCase(parsedCommandline.getOptionValue(
+                CSVOptionConstants.LONG_OPT_LAYOUT, CSVOptionConstants.JOINED))) {
+            throw new ParseException(appName + ": --" + CSVOptionConstants.LONG_OPT_FORMATS + " requires --"
+                    + CSVOptionConstants.LONG_OPT_LAYOUT + " " + CSVOptionConstants.JOINED);
+        }
+        if (parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_SNAPSHOT)
+                || parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_SERVE)
+                || parsedCommandline.hasOption(CLIBaseOptionConstants.LONG_OPT_CONNECT)) {
+            throw new ParseException(appName + ": --" + CSVOptionConstants.LONG_OPT_FORMATS
+                    + " cannot be combined with --" + CLIBaseOptionConstants.LONG_OPT_SNAPSHOT + " or server options");
+        }
+        builder.setOutputFormats(formats);
+        return builder;
+    }
+
     /**
      * Constants unique to processing CSV command-line options
      */
@@ -127,6 +287,12 @@ public final class CSVTemplate extends TemplateAbstraction implements Template {
         public static final String LONG_OPT_NEWLINE = "newline";
         public static final String OPT_FILETYPE = "t";
         public static final String LONG_OPT_FILETYPE = "filetype";
+        public static final String LONG_OPT_SINGLE_THREADED = "single-threaded";
+        public static final String LONG_OPT_LAYOUT = "layout";
+        public static final String LONG_OPT_PARTS = "parts";
+        public static final String LONG_OPT_FILTER = "filter";
+        public static final String LONG_OPT_PREVIOUS = "previous";
+        public static final String LONG_OPT_FORMATS = "formats";
 
         public static final String WINDOWS = "WINDOWS";
         public static final String LINUX = "LINUX";
@@ -135,6 +301,11 @@ public final class CSVTemplate extends TemplateAbstraction implements Template {
         public static final String SYSTEM = "SYSTEM";
         public static final String TAB = "TAB";
         public static final String COMMA = "COMMA";
+        public static final String JOINED = "JOINED";
+        public static final String SHARDED = "SHARDED";
+        public static final String FORMAT_TSV = "TSV";
+        public static final String FORMAT_CSV = "CSV";
+        public static final String FORMAT_XLSX = "XLSX";
 
 //        public static final char ESCAPE_T = '\t';
 //        public static final char ESCAPE_COMMA = ',';
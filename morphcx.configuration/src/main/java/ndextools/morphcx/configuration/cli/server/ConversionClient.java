@@ -0,0 +1,112 @@
+package ndextools.morphcx.configuration.cli.server;
+
+import ndextools.morphcx.configuration.cli.base.CommandlineArguments;
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.configuration.cli.base.TemplateAbstraction.CLIBaseOptionConstants;
+import ndextools.morphcx.configuration.cli.server.ConversionServer.ServerConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Set;
+
+/**
+ * ConversionClient sends one conversion to a ConversionServer on localhost and copies the
+ * converted output to a stream. The options of the conversion are those of the client's own
+ * command-line, less the options the server does not accept: input, output, workers and
+ * connect. The client's input is sent as the request body instead, and the response is
+ * written to the client's output, so a launcher run with --connect behaves as it would
+ * without it.
+ */
+public class ConversionClient {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final Set<String> LOCAL_OPTIONS = Set.of(
+            CLIBaseOptionConstants.OPT_INPUT, CLIBaseOptionConstants.LONG_OPT_INPUT,
+            CLIBaseOptionConstants.OPT_OUTPUT, CLIBaseOptionConstants.LONG_OPT_OUTPUT,
+            CLIBaseOptionConstants.OPT_WORKERS, CLIBaseOptionConstants.LONG_OPT_WORKERS,
+            CLIBaseOptionConstants.LONG_OPT_CONNECT);
+
+    private final Configuration cfg;
+    private final URL url;
+
+    /**
+     * Constructor
+     * @param cfg client-mode configuration, whose command-line supplies the conversion's options
+     * @throws IOException if the request URL cannot be formed
+     */
+    public ConversionClient(final Configuration cfg) throws IOException {
+        this.cfg = cfg;
+        StringBuilder query = new StringBuilder();
+        for (String arg : CommandlineArguments.without(cfg.getCommandline(), LOCAL_OPTIONS)) {
+            query.append((query.length() == 0) ? '?' : '&').append(ServerConstants.ARG_PARAMETER).append('=')
+                    .append(URLEncoder.encode(arg, StandardCharsets.UTF_8));
+        }
+        this.url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), cfg.getServerPort(),
+                ServerConstants.CONVERT_PATH + query);
+    }
+
+    /**
+     * Sends the input named by the configuration (a file, otherwise StdIn) to the server and
+     * writes the converted output to the configuration's output (a file, otherwise StdOut).
+     *
+     * @throws IOException if the input cannot be read, the output cannot be written or the
+     *                     conversion fails
+     */
+    public void convert() throws IOException {
+        try (InputStream input = cfg.usesInputFile()
+                ? Files.newInputStream(Paths.get(cfg.getInputFilename().orElse(""))) : System.in)
+        {
+            if (!cfg.usesOutputFile()) {
+                convert(input, System.out);
+                return;
+            }
+            try (OutputStream output = Files.newOutputStream(Paths.get(cfg.getOutputFilename().orElse("")))) {
+                convert(input, output);
+            }
+        }
+    }
+
+    /**
+     * Sends the input to the server and copies the converted output as it arrives.
+     *
+     * @param input CX network
+     * @param output destination of the converted output; left open
+     * @throws IOException if the server cannot be reached, rejects the conversion or fails
+     *                     while producing it
+     */
+    public void convert(final InputStream input, final OutputStream output) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setChunkedStreamingMode(CHUNK_SIZE);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream request = connection.getOutputStream()) {
+                input.transferTo(request);
+            }
+
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                String message;
+                try (InputStream error = connection.getErrorStream()) {
+                    message = (error != null) ? new String(error.readAllBytes(), StandardCharsets.UTF_8).trim() : "";
+                }
+                throw new IOException("server answered " + status + (message.isEmpty() ? "" : ": " + message));
+            }
+            try (InputStream response = connection.getInputStream()) {
+                response.transferTo(output);
+            }
+            output.flush();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+}
@@ -0,0 +1,259 @@
+package ndextools.morphcx.configuration.cli.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import org.apache.commons.cli.ParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * ConversionServer keeps one JVM running and converts CX networks sent to it over HTTP on
+ * the loopback interface, so that frequent conversions do not each pay for JVM startup,
+ * module resolution and a cold JIT.
+ * <p>
+ * A conversion is a POST to /convert with the CX network as the request body. The command-line
+ * options of the conversion, other than input and output, are passed as repeated "arg" query
+ * parameters and parsed by the same Template as on the command-line. The converted output is
+ * streamed back as the response body as it is produced. A request that cannot be parsed is
+ * answered with 400 and the message; a conversion that fails before producing output is
+ * answered with 500, and one that fails later has its connection dropped, so a client never
+ * mistakes a truncated response for a complete one. GET /health answers "ok".
+ * <p>
+ * Requests are converted concurrently by a fixed pool of threads, as many as the workers
+ * option of the server's configuration; further requests wait their turn.
+ */
+public class ConversionServer {
+    private final Configuration cfg;
+    private final Configurator configurator;
+    private final StreamConversion conversion;
+    private final Function<Configuration, String> contentType;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Parses the options of one request into a Configuration, e.g. with the launcher's Template.
+     */
+    @FunctionalInterface
+    public interface Configurator {
+        Configuration configure(String[] args) throws ParseException;
+    }
+
+    /**
+     * A conversion between streams, e.g. a processor's process(InputStream, OutputStream) method.
+     * It must leave both streams open.
+     */
+    @FunctionalInterface
+    public interface StreamConversion {
+        void convert(Configuration requestCfg, InputStream input, OutputStream output) throws Exception;
+    }
+
+    /**
+     * Constructor
+     * @param cfg server-mode configuration
+     * @param configurator parser of each request's options
+     * @param conversion the conversion applied to each request
+     * @param contentType media type of the output of a request's configuration
+     */
+    public ConversionServer(final Configuration cfg, final Configurator configurator,
+                            final StreamConversion conversion, final Function<Configuration, String> contentType) {
+        this.cfg = cfg;
+        this.configurator = configurator;
+        this.conversion = conversion;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Binds the server to localhost and starts accepting requests. The server keeps the JVM
+     * alive until stop() is called.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    public void start() throws IOException {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), cfg.getServerPort());
+        server = HttpServer.create(address, 0);
+        executor = Executors.newFixedThreadPool(Math.max(1, cfg.getWorkers()));
+        server.setExecutor(executor);
+        server.createContext(ServerConstants.CONVERT_PATH, this::convert);
+        server.createContext(ServerConstants.HEALTH_PATH, this::health);
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and gives running conversions a moment to finish.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            try {
+                executor.awaitTermination(ServerConstants.STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Getter method
+     * @return the address the server is bound to, or null before start().
+     */
+    public InetSocketAddress getAddress() {
+        return (server != null) ? server.getAddress() : null;
+    }
+
+    /**
+     * Prints the address the server listens on.
+     *
+     * @param out destination of the message, normally StdErr
+     */
+    public void printBanner(final PrintStream out) {
+        out.println(cfg.getAppName() + ": serving conversions on http://" + getAddress().getHostString() + ":"
+                + getAddress().getPort() + ServerConstants.CONVERT_PATH + " with " + Math.max(1, cfg.getWorkers())
+                + " workers");
+    }
+
+    private void health(final HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = "ok\n".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void convert(final HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "use POST");
+            return;
+        }
+
+        Configuration requestCfg;
+        try {
+            requestCfg = configurator.configure(argumentsOf(exchange.getRequestURI().getRawQuery()));
+            if (requestCfg.usesInputFile() || requestCfg.usesOutputFile() || requestCfg.isServerMode()
+                    || requestCfg.isClientMode() || requestCfg.isShowHelpPrompt()
+                    || requestCfg.getStartupArchiveFilename().isPresent()) {
+                throw new ParseException("input, output, help, server and startup archive options are not accepted "
+                        + "in a request");
+            }
+        } catch (ParseException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+
+        ResponseStream response = new ResponseStream(exchange, contentType.apply(requestCfg));
+        try (InputStream input = exchange.getRequestBody()) {
+            conversion.convert(requestCfg, input, response);
+            response.flush();
+        } catch (Exception e) {
+            if (response.committed) {
+                // the status has been sent; dropping the connection is the only way to signal the failure
+                throw (e instanceof IOException) ? (IOException) e : new IOException(e);
+            }
+            sendError(exchange, 500, (e.getMessage() != null) ? e.getMessage() : e.toString());
+            return;
+        }
+        exchange.close();
+    }
+
+    private static void sendError(final HttpExchange exchange, final int status, final String message)
+            throws IOException {
+        try {
+            byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String[] argumentsOf(final String rawQuery) {
+        List<String> args = new ArrayList<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0 && ServerConstants.ARG_PARAMETER.equals(parameter.substring(0, equals))) {
+                    args.add(URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * Response body that sends the status line and headers when the first byte is written,
+     * so that a conversion failing before any output can still be answered with an error.
+     */
+    private static final class ResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final String contentType;
+        private OutputStream body;
+        private boolean committed;
+
+        private ResponseStream(final HttpExchange exchange, final String contentType) {
+            this.exchange = exchange;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            commit().write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len > 0) {
+                commit().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            commit().flush();
+        }
+
+        @Override
+        public void close() {
+            // the exchange is closed by the server once the conversion returns
+        }
+
+        private OutputStream commit() throws IOException {
+            if (!committed) {
+                committed = true;
+                exchange.getResponseHeaders().set("Content-Type", contentType);
+                exchange.sendResponseHeaders(200, 0);
+                body = exchange.getResponseBody();
+            }
+            return body;
+        }
+    }
+
+    /**
+     * Constants shared by the conversion server and its client
+     */
+    public static class ServerConstants {
+
+        public static final String CONVERT_PATH = "/convert";
+        public static final String HEALTH_PATH = "/health";
+        public static final String ARG_PARAMETER = "arg";
+        public static final long STOP_TIMEOUT_SECONDS = 30;
+
+    }
+
+}
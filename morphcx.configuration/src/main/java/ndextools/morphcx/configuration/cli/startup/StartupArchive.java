@@ -0,0 +1,160 @@
+package ndextools.morphcx.configuration.cli.startup;
+
+import ndextools.morphcx.configuration.cli.base.CommandlineArguments;
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.configuration.cli.base.TemplateAbstraction.CLIBaseOptionConstants;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * StartupArchive generates a dynamic class-data-sharing (CDS) archive for a launcher. A JVM
+ * started with -XX:SharedArchiveFile=&lt;archive&gt; maps the archived classes instead of
+ * loading, verifying and linking them from the jars, which for a small network is most of the
+ * time a conversion takes.
+ * <p>
+ * The archive is written by a training run: a second JVM, started with
+ * -XX:ArchiveClassesAtExit=&lt;archive&gt; and the launcher's own module path (or class path),
+ * converts the launcher's input file, or a small built-in network when it has none, with the
+ * launcher's other options. The classes an actual conversion with those options needs are
+ * then the ones in the archive.
+ * <p>
+ * The archive is only used by a JVM of the same version launched with the same module path
+ * or class path. Classes of automatic modules, such as the Apache POI jars, are archived only
+ * when the launcher runs from the class path, and Apache Commons CLI, being compiled for Java 5,
+ * is never archived.
+ */
+public class StartupArchive {
+    private static final Set<String> LOCAL_OPTIONS = Set.of(
+            CLIBaseOptionConstants.OPT_INPUT, CLIBaseOptionConstants.LONG_OPT_INPUT,
+            CLIBaseOptionConstants.OPT_OUTPUT, CLIBaseOptionConstants.LONG_OPT_OUTPUT,
+            CLIBaseOptionConstants.OPT_WORKERS, CLIBaseOptionConstants.LONG_OPT_WORKERS,
+            CLIBaseOptionConstants.LONG_OPT_DUMP_STARTUP_ARCHIVE);
+
+    private static final String TRAINING_NETWORK = "["
+            + "{\"numberVerification\":[{\"longNumber\":281474976710655}]},"
+            + "{\"metaData\":[{\"name\":\"nodes\",\"version\":\"1.0\",\"elementCount\":3},"
+            + "{\"name\":\"edges\",\"version\":\"1.0\",\"elementCount\":3}]},"
+            + "{\"networkAttributes\":[{\"n\":\"name\",\"v\":\"training\"},"
+            + "{\"n\":\"version\",\"v\":\"1.0\"}]},"
+            + "{\"nodes\":[{\"@id\":0,\"n\":\"A\",\"r\":\"hgnc:0\"},{\"@id\":1,\"n\":\"B\"},{\"@id\":2}]},"
+            + "{\"edges\":[{\"@id\":3,\"s\":0,\"t\":1,\"i\":\"interacts-with\"},{\"@id\":4,\"s\":1,\"t\":2},"
+            + "{\"@id\":5,\"s\":2,\"t\":0,\"i\":\"controls-state-change-of\"}]},"
+            + "{\"nodeAttributes\":[{\"po\":0,\"n\":\"type\",\"v\":\"protein\"},"
+            + "{\"po\":1,\"n\":\"score\",\"v\":\"0.5\",\"d\":\"double\"},"
+            + "{\"po\":2,\"n\":\"aliases\",\"v\":[\"C\",\"c, \\\"quoted\\\"\"],\"d\":\"list_of_string\"}]},"
+            + "{\"edgeAttributes\":[{\"po\":3,\"n\":\"weight\",\"v\":\"2\",\"d\":\"integer\"},"
+            + "{\"po\":5,\"n\":\"directed\",\"v\":\"true\",\"d\":\"boolean\"}]},"
+            + "{\"cartesianLayout\":[{\"node\":0,\"x\":0.0,\"y\":0.0}]},"
+            + "{\"status\":[{\"error\":\"\",\"success\":true}]}"
+            + "]";
+
+    private final Configuration cfg;
+    private final Class<?> mainClass;
+
+    /**
+     * Constructor
+     * @param cfg configuration naming the archive; its other options are those of the training run
+     * @param mainClass class whose main method launched the application
+     */
+    public StartupArchive(final Configuration cfg, final Class<?> mainClass) {
+        this.cfg = cfg;
+        this.mainClass = mainClass;
+    }
+
+    /**
+     * Runs the training conversion and waits for it to write the archive. The training run
+     * reports its errors on StdErr.
+     *
+     * @throws IOException if the training run cannot be started, fails or writes no archive
+     */
+    public void dump() throws IOException {
+        Path archive = Paths.get(cfg.getStartupArchiveFilename().orElse("")).toAbsolutePath();
+        Path workDir = Files.createTempDirectory("morphcx-training-");
+        try {
+            Path input;
+            if (cfg.usesInputFile() && !cfg.isBatchMode()) {
+                input = Paths.get(cfg.getInputFilename().orElse(""));
+            } else {
+                input = workDir.resolve("training.cx");
+                Files.write(input, TRAINING_NETWORK.getBytes(StandardCharsets.UTF_8));
+            }
+            Files.deleteIfExists(archive);
+
+            Process training = new ProcessBuilder(command(archive, input, workDir.resolve("training.out")))
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            int status = training.waitFor();
+            if (status != 0) {
+                throw new IOException("training run exited with status " + status);
+            }
+            if (!Files.isRegularFile(archive)) {
+                throw new IOException("training run wrote no archive to " + archive);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for the training run", e);
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * Prints how to launch the application with the archive.
+     *
+     * @param out destination of the message, normally StdErr
+     */
+    public void printUsage(final PrintStream out) {
+        String archive = Paths.get(cfg.getStartupArchiveFilename().orElse("")).toAbsolutePath().toString();
+        out.println(cfg.getAppName() + ": startup archive written to " + archive);
+        out.println(cfg.getAppName() + ": launch with -XX:SharedArchiveFile=" + archive + " and the same "
+                + (mainClass.getModule().isNamed() ? "module path" : "class path") + " to use it");
+    }
+
+    private List<String> command(final Path archive, final Path input, final Path output) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-XX:ArchiveClassesAtExit=" + archive);
+        // classes that cannot be archived are reported as warnings, one line each
+        command.add("-Xlog:disable");
+        command.add("-Xlog:all=error:stderr");
+
+        Module module = mainClass.getModule();
+        if (module.isNamed()) {
+            command.add("-p");
+            command.add(System.getProperty("jdk.module.path"));
+            command.add("-m");
+            command.add(module.getName() + "/" + mainClass.getName());
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(mainClass.getName());
+        }
+
+        command.addAll(CommandlineArguments.without(cfg.getCommandline(), LOCAL_OPTIONS));
+        command.add("-" + CLIBaseOptionConstants.OPT_INPUT);
+        command.add(input.toString());
+        command.add("-" + CLIBaseOptionConstants.OPT_OUTPUT);
+        command.add(output.toString());
+        return command;
+    }
+
+    private static void deleteRecursively(final Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+}
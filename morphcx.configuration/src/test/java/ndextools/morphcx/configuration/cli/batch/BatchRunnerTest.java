@@ -0,0 +1,110 @@
+package ndextools.morphcx.configuration.cli.batch;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.configuration.cli.base.TemplateAbstraction.CLIBaseOptionConstants;
+import ndextools.morphcx.configuration.cli.csv.CSVBuilder;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate;
+import org.apache.commons.cli.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRunnerTest {
+
+    @TempDir
+    Path directory;
+
+    private Configuration cfg() throws IOException, ParseException {
+        Path inputs = Files.createDirectory(directory.resolve("inputs"));
+        for (String name : List.of("a.cx", "b.cx", "c.cx")) {
+            Files.write(inputs.resolve(name), new byte[] {'['});
+        }
+        return new CSVTemplate(new String[] {
+                "-" + CLIBaseOptionConstants.OPT_INPUT, inputs.toString(),
+                "-" + CLIBaseOptionConstants.OPT_OUTPUT, directory.resolve("outputs").toString(),
+                "-" + CLIBaseOptionConstants.OPT_WORKERS, "2"}, "test").configure(new CSVBuilder());
+    }
+
+    private static Path outputOf(final Configuration fileCfg) {
+        return Paths.get(fileCfg.getOutputFilename().get());
+    }
+
+    private static String nameOf(final Configuration fileCfg) {
+        return Paths.get(fileCfg.getInputFilename().get()).getFileName().toString();
+    }
+
+    private List<String> outputs() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("outputs"))) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void everyInputIsConverted() throws IOException, ParseException {
+        BatchReport report = new BatchRunner(cfg(), ".tsv").run(fileCfg -> Files.write(outputOf(fileCfg),
+                new byte[] {1}));
+
+        assertTrue(report.isSuccess());
+        assertEquals(3, report.getEntries().size());
+        assertEquals(List.of("a.tsv", "b.tsv", "c.tsv"), outputs());
+    }
+
+    @Test
+    void failedInputIsReportedAndItsOutputDeleted() throws IOException, ParseException {
+        BatchReport report = new BatchRunner(cfg(), ".tsv").run(fileCfg -> {
+            Files.write(outputOf(fileCfg), new byte[] {1});
+            if (nameOf(fileCfg).equals("b.cx")) {
+                throw new IOException("unreadable");
+            }
+        });
+
+        assertFalse(report.isSuccess());
+        assertEquals(1, report.getFailureCount());
+        assertNull(report.getEntries().get(0).getError());
+        assertEquals("unreadable", report.getEntries().get(1).getError());
+        assertEquals(List.of("a.tsv", "c.tsv"), outputs());
+    }
+
+    @Test
+    void errorIsReportedAndItsOutputDeleted() throws IOException, ParseException {
+        BatchReport report = new BatchRunner(cfg(), ".tsv").run(fileCfg -> {
+            Files.write(outputOf(fileCfg), new byte[] {1});
+            if (nameOf(fileCfg).equals("c.cx")) {
+                throw new StackOverflowError();
+            }
+        });
+
+        assertEquals(3, report.getEntries().size());
+        assertEquals(1, report.getFailureCount());
+        assertEquals("java.lang.StackOverflowError", report.getEntries().get(2).getError());
+        assertEquals(List.of("a.tsv", "b.tsv"), outputs());
+    }
+
+    @Test
+    void failedInputLosesTheOutputOfEveryFormat() throws IOException, ParseException {
+        BatchReport report = new BatchRunner(cfg(), "", List.of(".tsv", ".xlsx")).run(fileCfg -> {
+            Files.write(Paths.get(fileCfg.getOutputFilename().get() + ".tsv"), new byte[] {1});
+            Files.write(Paths.get(fileCfg.getOutputFilename().get() + ".xlsx"), new byte[] {1});
+            if (nameOf(fileCfg).equals("a.cx")) {
+                throw new IOException("disk full");
+            }
+        });
+
+        assertEquals(1, report.getFailureCount());
+        assertEquals(directory.resolve("outputs").resolve("a"), report.getEntries().get(0).getOutput());
+        assertEquals(List.of("b.tsv", "b.xlsx", "c.tsv", "c.xlsx"), outputs());
+    }
+
+}
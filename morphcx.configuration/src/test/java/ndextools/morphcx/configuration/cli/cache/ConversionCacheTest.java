@@ -0,0 +1,181 @@
+package ndextools.morphcx.configuration.cli.cache;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.configuration.cli.base.TemplateAbstraction.CLIBaseOptionConstants;
+import ndextools.morphcx.configuration.cli.csv.CSVBuilder;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate.CSVOptionConstants;
+import org.apache.commons.cli.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConversionCacheTest {
+    private static final int ENTRY_SIZE = 400 << 10;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Conversion writing a fixed number of bytes derived from the input file, counting its runs.
+     */
+    private static final class CountingConversion implements ConversionCache.Conversion {
+        private int runs;
+
+        @Override
+        public void convert(final Configuration entryCfg) throws IOException {
+            runs++;
+            byte[] input = Files.readAllBytes(Paths.get(entryCfg.getInputFilename().get()));
+            byte[] output = new byte[ENTRY_SIZE];
+            for (int i = 0; i < output.length; i++) {
+                output[i] = input[i % input.length];
+            }
+            Files.write(Paths.get(entryCfg.getOutputFilename().get()), output);
+        }
+    }
+
+    private Path cacheDirectory() {
+        return directory.resolve("cache");
+    }
+
+    private Path input(final String name, final String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Configuration cfg(final Path input, final String... options) throws ParseException {
+        List<String> commandline = new ArrayList<>(List.of(
+                "-" + CLIBaseOptionConstants.OPT_INPUT, input.toString(),
+                "-" + CLIBaseOptionConstants.OPT_OUTPUT, directory.resolve("output").toString(),
+                "--" + CLIBaseOptionConstants.LONG_OPT_CACHE, cacheDirectory().toString(),
+                "--" + CLIBaseOptionConstants.LONG_OPT_CACHE_SIZE, "1"));
+        commandline.addAll(Arrays.asList(options));
+        return new CSVTemplate(commandline.toArray(new String[0]), "test").configure(new CSVBuilder());
+    }
+
+    /**
+     * Converts through the cache, from an empty output file.
+     *
+     * @return true if the output came from the cache
+     */
+    private boolean convert(final Configuration cfg, final CountingConversion conversion) throws IOException {
+        Files.deleteIfExists(directory.resolve("output"));
+        boolean hit = new ConversionCache(cfg).convert(conversion);
+        assertEquals(ENTRY_SIZE, Files.size(directory.resolve("output")));
+        makeEntriesOlder();
+        return hit;
+    }
+
+    /**
+     * Moves the last use of every entry an hour back, keeping their order, so that the next
+     * use is later than all of them whatever the resolution of the file system's clock.
+     */
+    private void makeEntriesOlder() throws IOException {
+        for (Path entry : files()) {
+            FileTime lastUsed = Files.getLastModifiedTime(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(lastUsed.toMillis() - 3_600_000));
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory())) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void secondConversionComesFromCache() throws IOException, ParseException {
+        Configuration cfg = cfg(input("a.cx", "[{\"nodes\":[]}]"));
+        CountingConversion conversion = new CountingConversion();
+
+        assertFalse(convert(cfg, conversion));
+        byte[] converted = Files.readAllBytes(directory.resolve("output"));
+        assertTrue(convert(cfg, conversion));
+        assertEquals(1, conversion.runs);
+        assertArrayEquals(converted, Files.readAllBytes(directory.resolve("output")));
+        assertEquals(1, files().size());
+        assertTrue(files().get(0).getFileName().toString().endsWith(".cache"));
+    }
+
+    @Test
+    void keyCoversInputBytesAndOutputOptions() throws IOException, ParseException {
+        Path input = input("a.cx", "[{\"nodes\":[]}]");
+        CountingConversion conversion = new CountingConversion();
+
+        assertFalse(convert(cfg(input), conversion));
+        assertFalse(convert(cfg(input, "-" + CSVOptionConstants.OPT_FILETYPE, CSVOptionConstants.COMMA), conversion));
+        assertTrue(convert(cfg(input, "--" + CLIBaseOptionConstants.LONG_OPT_CACHE_SIZE, "2"), conversion));
+
+        input("a.cx", "[{\"edges\":[]}]");
+        assertFalse(convert(cfg(input), conversion));
+        assertTrue(convert(cfg(input("b.cx", "[{\"edges\":[]}]")), conversion));
+        assertEquals(3, conversion.runs);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() throws IOException, ParseException {
+        Configuration a = cfg(input("a.cx", "a"));
+        Configuration b = cfg(input("b.cx", "b"));
+        Configuration c = cfg(input("c.cx", "c"));
+        CountingConversion conversion = new CountingConversion();
+
+        assertFalse(convert(a, conversion));
+        assertFalse(convert(b, conversion));
+        assertTrue(convert(a, conversion));
+        // three entries of 400 KB exceed the 1 MB limit; b is the least recently used
+        assertFalse(convert(c, conversion));
+        assertEquals(2, files().size());
+
+        assertTrue(convert(a, conversion));
+        assertTrue(convert(c, conversion));
+        assertEquals(3, conversion.runs);
+        assertFalse(convert(b, conversion));
+        assertEquals(4, conversion.runs);
+    }
+
+    @Test
+    void failedConversionLeavesNoEntry() throws IOException, ParseException {
+        Configuration cfg = cfg(input("a.cx", "a"));
+        IOException failure = new IOException("conversion failed");
+        assertSame(failure, assertThrows(IOException.class, () -> new ConversionCache(cfg).convert(entryCfg -> {
+            Files.write(Paths.get(entryCfg.getOutputFilename().get()), new byte[] {1, 2, 3});
+            throw failure;
+        })));
+        assertEquals(List.of(), files());
+
+        CountingConversion conversion = new CountingConversion();
+        assertFalse(convert(cfg, conversion));
+        assertEquals(1, conversion.runs);
+    }
+
+    @Test
+    void appliesOnlyToSingleFileWithCacheDirectory() throws IOException, ParseException {
+        Path input = input("a.cx", "a");
+        assertTrue(ConversionCache.appliesTo(cfg(input)));
+
+        Configuration noCache = cfg(input, "--" + CLIBaseOptionConstants.LONG_OPT_NO_CACHE);
+        assertFalse(ConversionCache.appliesTo(noCache));
+        assertThrows(IllegalArgumentException.class, () -> new ConversionCache(noCache));
+
+        Configuration stdin = new CSVTemplate(new String[0], "test").configure(new CSVBuilder());
+        assertFalse(ConversionCache.appliesTo(stdin));
+    }
+
+}
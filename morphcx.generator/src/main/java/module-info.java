@@ -0,0 +1,6 @@
+module morphcx.generator {
+    exports ndextools.morphcx.generator;
+
+    requires commons.cli;
+    requires com.fasterxml.jackson.core;
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package ndextools.morphcx.generator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import ndextools.morphcx.generator.GeneratorSettings.AttributeTypeConstants;
+import ndextools.morphcx.generator.GeneratorSettings.DegreeDistribution;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * CXGenerator writes a seeded, synthetic CX network shaped by a GeneratorSettings object.
+ * Nothing is held in memory per node or edge: every element is derived from the settings and
+ * a random sequence and streamed straight to the output, so networks far larger than the heap
+ * can be produced.
+ * <p>
+ * Topology and attribute values are drawn from two independent random sequences, so adding
+ * or removing attributes does not change which nodes the edges connect. Node ids run from 0,
+ * edge ids continue after the last node id. About one string value in sixteen contains a
+ * comma and double quotes, so that CSV quoting is exercised by the generated networks.
+ */
+public class CXGenerator {
+    private static final long ATTRIBUTE_STREAM = 0x9E3779B97F4A7C15L;
+    private static final List<String> INTERACTIONS = List.of(
+            "interacts-with", "controls-state-change-of", "in-complex-with", "controls-expression-of");
+
+    private final GeneratorSettings settings;
+    private final long stride;
+
+    /**
+     * Constructor
+     * @param settings shape of the network to generate
+     */
+    public CXGenerator(final GeneratorSettings settings) {
+        this.settings = settings;
+        this.stride = strideFor(settings.getNodes());
+    }
+
+    /**
+     * Writes the network to a file, replacing any existing one.
+     *
+     * @param file destination
+     * @throws IOException if the file can not be written
+     */
+    public void generate(final Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            generate(out);
+        }
+    }
+
+    /**
+     * Writes the network to a stream. The stream is flushed but not closed.
+     *
+     * @param out destination
+     * @throws IOException if the stream can not be written
+     */
+    public void generate(final OutputStream out) throws IOException {
+        JsonFactory factory = new JsonFactory();
+        factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (JsonGenerator json = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            writePreamble(json);
+            writeNetworkAttributes(json);
+            writeNodes(json);
+            writeEdges(json);
+            SplittableRandom values = new SplittableRandom(settings.getSeed() ^ ATTRIBUTE_STREAM);
+            writeAttributes(json, CXAspectConstants.NODE_ATTRIBUTES, "node", 0,
+                    settings.getNodes(), settings.getNodeAttributes(), values);
+            writeAttributes(json, CXAspectConstants.EDGE_ATTRIBUTES, "edge", settings.getNodes(),
+                    settings.getEdges(), settings.getEdgeAttributes(), values);
+            writeStatus(json);
+            json.writeEndArray();
+        }
+        out.flush();
+    }
+
+    private void writePreamble(final JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart("numberVerification");
+        json.writeStartObject();
+        json.writeNumberField("longNumber", 281474976710655L);
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+
+        json.writeStartObject();
+        json.writeArrayFieldStart("metaData");
+        writeMetaData(json, CXAspectConstants.NETWORK_ATTRIBUTES, 2);
+        writeMetaData(json, CXAspectConstants.NODES, settings.getNodes());
+        writeMetaData(json, CXAspectConstants.EDGES, settings.getEdges());
+        writeMetaData(json, CXAspectConstants.NODE_ATTRIBUTES, settings.getNodes() * settings.getNodeAttributes());
+        writeMetaData(json, CXAspectConstants.EDGE_ATTRIBUTES, settings.getEdges() * settings.getEdgeAttributes());
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private static void writeMetaData(final JsonGenerator json, final String aspect, final long count)
+            throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", aspect);
+        json.writeStringField("version", "1.0");
+        json.writeNumberField("elementCount", count);
+        json.writeEndObject();
+    }
+
+    private void writeNetworkAttributes(final JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart(CXAspectConstants.NETWORK_ATTRIBUTES);
+        json.writeStartObject();
+        json.writeStringField("n", "name");
+        json.writeStringField("v", "synthetic-" + settings.getSeed());
+        json.writeEndObject();
+        json.writeStartObject();
+        json.writeStringField("n", "description");
+        json.writeStringField("v", settings.toString());
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private void writeNodes(final JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart(CXAspectConstants.NODES);
+        for (long id = 0; id < settings.getNodes(); id++) {
+            json.writeStartObject();
+            json.writeNumberField("@id", id);
+            json.writeStringField("n", "GENE" + id);
+            json.writeStringField("r", "hgnc:" + id);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private void writeEdges(final JsonGenerator json) throws IOException {
+        SplittableRandom topology = new SplittableRandom(settings.getSeed());
+        long firstId = settings.getNodes();
+
+        json.writeStartObject();
+        json.writeArrayFieldStart(CXAspectConstants.EDGES);
+        for (long i = 0; i < settings.getEdges(); i++) {
+            json.writeStartObject();
+            json.writeNumberField("@id", firstId + i);
+            json.writeNumberField("s", endPoint(topology));
+            json.writeNumberField("t", endPoint(topology));
+            json.writeStringField("i", INTERACTIONS.get(topology.nextInt(INTERACTIONS.size())));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * Draws a node id. For the power-law distribution a rank is drawn with density proportional
+     * to rank^(1/skew - 1), so low ranks are hubs; ranks are then scattered over the node ids
+     * by a fixed stride, so that hubs are not simply the first nodes in the file.
+     */
+    private long endPoint(final SplittableRandom topology) {
+        long nodes = settings.getNodes();
+        if (settings.getDegrees() == DegreeDistribution.UNIFORM) {
+            return topology.nextLong(nodes);
+        }
+        long rank = (long) (nodes * Math.pow(topology.nextDouble(), settings.getSkew()));
+        return Math.min(rank, nodes - 1) * stride % nodes;
+    }
+
+    private void writeAttributes(final JsonGenerator json, final String aspect, final String prefix,
+                                 final long firstId, final long count, final int perElement,
+                                 final SplittableRandom values) throws IOException {
+        if (perElement == 0 || count == 0) {
+            return;
+        }
+
+        String[] names = new String[perElement];
+        String[] valueTypes = new String[perElement];
+        String[] dataTypes = new String[perElement];
+        boolean[] lists = new boolean[perElement];
+        List<String> attributeTypes = settings.getAttributeTypes();
+        for (int a = 0; a < perElement; a++) {
+            valueTypes[a] = attributeTypes.get(a % attributeTypes.size());
+            lists[a] = a < settings.getListAttributes();
+            dataTypes[a] = lists[a] ? "list_of_" + valueTypes[a] : valueTypes[a];
+            names[a] = prefix + "_" + valueTypes[a] + (lists[a] ? "_list_" : "_") + a;
+        }
+
+        json.writeStartObject();
+        json.writeArrayFieldStart(aspect);
+        for (long i = 0; i < count; i++) {
+            for (int a = 0; a < perElement; a++) {
+                json.writeStartObject();
+                json.writeNumberField("po", firstId + i);
+                json.writeStringField("n", names[a]);
+                if (lists[a]) {
+                    int length = 1 + values.nextInt(settings.getListLength());
+                    json.writeArrayFieldStart("v");
+                    for (int v = 0; v < length; v++) {
+                        json.writeString(value(valueTypes[a], values));
+                    }
+                    json.writeEndArray();
+                } else {
+                    json.writeStringField("v", value(valueTypes[a], values));
+                }
+                if (!AttributeTypeConstants.STRING.equals(dataTypes[a])) {
+                    json.writeStringField("d", dataTypes[a]);
+                }
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private String value(final String type, final SplittableRandom values) {
+        switch (type) {
+            case AttributeTypeConstants.DOUBLE:
+                return Double.toString(values.nextDouble());
+            case AttributeTypeConstants.INTEGER:
+                return Integer.toString(values.nextInt(settings.getCardinality()));
+            case AttributeTypeConstants.LONG:
+                return Long.toString((1L << 32) + values.nextInt(settings.getCardinality()));
+            case AttributeTypeConstants.BOOLEAN:
+                return Boolean.toString(values.nextBoolean());
+            default:
+                int v = values.nextInt(settings.getCardinality());
+                return (v & 15) == 0 ? "PubMed:" + v + ", \"curated\"" : "value" + v;
+        }
+    }
+
+    private static void writeStatus(final JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart("status");
+        json.writeStartObject();
+        json.writeStringField("error", "");
+        json.writeBooleanField("success", true);
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * @return a stride co-prime to the node count near its golden section, so multiplying ranks
+     *         by it modulo the node count is a permutation of the node ids
+     */
+    private static long strideFor(final long nodes) {
+        if (nodes < 3) {
+            return 1;
+        }
+        long stride = (long) (nodes * 0.6180339887) | 1;
+        while (gcd(stride, nodes) != 1) {
+            stride += 2;
+        }
+        return stride;
+    }
+
+    private static long gcd(final long a, final long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Names of the CX aspects written by the generator
+     */
+    public static class CXAspectConstants {
+
+        public static final String NODES = "nodes";
+        public static final String EDGES = "edges";
+        public static final String NODE_ATTRIBUTES = "nodeAttributes";
+        public static final String EDGE_ATTRIBUTES = "edgeAttributes";
+        public static final String NETWORK_ATTRIBUTES = "networkAttributes";
+
+    }
+
+}
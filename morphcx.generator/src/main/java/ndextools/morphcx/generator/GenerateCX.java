@@ -0,0 +1,203 @@
+package ndextools.morphcx.generator;
+
+import ndextools.morphcx.generator.GeneratorSettings.DegreeDistribution;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Root program containing entry point to generate synthetic CX networks by commandline,
+ * e.g. to produce reproducible inputs for scale and soak testing of the export programs.
+ */
+public class GenerateCX {
+
+    public static void main(final String[] args) {
+        String[] cmdline = (args == null) ? new String[0] : args;
+        String appName = GenerateCX.class.getSimpleName().toLowerCase();
+
+        try {
+            Options options = defineOptions();
+            CommandLine parsed = parseCommandline(options, cmdline, appName);
+            if (parsed.hasOption(GeneratorOptionConstants.OPT_HELP)) {
+                printHelpText(options, appName);
+                return;
+            }
+            GeneratorSettings settings = resolveOptions(parsed, appName);
+            CXGenerator generator = new CXGenerator(settings);
+            if (parsed.hasOption(GeneratorOptionConstants.OPT_OUTPUT)) {
+                generator.generate(Path.of(parsed.getOptionValue(GeneratorOptionConstants.OPT_OUTPUT)));
+            } else {
+                generator.generate(System.out);
+            }
+        } catch (ParseException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static Options defineOptions() {
+        Options options = new Options();
+        options.addOption(option(GeneratorOptionConstants.OPT_HELP, GeneratorOptionConstants.LONG_OPT_HELP, false,
+                "Displays this help information."));
+        options.addOption(option(GeneratorOptionConstants.OPT_OUTPUT, GeneratorOptionConstants.LONG_OPT_OUTPUT, true,
+                "Full output path and file specification. Default: output sent to STDOUT rather than a file."));
+        options.addOption(option(GeneratorOptionConstants.OPT_NODES, GeneratorOptionConstants.LONG_OPT_NODES, true,
+                "Number of nodes. Default: 1000"));
+        options.addOption(option(GeneratorOptionConstants.OPT_EDGES, GeneratorOptionConstants.LONG_OPT_EDGES, true,
+                "Number of edges. Default: 2000"));
+        options.addOption(option(GeneratorOptionConstants.OPT_DEGREES, GeneratorOptionConstants.LONG_OPT_DEGREES, true,
+                "Distribution of edge end points over the nodes < uniform | powerlaw >. Default: uniform"));
+        options.addOption(option(null, GeneratorOptionConstants.LONG_OPT_SKEW, true,
+                "Exponent of the powerlaw distribution; 1 is uniform, larger values concentrate edges on fewer hubs. "
+                        + "Default: " + GeneratorSettings.DEFAULT_SKEW));
+        options.addOption(option(null, GeneratorOptionConstants.LONG_OPT_NODE_ATTRIBUTES, true,
+                "Number of attributes per node. Default: 0"));
+        options.addOption(option(null, GeneratorOptionConstants.LONG_OPT_EDGE_ATTRIBUTES, true,
+                "Number of attributes per edge. Default: 0"));
+        options.addOption(option(null, GeneratorOptionConstants.LONG_OPT_ATTRIBUTE_TYPES, true,
+                "Comma-separated CX data types assigned to attributes in turn. Default: "
+                        + String.join(",", GeneratorSettings.DEFAULT_ATTRIBUTE_TYPES)));
+        options.addOption(option(null, GeneratorOptionConstants.LONG_OPT_LIST_ATTRIBUTES, true,
+                "Number of attributes per node and per edge that are list-valued. Default: 0"));
+        options.addOption(option(null, GeneratorOptionConstants.LONG_OPT_LIST_LENGTH, true,
+                "Maximum number of values in a list-valued attribute. Default: " + GeneratorSettings.DEFAULT_LIST_LENGTH));
+        options.addOption(option(null, GeneratorOptionConstants.LONG_OPT_CARDINALITY, true,
+                "Number of distinct values of each string, integer and long attribute. Default: "
+                        + GeneratorSettings.DEFAULT_CARDINALITY));
+        options.addOption(option(GeneratorOptionConstants.OPT_SEED, GeneratorOptionConstants.LONG_OPT_SEED, true,
+                "Random seed; equal seeds and options give identical files. Default: " + GeneratorSettings.DEFAULT_SEED));
+        return options;
+    }
+
+    private static Option option(final String opt, final String longOpt, final boolean hasArg, final String desc) {
+        Option.Builder builder = Option.builder(opt).longOpt(longOpt).desc(desc);
+        return hasArg ? builder.hasArg().build() : builder.build();
+    }
+
+    private static CommandLine parseCommandline(final Options options, final String[] cmdline, final String appName)
+            throws ParseException {
+        try {
+            return new DefaultParser().parse(options, cmdline);
+        } catch (ParseException e) {
+            throw new ParseException(appName + ": " + e.getMessage());
+        }
+    }
+
+    private static void printHelpText(final Options options, final String appName) {
+        String prefix = "java -jar " + appName + ".jar";
+        String header = "where parameter options are:";
+        HelpFormatter formatter = new HelpFormatter();
+        formatter.printHelp(132, prefix, header, options, "", true);
+    }
+
+    private static GeneratorSettings resolveOptions(final CommandLine parsed, final String appName)
+            throws ParseException {
+        GeneratorSettings.Builder builder = new GeneratorSettings.Builder();
+        try {
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_NODES)) {
+                builder.setNodes(Long.parseLong(parsed.getOptionValue(GeneratorOptionConstants.LONG_OPT_NODES)));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_EDGES)) {
+                builder.setEdges(Long.parseLong(parsed.getOptionValue(GeneratorOptionConstants.LONG_OPT_EDGES)));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_DEGREES)) {
+                builder.setDegrees(degreesOf(parsed.getOptionValue(GeneratorOptionConstants.LONG_OPT_DEGREES)));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_SKEW)) {
+                builder.setSkew(Double.parseDouble(parsed.getOptionValue(GeneratorOptionConstants.LONG_OPT_SKEW)));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_NODE_ATTRIBUTES)) {
+                builder.setNodeAttributes(intValue(parsed, GeneratorOptionConstants.LONG_OPT_NODE_ATTRIBUTES));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_EDGE_ATTRIBUTES)) {
+                builder.setEdgeAttributes(intValue(parsed, GeneratorOptionConstants.LONG_OPT_EDGE_ATTRIBUTES));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_ATTRIBUTE_TYPES)) {
+                String types = parsed.getOptionValue(GeneratorOptionConstants.LONG_OPT_ATTRIBUTE_TYPES);
+                builder.setAttributeTypes(typesOf(types));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_LIST_ATTRIBUTES)) {
+                builder.setListAttributes(intValue(parsed, GeneratorOptionConstants.LONG_OPT_LIST_ATTRIBUTES));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_LIST_LENGTH)) {
+                builder.setListLength(intValue(parsed, GeneratorOptionConstants.LONG_OPT_LIST_LENGTH));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_CARDINALITY)) {
+                builder.setCardinality(intValue(parsed, GeneratorOptionConstants.LONG_OPT_CARDINALITY));
+            }
+            if (parsed.hasOption(GeneratorOptionConstants.LONG_OPT_SEED)) {
+                builder.setSeed(Long.parseLong(parsed.getOptionValue(GeneratorOptionConstants.LONG_OPT_SEED)));
+            }
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new ParseException(appName + ": " + e.getMessage());
+        }
+    }
+
+    private static int intValue(final CommandLine parsed, final String longOpt) {
+        return Integer.parseInt(parsed.getOptionValue(longOpt));
+    }
+
+    private static DegreeDistribution degreesOf(final String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case GeneratorOptionConstants.UNIFORM:
+                return DegreeDistribution.UNIFORM;
+            case GeneratorOptionConstants.POWERLAW:
+                return DegreeDistribution.POWER_LAW;
+            default:
+                throw new IllegalArgumentException("unknown degree distribution: " + value);
+        }
+    }
+
+    private static List<String> typesOf(final String value) {
+        return Arrays.asList(value.toLowerCase(Locale.ROOT).split("\\s*,\\s*"));
+    }
+
+    /**
+     * Constants used when processing the generator's command-line options
+     */
+    public static class GeneratorOptionConstants {
+
+        public static final String OPT_HELP = "h";
+        public static final String LONG_OPT_HELP = "help";
+
+        public static final String OPT_OUTPUT = "o";
+        public static final String LONG_OPT_OUTPUT = "output";
+
+        public static final String OPT_NODES = "n";
+        public static final String LONG_OPT_NODES = "nodes";
+
+        public static final String OPT_EDGES = "e";
+        public static final String LONG_OPT_EDGES = "edges";
+
+        public static final String OPT_DEGREES = "d";
+        public static final String LONG_OPT_DEGREES = "degrees";
+        public static final String UNIFORM = "uniform";
+        public static final String POWERLAW = "powerlaw";
+
+        public static final String LONG_OPT_SKEW = "skew";
+        public static final String LONG_OPT_NODE_ATTRIBUTES = "node-attributes";
+        public static final String LONG_OPT_EDGE_ATTRIBUTES = "edge-attributes";
+        public static final String LONG_OPT_ATTRIBUTE_TYPES = "attribute-types";
+        public static final String LONG_OPT_LIST_ATTRIBUTES = "list-attributes";
+        public static final String LONG_OPT_LIST_LENGTH = "list-length";
+        public static final String LONG_OPT_CARDINALITY = "cardinality";
+
+        public static final String OPT_SEED = "s";
+        public static final String LONG_OPT_SEED = "seed";
+
+    }
+
+}
@@ -0,0 +1,256 @@
+package ndextools.morphcx.generator;
+
+import java.util.List;
+
+/**
+ * GeneratorSettings holds the immutable shape of a synthetic network: its size, how edge
+ * end points are distributed over the nodes, and which attributes every node and edge
+ * carries. Two runs with equal settings produce byte-identical output.
+ */
+public final class GeneratorSettings {
+    public static final long DEFAULT_SEED = 42L;
+    public static final double DEFAULT_SKEW = 2.0;
+    public static final int DEFAULT_LIST_LENGTH = 4;
+    public static final int DEFAULT_CARDINALITY = 1000;
+    public static final List<String> DEFAULT_ATTRIBUTE_TYPES = List.of(
+            AttributeTypeConstants.STRING,
+            AttributeTypeConstants.DOUBLE,
+            AttributeTypeConstants.INTEGER,
+            AttributeTypeConstants.BOOLEAN,
+            AttributeTypeConstants.LONG);
+
+    private final long nodes;
+    private final long edges;
+    private final DegreeDistribution degrees;
+    private final double skew;
+    private final int nodeAttributes;
+    private final int edgeAttributes;
+    private final List<String> attributeTypes;
+    private final int listAttributes;
+    private final int listLength;
+    private final int cardinality;
+    private final long seed;
+
+    private GeneratorSettings(final Builder builder) {
+        this.nodes = builder.nodes;
+        this.edges = builder.edges;
+        this.degrees = builder.degrees;
+        this.skew = builder.skew;
+        this.nodeAttributes = builder.nodeAttributes;
+        this.edgeAttributes = builder.edgeAttributes;
+        this.attributeTypes = List.copyOf(builder.attributeTypes);
+        this.listAttributes = builder.listAttributes;
+        this.listLength = builder.listLength;
+        this.cardinality = builder.cardinality;
+        this.seed = builder.seed;
+    }
+
+    /**
+     * Getter method
+     * @return number of nodes
+     */
+    public long getNodes() { return nodes; }
+
+    /**
+     * Getter method
+     * @return number of edges
+     */
+    public long getEdges() { return edges; }
+
+    /**
+     * Getter method
+     * @return how edge end points are spread over the nodes
+     */
+    public DegreeDistribution getDegrees() { return degrees; }
+
+    /**
+     * Getter method
+     * @return exponent of the power-law distribution; 1 is uniform, larger values favour fewer hub nodes
+     */
+    public double getSkew() { return skew; }
+
+    /**
+     * Getter method
+     * @return number of attributes per node
+     */
+    public int getNodeAttributes() { return nodeAttributes; }
+
+    /**
+     * Getter method
+     * @return number of attributes per edge
+     */
+    public int getEdgeAttributes() { return edgeAttributes; }
+
+    /**
+     * Getter method
+     * @return CX data types assigned to attributes in turn
+     */
+    public List<String> getAttributeTypes() { return attributeTypes; }
+
+    /**
+     * Getter method
+     * @return number of attributes per node and per edge that are list-valued
+     */
+    public int getListAttributes() { return listAttributes; }
+
+    /**
+     * Getter method
+     * @return maximum number of values in a list-valued attribute
+     */
+    public int getListLength() { return listLength; }
+
+    /**
+     * Getter method
+     * @return number of distinct values of each string, integer and long attribute
+     */
+    public int getCardinality() { return cardinality; }
+
+    /**
+     * Getter method
+     * @return random seed
+     */
+    public long getSeed() { return seed; }
+
+    @Override
+    public String toString() {
+        return "GeneratorSettings{" +
+                "nodes=" + nodes +
+                ", edges=" + edges +
+                ", degrees=" + degrees +
+                ", skew=" + skew +
+                ", nodeAttributes=" + nodeAttributes +
+                ", edgeAttributes=" + edgeAttributes +
+                ", attributeTypes=" + attributeTypes +
+                ", listAttributes=" + listAttributes +
+                ", listLength=" + listLength +
+                ", cardinality=" + cardinality +
+                ", seed=" + seed +
+                '}';
+    }
+
+    /**
+     * Distribution of edge end points over the nodes.
+     */
+    public enum DegreeDistribution {
+        /** Every node is equally likely to be an end point. */
+        UNIFORM,
+        /** A few hub nodes take most of the end points, as in real interaction networks. */
+        POWER_LAW
+    }
+
+    /**
+     * CX attribute data types the generator can produce.
+     */
+    public static class AttributeTypeConstants {
+
+        public static final String STRING = "string";
+        public static final String DOUBLE = "double";
+        public static final String INTEGER = "integer";
+        public static final String LONG = "long";
+        public static final String BOOLEAN = "boolean";
+
+        public static final List<String> ALL = List.of(STRING, DOUBLE, INTEGER, LONG, BOOLEAN);
+
+    }
+
+    /**
+     * Builder of GeneratorSettings; every property has a default, so only the ones that matter
+     * to a particular run need setting.
+     */
+    public static final class Builder {
+        private long nodes = 1000;
+        private long edges = 2000;
+        private DegreeDistribution degrees = DegreeDistribution.UNIFORM;
+        private double skew = DEFAULT_SKEW;
+        private int nodeAttributes;
+        private int edgeAttributes;
+        private List<String> attributeTypes = DEFAULT_ATTRIBUTE_TYPES;
+        private int listAttributes;
+        private int listLength = DEFAULT_LIST_LENGTH;
+        private int cardinality = DEFAULT_CARDINALITY;
+        private long seed = DEFAULT_SEED;
+
+        public Builder setNodes(final long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder setEdges(final long edges) {
+            this.edges = edges;
+            return this;
+        }
+
+        public Builder setDegrees(final DegreeDistribution degrees) {
+            this.degrees = degrees;
+            return this;
+        }
+
+        public Builder setSkew(final double skew) {
+            this.skew = skew;
+            return this;
+        }
+
+        public Builder setNodeAttributes(final int nodeAttributes) {
+            this.nodeAttributes = nodeAttributes;
+            return this;
+        }
+
+        public Builder setEdgeAttributes(final int edgeAttributes) {
+            this.edgeAttributes = edgeAttributes;
+            return this;
+        }
+
+        public Builder setAttributeTypes(final List<String> attributeTypes) {
+            this.attributeTypes = attributeTypes;
+            return this;
+        }
+
+        public Builder setListAttributes(final int listAttributes) {
+            this.listAttributes = listAttributes;
+            return this;
+        }
+
+        public Builder setListLength(final int listLength) {
+            this.listLength = listLength;
+            return this;
+        }
+
+        public Builder setCardinality(final int cardinality) {
+            this.cardinality = cardinality;
+            return this;
+        }
+
+        public Builder setSeed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @return settings built from the current property values
+         * @throws IllegalArgumentException if a property is out of range
+         */
+        public GeneratorSettings build() {
+            require(nodes >= 0 && nodes <= Integer.MAX_VALUE, "nodes out of range: " + nodes);
+            require(edges >= 0, "edges out of range: " + edges);
+            require(nodes > 0 || edges == 0, "edges need at least one node");
+            require(skew >= 1.0, "skew must be at least 1: " + skew);
+            require(nodeAttributes >= 0, "node attributes out of range: " + nodeAttributes);
+            require(edgeAttributes >= 0, "edge attributes out of range: " + edgeAttributes);
+            require(!attributeTypes.isEmpty(), "no attribute types");
+            for (String type : attributeTypes) {
+                require(AttributeTypeConstants.ALL.contains(type), "unknown attribute type: " + type);
+            }
+            require(listAttributes >= 0, "list attributes out of range: " + listAttributes);
+            require(listLength > 0, "list length must be positive: " + listLength);
+            require(cardinality > 0, "cardinality must be positive: " + cardinality);
+            return new GeneratorSettings(this);
+        }
+
+        private static void require(final boolean condition, final String message) {
+            if (!condition) {
+                throw new IllegalArgumentException(message);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,7 @@
+module morphcx.launcher.all {
+    requires commons.cli;
+    requires morphcx.configuration;
+    requires morphcx.processors.csv;
+    requires morphcx.processors.poi;
+    requires morphcx.readers;
+}
\ No newline at end of file
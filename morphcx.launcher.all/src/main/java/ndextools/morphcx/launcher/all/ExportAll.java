@@ -0,0 +1,110 @@
+package ndextools.morphcx.launcher.all;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.configuration.cli.base.Template;
+import ndextools.morphcx.configuration.cli.batch.BatchReport;
+import ndextools.morphcx.configuration.cli.batch.BatchRunner;
+import ndextools.morphcx.configuration.cli.csv.CSVBuilder;
+import ndextools.morphcx.configuration.cli.csv.CSVConfiguration;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate.CSVOptionConstants;
+import ndextools.morphcx.configuration.cli.startup.StartupArchive;
+import ndextools.morphcx.processors.csv.CSVProcessor;
+import ndextools.morphcx.processors.csv.FormatFanOut;
+import ndextools.morphcx.processors.poi.POIProcessor;
+import ndextools.morphcx.readers.diagnostics.Diagnostics;
+import ndextools.morphcx.readers.diagnostics.Diagnostics.DiagnosticsConstants;
+import ndextools.morphcx.readers.diagnostics.Stopwatch;
+import ndextools.morphcx.readers.filter.RowFilter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+
+/**
+ * Root program containing entry point to launch application by commandline. Writes a network
+ * in several formats, TSV, CSV and XLSX, from one read of the input: every format is written
+ * by its processor on a thread of its own, fed by an ElementFanOut.
+ */
+public class ExportAll {
+    private static final String XLSX_EXTENSION = ".xlsx";
+
+    public static void main(final String[] args) {
+        String[] cmdline = (args == null) ? new String[0] : args;
+        String appName = ExportAll.class.getSimpleName().toLowerCase();
+
+        try {
+            Stopwatch configuring = Stopwatch.startWallClock();
+            CSVConfiguration cfg = configureByCLI(cmdline, appName);
+            int status = dispatchByOperation(cfg, configuring);
+            if (status != 0) {
+                System.exit(status);
+            }
+        } catch (org.apache.commons.cli.ParseException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static CSVConfiguration configureByCLI(final String[] commandline, final String appName)
+            throws org.apache.commons.cli.ParseException {
+        Template template = new CSVTemplate(commandline, appName);
+        CSVBuilder builder = new CSVBuilder();
+        CSVConfiguration cfg = (CSVConfiguration) template.configure(builder);
+        CSVProcessor.checkFilter(cfg);
+        if (!cfg.isFanOut() && !cfg.isShowHelpPrompt() && !cfg.getStartupArchiveFilename().isPresent()) {
+            throw new org.apache.commons.cli.ParseException(appName + ": --" + CSVOptionConstants.LONG_OPT_FORMATS
+                    + " is required");
+        }
+        return cfg;
+    }
+
+    private static int dispatchByOperation(final CSVConfiguration cfg, final Stopwatch configuring)
+            throws IOException {
+        if (cfg.isShowHelpPrompt()) {
+            return 0;
+        }
+
+        if (cfg.getStartupArchiveFilename().isPresent()) {
+            StartupArchive archive = new StartupArchive(cfg, ExportAll.class);
+            archive.dump();
+            archive.printUsage(System.err);
+            return 0;
+        }
+
+        if (cfg.isBatchMode()) {
+            // every format appends its own extension
+            BatchRunner runner = new BatchRunner(cfg, "", formats(cfg).getExtensions());
+            BatchReport report = runner.run(fileCfg -> convert((CSVConfiguration) fileCfg,
+                    Diagnostics.of(fileCfg)));
+            report.print(System.err);
+            return report.isSuccess() ? 0 : 1;
+        }
+
+        Diagnostics diagnostics = Diagnostics.of(cfg);
+        diagnostics.record(DiagnosticsConstants.CONFIGURATION, configuring);
+        convert(cfg, diagnostics);
+        return 0;
+    }
+
+    /**
+     * Writes every format of the configuration from one read of the input, XLSX by
+     * POIProcessor and the others by CSVProcessor, each applying the filter of the
+     * configuration.
+     */
+    static void convert(final CSVConfiguration cfg, final Diagnostics diagnostics) throws IOException {
+        formats(cfg).run(diagnostics);
+        diagnostics.report(System.err);
+    }
+
+    private static FormatFanOut formats(final CSVConfiguration cfg) {
+        RowFilter filter = cfg.getFilter().map(RowFilter::compile).orElse(null);
+        return new FormatFanOut(cfg)
+                .addFormat(CSVOptionConstants.FORMAT_XLSX, XLSX_EXTENSION, (elements, output) ->
+                        new POIProcessor(cfg, Diagnostics.disabled(), filter)
+                                .process(elements, new BufferedOutputStream(output)));
+    }
+
+}
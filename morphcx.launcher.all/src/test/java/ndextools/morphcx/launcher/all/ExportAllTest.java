@@ -0,0 +1,109 @@
+package ndextools.morphcx.launcher.all;
+
+import ndextools.morphcx.configuration.cli.base.TemplateAbstraction.CLIBaseOptionConstants;
+import ndextools.morphcx.configuration.cli.csv.CSVBuilder;
+import ndextools.morphcx.configuration.cli.csv.CSVConfiguration;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate.CSVOptionConstants;
+import ndextools.morphcx.readers.diagnostics.Diagnostics;
+import org.apache.commons.cli.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExportAllTest {
+    private static final String CX = "[{\"nodes\":[{\"@id\":1,\"n\":\"A\"},{\"@id\":2,\"n\":\"B\"},{\"@id\":3,\"n\":\"C\"}]},"
+            + "{\"edges\":[{\"@id\":10,\"s\":1,\"t\":2,\"i\":\"binds\"},{\"@id\":11,\"s\":2,\"t\":3,\"i\":\"inhibits\"},"
+            + "{\"@id\":12,\"s\":3,\"t\":1,\"i\":\"binds\"},{\"@id\":13,\"s\":1,\"t\":3,\"i\":\"binds\"}]},"
+            + "{\"edgeAttributes\":[{\"po\":10,\"n\":\"score\",\"v\":\"0.5\",\"d\":\"double\"}]}]";
+    private static final Pattern ROW = Pattern.compile("<row[ >]");
+
+    /** Edges sheet, the first sheet of the workbook. */
+    private static final String EDGES_SHEET = "xl/worksheets/sheet1.xml";
+
+    @TempDir
+    Path directory;
+
+    private CSVConfiguration cfg(final String... options) throws IOException, ParseException {
+        Path input = Files.write(directory.resolve("network.cx"), CX.getBytes(StandardCharsets.UTF_8));
+        List<String> commandline = new ArrayList<>(List.of(
+                "-" + CLIBaseOptionConstants.OPT_INPUT, input.toString(),
+                "-" + CLIBaseOptionConstants.OPT_OUTPUT, directory.resolve("network").toString(),
+                "--" + CSVOptionConstants.LONG_OPT_FORMATS, "TSV,CSV,XLSX"));
+        commandline.addAll(Arrays.asList(options));
+        return (CSVConfiguration) new CSVTemplate(commandline.toArray(new String[0]), "exportall")
+                .configure(new CSVBuilder());
+    }
+
+    private long tableRows(final String extension) throws IOException {
+        return Files.readAllLines(directory.resolve("network" + extension)).size() - 1;
+    }
+
+    private long sheetRows() throws IOException {
+        try (InputStream file = Files.newInputStream(directory.resolve("network.xlsx"));
+             ZipInputStream workbook = new ZipInputStream(file)) {
+            for (ZipEntry entry = workbook.getNextEntry(); entry != null; entry = workbook.getNextEntry()) {
+                if (entry.getName().equals(EDGES_SHEET)) {
+                    ByteArrayOutputStream sheet = new ByteArrayOutputStream();
+                    workbook.transferTo(sheet);
+                    Matcher rows = ROW.matcher(sheet.toString(StandardCharsets.UTF_8));
+                    long count = 0;
+                    while (rows.find()) {
+                        count++;
+                    }
+                    return count - 1;
+                }
+            }
+        }
+        throw new IOException(EDGES_SHEET + " not found");
+    }
+
+    private void assertRowCounts(final long expected) throws IOException {
+        assertEquals(expected, tableRows(".tsv"), "TSV");
+        assertEquals(expected, tableRows(".csv"), "CSV");
+        assertEquals(expected, sheetRows(), "XLSX");
+    }
+
+    @Test
+    void everyFormatHasTheSameRows() throws IOException, ParseException {
+        ExportAll.convert(cfg(), Diagnostics.disabled());
+        assertRowCounts(4);
+    }
+
+    @Test
+    void filterAppliesToEveryFormat() throws IOException, ParseException {
+        ExportAll.convert(cfg("--" + CSVOptionConstants.LONG_OPT_FILTER, "interaction = 'binds'"),
+                Diagnostics.disabled());
+        assertRowCounts(3);
+    }
+
+    @Test
+    void filterAppliesToEveryFormatWithAttributeColumns() throws IOException, ParseException {
+        ExportAll.convert(cfg("--" + CSVOptionConstants.LONG_OPT_FILTER, "interaction = 'binds' and score = ''",
+                "-" + CLIBaseOptionConstants.OPT_ATTRIBUTES), Diagnostics.disabled());
+        assertRowCounts(2);
+    }
+
+    @Test
+    void filterOnMissingColumnFailsForEveryFormat() {
+        assertThrows(IllegalArgumentException.class, () -> ExportAll.convert(
+                cfg("--" + CSVOptionConstants.LONG_OPT_FILTER, "missing = 1"), Diagnostics.disabled()));
+    }
+
+}
@@ -2,25 +2,45 @@ package ndextools.morphcx.launcher.csv;
 
 import ndextools.morphcx.configuration.cli.base.Configuration;
 import ndextools.morphcx.configuration.cli.base.Template;
+import ndextools.morphcx.configuration.cli.batch.BatchReport;
+import ndextools.morphcx.configuration.cli.batch.BatchRunner;
+import ndextools.morphcx.configuration.cli.cache.ConversionCache;
 import ndextools.morphcx.configuration.cli.csv.CSVBuilder;
+import ndextools.morphcx.configuration.cli.csv.CSVConfiguration;
 import ndextools.morphcx.configuration.cli.csv.CSVTemplate;
-import ndextools.morphcx.readers.nicecx.ToNiceCX;
-import org.ndexbio.model.cx.NiceCXNetwork;
+import ndextools.morphcx.configuration.cli.server.ConversionClient;
+import ndextools.morphcx.configuration.cli.server.ConversionServer;
+import ndextools.morphcx.configuration.cli.startup.StartupArchive;
+import ndextools.morphcx.processors.csv.CSVDialect;
+import ndextools.morphcx.processors.csv.CSVProcessor;
+import ndextools.morphcx.processors.csv.FormatFanOut;
+import ndextools.morphcx.readers.diagnostics.Diagnostics;
+import ndextools.morphcx.readers.diagnostics.Diagnostics.DiagnosticsConstants;
+import ndextools.morphcx.readers.diagnostics.Stopwatch;
+import ndextools.morphcx.readers.streaming.CXSnapshotWriter;
+import ndextools.morphcx.readers.streaming.CXSnapshotReader.SnapshotConstants;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Root program containing entry point to launch application by commandline.
  */
 public class ExportCSV {
+    private static final String SNAPSHOT_CONTENT_TYPE = "application/octet-stream";
 
     public static void main(final String[] args) {
         String[] cmdline = (args == null) ? new String[0] : args;
         String appName = ExportCSV.class.getSimpleName().toLowerCase();
 
         try {
+            Stopwatch configuring = Stopwatch.startWallClock();
             Configuration cfg = configureByCLI(cmdline, appName);
-            dispatchByOperation(cfg);
+            int status = dispatchByOperation(cfg, configuring);
+            if (status != 0) {
+                System.exit(status);
+            }
         } catch (org.apache.commons.cli.ParseException e) {
             System.err.println(e.getMessage());
             System.exit(1);
@@ -34,15 +54,115 @@ public class ExportCSV {
             throws org.apache.commons.cli.ParseException {
         Template template = new CSVTemplate(commandline, appName);
         CSVBuilder builder = new CSVBuilder();
-        return template.configure(builder);
+        CSVConfiguration cfg = (CSVConfiguration) template.configure(builder);
+        CSVProcessor.checkFilter(cfg);
+        if (cfg.getOutputFormats().contains(CSVTemplate.CSVOptionConstants.FORMAT_XLSX)) {
+            throw new org.apache.commons.cli.ParseException(appName + ": the "
+                    + CSVTemplate.CSVOptionConstants.FORMAT_XLSX + " format requires exportall");
+        }
+        return cfg;
+    }
+
+    private static int dispatchByOperation(final Configuration cfg, final Stopwatch configuring) throws IOException {
+        if (cfg.isShowHelpPrompt()) {
+            return 0;
+        }
+
+        if (cfg.getStartupArchiveFilename().isPresent()) {
+            StartupArchive archive = new StartupArchive(cfg, ExportCSV.class);
+            archive.dump();
+            archive.printUsage(System.err);
+            return 0;
+        }
+
+        if (cfg.isServerMode()) {
+            serve(cfg);
+            return 0;
+        }
+
+        if (cfg.isBatchMode()) {
+            CSVConfiguration csvCfg = (CSVConfiguration) cfg;
+            // every format of a fan-out appends its own extension
+            BatchRunner runner = (csvCfg.isFanOut() && !cfg.writesSnapshot())
+                    ? new BatchRunner(cfg, "", new FormatFanOut(csvCfg).getExtensions())
+                    : new BatchRunner(cfg, outputExtension(csvCfg));
+            BatchReport report = runner.run(fileCfg -> convert(fileCfg, Diagnostics.of(fileCfg)));
+            report.print(System.err);
+            return report.isSuccess() ? 0 : 1;
+        }
+
+        Diagnostics diagnostics = Diagnostics.of(cfg);
+        diagnostics.record(DiagnosticsConstants.CONFIGURATION, configuring);
+        convert(cfg, diagnostics);
+        return 0;
+    }
+
+    private static void convert(final Configuration cfg, final Diagnostics diagnostics) throws IOException {
+        if (cfg.isClientMode()) {
+            new ConversionClient(cfg).convert();
+            return;
+        }
+        CSVConfiguration csvCfg = (CSVConfiguration) cfg;
+        if (ConversionCache.appliesTo(cfg) && (cfg.writesSnapshot() || !csvCfg.isSharded() && !csvCfg.isFanOut())) {
+            boolean hit = new ConversionCache(cfg).convert(entryCfg -> process(entryCfg, diagnostics));
+            if (hit && cfg.isDebugMode()) {
+                System.err.println(cfg.getAppName() + ": output copied from the conversion cache");
+            }
+        } else {
+            process(cfg, diagnostics);
+        }
+        diagnostics.report(System.err);
+    }
+
+    private static void process(final Configuration cfg, final Diagnostics diagnostics) throws IOException {
+        if (cfg.writesSnapshot()) {
+            CXSnapshotWriter.writeSnapshot(cfg, diagnostics);
+            return;
+        }
+        if (((CSVConfiguration) cfg).isFanOut()) {
+            new FormatFanOut((CSVConfiguration) cfg).run(diagnostics);
+            return;
+        }
+        CSVProcessor processor = new CSVProcessor((CSVConfiguration) cfg, diagnostics);
+        processor.process();
+    }
+
+    private static void convert(final Configuration cfg, final InputStream input, final OutputStream output)
+            throws IOException {
+        Diagnostics diagnostics = Diagnostics.of(cfg);
+        if (cfg.writesSnapshot()) {
+            CXSnapshotWriter.writeSnapshot(cfg, input, output, diagnostics);
+        } else {
+            CSVProcessor processor = new CSVProcessor((CSVConfiguration) cfg, diagnostics);
+            processor.process(input, output);
+        }
+        diagnostics.report(System.err);
+    }
+
+    private static void serve(final Configuration cfg) throws IOException {
+        ConversionServer server = new ConversionServer(cfg,
+                args -> configureByCLI(args, cfg.getAppName()),
+                ExportCSV::convert,
+                requestCfg -> contentType((CSVConfiguration) requestCfg));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.printBanner(System.err);
+    }
+
+    private static String contentType(final CSVConfiguration cfg) {
+        if (cfg.writesSnapshot()) {
+            return SNAPSHOT_CONTENT_TYPE;
+        }
+        return CSVTemplate.CSVOptionConstants.COMMA.equals(cfg.getFileType())
+                ? "text/csv; charset=utf-8" : "text/tab-separated-values; charset=utf-8";
     }
 
-    private static void dispatchByOperation(final Configuration cfg) throws IOException {
-        if (!cfg.isShowHelpPrompt()) {
-            ToNiceCX cxReader = new ToNiceCX(cfg);
-            NiceCXNetwork cx = cxReader.makeNiceCX();
-            // TODO add some test
+    private static String outputExtension(final CSVConfiguration cfg) {
+        if (cfg.writesSnapshot()) {
+            return SnapshotConstants.EXTENSION;
         }
+        // a sharded network is written into a directory of its own
+        return cfg.isSharded() ? "" : CSVDialect.extensionOf(cfg.getFileType());
     }
 
 }
\ No newline at end of file
@@ -1,4 +1,6 @@
 module morphcx.launcher.poi {
     requires commons.cli;
     requires morphcx.configuration;
+    requires morphcx.processors.poi;
+    requires morphcx.readers;
 }
\ No newline at end of file
@@ -1,20 +1,41 @@
 package ndextools.morphcx.launcher.poi;
 
 import ndextools.morphcx.configuration.cli.base.*;
+import ndextools.morphcx.configuration.cli.batch.BatchReport;
+import ndextools.morphcx.configuration.cli.batch.BatchRunner;
+import ndextools.morphcx.configuration.cli.cache.ConversionCache;
+import ndextools.morphcx.configuration.cli.server.ConversionClient;
+import ndextools.morphcx.configuration.cli.server.ConversionServer;
+import ndextools.morphcx.configuration.cli.startup.StartupArchive;
+import ndextools.morphcx.processors.poi.POIProcessor;
+import ndextools.morphcx.readers.diagnostics.Diagnostics;
+import ndextools.morphcx.readers.diagnostics.Diagnostics.DiagnosticsConstants;
+import ndextools.morphcx.readers.diagnostics.Stopwatch;
+import ndextools.morphcx.readers.streaming.CXSnapshotWriter;
+import ndextools.morphcx.readers.streaming.CXSnapshotReader.SnapshotConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Root program containing entry point to launch application by commandline.
  */
 public class ExportPOI {
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final String SNAPSHOT_CONTENT_TYPE = "application/octet-stream";
 
     public static void main(final String[] args) {
         String[] cmdline = (args == null) ? new String[0] : args;
         String appName = ExportPOI.class.getSimpleName().toLowerCase();
 
         try {
+            Stopwatch configuring = Stopwatch.startWallClock();
             Configuration cfg = configureByCLI(cmdline, appName);
-            System.err.println(cfg.toString());  // TODO remove
-            dispatchByOperation(cfg);
+            int status = dispatchByOperation(cfg, configuring);
+            if (status != 0) {
+                System.exit(status);
+            }
         } catch (org.apache.commons.cli.ParseException e) {
             System.err.println(e.getMessage());
             System.exit(1);
@@ -31,11 +52,81 @@ public class ExportPOI {
         return template.configure(builder);
     }
 
-    private static void dispatchByOperation(final Configuration cfg) {
-        if (!cfg.isShowHelpPrompt()) {
-            // TODO
+    private static int dispatchByOperation(final Configuration cfg, final Stopwatch configuring) throws IOException {
+        if (cfg.isShowHelpPrompt()) {
+            return 0;
+        }
+
+        if (cfg.getStartupArchiveFilename().isPresent()) {
+            StartupArchive archive = new StartupArchive(cfg, ExportPOI.class);
+            archive.dump();
+            archive.printUsage(System.err);
+            return 0;
+        }
+
+        if (cfg.isServerMode()) {
+            serve(cfg);
+            return 0;
+        }
+
+        if (cfg.isBatchMode()) {
+            BatchRunner runner = new BatchRunner(cfg, cfg.writesSnapshot() ? SnapshotConstants.EXTENSION : ".xlsx");
+            BatchReport report = runner.run(fileCfg -> convert(fileCfg, Diagnostics.of(fileCfg)));
+            report.print(System.err);
+            return report.isSuccess() ? 0 : 1;
+        }
+
+        Diagnostics diagnostics = Diagnostics.of(cfg);
+        diagnostics.record(DiagnosticsConstants.CONFIGURATION, configuring);
+        convert(cfg, diagnostics);
+        return 0;
+    }
+
+    private static void convert(final Configuration cfg, final Diagnostics diagnostics) throws IOException {
+        if (cfg.isClientMode()) {
+            new ConversionClient(cfg).convert();
+            return;
+        }
+        if (ConversionCache.appliesTo(cfg)) {
+            boolean hit = new ConversionCache(cfg).convert(entryCfg -> process(entryCfg, diagnostics));
+            if (hit && cfg.isDebugMode()) {
+                System.err.println(cfg.getAppName() + ": output copied from the conversion cache");
+            }
+        } else {
+            process(cfg, diagnostics);
+        }
+        diagnostics.report(System.err);
+    }
+
+    private static void process(final Configuration cfg, final Diagnostics diagnostics) throws IOException {
+        if (cfg.writesSnapshot()) {
+            CXSnapshotWriter.writeSnapshot(cfg, diagnostics);
+            return;
         }
-        System.err.println(cfg.toString()); // TODO remove
+        POIProcessor processor = new POIProcessor(cfg, diagnostics);
+        processor.process();
+    }
+
+    private static void convert(final Configuration cfg, final InputStream input, final OutputStream output)
+            throws IOException {
+        Diagnostics diagnostics = Diagnostics.of(cfg);
+        if (cfg.writesSnapshot()) {
+            CXSnapshotWriter.writeSnapshot(cfg, input, output, diagnostics);
+        } else {
+            POIProcessor processor = new POIProcessor(cfg, diagnostics);
+            processor.process(input, output);
+        }
+        diagnostics.report(System.err);
+    }
+
+    private static void serve(final Configuration cfg) throws IOException {
+        ConversionServer server = new ConversionServer(cfg,
+                args -> configureByCLI(args, cfg.getAppName()),
+                ExportPOI::convert,
+                requestCfg -> requestCfg.writesSnapshot() ? SNAPSHOT_CONTENT_TYPE : XLSX_CONTENT_TYPE);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.printBanner(System.err);
     }
 
 }
\ No newline at end of file
@@ -1,2 +1,7 @@
 module morphcx.processors.csv {
+    exports ndextools.morphcx.processors.csv;
+
+    requires commons.cli;
+    requires morphcx.configuration;
+    requires morphcx.readers;
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package ndextools.morphcx.processors.csv;
+
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * CSVByteEncoder writes rows as UTF-8 into a reusable direct ByteBuffer, which is written to
+ * a channel, normally a FileChannel, whenever it fills up. Fields are encoded into a small
+ * scratch byte array first and moved into the buffer in bulk, since a loop over a heap array
+ * is much cheaper than a put() per byte into a direct buffer. No String, char array or byte
+ * array is created per field or per row, so encoding allocates nothing once the encoder is
+ * constructed.
+ * <p>
+ * A field is encoded unquoted on the assumption that it needs no quotes; if the delimiter, a
+ * double quote or a line break turns up, the field is encoded again, quoted, from its start.
+ * A field too long to be re-encoded within the scratch array is scanned first instead. Output
+ * is the same as that of the Writer-based encoder it replaced, CSVRowWriter, which
+ * morphcx.benchmarks keeps as its baseline.
+ * <p>
+ * close() writes what is still buffered but leaves the channel open; the channel belongs to
+ * the caller.
+ */
+public class CSVByteEncoder implements RowSink, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /** Most bytes a char of a quoted field encodes to: 3 for UTF-8, 2 for a doubled quote. */
+    private static final int MAX_BYTES_PER_CHAR = 3;
+    private static final int SCRATCH_SIZE = 1 << 13;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final char delimiter;
+    private final byte[] newline;
+    private final byte[] scratch = new byte[SCRATCH_SIZE];
+    private int used;
+    private long rowCount;
+
+    /**
+     * Constructor
+     * @param channel destination of the encoded rows
+     * @param dialect delimiter and newline; the delimiter must be an ASCII character
+     */
+    public CSVByteEncoder(final WritableByteChannel channel, final CSVDialect dialect) {
+        this(channel, dialect, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param channel destination of the encoded rows
+     * @param dialect delimiter and newline; the delimiter must be an ASCII character
+     * @param bufferSize size in bytes of the direct buffer
+     */
+    public CSVByteEncoder(final WritableByteChannel channel, final CSVDialect dialect, final int bufferSize) {
+        if (dialect.getDelimiter() >= 0x80) {
+            throw new IllegalArgumentException("delimiter must be an ASCII character");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 64));
+        this.delimiter = dialect.getDelimiter();
+        this.newline = dialect.getNewline().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void startTable(final List<String> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                putAscii(delimiter);
+            }
+            writeField(columns.get(i));
+        }
+        putNewline();
+    }
+
+    @Override
+    public void row(final String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                putAscii(delimiter);
+            }
+            writeField(fields[i]);
+        }
+        putNewline();
+        rowCount++;
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        flush();
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    public void flush() throws IOException {
+        drainScratch();
+        writeBuffer();
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * Getter method
+     * @return number of data rows written, excluding the heading.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void writeField(final String field) throws IOException {
+        if (field == null || field.isEmpty()) {
+            return;
+        }
+        int length = field.length();
+        int worst = length * MAX_BYTES_PER_CHAR + 2;
+        if (worst <= scratch.length) {
+            if (scratch.length - used < worst) {
+                drainScratch();
+            }
+            int end = encodeUnquoted(field, used);
+            used = (end >= 0) ? end : encodeQuoted(field, used);
+        } else {
+            boolean quoted = needsQuotes(field);
+            if (quoted) {
+                putAscii('"');
+            }
+            encodeLong(field, quoted);
+            if (quoted) {
+                putAscii('"');
+            }
+        }
+    }
+
+    /**
+     * Encodes a field into the scratch array from the given position, stopping at the first
+     * character that calls for quotes. The caller guarantees room for the worst case.
+     *
+     * @return position after the field, or -1 if the field needs quotes
+     */
+    private int encodeUnquoted(final String field, final int start) {
+        byte[] bytes = scratch;
+        int p = start;
+        int length = field.length();
+        for (int i = 0; i < length; i++) {
+            char c = field.charAt(i);
+            if (c < 0x80) {
+                if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                    return -1;
+                }
+                bytes[p++] = (byte) c;
+            } else {
+                p = encodeNonAscii(field, i, c, bytes, p);
+                if (isPair(field, i)) {
+                    i++;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Encodes a field, quoted, into the scratch array from the given position. The caller
+     * guarantees room for the worst case.
+     *
+     * @return position after the field
+     */
+    private int encodeQuoted(final String field, final int start) {
+        byte[] bytes = scratch;
+        int p = start;
+        bytes[p++] = '"';
+        int length = field.length();
+        for (int i = 0; i < length; i++) {
+            char c = field.charAt(i);
+            if (c < 0x80) {
+                if (c == '"') {
+                    bytes[p++] = '"';
+                }
+                bytes[p++] = (byte) c;
+            } else {
+                p = encodeNonAscii(field, i, c, bytes, p);
+                if (isPair(field, i)) {
+                    i++;
+                }
+            }
+        }
+        bytes[p++] = '"';
+        return p;
+    }
+
+    /**
+     * Encodes a field longer than the scratch array allows for, a part at a time.
+     */
+    private void encodeLong(final String field, final boolean quoted) throws IOException {
+        int length = field.length();
+        for (int i = 0; i < length; i++) {
+            if (scratch.length - used < 2 * MAX_BYTES_PER_CHAR) {
+                drainScratch();
+            }
+            char c = field.charAt(i);
+            if (c < 0x80) {
+                if (quoted && c == '"') {
+                    scratch[used++] = '"';
+                }
+                scratch[used++] = (byte) c;
+            } else {
+                used = encodeNonAscii(field, i, c, scratch, used);
+                if (isPair(field, i)) {
+                    i++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes a character of U+0080 or above, or a surrogate pair starting with it, as UTF-8.
+     * An unpaired surrogate is encoded as '?', as String.getBytes() does.
+     *
+     * @return position after the encoded bytes
+     */
+    private static int encodeNonAscii(final String field, final int i, final char c, final byte[] bytes, int p) {
+        if (c < 0x800) {
+            bytes[p++] = (byte) (0xC0 | (c >> 6));
+            bytes[p++] = (byte) (0x80 | (c & 0x3F));
+        } else if (!Character.isSurrogate(c)) {
+            bytes[p++] = (byte) (0xE0 | (c >> 12));
+            bytes[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[p++] = (byte) (0x80 | (c & 0x3F));
+        } else if (isPair(field, i)) {
+            int codePoint = Character.toCodePoint(c, field.charAt(i + 1));
+            bytes[p++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[p++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            bytes[p++] = '?';
+        }
+        return p;
+    }
+
+    /**
+     * @return true when the character at i is a high surrogate followed by a low surrogate
+     */
+    private static boolean isPair(final String field, final int i) {
+        return Character.isHighSurrogate(field.charAt(i)) && i + 1 < field.length()
+                && Character.isLowSurrogate(field.charAt(i + 1));
+    }
+
+    private boolean needsQuotes(final String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putAscii(final char c) throws IOException {
+        if (used == scratch.length) {
+            drainScratch();
+        }
+        scratch[used++] = (byte) c;
+    }
+
+    private void putNewline() throws IOException {
+        if (scratch.length - used < newline.length) {
+            drainScratch();
+        }
+        System.arraycopy(newline, 0, scratch, used, newline.length);
+        used += newline.length;
+    }
+
+    /**
+     * Copies the encoded bytes from the scratch array into the direct buffer, in one bulk put
+     * unless the buffer has to be written to the channel on the way.
+     */
+    private void drainScratch() throws IOException {
+        int offset = 0;
+        while (offset < used) {
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            int length = Math.min(used - offset, buffer.remaining());
+            buffer.put(scratch, offset, length);
+            offset += length;
+        }
+        used = 0;
+    }
+
+}
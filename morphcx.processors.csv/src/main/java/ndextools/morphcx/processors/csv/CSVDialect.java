@@ -0,0 +1,89 @@
+package ndextools.morphcx.processors.csv;
+
+import ndextools.morphcx.configuration.cli.csv.CSVConfiguration;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate.CSVOptionConstants;
+
+/**
+ * CSVDialect translates the symbolic file type and newline settings of a CSVConfiguration
+ * into the characters actually written.
+ */
+public final class CSVDialect {
+    private final char delimiter;
+    private final String newline;
+
+    public CSVDialect(final char delimiter, final String newline) {
+        this.delimiter = delimiter;
+        this.newline = newline;
+    }
+
+    /**
+     * Factory method
+     * @param cfg CSV configuration
+     * @return the dialect selected by the configuration's file type and newline options
+     */
+    public static CSVDialect of(final CSVConfiguration cfg) {
+        return new CSVDialect(delimiterOf(cfg.getFileType()), newlineOf(cfg.getNewline()));
+    }
+
+    /**
+     * @param fileType one of CSVOptionConstants.TAB or CSVOptionConstants.COMMA
+     * @return the field delimiter; a tab when the file type is missing or unknown
+     */
+    public static char delimiterOf(final String fileType) {
+        return CSVOptionConstants.COMMA.equals(fileType) ? ',' : '\t';
+    }
+
+    /**
+     * @param fileType one of CSVOptionConstants.TAB or CSVOptionConstants.COMMA
+     * @return the file name extension of the file type, ".csv" or ".tsv"
+     */
+    public static String extensionOf(final String fileType) {
+        return CSVOptionConstants.COMMA.equals(fileType) ? ".csv" : ".tsv";
+    }
+
+    /**
+     * @param newline one of the platform names in CSVOptionConstants
+     * @return the record separator for that platform; the system's when missing or unknown
+     */
+    public static String newlineOf(final String newline) {
+        if (newline == null) {
+            return System.lineSeparator();
+        }
+        switch (newline) {
+            case CSVOptionConstants.WINDOWS:
+                return "\r\n";
+            case CSVOptionConstants.LINUX:
+            case CSVOptionConstants.OSX:
+                return "\n";
+            case CSVOptionConstants.MAC:
+                return "\r";
+            default:
+                return System.lineSeparator();
+        }
+    }
+
+    /**
+     * Getter method
+     * @return the field delimiter.
+     */
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * Getter method
+     * @return the record separator.
+     */
+    public String getNewline() {
+        return newline;
+    }
+
+    @Override
+    public String toString() {
+        return "CSVDialect{" +
+                "delimiter=" + (delimiter == '\t' ? "\\t" : String.valueOf(delimiter)) +
+                ", newline=" + newline.replace("\r", "\\r").replace("\n", "\\n") +
+                '}';
+    }
+
+}
@@ -0,0 +1,236 @@
+package ndextools.morphcx.processors.csv;
+
+import ndextools.morphcx.configuration.cli.csv.CSVConfiguration;
+import ndextools.morphcx.readers.delta.RowFingerprints;
+import ndextools.morphcx.readers.diagnostics.Diagnostics;
+import ndextools.morphcx.readers.diagnostics.Diagnostics.DiagnosticsConstants;
+import ndextools.morphcx.readers.filter.FilterSyntaxException;
+import ndextools.morphcx.readers.filter.FilteringRowSink;
+import ndextools.morphcx.readers.filter.RowFilter;
+import ndextools.morphcx.readers.input.CXInput;
+import ndextools.morphcx.readers.pipeline.ConversionPipeline;
+import ndextools.morphcx.readers.pipeline.ConversionPipeline.ElementSource;
+import ndextools.morphcx.readers.rows.EdgeRowResolver;
+import ndextools.morphcx.readers.rows.RowSink;
+import ndextools.morphcx.readers.rows.WideEdgeRowResolver;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+import ndextools.morphcx.readers.streaming.CXStreamReader;
+import org.apache.commons.cli.ParseException;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * CSVProcessor converts a CX network into a CSV or TSV edge table. The network is read
+ * with CXStreamReader and every edge row is written as soon as it is resolved, so peak
+ * memory depends on the number of nodes, not on the number of edges.
+ * <p>
+ * When the configuration asks for attribute columns, rows are spilled to a temporary file
+ * by a WideEdgeRowResolver until every attribute name is known, and written out once the
+ * network has been read; memory stays bounded in the same way.
+ * <p>
+ * Reading, transforming elements into rows and encoding the rows run as the three stages of
+ * a ConversionPipeline: on threads of their own, unless the configuration is single-threaded.
+ * <p>
+ * With the SHARDED layout, the output names a directory and the network is written as
+ * separate node, edge and attribute tables by ShardedTables, every part file on a writer
+ * thread of its own unless the configuration is single-threaded. Given a previous version of
+ * the network, only the rows added, changed or removed since are written: the previous version
+ * is reduced to row fingerprints first, then the input compared with them as it streams past.
+ * <p>
+ * A filter expression in the configuration is compiled once, and rows it rejects are dropped
+ * as they are produced, before they are handed to the encoder.
+ */
+public class CSVProcessor {
+    private final CSVConfiguration cfg;
+    private final Diagnostics diagnostics;
+    private final RowFilter filter;
+
+    public CSVProcessor(final CSVConfiguration cfg) {
+        this(cfg, Diagnostics.disabled());
+    }
+
+    /**
+     * Constructor
+     * @param cfg configuration of the conversion
+     * @param diagnostics instrumentation of the conversion's phases, counts and bytes
+     */
+    public CSVProcessor(final CSVConfiguration cfg, final Diagnostics diagnostics) {
+        this.cfg = cfg;
+        this.diagnostics = diagnostics;
+        this.filter = cfg.getFilter().map(RowFilter::compile).orElse(null);
+    }
+
+    /**
+     * Compiles the configuration's filter expression, if any, so that a mistake in it is
+     * reported as a command-line error before any output is written.
+     *
+     * @param cfg configuration of the conversion
+     * @throws ParseException if the filter expression is invalid
+     */
+    public static void checkFilter(final CSVConfiguration cfg) throws ParseException {
+        if (cfg.getFilter().isPresent()) {
+            try {
+                RowFilter.compile(cfg.getFilter().get());
+            } catch (FilterSyntaxException e) {
+                throw new ParseException(cfg.getAppName() + ": invalid filter: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the input named by the configuration and writes the table to its output
+     * (a file, otherwise StdOut).
+     *
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public void process() throws IOException {
+        try (InputStream input = CXInput.open(cfg)) {
+            if (cfg.isSharded()) {
+                processSharded(input, Paths.get(cfg.getOutputFilename().orElse("")));
+                return;
+            }
+            if (!cfg.usesOutputFile()) {
+                process(input, System.out);
+                return;
+            }
+            try (OutputStream output = new FileOutputStream(cfg.getOutputFilename().orElse(""))) {
+                process(input, output);
+            }
+        }
+    }
+
+    /**
+     * Reads a CX network from a stream and writes the table to another, e.g. for a conversion
+     * server. Neither stream is closed. The SHARDED layout, which writes several files, is not
+     * supported.
+     *
+     * @param input CX network
+     * @param output destination of the table
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public void process(final InputStream input, final OutputStream output) throws IOException {
+        InputStream counted = diagnostics.countInput(input);
+        process(handler -> new CXStreamReader(cfg).read(counted, handler), output,
+                new ConversionPipeline(!cfg.isSingleThreaded()));
+    }
+
+    /**
+     * Writes the table of the elements a source delivers, e.g. one of several outputs of an
+     * ElementFanOut, to a stream, which is not closed. The elements are transformed and encoded
+     * on the calling thread. The SHARDED layout, which writes several files, is not supported.
+     *
+     * @param elements source of the elements of a CX network
+     * @param output destination of the table
+     * @throws IOException if the elements cannot be read or the output cannot be written
+     */
+    public void process(final ElementSource elements, final OutputStream output) throws IOException {
+        process(elements, output, new ConversionPipeline(false));
+    }
+
+    private void process(final ElementSource reader, final OutputStream output, final ConversionPipeline pipeline)
+            throws IOException {
+        if (cfg.isSharded()) {
+            throw new IllegalStateException("the SHARDED layout requires an output directory");
+        }
+        try (CSVByteEncoder writer = new CSVByteEncoder(channelOf(output), CSVDialect.of(cfg))) {
+            if (cfg.writesAttributes()) {
+                pipeline.run(reader, (elements, rows) -> transformWide(elements, rows, pipeline.isPipelined()),
+                        writer);
+                writer.close();
+                return;
+            }
+            pipeline.run(reader, (elements, rows) -> transform(elements, rows, pipeline.isPipelined()), writer);
+            try (Diagnostics.Phase write = diagnostics.phase(DiagnosticsConstants.WRITE)) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Reads a CX network from a stream and writes it as sharded tables into a directory.
+     * Output bytes are not counted by the diagnostics, as the part files are written
+     * concurrently.
+     *
+     * @param input CX network
+     * @param directory destination of the tables, created if need be
+     * @throws IOException if the input cannot be read or a table cannot be written
+     */
+    public void processSharded(final InputStream input, final Path directory) throws IOException {
+        Map<String, RowFingerprints> previous = null;
+        if (cfg.isDelta()) {
+            previous = ShardedTables.fingerprints();
+            try (Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ_PREVIOUS)) {
+                readPrevious(ShardedTables.fingerprintHandler(previous, filter));
+            }
+        }
+        InputStream counted = diagnostics.countInput(input);
+        boolean concurrent = !cfg.isSingleThreaded();
+        try (ShardedTables tables = new ShardedTables(directory, CSVDialect.of(cfg),
+                CSVDialect.extensionOf(cfg.getFileType()), cfg.getParts(), !cfg.isSingleThreaded(), filter, previous)) {
+            try (Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ, concurrent)) {
+                new CXStreamReader(cfg).read(counted, diagnostics.instrument(tables.getHandler()));
+            }
+            if (tables.hasRemovedRows()) {
+                try (Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ_PREVIOUS, concurrent)) {
+                    readPrevious(tables.getRemovedRowsHandler());
+                }
+            }
+            try (Diagnostics.Phase write = diagnostics.phase(DiagnosticsConstants.WRITE, concurrent)) {
+                tables.close();
+            }
+        }
+    }
+
+    private void readPrevious(final CXElementHandler handler) throws IOException {
+        try (InputStream previous = CXInput.openFile(Paths.get(cfg.getPreviousInputFilename().orElse("")))) {
+            new CXStreamReader(cfg).read(previous, handler);
+        }
+    }
+
+    private void transform(final ElementSource elements, final RowSink rows, final boolean concurrent)
+            throws IOException {
+        try (Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ, concurrent)) {
+            elements.readInto(diagnostics.instrument(new EdgeRowResolver(filtered(rows))));
+        }
+    }
+
+    private void transformWide(final ElementSource elements, final RowSink rows, final boolean concurrent)
+            throws IOException {
+        try (WideEdgeRowResolver resolver = new WideEdgeRowResolver(filtered(rows))) {
+            try (Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ, concurrent)) {
+                elements.readInto(diagnostics.instrument(resolver));
+            }
+            try (Diagnostics.Phase write = diagnostics.phase(DiagnosticsConstants.WRITE, concurrent)) {
+                resolver.writeTable();
+            }
+        }
+    }
+
+    /**
+     * @return the sink itself, or a FilteringRowSink in front of it when there is a filter
+     */
+    private RowSink filtered(final RowSink rows) {
+        return (filter != null) ? new FilteringRowSink(rows, filter, true) : rows;
+    }
+
+    /**
+     * @return the channel of a file output, so that encoded rows are written from the encoder's
+     *         direct buffer without a copy; otherwise a channel writing to the stream. Closing
+     *         the channel is left to the owner of the stream.
+     */
+    private WritableByteChannel channelOf(final OutputStream output) {
+        if (output instanceof FileOutputStream && !diagnostics.isEnabled()) {
+            return ((FileOutputStream) output).getChannel();
+        }
+        return Channels.newChannel(diagnostics.countOutput(output));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package ndextools.morphcx.processors.csv;
+
+import ndextools.morphcx.configuration.cli.csv.CSVConfiguration;
+import ndextools.morphcx.configuration.cli.csv.CSVTemplate.CSVOptionConstants;
+import ndextools.morphcx.readers.diagnostics.Diagnostics;
+import ndextools.morphcx.readers.diagnostics.Diagnostics.DiagnosticsConstants;
+import ndextools.morphcx.readers.input.CXInput;
+import ndextools.morphcx.readers.pipeline.ConversionPipeline.ElementSource;
+import ndextools.morphcx.readers.pipeline.ElementFanOut;
+import ndextools.morphcx.readers.streaming.CXStreamReader;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FormatFanOut writes a network in each of the formats of a configuration's --formats option
+ * from one read of the input, every format by its own processor on a thread of its own, fed by
+ * an ElementFanOut. Each format is written to the configuration's output with the format's
+ * extension appended.
+ * <p>
+ * TSV and CSV are written by CSVProcessor. Formats of other processors, e.g. XLSX, are added
+ * with addFormat(); a format of the configuration without a writer is an error. Every writer
+ * applies the configuration's filter to the rows it writes.
+ */
+public final class FormatFanOut {
+    private final CSVConfiguration cfg;
+    private final Map<String, String> extensions = new LinkedHashMap<>();
+    private final Map<String, FormatWriter> writers = new LinkedHashMap<>();
+
+    /**
+     * Writes the network in a format, e.g. through the process() method of its processor.
+     */
+    @FunctionalInterface
+    public interface FormatWriter {
+        void write(ElementSource elements, OutputStream output) throws IOException;
+    }
+
+    /**
+     * Constructor
+     * @param cfg configuration naming the formats and the base name of their outputs
+     */
+    public FormatFanOut(final CSVConfiguration cfg) {
+        this.cfg = cfg;
+        addCSVFormat(CSVOptionConstants.FORMAT_TSV, CSVOptionConstants.TAB);
+        addCSVFormat(CSVOptionConstants.FORMAT_CSV, CSVOptionConstants.COMMA);
+    }
+
+    /**
+     * Adds a format written by another processor.
+     *
+     * @param format name of the format in CSVOptionConstants
+     * @param extension extension of the format's output, e.g. ".xlsx"
+     * @param writer writes the network in the format
+     * @return this fan-out
+     */
+    public FormatFanOut addFormat(final String format, final String extension, final FormatWriter writer) {
+        extensions.put(format, extension);
+        writers.put(format, writer);
+        return this;
+    }
+
+    /**
+     * Getter method
+     * @return extensions of the outputs of the configuration's formats, in the order of the formats.
+     */
+    public List<String> getExtensions() {
+        List<String> formatExtensions = new ArrayList<>();
+        for (String format : cfg.getOutputFormats()) {
+            formatExtensions.add(extensionOf(format));
+        }
+        return formatExtensions;
+    }
+
+    /**
+     * Reads the input once on the calling thread, and writes each format on a thread of its own.
+     * Only the reading is instrumented by the diagnostics, by the wall clock, as the formats are
+     * written concurrently with it.
+     *
+     * @param diagnostics instrumentation of the conversion
+     * @throws IOException if the input cannot be read or an output cannot be written
+     */
+    public void run(final Diagnostics diagnostics) throws IOException {
+        String base = cfg.getOutputFilename().orElse("");
+        List<ElementFanOut.Consumer> consumers = new ArrayList<>();
+        for (String format : cfg.getOutputFormats()) {
+            String outputFilename = base + extensionOf(format);
+            FormatWriter writer = writers.get(format);
+            consumers.add(elements -> {
+                try (OutputStream output = new FileOutputStream(outputFilename)) {
+                    writer.write(elements, output);
+                }
+            });
+        }
+
+        try (InputStream input = CXInput.open(cfg)) {
+            InputStream counted = diagnostics.countInput(input);
+            try (Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ, true)) {
+                new ElementFanOut().run(handler -> new CXStreamReader(cfg).read(counted,
+                        diagnostics.instrument(handler)), consumers, "morphcx-format");
+            }
+        }
+    }
+
+    private void addCSVFormat(final String format, final String fileType) {
+        CSVConfiguration formatCfg = cfg.forOutput(fileType, cfg.getOutputFilename().orElse("")
+                + CSVDialect.extensionOf(fileType));
+        addFormat(format, CSVDialect.extensionOf(fileType),
+                (elements, output) -> new CSVProcessor(formatCfg).process(elements, output));
+    }
+
+    private String extensionOf(final String format) {
+        String extension = extensions.get(format);
+        if (extension == null) {
+            throw new IllegalStateException("no writer for the " + format + " format");
+        }
+        return extension;
+    }
+
+}
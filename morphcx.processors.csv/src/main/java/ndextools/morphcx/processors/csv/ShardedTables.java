@@ -0,0 +1,234 @@
+package ndextools.morphcx.processors.csv;
+
+import ndextools.morphcx.readers.delta.DeltaRowSink;
+import ndextools.morphcx.readers.delta.RowFingerprints;
+import ndextools.morphcx.readers.filter.FilteringRowSink;
+import ndextools.morphcx.readers.filter.RowFilter;
+import ndextools.morphcx.readers.pipeline.ShardedRowSink;
+import ndextools.morphcx.readers.rows.AttributeRowResolver;
+import ndextools.morphcx.readers.rows.EdgeListRowResolver;
+import ndextools.morphcx.readers.rows.NodeRowResolver;
+import ndextools.morphcx.readers.rows.RowSink;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+import ndextools.morphcx.readers.streaming.TeeElementHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * ShardedTables writes a network as four tables in a directory, for bulk loaders: nodes,
+ * edges, node_attributes and edge_attributes. Each table can be split into a number of part
+ * files, e.g. edges-part-003.tsv, and every part file has a writer thread of its own, so that
+ * encoding and writing grow with the cores and disks available. Every row is written as soon
+ * as it is read; nothing is joined or retained.
+ * <p>
+ * A filter applies to each table having every column it refers to; the other tables are
+ * written in full.
+ * <p>
+ * Given the fingerprints of the tables of a previous version of the network, each table holds
+ * only the rows added, changed or removed since, by DeltaRowSink. The removed rows are written
+ * once the previous version has been streamed again into getRemovedRowsHandler(). The key of
+ * the nodes and edges tables is the id; that of the attribute tables is the id, name and
+ * subnetwork.
+ * <p>
+ * close() waits for the writer threads, flushes and closes every file, and throws the first
+ * failure.
+ */
+final class ShardedTables implements Closeable {
+    static final String NODES = "nodes";
+    static final String EDGES = "edges";
+    static final String NODE_ATTRIBUTES = "node_attributes";
+    static final String EDGE_ATTRIBUTES = "edge_attributes";
+
+    private static final List<String> ID_KEY = List.of("id");
+    private static final List<String> ATTRIBUTE_KEY = List.of("id", "name", "subnetwork");
+
+    private final List<FileChannel> channels = new ArrayList<>();
+    private final List<CSVByteEncoder> encoders = new ArrayList<>();
+    private final List<ShardedRowSink> tables = new ArrayList<>();
+    private final Map<String, DeltaRowSink> deltas = new LinkedHashMap<>();
+    private final CXElementHandler handler;
+    private final RowFilter filter;
+    private final Map<String, RowFingerprints> previous;
+    private boolean closed;
+
+    /**
+     * The sink of each table, by name.
+     */
+    @FunctionalInterface
+    private interface TableSinks {
+        RowSink of(String name) throws IOException;
+    }
+
+    /**
+     * Constructor
+     * @param directory directory of the tables, created if need be
+     * @param dialect delimiter and newline of the tables
+     * @param extension file name extension, e.g. ".tsv"
+     * @param parts number of part files per table
+     * @param threaded true to write every part file on a thread of its own
+     * @param filter filter of the rows, or null for none
+     * @param previous fingerprints of the tables of a previous version, from fingerprints(), to
+     *                 write only the rows changed since; or null to write every row
+     * @throws IOException if the directory or a file cannot be created
+     */
+    ShardedTables(final Path directory, final CSVDialect dialect, final String extension, final int parts,
+                  final boolean threaded, final RowFilter filter, final Map<String, RowFingerprints> previous)
+            throws IOException {
+        if (filter != null && Stream.of(NodeRowResolver.COLUMNS, EdgeListRowResolver.COLUMNS, AttributeRowResolver.COLUMNS)
+                .noneMatch(columns -> columns.containsAll(filter.getColumns()))) {
+            throw new IllegalArgumentException("filter '" + filter + "' refers to columns of no sharded table");
+        }
+        this.filter = filter;
+        this.previous = previous;
+        Files.createDirectories(directory);
+        try {
+            handler = resolvers(name -> table(directory, name, dialect, extension, parts, threaded));
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Getter method
+     * @return handler writing the elements it is passed to the tables.
+     */
+    CXElementHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Creates the fingerprints of the tables of a network, to be filled by streaming the network
+     * into fingerprintHandler().
+     *
+     * @return empty fingerprints of every table, by name
+     */
+    static Map<String, RowFingerprints> fingerprints() {
+        Map<String, RowFingerprints> fingerprints = new LinkedHashMap<>();
+        fingerprints.put(NODES, new RowFingerprints(ID_KEY));
+        fingerprints.put(EDGES, new RowFingerprints(ID_KEY));
+        fingerprints.put(NODE_ATTRIBUTES, new RowFingerprints(ATTRIBUTE_KEY));
+        fingerprints.put(EDGE_ATTRIBUTES, new RowFingerprints(ATTRIBUTE_KEY));
+        return fingerprints;
+    }
+
+    /**
+     * @param fingerprints the fingerprints to fill, from fingerprints()
+     * @param filter filter of the rows, or null for none
+     * @return handler indexing the rows of the tables the elements it is passed make
+     */
+    static CXElementHandler fingerprintHandler(final Map<String, RowFingerprints> fingerprints, final RowFilter filter)
+            throws IOException {
+        return resolvers(name -> filtered(fingerprints.get(name), filter));
+    }
+
+    /**
+     * @return true if rows of the previous version were not found, so that it has to be streamed
+     *         again into getRemovedRowsHandler()
+     */
+    boolean hasRemovedRows() {
+        return deltas.values().stream().anyMatch(DeltaRowSink::hasRemovedRows);
+    }
+
+    /**
+     * Getter method
+     * @return handler writing the rows of the previous version that were not found as removed.
+     */
+    CXElementHandler getRemovedRowsHandler() throws IOException {
+        return resolvers(name -> filtered(deltas.get(name).removedRows(), filter));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException failure = null;
+        for (DeltaRowSink delta : deltas.values()) {
+            failure = closeAll(delta, failure, DeltaRowSink::finish);
+        }
+        for (ShardedRowSink table : tables) {
+            failure = closeAll(table, failure, ShardedRowSink::close);
+        }
+        for (CSVByteEncoder encoder : encoders) {
+            failure = closeAll(encoder, failure, CSVByteEncoder::close);
+        }
+        for (FileChannel channel : channels) {
+            failure = closeAll(channel, failure, FileChannel::close);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private RowSink table(final Path directory, final String name, final CSVDialect dialect, final String extension,
+                          final int parts, final boolean threaded) throws IOException {
+        List<RowSink> shards = new ArrayList<>();
+        for (int part = 0; part < parts; part++) {
+            String filename = (parts == 1) ? name + extension : String.format("%s-part-%03d%s", name, part, extension);
+            FileChannel channel = FileChannel.open(directory.resolve(filename), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            channels.add(channel);
+            CSVByteEncoder encoder = new CSVByteEncoder(channel, dialect);
+            encoders.add(encoder);
+            shards.add(encoder);
+        }
+        ShardedRowSink table = new ShardedRowSink(shards, threaded, "morphcx-" + name);
+        tables.add(table);
+        if (previous == null) {
+            return filtered(table, filter);
+        }
+        DeltaRowSink delta = new DeltaRowSink(table, previous.get(name));
+        deltas.put(name, delta);
+        return filtered(delta, filter);
+    }
+
+    private static CXElementHandler resolvers(final TableSinks sinks) throws IOException {
+        return new TeeElementHandler(
+                new NodeRowResolver(sinks.of(NODES)),
+                new EdgeListRowResolver(sinks.of(EDGES)),
+                AttributeRowResolver.ofNodes(sinks.of(NODE_ATTRIBUTES)),
+                AttributeRowResolver.ofEdges(sinks.of(EDGE_ATTRIBUTES)));
+    }
+
+    private static RowSink filtered(final RowSink sink, final RowFilter filter) {
+        return (filter != null) ? new FilteringRowSink(sink, filter, false) : sink;
+    }
+
+    private void closeQuietly(final Exception cause) {
+        try {
+            close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Closer<T> {
+        void close(T resource) throws IOException;
+    }
+
+    private static <T> IOException closeAll(final T resource, final IOException failure, final Closer<T> closer) {
+        try {
+            closer.close(resource);
+        } catch (IOException e) {
+            if (failure == null) {
+                return e;
+            }
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+}
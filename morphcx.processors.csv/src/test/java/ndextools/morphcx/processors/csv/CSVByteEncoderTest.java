@@ -0,0 +1,118 @@
+package ndextools.morphcx.processors.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CSVByteEncoderTest {
+    private static final CSVDialect CSV = new CSVDialect(',', "\n");
+    private static final CSVDialect TSV = new CSVDialect('\t', "\r\n");
+
+    private static String encode(final CSVDialect dialect, final int bufferSize, final String[]... rows)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (CSVByteEncoder encoder = new CSVByteEncoder(Channels.newChannel(output), dialect, bufferSize)) {
+            encoder.startTable(List.of("a", "b"));
+            for (String[] row : rows) {
+                encoder.row(row);
+            }
+            encoder.endTable();
+            assertEquals(rows.length, encoder.getRowCount());
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String encode(final CSVDialect dialect, final String... fields) throws IOException {
+        String text = encode(dialect, CSVByteEncoder.DEFAULT_BUFFER_SIZE, fields);
+        String heading = "a" + dialect.getDelimiter() + "b" + dialect.getNewline();
+        return text.substring(heading.length(), text.length() - dialect.getNewline().length());
+    }
+
+    /**
+     * The quoting rule, spelled out: quote a field holding the delimiter, a double quote or a
+     * line break, doubling its quotes.
+     */
+    private static String expectedField(final String field, final char delimiter) {
+        if (field == null) {
+            return "";
+        }
+        if (field.indexOf(delimiter) < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0
+                && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    @Test
+    void quotesOnlyFieldsThatNeedIt() throws IOException {
+        assertEquals("plain,", encode(CSV, "plain", null));
+        assertEquals(",", encode(CSV, "", ""));
+        assertEquals("\"a,b\",\"say \"\"hi\"\"\"", encode(CSV, "a,b", "say \"hi\""));
+        assertEquals("\"line\nbreak\",\"cr\rhere\"", encode(CSV, "line\nbreak", "cr\rhere"));
+        assertEquals("a,b\t\"tab\there\"", encode(TSV, "a,b", "tab\there"));
+        assertEquals("\"\"\"\"", encode(CSV, "\""));
+    }
+
+    @Test
+    void encodesUtf8() throws IOException {
+        assertEquals("é,€", encode(CSV, "é", "€"));
+        assertEquals("🧬,\"🧬,\"", encode(CSV, "🧬", "🧬,"));
+        // an unpaired surrogate becomes '?', as with String.getBytes()
+        assertEquals("a?b,?", encode(CSV, "a\uD800b", "\uDC00"));
+    }
+
+    @Test
+    void longFieldsAreEncodedAPartAtATime() throws IOException {
+        String plain = "x€".repeat(5_000);
+        String quoted = "\"y\",".repeat(5_000);
+        assertEquals(plain + "," + expectedField(quoted, ','), encode(CSV, plain, quoted));
+    }
+
+    @Test
+    void smallBufferIsWrittenAsOftenAsNeeded() throws IOException {
+        String[] row = {"0123456789".repeat(20), "é\"".repeat(50)};
+        String expected = "a,b\n" + (expectedField(row[0], ',') + "," + expectedField(row[1], ',') + "\n").repeat(3);
+        assertEquals(expected, encode(CSV, 1, row, row, row));
+    }
+
+    @Test
+    void randomFieldsMatchQuotingRule() throws IOException {
+        Random random = new Random(17);
+        String alphabet = "ab,\t\"\n\ré€🧬";
+        String[][] rows = new String[2_000][];
+        StringBuilder expected = new StringBuilder("a\tb\r\n");
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = new String[random.nextInt(4)];
+            for (int f = 0; f < rows[r].length; f++) {
+                StringBuilder field = new StringBuilder();
+                int length = (random.nextInt(50) == 0) ? 3_000 : random.nextInt(12);
+                for (int i = 0; i < length; i++) {
+                    int c = random.nextInt(alphabet.length() - 1);
+                    field.append(alphabet.charAt(c));
+                    if (Character.isHighSurrogate(alphabet.charAt(c))) {
+                        field.append(alphabet.charAt(c + 1));
+                    }
+                }
+                rows[r][f] = (random.nextInt(10) == 0) ? null : field.toString();
+                expected.append((f > 0) ? "\t" : "").append(expectedField(rows[r][f], '\t'));
+            }
+            expected.append("\r\n");
+        }
+        assertEquals(expected.toString(), encode(TSV, 100, rows));
+    }
+
+    @Test
+    void delimiterMustBeAscii() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new CSVByteEncoder(Channels.newChannel(new ByteArrayOutputStream()), new CSVDialect('§', "\n")));
+    }
+
+}
@@ -1,2 +1,8 @@
 module morphcx.processors.poi {
+    exports ndextools.morphcx.processors.poi;
+
+    requires morphcx.configuration;
+    requires morphcx.readers;
+    requires poi;
+    requires poi.ooxml;
 }
\ No newline at end of file
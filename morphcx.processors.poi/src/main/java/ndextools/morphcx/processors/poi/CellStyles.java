@@ -0,0 +1,47 @@
+package ndextools.morphcx.processors.poi;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * CellStyles is the registry of the cell styles of a workbook. Every style is created once,
+ * when the workbook is, and then shared by reference by every cell that uses it, so writing a
+ * row creates no style; a workbook holds a limited number of styles, and each one created is
+ * kept in memory and written to styles.xml. The styles are created before any worksheet is
+ * filled, so that the SheetWriter threads only read the registry.
+ */
+final class CellStyles {
+    private static final String INTEGER_FORMAT = "0";
+
+    private final CellStyle heading;
+    private final CellStyle integer;
+
+    CellStyles(final Workbook workbook) {
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        heading = workbook.createCellStyle();
+        heading.setFont(bold);
+
+        // the General format shows integers of more than 11 digits in scientific notation
+        integer = workbook.createCellStyle();
+        integer.setDataFormat(workbook.createDataFormat().getFormat(INTEGER_FORMAT));
+    }
+
+    /**
+     * Getter method
+     * @return style of the heading row of a worksheet.
+     */
+    CellStyle getHeading() {
+        return heading;
+    }
+
+    /**
+     * Getter method
+     * @return style of integer cells, whose every digit is shown.
+     */
+    CellStyle getInteger() {
+        return integer;
+    }
+
+}
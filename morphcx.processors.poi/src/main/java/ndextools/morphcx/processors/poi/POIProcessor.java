@@ -0,0 +1,179 @@
+package ndextools.morphcx.processors.poi;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.readers.columnar.ColumnarNetwork;
+import ndextools.morphcx.readers.columnar.ColumnarNetworkBuilder;
+import ndextools.morphcx.readers.columnar.NetworkTables;
+import ndextools.morphcx.readers.diagnostics.Diagnostics;
+import ndextools.morphcx.readers.diagnostics.Diagnostics.DiagnosticsConstants;
+import ndextools.morphcx.readers.filter.FilteringRowSink;
+import ndextools.morphcx.readers.filter.RowFilter;
+import ndextools.morphcx.readers.input.CXInput;
+import ndextools.morphcx.readers.pipeline.ConversionPipeline.ElementSource;
+import ndextools.morphcx.readers.rows.EdgeRowResolver;
+import ndextools.morphcx.readers.rows.NodeRowResolver;
+import ndextools.morphcx.readers.rows.RowSink;
+import ndextools.morphcx.readers.streaming.CXStreamReader;
+import ndextools.morphcx.readers.streaming.TeeElementHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * POIProcessor converts a CX network into an Excel (.xlsx) workbook holding an edge table
+ * and a node table. The tables are written to an XLSXWorkbookWriter, which splits them across
+ * worksheets as needed and fills each worksheet on its own thread; every phase of the
+ * diagnostics therefore runs across threads and is timed by the wall clock.
+ * <p>
+ * By default the rows are streamed from CXStreamReader into the workbook as they are resolved,
+ * so peak memory depends on the number of nodes, not on the number of edges. When the
+ * configuration asks for attribute columns, the tables gain one column per attribute, whose
+ * names are not known until the whole network has been read: the network is read into a
+ * ColumnarNetwork first, and its tables written once it is complete. The model is compact,
+ * but it grows with edges times attributes (182 MB retained for a 350 MB network of 500,000
+ * edges with 8 attributes each), so it is only built when asked for. Numeric and boolean
+ * attributes are written as numeric and boolean cells, by the CX data type of their column,
+ * and strings inline unless the configuration asks for a shared-strings table.
+ * <p>
+ * Given a RowFilter, only the rows it accepts are written, as by CSVProcessor: every edge row,
+ * and every node row when the node table has the columns the filter refers to.
+ */
+public class POIProcessor {
+    public static final String EDGES_TABLE = "Edges";
+    public static final String NODES_TABLE = "Nodes";
+
+    private final Configuration cfg;
+    private final Diagnostics diagnostics;
+    private final RowFilter filter;
+
+    public POIProcessor(final Configuration cfg) {
+        this(cfg, Diagnostics.disabled());
+    }
+
+    /**
+     * Constructor
+     * @param cfg configuration of the conversion
+     * @param diagnostics instrumentation of the conversion's phases, counts and bytes
+     */
+    public POIProcessor(final Configuration cfg, final Diagnostics diagnostics) {
+        this(cfg, diagnostics, null);
+    }
+
+    /**
+     * Constructor
+     * @param cfg configuration of the conversion
+     * @param diagnostics instrumentation of the conversion's phases, counts and bytes
+     * @param filter filter of the rows written, or null to write every row
+     */
+    public POIProcessor(final Configuration cfg, final Diagnostics diagnostics, final RowFilter filter) {
+        this.cfg = cfg;
+        this.diagnostics = diagnostics;
+        this.filter = filter;
+    }
+
+    /**
+     * Reads the input named by the configuration and writes the workbook to its output
+     * (a file, otherwise StdOut).
+     *
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public void process() throws IOException {
+        try (InputStream input = CXInput.open(cfg)) {
+            if (!cfg.usesOutputFile()) {
+                process(input, System.out);
+                return;
+            }
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(cfg.getOutputFilename().orElse("")))) {
+                process(input, output);
+            }
+        }
+    }
+
+    /**
+     * Reads a CX network from a stream and writes the workbook to another, e.g. for a
+     * conversion server. Neither stream is closed.
+     *
+     * @param input CX network
+     * @param output destination of the workbook
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public void process(final InputStream input, final OutputStream output) throws IOException {
+        InputStream counted = diagnostics.countInput(input);
+        if (!cfg.writesAttributes()) {
+            processStreaming(handler -> new CXStreamReader(cfg).read(counted, handler), output);
+            return;
+        }
+        ColumnarNetworkBuilder builder = new ColumnarNetworkBuilder();
+        processColumnar(builder, handler -> new CXStreamReader(cfg, builder.getDictionary())
+                .read(counted, handler), output);
+    }
+
+    /**
+     * Writes the workbook of the elements a source delivers, e.g. one of several outputs of an
+     * ElementFanOut, to a stream, which is not closed. The elements carry no dictionary codes,
+     * so for attribute columns their strings are encoded as they are added to the network.
+     *
+     * @param elements source of the elements of a CX network
+     * @param output destination of the workbook
+     * @throws IOException if the elements cannot be read or the output cannot be written
+     */
+    public void process(final ElementSource elements, final OutputStream output) throws IOException {
+        if (!cfg.writesAttributes()) {
+            processStreaming(elements, output);
+            return;
+        }
+        processColumnar(new ColumnarNetworkBuilder(), elements, output);
+    }
+
+    private void processStreaming(final ElementSource reader, final OutputStream output) throws IOException {
+        try (XLSXWorkbookWriter writer = new XLSXWorkbookWriter(XLSXWorkbookWriter.DEFAULT_WINDOW_SIZE,
+                XLSXWorkbookWriter.MAX_ROWS_PER_SHEET, cfg.writesSharedStrings())) {
+            EdgeRowResolver edges = new EdgeRowResolver(filtered(writer.newTable(EDGES_TABLE), true));
+            NodeRowResolver nodes = new NodeRowResolver(filtered(writer.newTable(NODES_TABLE,
+                    NodeRowResolver.DATA_TYPES), false));
+            try (Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ, true)) {
+                reader.readInto(diagnostics.instrument(new TeeElementHandler(edges, nodes)));
+            }
+            write(writer, output);
+        }
+    }
+
+    private void processColumnar(final ColumnarNetworkBuilder builder, final ElementSource reader,
+                                 final OutputStream output) throws IOException {
+        try (XLSXWorkbookWriter writer = new XLSXWorkbookWriter(XLSXWorkbookWriter.DEFAULT_WINDOW_SIZE,
+                XLSXWorkbookWriter.MAX_ROWS_PER_SHEET, cfg.writesSharedStrings())) {
+            try (Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ, true)) {
+                reader.readInto(diagnostics.instrument(builder));
+            }
+
+            ColumnarNetwork network = builder.getNetwork();
+            try (Diagnostics.Phase transform = diagnostics.phase(DiagnosticsConstants.TRANSFORM, true)) {
+                NetworkTables.writeEdgeTable(network, filtered(writer.newTable(EDGES_TABLE,
+                        NetworkTables.edgeDataTypes(network)), true));
+                NetworkTables.writeNodeTable(network, filtered(writer.newTable(NODES_TABLE,
+                        NetworkTables.nodeDataTypes(network)), false));
+            }
+            write(writer, output);
+        }
+    }
+
+    /**
+     * @param strict true to reject a table lacking a column the filter refers to
+     * @return the sink itself, or a FilteringRowSink in front of it when there is a filter
+     */
+    private RowSink filtered(final RowSink rows, final boolean strict) {
+        return (filter != null) ? new FilteringRowSink(rows, filter, strict) : rows;
+    }
+
+    private void write(final XLSXWorkbookWriter writer, final OutputStream output) throws IOException {
+        try (Diagnostics.Phase write = diagnostics.phase(DiagnosticsConstants.WRITE, true)) {
+            OutputStream counted = diagnostics.countOutput(output);
+            writer.write(counted);
+            counted.flush();
+        }
+    }
+
+}
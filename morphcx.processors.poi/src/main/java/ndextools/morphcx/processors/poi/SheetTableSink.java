@@ -0,0 +1,89 @@
+package ndextools.morphcx.processors.poi;
+
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SheetTableSink is the producer side of one table in an XLSX workbook. Rows are grouped
+ * into batches for the current SheetWriter; when a worksheet reaches the spreadsheet row
+ * limit the sink starts a new worksheet, repeating the heading, and lets the previous
+ * writer drain in the background.
+ */
+final class SheetTableSink implements RowSink {
+    static final int BATCH_SIZE = 1024;
+
+    private final XLSXWorkbookWriter workbook;
+    private final String tableName;
+    private final SheetWriter.CellKind[] kinds;
+    private final int maxRowsPerSheet;
+    private final List<SheetWriter> writers = new ArrayList<>();
+
+    private String[] header;
+    private SheetWriter current;
+    private int sheetRowCount;
+    private String[][] batch = new String[BATCH_SIZE][];
+    private int batchCount;
+
+    SheetTableSink(final XLSXWorkbookWriter workbook, final String tableName, final SheetWriter.CellKind[] kinds,
+                   final int maxRowsPerSheet) {
+        this.workbook = workbook;
+        this.tableName = tableName;
+        this.kinds = kinds;
+        this.maxRowsPerSheet = maxRowsPerSheet;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    List<SheetWriter> getWriters() {
+        return writers;
+    }
+
+    @Override
+    public void startTable(final List<String> columns) throws IOException {
+        header = columns.toArray(new String[0]);
+        startSheet();
+    }
+
+    @Override
+    public void row(final String[] fields) throws IOException {
+        if (sheetRowCount == maxRowsPerSheet) {
+            flushBatch();
+            current.finish();
+            startSheet();
+        }
+        batch[batchCount++] = fields.clone();
+        sheetRowCount++;
+        if (batchCount == BATCH_SIZE) {
+            flushBatch();
+        }
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        flushBatch();
+        current.finish();
+    }
+
+    private void startSheet() throws IOException {
+        String sheetName = writers.isEmpty() ? tableName : tableName + "_" + (writers.size() + 1);
+        current = workbook.startSheet(sheetName, header, kinds);
+        writers.add(current);
+        sheetRowCount = 0;
+    }
+
+    private void flushBatch() throws IOException {
+        if (batchCount > 0) {
+            String[][] full = (batchCount == BATCH_SIZE) ? batch : Arrays.copyOf(batch, batchCount);
+            current.put(full);
+            batch = new String[BATCH_SIZE][];
+            batchCount = 0;
+        }
+    }
+
+}
@@ -0,0 +1,244 @@
+package ndextools.morphcx.processors.poi;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * SheetWriter fills a single worksheet on its own thread. Batches of rows are handed over
+ * through a bounded queue, so a producer that runs ahead of the sheet is held back rather
+ * than buffering rows without limit. Each batch is written under the workbook's read lock,
+ * or its write lock with shared strings, see XLSXWorkbookWriter.
+ * <p>
+ * Fields of "double", "integer", "long" and "boolean" columns are written as numeric and
+ * boolean cells, which are smaller than strings and can be computed with in Excel. The kind of
+ * a column follows the CX data type declared for it, and each field is parsed on its own: a
+ * field that does not parse by that type, is not a finite number, or is an integer beyond the
+ * 15 significant digits of an Excel number, is written as a string instead, so that no value
+ * is altered. Strings are written inline unless the workbook shares them, see XLSXWorkbookWriter.
+ */
+final class SheetWriter implements Callable<Void> {
+    static final int MAX_CELL_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private static final String[][] END_OF_SHEET = new String[0][];
+    private static final int QUEUE_CAPACITY = 4;
+    private static final long OFFER_TIMEOUT_MILLIS = 100L;
+
+    private static final long MAX_EXACT_INTEGER = 999_999_999_999_999L;
+    private static final long MAX_GENERAL_INTEGER = 99_999_999_999L;
+    private static final long NOT_AN_INTEGER = Long.MIN_VALUE;
+
+    /**
+     * How the fields of a column are written.
+     */
+    enum CellKind {
+        STRING, DECIMAL, INTEGER, BOOLEAN;
+
+        /**
+         * @param dataType CX data type of a column, or null
+         * @return kind of the column's cells
+         */
+        static CellKind of(final String dataType) {
+            if (dataType == null) {
+                return STRING;
+            }
+            switch (dataType) {
+                case "double":
+                    return DECIMAL;
+                case "integer":
+                case "long":
+                    return INTEGER;
+                case "boolean":
+                    return BOOLEAN;
+                default:
+                    return STRING;
+            }
+        }
+    }
+
+    private final SXSSFSheet sheet;
+    private final String[] header;
+    private final CellKind[] kinds;
+    private final CellStyles styles;
+    private final Lock workbookLock;
+    private final BlockingQueue<String[][]> batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private Future<Void> future;
+    private int rowIndex;
+
+    SheetWriter(final SXSSFSheet sheet, final String[] header, final CellKind[] kinds, final CellStyles styles,
+                final Lock workbookLock) {
+        this.sheet = sheet;
+        this.header = header;
+        this.kinds = kinds;
+        this.styles = styles;
+        this.workbookLock = workbookLock;
+    }
+
+    void setFuture(final Future<Void> future) {
+        this.future = future;
+    }
+
+    Future<Void> getFuture() {
+        return future;
+    }
+
+    SXSSFSheet getSheet() {
+        return sheet;
+    }
+
+    /**
+     * Hands a batch of rows to the sheet's thread, waiting while its queue is full.
+     *
+     * @param batch rows to be written; ownership passes to the writer
+     * @throws IOException if the sheet's thread has failed or the caller is interrupted
+     */
+    void put(final String[][] batch) throws IOException {
+        try {
+            while (!batches.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (future.isDone()) {
+                    XLSXWorkbookWriter.await(future);
+                    throw new IOException("sheet " + sheet.getSheetName() + " stopped accepting rows");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Signals that no more rows will follow.
+     */
+    void finish() throws IOException {
+        put(END_OF_SHEET);
+    }
+
+    @Override
+    public Void call() throws Exception {
+        workbookLock.lock();
+        try {
+            writeHeading();
+        } finally {
+            workbookLock.unlock();
+        }
+
+        String[][] batch;
+        while ((batch = batches.take()) != END_OF_SHEET) {
+            workbookLock.lock();
+            try {
+                for (String[] fields : batch) {
+                    writeRow(fields);
+                }
+            } finally {
+                workbookLock.unlock();
+            }
+        }
+
+        workbookLock.lock();
+        try {
+            sheet.flushRows();
+        } finally {
+            workbookLock.unlock();
+        }
+        return null;
+    }
+
+    private void writeHeading() {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < header.length; i++) {
+            Cell cell = row.createCell(i);
+            cell.setCellValue(truncate(header[i]));
+            cell.setCellStyle(styles.getHeading());
+        }
+    }
+
+    private void writeRow(final String[] fields) {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            if (field != null && !field.isEmpty()) {
+                writeCell(row.createCell(i), (i < kinds.length) ? kinds[i] : CellKind.STRING, field);
+            }
+        }
+    }
+
+    private void writeCell(final Cell cell, final CellKind kind, final String field) {
+        switch (kind) {
+            case DECIMAL:
+                double decimal = decimalOf(field);
+                if (Double.isFinite(decimal)) {
+                    cell.setCellValue(decimal);
+                    return;
+                }
+                break;
+            case INTEGER:
+                long integer = integerOf(field);
+                if (integer != NOT_AN_INTEGER) {
+                    cell.setCellValue(integer);
+                    if (Math.abs(integer) > MAX_GENERAL_INTEGER) {
+                        cell.setCellStyle(styles.getInteger());
+                    }
+                    return;
+                }
+                break;
+            case BOOLEAN:
+                if (field.equalsIgnoreCase("true") || field.equalsIgnoreCase("false")) {
+                    cell.setCellValue(field.equalsIgnoreCase("true"));
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        cell.setCellValue(truncate(field));
+    }
+
+    /**
+     * @return the value of the field, or NaN if it is not a decimal number; the Java forms
+     *         Double.parseDouble() also accepts, padded, hexadecimal or suffixed by a type, are
+     *         not numbers of a CX network
+     */
+    private static double decimalOf(final String field) {
+        int length = field.length();
+        if (length == 0 || !isDecimalEnd(field.charAt(0)) && "+-".indexOf(field.charAt(0)) < 0
+                || !isDecimalEnd(field.charAt(length - 1)) || field.indexOf('x') >= 0 || field.indexOf('X') >= 0) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(field);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * @return the value of the field if it is an integer Excel holds exactly, otherwise
+     *         NOT_AN_INTEGER
+     */
+    private static long integerOf(final String field) {
+        try {
+            long integer = Long.parseLong(field);
+            return (Math.abs(integer) <= MAX_EXACT_INTEGER) ? integer : NOT_AN_INTEGER;
+        } catch (NumberFormatException e) {
+            return NOT_AN_INTEGER;
+        }
+    }
+
+    private static boolean isDecimalEnd(final char c) {
+        return (c >= '0' && c <= '9') || c == '.';
+    }
+
+    private static String truncate(final String field) {
+        return (field.length() > MAX_CELL_LENGTH) ? field.substring(0, MAX_CELL_LENGTH) : field;
+    }
+
+}
@@ -0,0 +1,221 @@
+package ndextools.morphcx.processors.poi;
+
+import ndextools.morphcx.readers.rows.RowSink;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * XLSXWorkbookWriter builds a streaming (SXSSF) workbook holding one or more tables.
+ * <p>
+ * Each table is a RowSink that rolls over to a new worksheet whenever the spreadsheet row
+ * limit is reached: a table named "Edges" occupies a single sheet "Edges", or the sheets
+ * "Edges_1", "Edges_2", ... when it does not fit. Every worksheet is filled by its own
+ * SheetWriter thread, so independent sheets are generated concurrently.
+ * <p>
+ * An SXSSFWorkbook is not thread-safe, and only the rows of a worksheet are confined to its
+ * thread: createSheet() adds to the workbook's sheet maps and package parts, which the cells of
+ * every sheet read, e.g. SXSSFCell.getCellStyle() looks up the workbook's default style. Calls
+ * on the workbook itself, creating a sheet on rollover, arranging the sheets and writing the
+ * workbook, therefore hold the write side of a read-write lock, and a SheetWriter holds the
+ * read side while it writes a batch of rows: sheets are filled concurrently with one another,
+ * but never while the workbook changes. The lock is held for one batch at a time, not while a
+ * SheetWriter waits for rows, so a rollover waits at most for the batches being written.
+ * <p>
+ * Only a window of the most recent rows of each worksheet is kept on the heap; older rows
+ * are flushed to compressed temporary files, which close() deletes.
+ * <p>
+ * Strings are written inline in the worksheets by default rather than through a shared-strings
+ * table, which would have to be held in memory until the end and grows with every distinct
+ * string, e.g. with every node name of a large network. A workbook whose values repeat is
+ * smaller with the table, and it can be asked for; rows are then added to it as they are
+ * flushed, and since the table is not thread-safe, each SheetWriter holds the write side of the
+ * lock rather than the read side, so that the worksheets are filled one batch at a time. Cell
+ * styles come from the workbook's CellStyles, created once.
+ */
+public class XLSXWorkbookWriter implements Closeable {
+    public static final int DEFAULT_WINDOW_SIZE = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+    public static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final SXSSFWorkbook workbook;
+    private final boolean sharedStrings;
+    private final CellStyles styles;
+    private final int maxDataRowsPerSheet;
+    private final ExecutorService executor;
+    private final ReadWriteLock workbookLock = new ReentrantReadWriteLock();
+    private final List<SheetTableSink> tables = new ArrayList<>();
+
+    public XLSXWorkbookWriter() {
+        this(DEFAULT_WINDOW_SIZE, MAX_ROWS_PER_SHEET);
+    }
+
+    /**
+     * Constructor
+     * @param windowSize number of rows per worksheet kept in memory before older rows are
+     *                   flushed to disk
+     * @param maxRowsPerSheet worksheet capacity including the heading row; at most
+     *                        MAX_ROWS_PER_SHEET
+     */
+    public XLSXWorkbookWriter(final int windowSize, final int maxRowsPerSheet) {
+        this(windowSize, maxRowsPerSheet, false);
+    }
+
+    /**
+     * Constructor
+     * @param windowSize number of rows per worksheet kept in memory before older rows are
+     *                   flushed to disk
+     * @param maxRowsPerSheet worksheet capacity including the heading row; at most
+     *                        MAX_ROWS_PER_SHEET
+     * @param sharedStrings true to write strings to the workbook's shared-strings table
+     *                      rather than inline
+     */
+    public XLSXWorkbookWriter(final int windowSize, final int maxRowsPerSheet, final boolean sharedStrings) {
+        if (maxRowsPerSheet < 2 || maxRowsPerSheet > MAX_ROWS_PER_SHEET) {
+            throw new IllegalArgumentException("maxRowsPerSheet must be between 2 and " + MAX_ROWS_PER_SHEET);
+        }
+        this.workbook = new SXSSFWorkbook(null, windowSize, true, sharedStrings);
+        this.sharedStrings = sharedStrings;
+        this.styles = new CellStyles(workbook);
+        this.maxDataRowsPerSheet = maxRowsPerSheet - 1;
+        this.executor = Executors.newCachedThreadPool(new SheetThreadFactory());
+    }
+
+    /**
+     * Adds a table to the workbook. Tables appear in the workbook in the order they are added.
+     * Tables are added before rows are written; each one may then be fed by a thread of its own.
+     *
+     * @param tableName base name of the table's worksheets
+     * @return sink receiving the table's rows
+     */
+    public RowSink newTable(final String tableName) {
+        return newTable(tableName, List.of());
+    }
+
+    /**
+     * Adds a table whose columns are typed, e.g. by NetworkTables.edgeDataTypes(). Fields of
+     * "double", "integer", "long" and "boolean" columns are written as numeric and boolean
+     * cells, those of other columns as strings. Tables appear in the workbook in the order
+     * they are added.
+     *
+     * @param tableName base name of the table's worksheets
+     * @param dataTypes CX data type of every column, in order
+     * @return sink receiving the table's rows
+     */
+    public RowSink newTable(final String tableName, final List<String> dataTypes) {
+        SheetWriter.CellKind[] kinds = new SheetWriter.CellKind[dataTypes.size()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = SheetWriter.CellKind.of(dataTypes.get(i));
+        }
+        SheetTableSink table = new SheetTableSink(this, tableName, kinds, maxDataRowsPerSheet);
+        tables.add(table);
+        return table;
+    }
+
+    /**
+     * Waits for every worksheet to be completed, assembles the workbook and writes it to
+     * the given stream, which is left open.
+     *
+     * @param output destination of the .xlsx content
+     * @throws IOException if a worksheet failed or the workbook cannot be written
+     */
+    public void write(final OutputStream output) throws IOException {
+        for (SheetTableSink table : tables) {
+            for (SheetWriter writer : table.getWriters()) {
+                await(writer.getFuture());
+            }
+        }
+        workbookLock.writeLock().lock();
+        try {
+            arrangeSheets();
+            workbook.write(output);
+        } finally {
+            workbookLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        workbook.dispose();
+        workbook.close();
+    }
+
+    /**
+     * Creates a worksheet, while no rows are written, and starts the thread that fills it.
+     */
+    SheetWriter startSheet(final String sheetName, final String[] header, final SheetWriter.CellKind[] kinds) {
+        SXSSFSheet sheet;
+        workbookLock.writeLock().lock();
+        try {
+            sheet = workbook.createSheet(sheetName);
+        } finally {
+            workbookLock.writeLock().unlock();
+        }
+        SheetWriter writer = new SheetWriter(sheet, header, kinds, styles,
+                sharedStrings ? workbookLock.writeLock() : workbookLock.readLock());
+        writer.setFuture(executor.submit(writer));
+        return writer;
+    }
+
+    /**
+     * Waits for a worksheet to be completed, rethrowing whatever made it fail.
+     */
+    static void await(final Future<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private void arrangeSheets() {
+        int position = 0;
+        for (SheetTableSink table : tables) {
+            List<SheetWriter> writers = table.getWriters();
+            if (writers.size() > 1) {
+                String firstName = writers.get(0).getSheet().getSheetName();
+                workbook.setSheetName(workbook.getSheetIndex(firstName), table.getTableName() + "_1");
+            }
+            for (SheetWriter writer : writers) {
+                workbook.setSheetOrder(writer.getSheet().getSheetName(), position++);
+            }
+        }
+        if (workbook.getNumberOfSheets() > 0) {
+            workbook.setActiveSheet(0);
+            workbook.setSelectedTab(0);
+        }
+    }
+
+    private static final class SheetThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, "morphcx-sheet-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package ndextools.morphcx.processors.poi;
+
+import ndextools.morphcx.readers.rows.RowSink;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XLSXWorkbookWriterTest {
+    private static final List<String> COLUMNS = List.of("id", "name");
+    private static final List<String> DATA_TYPES = List.of("long", "string");
+    private static final String[] TABLE_NAMES = {"Edges", "Nodes", "Attributes"};
+    private static final int ROWS_PER_TABLE = 3_000;
+    private static final int MAX_ROWS_PER_SHEET = 51;
+    private static final int WINDOW_SIZE = 10;
+    private static final int ROUNDS = 5;
+
+    /**
+     * Feeds several tables from threads of their own, so that every table rolls over to new
+     * worksheets while the sheets of the other tables are being written.
+     */
+    @Test
+    void concurrentRolloverKeepsEveryRow() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(writeConcurrently(false)))) {
+                checkWorkbook(workbook);
+                assertEquals(0, workbook.getSharedStringSource().getUniqueCount());
+            }
+        }
+    }
+
+    /**
+     * As concurrentRolloverKeepsEveryRow, with every string of every sheet added to the one
+     * shared-strings table.
+     */
+    @Test
+    void concurrentRolloverSharesEveryString() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(writeConcurrently(true)))) {
+                checkWorkbook(workbook);
+                assertEquals(COLUMNS.size() + TABLE_NAMES.length * ROWS_PER_TABLE,
+                        workbook.getSharedStringSource().getUniqueCount());
+            }
+        }
+    }
+
+    private static void checkWorkbook(final XSSFWorkbook workbook) {
+        int sheetsPerTable = (ROWS_PER_TABLE + MAX_ROWS_PER_SHEET - 2) / (MAX_ROWS_PER_SHEET - 1);
+        assertEquals(TABLE_NAMES.length * sheetsPerTable, workbook.getNumberOfSheets());
+        int index = 0;
+        for (String tableName : TABLE_NAMES) {
+            long id = 0;
+            for (int part = 1; part <= sheetsPerTable; part++) {
+                Sheet sheet = workbook.getSheetAt(index++);
+                assertEquals(tableName + "_" + part, sheet.getSheetName());
+                id = checkSheet(sheet, tableName, id);
+            }
+            assertEquals(ROWS_PER_TABLE, id);
+        }
+    }
+
+    private static byte[] writeConcurrently(final boolean sharedStrings) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExecutorService producers = Executors.newFixedThreadPool(TABLE_NAMES.length);
+        try (XLSXWorkbookWriter writer = new XLSXWorkbookWriter(WINDOW_SIZE, MAX_ROWS_PER_SHEET, sharedStrings)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> feeds = new ArrayList<>();
+            for (String tableName : TABLE_NAMES) {
+                RowSink table = writer.newTable(tableName, DATA_TYPES);
+                feeds.add(producers.submit(() -> {
+                    start.await();
+                    feed(table, tableName);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<Void> feed : feeds) {
+                feed.get();
+            }
+            writer.write(output);
+        } finally {
+            producers.shutdownNow();
+        }
+        return output.toByteArray();
+    }
+
+    private static void feed(final RowSink table, final String tableName) throws IOException {
+        table.startTable(COLUMNS);
+        for (int id = 0; id < ROWS_PER_TABLE; id++) {
+            table.row(new String[] {Integer.toString(id), tableName + id});
+        }
+        table.endTable();
+    }
+
+    /**
+     * @return id expected in the first row of the next sheet of the table
+     */
+    private static long checkSheet(final Sheet sheet, final String tableName, long id) {
+        Row heading = sheet.getRow(0);
+        assertEquals("id", heading.getCell(0).getStringCellValue());
+        assertEquals("name", heading.getCell(1).getStringCellValue());
+        for (int r = 1; r <= sheet.getLastRowNum(); r++, id++) {
+            Row row = sheet.getRow(r);
+            Cell idCell = row.getCell(0);
+            assertEquals(CellType.NUMERIC, idCell.getCellType());
+            assertEquals(id, (long) idCell.getNumericCellValue());
+            assertEquals(tableName + id, row.getCell(1).getStringCellValue());
+        }
+        return id;
+    }
+
+}
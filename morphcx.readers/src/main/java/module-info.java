@@ -1,6 +1,18 @@
 module morphcx.readers {
+    exports ndextools.morphcx.readers.columnar;
+    exports ndextools.morphcx.readers.delta;
+    exports ndextools.morphcx.readers.diagnostics;
+    exports ndextools.morphcx.readers.filter;
+    exports ndextools.morphcx.readers.index;
+    exports ndextools.morphcx.readers.input;
     exports ndextools.morphcx.readers.nicecx;
+    exports ndextools.morphcx.readers.pipeline;
+    exports ndextools.morphcx.readers.rows;
+    exports ndextools.morphcx.readers.streaming;
 
     requires ndex.object.model;
+    requires com.fasterxml.jackson.core;
     requires morphcx.configuration;
+    requires jdk.jfr;
+    requires jdk.management;
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package ndextools.morphcx.readers.columnar;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * AttributeColumn holds the values of one attribute (one name) for all nodes or all edges of
+ * a ColumnarNetwork, indexed by node or edge ordinal. Each subclass stores its values in a
+ * primitive array of the attribute's CX data type; a presence bit marks the rows that have a
+ * value, since CX attributes are sparse.
+ * <p>
+ * A column takes the data type of the first value it receives. A later value that the column
+ * can not hold, e.g. text in an integer column, makes the AttributeTable convert the column to
+ * a more general one, so no value is ever lost or reformatted. A number whose text differs from
+ * the one its primitive value prints as, e.g. "0.50" or "1e-5", is held as a number all the
+ * same, and its text is kept beside it for textAt().
+ * <p>
+ * The declared data type, that of the first value, survives such a conversion, so that a
+ * writer can still type each value that parses by it.
+ */
+public abstract class AttributeColumn {
+    private final String name;
+    private String declaredDataType;
+    final BitSet present = new BitSet();
+    private String[] texts;
+
+    AttributeColumn(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Getter method
+     * @return attribute name (n).
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter method
+     * @return CX data type of the values held by the column, e.g. "double" or "list_of_string".
+     */
+    public abstract String getDataType();
+
+    /**
+     * Getter method
+     * @return CX data type of the first value of the attribute, which the column was created for;
+     *      getDataType() differs from it once a value the type could not hold has been seen.
+     */
+    public String getDeclaredDataType() {
+        return (declaredDataType != null) ? declaredDataType : getDataType();
+    }
+
+    void setDeclaredDataType(final String declaredDataType) {
+        this.declaredDataType = declaredDataType;
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @return true if the row has a value in this column
+     */
+    public boolean isPresent(final int row) {
+        return present.get(row);
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @return the value as CX text, a list as a JSON array (see ListValues); null if the row has no value
+     */
+    public abstract String textAt(int row);
+
+    /**
+     * Stores a scalar value.
+     *
+     * @param row node or edge ordinal
+     * @param value CX text of the value, not null
+     * @param code dictionary code of the value
+     * @return false if this column can not hold the value exactly; nothing is stored then
+     */
+    abstract boolean set(int row, String value, int code);
+
+    /**
+     * Keeps the text of a row whose value prints differently, e.g. "0.50" read as 0.5; forgets
+     * that of a row whose value prints as it was read.
+     *
+     * @param row node or edge ordinal
+     * @param value text of the value as read
+     * @param printed text of the value as stored
+     */
+    final void keepText(final int row, final String value, final String printed) {
+        if (value.equals(printed)) {
+            if (texts != null && row < texts.length) {
+                texts[row] = null;
+            }
+            return;
+        }
+        if (texts == null) {
+            texts = new String[Math.max(16, row + 1)];
+        } else if (row >= texts.length) {
+            texts = Arrays.copyOf(texts, Math.max(row + 1, texts.length << 1));
+        }
+        texts[row] = value;
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @return the text kept for the row by keepText(), or null if its value prints as it was read
+     */
+    final String keptText(final int row) {
+        return (texts != null && row < texts.length) ? texts[row] : null;
+    }
+
+    /**
+     * Getter method
+     * @return highest row holding a value, plus one.
+     */
+    public int rowLimit() {
+        return present.length();
+    }
+
+}
@@ -0,0 +1,133 @@
+package ndextools.morphcx.readers.columnar;
+
+import ndextools.morphcx.readers.index.StringDictionary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AttributeTable holds the attributes of one aspect (node, edge or network attributes) of a
+ * ColumnarNetwork as one AttributeColumn per attribute name, in the order the names were
+ * first seen.
+ */
+public final class AttributeTable {
+    private static final String LIST_PREFIX = "list_of_";
+
+    private final StringDictionary dictionary;
+    private final List<AttributeColumn> columns = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    AttributeTable(final StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Getter method
+     * @return the columns, in the order their names were first seen.
+     */
+    public List<AttributeColumn> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * @param name attribute name
+     * @return the attribute's column, or null if no value of that name has been seen
+     */
+    public AttributeColumn column(final String name) {
+        Integer position = positions.get(name);
+        return (position != null) ? columns.get(position) : null;
+    }
+
+    /**
+     * Getter method
+     * @return number of columns.
+     */
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * Stores a scalar value, converting the column to a string or list column if its current
+     * type can not hold the value exactly.
+     */
+    void setScalar(final int row, final String name, final String dataType, final String value, final int code) {
+        if (name == null || value == null) {
+            return;
+        }
+        Integer position = positions.get(name);
+        if (position == null) {
+            position = add(newColumn(name, dataType));
+        }
+        AttributeColumn column = columns.get(position);
+        if (!column.set(row, value, code)) {
+            column = converted(column, StringColumn.copyOf(column, dictionary));
+            columns.set(position, column);
+            column.set(row, value, code);
+        }
+    }
+
+    /**
+     * Stores a list value, converting the column to a list column if it holds scalars.
+     */
+    void setList(final int row, final String name, final String dataType, final int[] codes, final int count) {
+        if (name == null) {
+            return;
+        }
+        Integer position = positions.get(name);
+        if (position == null) {
+            String listType = (dataType != null && dataType.startsWith(LIST_PREFIX)) ? dataType : LIST_PREFIX + "string";
+            AttributeColumn list = new ListColumn(name, listType, dictionary);
+            list.setDeclaredDataType(listType);
+            position = add(list);
+        }
+        AttributeColumn column = columns.get(position);
+        if (!(column instanceof ListColumn)) {
+            column = converted(column, ListColumn.copyOf(column, dictionary));
+            columns.set(position, column);
+        }
+        ListColumn list = (ListColumn) column;
+        list.startRow(row);
+        for (int i = 0; i < count; i++) {
+            list.addValue(row, codes[i]);
+        }
+    }
+
+    private int add(final AttributeColumn column) {
+        columns.add(column);
+        positions.put(column.getName(), columns.size() - 1);
+        return columns.size() - 1;
+    }
+
+    private static AttributeColumn converted(final AttributeColumn column, final AttributeColumn copy) {
+        copy.setDeclaredDataType(column.getDeclaredDataType());
+        return copy;
+    }
+
+    private AttributeColumn newColumn(final String name, final String dataType) {
+        String type = (dataType != null) ? dataType : "string";
+        AttributeColumn column = newColumnOf(name, type);
+        column.setDeclaredDataType(type);
+        return column;
+    }
+
+    private AttributeColumn newColumnOf(final String name, final String type) {
+        switch (type) {
+            case "integer":
+            case "long":
+                return new LongColumn(name, type);
+            case "double":
+                return new DoubleColumn(name);
+            case "boolean":
+                return new BooleanColumn(name);
+            default:
+                if (type.startsWith(LIST_PREFIX)) {
+                    return new ListColumn(name, type, dictionary);
+                }
+                return new StringColumn(name, dictionary);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package ndextools.morphcx.readers.columnar;
+
+import java.util.BitSet;
+
+/**
+ * BooleanColumn holds "boolean" values as one bit per row.
+ */
+public final class BooleanColumn extends AttributeColumn {
+    private final BitSet values = new BitSet();
+
+    BooleanColumn(final String name) {
+        super(name);
+    }
+
+    @Override
+    public String getDataType() {
+        return "boolean";
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @return the row's value; false if it has none, see isPresent()
+     */
+    public boolean valueAt(final int row) {
+        return values.get(row);
+    }
+
+    @Override
+    public String textAt(final int row) {
+        return present.get(row) ? Boolean.toString(values.get(row)) : null;
+    }
+
+    @Override
+    boolean set(final int row, final String value, final int code) {
+        boolean parsed;
+        if ("true".equals(value)) {
+            parsed = true;
+        } else if ("false".equals(value)) {
+            parsed = false;
+        } else {
+            return false;
+        }
+        values.set(row, parsed);
+        present.set(row);
+        return true;
+    }
+
+}
@@ -0,0 +1,202 @@
+package ndextools.morphcx.readers.columnar;
+
+import ndextools.morphcx.readers.index.LongIntHashIndex;
+import ndextools.morphcx.readers.index.NodeTable;
+import ndextools.morphcx.readers.index.StringDictionary;
+import org.ndexbio.model.cx.NiceCXNetwork;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * ColumnarNetwork is an in-memory CX network laid out as a struct of arrays rather than a graph
+ * of element objects. Nodes are held by a NodeTable (ids, names and represents in parallel
+ * arrays indexed by node ordinal); edges as parallel arrays of source ordinal, target ordinal
+ * and interaction code indexed by edge ordinal; attributes as typed AttributeColumns indexed
+ * by node or edge ordinal. Repetitive strings are held once, in a shared StringDictionary.
+ * <p>
+ * Exporters walk the arrays by ordinal in tight loops, without boxing or map lookups. A network
+ * is built with a ColumnarNetworkBuilder from a streaming CX reader, or from a NiceCXNetwork.
+ * <p>
+ * CX does not order aspects, so an edge or attribute may refer to a node or edge that has not
+ * been read yet. Such a node or edge gets an ordinal at once and is filled in when it arrives;
+ * one that never arrives is not declared, see isDeclaredNode() and isDeclaredEdge().
+ */
+public final class ColumnarNetwork {
+    static final int UNRESOLVED = -1;
+
+    private final StringDictionary dictionary;
+    private final NodeTable nodes = new NodeTable();
+    private final BitSet declaredNodes = new BitSet();
+
+    private final LongIntHashIndex edgeIndex = new LongIntHashIndex();
+    private final BitSet declaredEdges = new BitSet();
+    private int[] sources = new int[0];
+    private int[] targets = new int[0];
+    private int[] interactions = new int[0];
+
+    private final AttributeTable nodeAttributes;
+    private final AttributeTable edgeAttributes;
+    private final AttributeTable networkAttributes;
+
+    ColumnarNetwork(final StringDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.nodeAttributes = new AttributeTable(dictionary);
+        this.edgeAttributes = new AttributeTable(dictionary);
+        this.networkAttributes = new AttributeTable(dictionary);
+    }
+
+    /**
+     * Builds a columnar copy of a fully materialized NiceCX network.
+     *
+     * @param cx network produced by ToNiceCX
+     * @return columnar network holding every node, edge and attribute of the given one
+     */
+    public static ColumnarNetwork fromNiceCX(final NiceCXNetwork cx) {
+        return new ColumnarNetworkBuilder().addNiceCX(cx).getNetwork();
+    }
+
+    int nodeOrdinal(final long id) {
+        int ordinal = nodes.ordinalOf(id);
+        return (ordinal != LongIntHashIndex.ABSENT) ? ordinal : nodes.put(id, null, null);
+    }
+
+    void addNode(final long id, final String name, final String represents) {
+        declaredNodes.set(nodes.put(id, name, represents));
+    }
+
+    int edgeOrdinal(final long id) {
+        int ordinal = edgeIndex.add(id);
+        if (ordinal == sources.length) {
+            int capacity = Math.max(16, ordinal << 1);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            interactions = Arrays.copyOf(interactions, capacity);
+            Arrays.fill(sources, ordinal, capacity, UNRESOLVED);
+            Arrays.fill(targets, ordinal, capacity, UNRESOLVED);
+            Arrays.fill(interactions, ordinal, capacity, StringDictionary.NULL_CODE);
+        }
+        return ordinal;
+    }
+
+    void addEdge(final long id, final long source, final long target, final int interactionCode) {
+        int ordinal = edgeOrdinal(id);
+        sources[ordinal] = nodeOrdinal(source);
+        targets[ordinal] = nodeOrdinal(target);
+        interactions[ordinal] = interactionCode;
+        declaredEdges.set(ordinal);
+    }
+
+    /**
+     * Getter method
+     * @return string table holding interactions and attribute names and values.
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Getter method
+     * @return ids, names and represents values of the nodes, by node ordinal.
+     */
+    public NodeTable getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Getter method
+     * @return number of node ordinals, including nodes referred to but never declared.
+     */
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * @param ordinal node ordinal
+     * @return true if the node appeared in the nodes aspect
+     */
+    public boolean isDeclaredNode(final int ordinal) {
+        return declaredNodes.get(ordinal);
+    }
+
+    /**
+     * Getter method
+     * @return number of edge ordinals, including edges referred to but never declared.
+     */
+    public int edgeCount() {
+        return edgeIndex.size();
+    }
+
+    /**
+     * @param ordinal edge ordinal
+     * @return true if the edge appeared in the edges aspect
+     */
+    public boolean isDeclaredEdge(final int ordinal) {
+        return declaredEdges.get(ordinal);
+    }
+
+    /**
+     * @param ordinal edge ordinal
+     * @return the edge's CX id
+     */
+    public long edgeIdAt(final int ordinal) {
+        return edgeIndex.keyAt(ordinal);
+    }
+
+    /**
+     * @param ordinal edge ordinal
+     * @return node ordinal of the edge's source, or -1 if the edge is not declared
+     */
+    public int sourceAt(final int ordinal) {
+        return sources[ordinal];
+    }
+
+    /**
+     * @param ordinal edge ordinal
+     * @return node ordinal of the edge's target, or -1 if the edge is not declared
+     */
+    public int targetAt(final int ordinal) {
+        return targets[ordinal];
+    }
+
+    /**
+     * @param ordinal edge ordinal
+     * @return dictionary code of the edge's interaction, or StringDictionary.NULL_CODE
+     */
+    public int interactionCodeAt(final int ordinal) {
+        return interactions[ordinal];
+    }
+
+    /**
+     * @param ordinal edge ordinal
+     * @return the edge's interaction (i), which may be null
+     */
+    public String interactionAt(final int ordinal) {
+        return dictionary.decode(interactions[ordinal]);
+    }
+
+    /**
+     * Getter method
+     * @return node attributes, by node ordinal.
+     */
+    public AttributeTable getNodeAttributes() {
+        return nodeAttributes;
+    }
+
+    /**
+     * Getter method
+     * @return edge attributes, by edge ordinal.
+     */
+    public AttributeTable getEdgeAttributes() {
+        return edgeAttributes;
+    }
+
+    /**
+     * Getter method
+     * @return network attributes, all in row 0.
+     */
+    public AttributeTable getNetworkAttributes() {
+        return networkAttributes;
+    }
+
+}
@@ -0,0 +1,154 @@
+package ndextools.morphcx.readers.columnar;
+
+import ndextools.morphcx.readers.index.StringDictionary;
+import ndextools.morphcx.readers.streaming.CXAttribute;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+import org.ndexbio.cxio.aspects.datamodels.AbstractAttributesAspectElement;
+import org.ndexbio.cxio.aspects.datamodels.EdgeAttributesElement;
+import org.ndexbio.cxio.aspects.datamodels.EdgesElement;
+import org.ndexbio.cxio.aspects.datamodels.NetworkAttributesElement;
+import org.ndexbio.cxio.aspects.datamodels.NodeAttributesElement;
+import org.ndexbio.cxio.aspects.datamodels.NodesElement;
+import org.ndexbio.model.cx.NiceCXNetwork;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ColumnarNetworkBuilder fills a ColumnarNetwork. As a CXElementHandler it is driven by a
+ * CXStreamReader, which should be given the builder's dictionary so that attribute values
+ * arrive already encoded:
+ * <pre>
+ *     ColumnarNetworkBuilder builder = new ColumnarNetworkBuilder();
+ *     new CXStreamReader(cfg, builder.getDictionary()).read(builder);
+ *     ColumnarNetwork network = builder.getNetwork();
+ * </pre>
+ * It can also copy a NiceCXNetwork, see ColumnarNetwork.fromNiceCX().
+ */
+public class ColumnarNetworkBuilder implements CXElementHandler {
+    private static final int NETWORK_ROW = 0;
+
+    private final StringDictionary dictionary = new StringDictionary();
+    private final ColumnarNetwork network = new ColumnarNetwork(dictionary);
+    private int[] listCodes = new int[16];
+
+    /**
+     * Getter method
+     * @return the dictionary to pass to CXStreamReader.
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Getter method
+     * @return the network built so far; complete once the reader has finished.
+     */
+    public ColumnarNetwork getNetwork() {
+        return network;
+    }
+
+    @Override
+    public void node(long id, String name, String represents) {
+        network.addNode(id, name, represents);
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) {
+        network.addEdge(id, source, target, dictionary.encode(interaction));
+    }
+
+    @Override
+    public void nodeAttribute(CXAttribute attribute) {
+        add(network.getNodeAttributes(), network.nodeOrdinal(attribute.getPropertyOf()), attribute);
+    }
+
+    @Override
+    public void edgeAttribute(CXAttribute attribute) {
+        add(network.getEdgeAttributes(), network.edgeOrdinal(attribute.getPropertyOf()), attribute);
+    }
+
+    @Override
+    public void networkAttribute(CXAttribute attribute) {
+        add(network.getNetworkAttributes(), NETWORK_ROW, attribute);
+    }
+
+    /**
+     * Copies every node, edge and attribute of a NiceCX network.
+     *
+     * @param cx network produced by ToNiceCX
+     * @return this builder
+     */
+    public ColumnarNetworkBuilder addNiceCX(final NiceCXNetwork cx) {
+        for (NodesElement node : cx.getNodes().values()) {
+            network.addNode(node.getId(), node.getNodeName(), node.getNodeRepresents());
+        }
+        for (EdgesElement edge : cx.getEdges().values()) {
+            network.addEdge(edge.getId(), edge.getSource(), edge.getTarget(), dictionary.encode(edge.getInteraction()));
+        }
+        for (Map.Entry<Long, Collection<NodeAttributesElement>> entry : cx.getNodeAttributes().entrySet()) {
+            int row = network.nodeOrdinal(entry.getKey());
+            for (NodeAttributesElement element : entry.getValue()) {
+                add(network.getNodeAttributes(), row, element);
+            }
+        }
+        for (Map.Entry<Long, Collection<EdgeAttributesElement>> entry : cx.getEdgeAttributes().entrySet()) {
+            int row = network.edgeOrdinal(entry.getKey());
+            for (EdgeAttributesElement element : entry.getValue()) {
+                add(network.getEdgeAttributes(), row, element);
+            }
+        }
+        for (NetworkAttributesElement element : cx.getNetworkAttributes()) {
+            add(network.getNetworkAttributes(), NETWORK_ROW, element);
+        }
+        return this;
+    }
+
+    private void add(final AttributeTable table, final int row, final CXAttribute attribute) {
+        String name = attribute.getName();
+        if (attribute.isSingleValue()) {
+            String value = attribute.getValue();
+            int code = attribute.getValueCode();
+            if (code == StringDictionary.NULL_CODE) {
+                code = dictionary.encode(value);
+            }
+            table.setScalar(row, name, attribute.getDataType(), value, code);
+            return;
+        }
+
+        List<String> values = attribute.getValues();
+        int count = values.size();
+        ensureListCapacity(count);
+        for (int i = 0; i < count; i++) {
+            int code = attribute.getValueCodeAt(i);
+            listCodes[i] = (code != StringDictionary.NULL_CODE) ? code : dictionary.encode(values.get(i));
+        }
+        table.setList(row, name, attribute.getDataType(), listCodes, count);
+    }
+
+    private void add(final AttributeTable table, final int row, final AbstractAttributesAspectElement element) {
+        String dataType = (element.getDataType() != null) ? element.getDataType().toString() : null;
+        if (element.isSingleValue()) {
+            String value = element.getValue();
+            table.setScalar(row, element.getName(), dataType, value, dictionary.encode(value));
+            return;
+        }
+
+        List<String> values = element.getValues();
+        int count = values.size();
+        ensureListCapacity(count);
+        for (int i = 0; i < count; i++) {
+            listCodes[i] = dictionary.encode(values.get(i));
+        }
+        table.setList(row, element.getName(), dataType, listCodes, count);
+    }
+
+    private void ensureListCapacity(final int count) {
+        if (count > listCodes.length) {
+            listCodes = Arrays.copyOf(listCodes, Math.max(count, listCodes.length << 1));
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package ndextools.morphcx.readers.columnar;
+
+import java.util.Arrays;
+
+/**
+ * DoubleColumn holds "double" values as a double per row. Any text Double.parseDouble()
+ * accepts is held; the text of a value that Double.toString() would print differently, e.g.
+ * "1", "0.50" or "1e-5", is kept beside it, so that textAt() reproduces the input exactly.
+ */
+public final class DoubleColumn extends AttributeColumn {
+    private double[] values = new double[16];
+
+    DoubleColumn(final String name) {
+        super(name);
+    }
+
+    @Override
+    public String getDataType() {
+        return "double";
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @return the row's value; 0 if it has none, see isPresent()
+     */
+    public double valueAt(final int row) {
+        return (row < values.length) ? values[row] : 0.0;
+    }
+
+    @Override
+    public String textAt(final int row) {
+        if (!present.get(row)) {
+            return null;
+        }
+        String text = keptText(row);
+        return (text != null) ? text : Double.toString(values[row]);
+    }
+
+    @Override
+    boolean set(final int row, final String value, final int code) {
+        double parsed;
+        try {
+            parsed = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (row >= values.length) {
+            values = Arrays.copyOf(values, Math.max(row + 1, values.length << 1));
+        }
+        values[row] = parsed;
+        keepText(row, value, Double.toString(parsed));
+        present.set(row);
+        return true;
+    }
+
+}
@@ -0,0 +1,114 @@
+package ndextools.morphcx.readers.columnar;
+
+import ndextools.morphcx.readers.index.StringDictionary;
+import ndextools.morphcx.readers.rows.ListValues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ListColumn holds list-valued attributes. The values of all rows are stored back to back as
+ * dictionary codes in one array; each row records where its values start and how many there
+ * are. A scalar value is stored as a list of one.
+ */
+public final class ListColumn extends AttributeColumn {
+    private final String dataType;
+    private final StringDictionary dictionary;
+    private int[] starts = new int[16];
+    private int[] lengths = new int[16];
+    private int[] codes = new int[64];
+    private int codeCount;
+
+    ListColumn(final String name, final String dataType, final StringDictionary dictionary) {
+        super(name);
+        this.dataType = dataType;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Copies every value of a scalar column as a list of one.
+     */
+    static ListColumn copyOf(final AttributeColumn column, final StringDictionary dictionary) {
+        ListColumn copy = new ListColumn(column.getName(), "list_of_" + column.getDataType(), dictionary);
+        for (int row = column.present.nextSetBit(0); row >= 0; row = column.present.nextSetBit(row + 1)) {
+            String text = column.textAt(row);
+            copy.set(row, text, dictionary.encode(text));
+        }
+        return copy;
+    }
+
+    @Override
+    public String getDataType() {
+        return dataType;
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @return number of values of the row; 0 if it has none
+     */
+    public int lengthAt(final int row) {
+        return (row < lengths.length && present.get(row)) ? lengths[row] : 0;
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @param index position in the row's list, less than lengthAt(row)
+     * @return dictionary code of the value
+     */
+    public int codeAt(final int row, final int index) {
+        if (index < 0 || index >= lengthAt(row)) {
+            throw new IndexOutOfBoundsException("value " + index + " of " + lengthAt(row));
+        }
+        return codes[starts[row] + index];
+    }
+
+    /**
+     * @return the values of the row as a JSON array, see ListValues
+     */
+    @Override
+    public String textAt(final int row) {
+        if (!present.get(row)) {
+            return null;
+        }
+        int length = lengths[row];
+        List<String> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            values.add(dictionary.decode(codes[starts[row] + i]));
+        }
+        return ListValues.toText(values);
+    }
+
+    @Override
+    boolean set(final int row, final String value, final int code) {
+        startRow(row);
+        addValue(row, code);
+        return true;
+    }
+
+    /**
+     * Starts the list of a row, dropping any values it had. Values are then added with addValue().
+     */
+    void startRow(final int row) {
+        if (row >= starts.length) {
+            int capacity = Math.max(row + 1, starts.length << 1);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        starts[row] = codeCount;
+        lengths[row] = 0;
+        present.set(row);
+    }
+
+    /**
+     * Adds a value to the list of the row most recently started.
+     */
+    void addValue(final int row, final int code) {
+        if (codeCount == codes.length) {
+            codes = Arrays.copyOf(codes, codes.length << 1);
+        }
+        codes[codeCount++] = code;
+        lengths[row]++;
+    }
+
+}
@@ -0,0 +1,59 @@
+package ndextools.morphcx.readers.columnar;
+
+import java.util.Arrays;
+
+/**
+ * LongColumn holds "integer" and "long" values as a long per row. Any decimal text
+ * Long.parseLong() accepts is held; the text of a value that Long.toString() would print
+ * differently, e.g. "+5" or "007", is kept beside it, so that textAt() reproduces the input
+ * exactly.
+ */
+public final class LongColumn extends AttributeColumn {
+    private final String dataType;
+    private long[] values = new long[16];
+
+    LongColumn(final String name, final String dataType) {
+        super(name);
+        this.dataType = dataType;
+    }
+
+    @Override
+    public String getDataType() {
+        return dataType;
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @return the row's value; 0 if it has none, see isPresent()
+     */
+    public long valueAt(final int row) {
+        return (row < values.length) ? values[row] : 0L;
+    }
+
+    @Override
+    public String textAt(final int row) {
+        if (!present.get(row)) {
+            return null;
+        }
+        String text = keptText(row);
+        return (text != null) ? text : Long.toString(values[row]);
+    }
+
+    @Override
+    boolean set(final int row, final String value, final int code) {
+        long parsed;
+        try {
+            parsed = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (row >= values.length) {
+            values = Arrays.copyOf(values, Math.max(row + 1, values.length << 1));
+        }
+        values[row] = parsed;
+        keepText(row, value, Long.toString(parsed));
+        present.set(row);
+        return true;
+    }
+
+}
@@ -0,0 +1,142 @@
+package ndextools.morphcx.readers.columnar;
+
+import ndextools.morphcx.readers.index.NodeTable;
+import ndextools.morphcx.readers.rows.EdgeRowResolver;
+import ndextools.morphcx.readers.rows.NodeRowResolver;
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * NetworkTables writes the tables of a ColumnarNetwork to RowSinks, one column per attribute
+ * after the fixed columns of EdgeRowResolver and NodeRowResolver. Rows are produced by loops
+ * over the network's ordinal arrays; one field array is reused for every row.
+ */
+public final class NetworkTables {
+    private static final String STRING = "string";
+
+    private NetworkTables() {
+    }
+
+    /**
+     * Writes one row per declared edge: source name, interaction, target name, then the edge's
+     * attributes. As with EdgeRowResolver, a node without a name is written as its id, and
+     * declared nodes that take part in no edge follow as rows with only a source.
+     *
+     * @param network columnar network
+     * @param sink destination of the table
+     * @throws IOException if the sink cannot be written
+     */
+    public static void writeEdgeTable(final ColumnarNetwork network, final RowSink sink) throws IOException {
+        List<AttributeColumn> attributes = network.getEdgeAttributes().getColumns();
+        int fixed = EdgeRowResolver.COLUMNS.size();
+        String[] fields = new String[fixed + attributes.size()];
+        NodeTable nodes = network.getNodes();
+        BitSet connectedNodes = new BitSet(network.nodeCount());
+
+        sink.startTable(columns(EdgeRowResolver.COLUMNS, attributes));
+        for (int edge = 0, count = network.edgeCount(); edge < count; edge++) {
+            if (!network.isDeclaredEdge(edge)) {
+                continue;
+            }
+            int source = network.sourceAt(edge);
+            int target = network.targetAt(edge);
+            connectedNodes.set(source);
+            connectedNodes.set(target);
+            fields[0] = nameOf(nodes, source);
+            fields[1] = network.interactionAt(edge);
+            fields[2] = nameOf(nodes, target);
+            for (int a = 0; a < attributes.size(); a++) {
+                fields[fixed + a] = attributes.get(a).textAt(edge);
+            }
+            sink.row(fields);
+        }
+
+        for (int a = fixed; a < fields.length; a++) {
+            fields[a] = null;
+        }
+        for (int node = connectedNodes.nextClearBit(0); node < network.nodeCount();
+             node = connectedNodes.nextClearBit(node + 1))
+        {
+            if (network.isDeclaredNode(node)) {
+                fields[0] = nameOf(nodes, node);
+                fields[1] = null;
+                fields[2] = null;
+                sink.row(fields);
+            }
+        }
+        sink.endTable();
+    }
+
+    /**
+     * Writes one row per declared node: id, name, represents, then the node's attributes.
+     *
+     * @param network columnar network
+     * @param sink destination of the table
+     * @throws IOException if the sink cannot be written
+     */
+    public static void writeNodeTable(final ColumnarNetwork network, final RowSink sink) throws IOException {
+        List<AttributeColumn> attributes = network.getNodeAttributes().getColumns();
+        int fixed = NodeRowResolver.COLUMNS.size();
+        String[] fields = new String[fixed + attributes.size()];
+        NodeTable nodes = network.getNodes();
+
+        sink.startTable(columns(NodeRowResolver.COLUMNS, attributes));
+        for (int node = 0, count = network.nodeCount(); node < count; node++) {
+            if (!network.isDeclaredNode(node)) {
+                continue;
+            }
+            fields[0] = Long.toString(nodes.idAt(node));
+            fields[1] = nodes.nameAt(node);
+            fields[2] = nodes.representsAt(node);
+            for (int a = 0; a < attributes.size(); a++) {
+                fields[fixed + a] = attributes.get(a).textAt(node);
+            }
+            sink.row(fields);
+        }
+        sink.endTable();
+    }
+
+    /**
+     * @param network columnar network
+     * @return CX data type of every column of the edge table, in the order of writeEdgeTable()
+     */
+    public static List<String> edgeDataTypes(final ColumnarNetwork network) {
+        return dataTypes(Collections.nCopies(EdgeRowResolver.COLUMNS.size(), STRING),
+                network.getEdgeAttributes().getColumns());
+    }
+
+    /**
+     * @param network columnar network
+     * @return CX data type of every column of the node table, in the order of writeNodeTable()
+     */
+    public static List<String> nodeDataTypes(final ColumnarNetwork network) {
+        return dataTypes(NodeRowResolver.DATA_TYPES, network.getNodeAttributes().getColumns());
+    }
+
+    private static List<String> dataTypes(final List<String> fixed, final List<AttributeColumn> attributes) {
+        List<String> dataTypes = new ArrayList<>(fixed);
+        for (AttributeColumn attribute : attributes) {
+            dataTypes.add(attribute.getDeclaredDataType());
+        }
+        return dataTypes;
+    }
+
+    private static List<String> columns(final List<String> fixed, final List<AttributeColumn> attributes) {
+        List<String> columns = new ArrayList<>(fixed);
+        for (AttributeColumn attribute : attributes) {
+            columns.add(attribute.getName());
+        }
+        return columns;
+    }
+
+    private static String nameOf(final NodeTable nodes, final int ordinal) {
+        String name = nodes.nameAt(ordinal);
+        return (name != null) ? name : Long.toString(nodes.idAt(ordinal));
+    }
+
+}
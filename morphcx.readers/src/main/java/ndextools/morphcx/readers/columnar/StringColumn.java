@@ -0,0 +1,60 @@
+package ndextools.morphcx.readers.columnar;
+
+import ndextools.morphcx.readers.index.StringDictionary;
+
+import java.util.Arrays;
+
+/**
+ * StringColumn holds text values as codes into the network's StringDictionary, four bytes per
+ * row. It can hold any scalar value and is what other scalar columns are converted to.
+ */
+public final class StringColumn extends AttributeColumn {
+    private final StringDictionary dictionary;
+    private int[] codes = new int[16];
+
+    StringColumn(final String name, final StringDictionary dictionary) {
+        super(name);
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Copies every value of another scalar column, as text.
+     */
+    static StringColumn copyOf(final AttributeColumn column, final StringDictionary dictionary) {
+        StringColumn copy = new StringColumn(column.getName(), dictionary);
+        for (int row = column.present.nextSetBit(0); row >= 0; row = column.present.nextSetBit(row + 1)) {
+            String text = column.textAt(row);
+            copy.set(row, text, dictionary.encode(text));
+        }
+        return copy;
+    }
+
+    @Override
+    public String getDataType() {
+        return "string";
+    }
+
+    /**
+     * @param row node or edge ordinal
+     * @return dictionary code of the row's value, or StringDictionary.NULL_CODE if it has none
+     */
+    public int codeAt(final int row) {
+        return (row < codes.length && present.get(row)) ? codes[row] : StringDictionary.NULL_CODE;
+    }
+
+    @Override
+    public String textAt(final int row) {
+        return dictionary.decode(codeAt(row));
+    }
+
+    @Override
+    boolean set(final int row, final String value, final int code) {
+        if (row >= codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(row + 1, codes.length << 1));
+        }
+        codes[row] = code;
+        present.set(row);
+        return true;
+    }
+
+}
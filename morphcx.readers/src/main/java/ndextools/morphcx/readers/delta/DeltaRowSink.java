@@ -0,0 +1,161 @@
+package ndextools.morphcx.readers.delta;
+
+import ndextools.morphcx.readers.index.LongIntHashIndex;
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * DeltaRowSink writes only the rows of a table that differ from a previous version of it,
+ * given as RowFingerprints, each with a leading "change" column: "added" for a row whose key
+ * is new, "changed" for one whose key is known but whose fields differ. Unchanged rows are
+ * dropped. The table is compared in one streaming pass; nothing but a bit per previous row
+ * is retained.
+ * <p>
+ * Removed rows, whose keys do not turn up, cannot be written from fingerprints alone. Once
+ * the table has ended, the previous version is streamed again into removedRows(), which
+ * writes those rows as "removed", and finish() then ends the table downstream. finish() must
+ * be called in any case.
+ */
+public final class DeltaRowSink implements RowSink {
+    public static final String CHANGE_COLUMN = "change";
+    public static final String ADDED = "added";
+    public static final String CHANGED = "changed";
+    public static final String REMOVED = "removed";
+
+    private final RowSink sink;
+    private final RowFingerprints previous;
+    private final BitSet seen;
+    private int[] keyIndexes;
+    private String[] fields;
+    private long addedCount;
+    private long changedCount;
+    private long removedCount;
+
+    /**
+     * Constructor
+     * @param sink destination of the changed rows
+     * @param previous fingerprints of the rows of the previous version
+     */
+    public DeltaRowSink(final RowSink sink, final RowFingerprints previous) {
+        this.sink = sink;
+        this.previous = previous;
+        this.seen = new BitSet(previous.size());
+    }
+
+    @Override
+    public void startTable(final List<String> columns) throws IOException {
+        keyIndexes = previous.keyIndexesOf(columns);
+        fields = new String[columns.size() + 1];
+        List<String> deltaColumns = new ArrayList<>(columns.size() + 1);
+        deltaColumns.add(CHANGE_COLUMN);
+        deltaColumns.addAll(columns);
+        sink.startTable(deltaColumns);
+    }
+
+    @Override
+    public void row(final String[] rowFields) throws IOException {
+        int ordinal = previous.ordinalOf(RowFingerprints.keyFingerprint(rowFields, keyIndexes));
+        if (ordinal == LongIntHashIndex.ABSENT) {
+            addedCount++;
+            write(ADDED, rowFields);
+            return;
+        }
+        seen.set(ordinal);
+        if (previous.rowFingerprintAt(ordinal) != RowFingerprints.rowFingerprint(rowFields)) {
+            changedCount++;
+            write(CHANGED, rowFields);
+        }
+    }
+
+    /**
+     * Ends the table of the new version; the table is ended downstream by finish().
+     */
+    @Override
+    public void endTable() {
+        // removed rows are still to come
+    }
+
+    /**
+     * @return true if some rows of the previous version were not found, so that the previous
+     *         version has to be streamed into removedRows()
+     */
+    public boolean hasRemovedRows() {
+        return seen.cardinality() < previous.size();
+    }
+
+    /**
+     * @return a sink to stream the previous version of the table into, which writes the rows
+     *         whose keys were not found as "removed"
+     */
+    public RowSink removedRows() {
+        return new RowSink() {
+            private int[] previousKeyIndexes;
+
+            @Override
+            public void startTable(final List<String> columns) {
+                previousKeyIndexes = previous.keyIndexesOf(columns);
+            }
+
+            @Override
+            public void row(final String[] rowFields) throws IOException {
+                int ordinal = previous.ordinalOf(RowFingerprints.keyFingerprint(rowFields, previousKeyIndexes));
+                if (ordinal != LongIntHashIndex.ABSENT && !seen.get(ordinal)) {
+                    removedCount++;
+                    write(REMOVED, rowFields);
+                }
+            }
+
+            @Override
+            public void endTable() {
+                // the table is ended by finish()
+            }
+        };
+    }
+
+    /**
+     * Ends the table downstream, after any removed rows.
+     *
+     * @throws IOException if the sink fails
+     */
+    public void finish() throws IOException {
+        sink.endTable();
+    }
+
+    /**
+     * Getter method
+     * @return number of rows written as added.
+     */
+    public long getAddedCount() {
+        return addedCount;
+    }
+
+    /**
+     * Getter method
+     * @return number of rows written as changed.
+     */
+    public long getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * Getter method
+     * @return number of rows written as removed.
+     */
+    public long getRemovedCount() {
+        return removedCount;
+    }
+
+    private void write(final String change, final String[] rowFields) throws IOException {
+        fields[0] = change;
+        int length = Math.min(rowFields.length, fields.length - 1);
+        System.arraycopy(rowFields, 0, fields, 1, length);
+        Arrays.fill(fields, length + 1, fields.length, null);
+        sink.row(fields);
+    }
+
+}
@@ -0,0 +1,148 @@
+package ndextools.morphcx.readers.delta;
+
+import ndextools.morphcx.readers.index.LongIntHashIndex;
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RowFingerprints is an index of the rows of a table by key, e.g. the "id" column of a node
+ * table, built by streaming the table into it. Neither keys nor rows are kept: the key columns
+ * of a row are reduced to a 64-bit fingerprint, which LongIntHashIndex maps to an ordinal, and
+ * the whole row to another 64-bit fingerprint, held in a long array by ordinal. Memory is that
+ * of the key index, some 30 bytes per row, however wide the rows.
+ * <p>
+ * Two rows with equal fingerprints are taken to be equal. For distinct 64-bit fingerprints of
+ * n rows to collide has a probability of about n^2 / 2^65, e.g. 3 in a million for ten million
+ * rows. A key should identify one row; if several rows have the same key, the last one is
+ * indexed.
+ */
+public final class RowFingerprints implements RowSink {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<String> keyColumns;
+    private final LongIntHashIndex keys = new LongIntHashIndex();
+    private long[] rows = new long[1024];
+    private int[] keyIndexes;
+
+    /**
+     * Constructor
+     * @param keyColumns names of the columns identifying a row
+     */
+    public RowFingerprints(final List<String> keyColumns) {
+        if (keyColumns.isEmpty()) {
+            throw new IllegalArgumentException("a table needs at least one key column");
+        }
+        this.keyColumns = List.copyOf(keyColumns);
+    }
+
+    @Override
+    public void startTable(final List<String> columns) {
+        keyIndexes = keyIndexesOf(columns);
+    }
+
+    @Override
+    public void row(final String[] fields) {
+        int ordinal = keys.add(keyFingerprint(fields, keyIndexes));
+        if (ordinal == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        rows[ordinal] = rowFingerprint(fields);
+    }
+
+    @Override
+    public void endTable() {
+        // the index is complete
+    }
+
+    /**
+     * Getter method
+     * @return names of the columns identifying a row.
+     */
+    public List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    /**
+     * @return number of distinct keys indexed
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * @param keyFingerprint fingerprint of the key columns of a row
+     * @return ordinal of the row having the key, or LongIntHashIndex.ABSENT
+     */
+    int ordinalOf(final long keyFingerprint) {
+        return keys.ordinalOf(keyFingerprint);
+    }
+
+    /**
+     * @param ordinal ordinal of an indexed row
+     * @return fingerprint of the row
+     */
+    long rowFingerprintAt(final int ordinal) {
+        return rows[ordinal];
+    }
+
+    /**
+     * @param columns column headings of a table
+     * @return positions of the key columns among them
+     * @throws IllegalArgumentException if the table lacks a key column
+     */
+    int[] keyIndexesOf(final List<String> columns) {
+        int[] indexes = new int[keyColumns.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = columns.indexOf(keyColumns.get(i));
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("table " + columns + " has no key column " + keyColumns.get(i));
+            }
+        }
+        return indexes;
+    }
+
+    static long keyFingerprint(final String[] fields, final int[] keyIndexes) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int index : keyIndexes) {
+            hash = hashField(hash, (index < fields.length) ? fields[index] : null);
+        }
+        return mix(hash);
+    }
+
+    static long rowFingerprint(final String[] fields) {
+        long hash = FNV_OFFSET_BASIS;
+        for (String field : fields) {
+            hash = hashField(hash, field);
+        }
+        return mix(hash);
+    }
+
+    /**
+     * FNV-1a over the characters of a field, preceded by its length so that the boundaries
+     * between fields count; a null field hashes as the empty one, as it is written.
+     */
+    private static long hashField(long hash, final String field) {
+        int length = (field != null) ? field.length() : 0;
+        hash = (hash ^ length) * FNV_PRIME;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ field.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreading every input bit over the fingerprint.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
@@ -0,0 +1,67 @@
+package ndextools.morphcx.readers.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded once per converted network, with the number of elements of each aspect,
+ * the time spent handling them, and the number of bytes read and written.
+ */
+@Name("morphcx.Conversion")
+@Label("MorphCX Conversion")
+@Category("MorphCX")
+@Description("Element counts, per-aspect handling time and I/O volume of one conversion")
+class ConversionEvent extends jdk.jfr.Event {
+
+    @Label("Input")
+    String input;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Edges")
+    long edges;
+
+    @Label("Node Attributes")
+    long nodeAttributes;
+
+    @Label("Edge Attributes")
+    long edgeAttributes;
+
+    @Label("Network Attributes")
+    long networkAttributes;
+
+    @Label("Parse Time")
+    @Description("Read phase time outside the element handler; -1 when the read phase ran across threads")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseTime;
+
+    @Label("Node Handling Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long nodeTime;
+
+    @Label("Edge Handling Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long edgeTime;
+
+    @Label("Attribute Handling Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long attributeTime;
+
+    @Label("Output Write Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long outputTime;
+
+    @Label("Bytes Read")
+    @DataAmount(DataAmount.BYTES)
+    long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount(DataAmount.BYTES)
+    long bytesWritten;
+
+}
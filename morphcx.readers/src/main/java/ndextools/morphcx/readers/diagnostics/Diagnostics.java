@@ -0,0 +1,308 @@
+package ndextools.morphcx.readers.diagnostics;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diagnostics instruments one conversion when the application runs in debug mode (-X). It
+ * times the phases of the conversion (wall-clock time, CPU time and allocation of the
+ * converting thread), counts the elements of every aspect and the time spent transforming
+ * them, and counts the bytes read and written.
+ * <p>
+ * CPU time and allocation can only be read for the thread timing a phase. A phase during which
+ * other threads of the conversion work as well, e.g. the stages of a pipelined conversion or
+ * the writers of a fan-out, is therefore timed by the wall clock only; neither figure, nor the
+ * parse time derived from the read phase, is reported for it. Each phase and the conversion as a whole are
+ * also recorded as JFR events (category "MorphCX"), which a flight recording started with
+ * -XX:StartFlightRecording picks up.
+ * <p>
+ * When debug mode is off, every method returns its argument unchanged or does nothing, so
+ * a conversion pays nothing for the instrumentation.
+ */
+public final class Diagnostics {
+    private static final Diagnostics DISABLED = new Diagnostics(false, "");
+
+    private final boolean enabled;
+    private final String input;
+    private final List<PhaseTiming> phases = new ArrayList<>();
+    private InstrumentedElementHandler handler;
+    private CountingInputStream inputCounter;
+    private CountingOutputStream outputCounter;
+
+    private Diagnostics(final boolean enabled, final String input) {
+        this.enabled = enabled;
+        this.input = input;
+    }
+
+    /**
+     * @param cfg configuration of the conversion
+     * @return diagnostics that are enabled when the configuration is in debug mode
+     */
+    public static Diagnostics of(final Configuration cfg) {
+        if (!cfg.isDebugMode()) {
+            return DISABLED;
+        }
+        return new Diagnostics(true, cfg.getInputFilename().orElse("STDIN"));
+    }
+
+    /**
+     * @return diagnostics that record nothing
+     */
+    public static Diagnostics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Getter method
+     * @return true when the conversion is being instrumented
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts timing a phase on the current thread. Use in a try-with-resources statement.
+     *
+     * @param name phase name, one of DiagnosticsConstants
+     * @return the running phase, which is recorded when closed
+     */
+    public Phase phase(final String name) {
+        return phase(name, false);
+    }
+
+    /**
+     * Starts timing a phase, which may run concurrently with other threads of the conversion.
+     * Use in a try-with-resources statement.
+     *
+     * @param name phase name, one of DiagnosticsConstants
+     * @param concurrent true if other threads of the conversion work during the phase; only its
+     *                   wall-clock time is then recorded
+     * @return the running phase, which is recorded when closed
+     */
+    public Phase phase(final String name, final boolean concurrent) {
+        if (!enabled) {
+            return new Phase(name, null, concurrent);
+        }
+        return new Phase(name, concurrent ? Stopwatch.startWallClock() : Stopwatch.start(), concurrent);
+    }
+
+    /**
+     * Records a phase timed by a stopwatch started before these diagnostics existed, such as
+     * the parsing of the command-line that decides whether debugging is on.
+     *
+     * @param name phase name, one of DiagnosticsConstants
+     * @param stopwatch stopwatch started at the beginning of the phase on the current thread
+     */
+    public void record(final String name, final Stopwatch stopwatch) {
+        record(name, stopwatch, false);
+    }
+
+    private void record(final String name, final Stopwatch stopwatch, final boolean concurrent) {
+        if (!enabled) {
+            return;
+        }
+        PhaseTiming timing = new PhaseTiming(name, stopwatch.wallNanos(), stopwatch.cpuNanos(),
+                stopwatch.allocatedBytes(), concurrent);
+        phases.add(timing);
+
+        PhaseEvent event = new PhaseEvent();
+        if (event.shouldCommit()) {
+            event.input = input;
+            event.phase = timing.name;
+            event.wallTime = timing.wallNanos;
+            event.cpuTime = timing.cpuNanos;
+            event.allocated = timing.allocatedBytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param handler handler of the parsed CX elements
+     * @return a handler counting and timing the elements passed to the given one
+     */
+    public CXElementHandler instrument(final CXElementHandler handler) {
+        if (!enabled) {
+            return handler;
+        }
+        this.handler = new InstrumentedElementHandler(handler);
+        return this.handler;
+    }
+
+    /**
+     * @param in CX input
+     * @return a stream counting the bytes read from the given one
+     */
+    public InputStream countInput(final InputStream in) {
+        if (!enabled) {
+            return in;
+        }
+        inputCounter = new CountingInputStream(in);
+        return inputCounter;
+    }
+
+    /**
+     * @param out conversion output
+     * @return a stream counting the bytes written to the given one, and the time taken
+     */
+    public OutputStream countOutput(final OutputStream out) {
+        if (!enabled) {
+            return out;
+        }
+        outputCounter = new CountingOutputStream(out);
+        return outputCounter;
+    }
+
+    /**
+     * Prints a summary of the recorded phases, counts and bytes, and records the conversion
+     * as a JFR event. The summary is printed with a single call, so the reports of files
+     * converted concurrently do not interleave.
+     *
+     * @param out destination of the summary, normally StdErr
+     */
+    public void report(final PrintStream out) {
+        if (!enabled) {
+            return;
+        }
+        long[] counts = (handler != null) ? handler.counts : new long[6];
+        long[] nanos = (handler != null) ? handler.nanos : new long[6];
+        long bytesRead = (inputCounter != null) ? inputCounter.count : 0;
+        long bytesWritten = (outputCounter != null) ? outputCounter.count : 0;
+        long outputNanos = (outputCounter != null) ? outputCounter.nanos : 0;
+        long parseNanos = parseNanos();
+
+        StringBuilder text = new StringBuilder();
+        text.append("diagnostics: ").append(input).append(System.lineSeparator());
+        text.append(String.format("  %-30s %12s %12s %12s%n", "phase", "wall ms", "cpu ms", "alloc MB"));
+        for (PhaseTiming timing : phases) {
+            text.append(String.format("  %-30s %12s %12s %12s%n", timing.name, millis(timing.wallNanos),
+                    millis(timing.cpuNanos), megabytes(timing.allocatedBytes)));
+            if (DiagnosticsConstants.READ.equals(timing.name) && handler != null) {
+                appendDetail(text, "parse", parseNanos);
+                appendDetail(text, "transform nodes", nanos[InstrumentedElementHandler.NODES]);
+                appendDetail(text, "transform edges", nanos[InstrumentedElementHandler.EDGES]);
+                appendDetail(text, "transform nodeAttributes", nanos[InstrumentedElementHandler.NODE_ATTRIBUTES]);
+                appendDetail(text, "transform edgeAttributes", nanos[InstrumentedElementHandler.EDGE_ATTRIBUTES]);
+                appendDetail(text, "transform networkAttributes",
+                        nanos[InstrumentedElementHandler.NETWORK_ATTRIBUTES]);
+                appendDetail(text, "end of network", nanos[InstrumentedElementHandler.END_OF_NETWORK]);
+            }
+        }
+        text.append(String.format("  %-30s %12s%n", "output I/O (in phases above)", millis(outputNanos)));
+        text.append(String.format("  cpu and alloc: of the timing thread only; - for phases run across threads%n"));
+        text.append(String.format("  elements: nodes=%d, edges=%d, nodeAttributes=%d, edgeAttributes=%d, "
+                        + "networkAttributes=%d%n",
+                counts[InstrumentedElementHandler.NODES], counts[InstrumentedElementHandler.EDGES],
+                counts[InstrumentedElementHandler.NODE_ATTRIBUTES], counts[InstrumentedElementHandler.EDGE_ATTRIBUTES],
+                counts[InstrumentedElementHandler.NETWORK_ATTRIBUTES]));
+        text.append(String.format("  bytes: read=%d, written=%d%n", bytesRead, bytesWritten));
+        out.print(text);
+        out.flush();
+
+        ConversionEvent event = new ConversionEvent();
+        if (event.shouldCommit()) {
+            event.input = input;
+            event.nodes = counts[InstrumentedElementHandler.NODES];
+            event.edges = counts[InstrumentedElementHandler.EDGES];
+            event.nodeAttributes = counts[InstrumentedElementHandler.NODE_ATTRIBUTES];
+            event.edgeAttributes = counts[InstrumentedElementHandler.EDGE_ATTRIBUTES];
+            event.networkAttributes = counts[InstrumentedElementHandler.NETWORK_ATTRIBUTES];
+            event.parseTime = parseNanos;
+            event.nodeTime = nanos[InstrumentedElementHandler.NODES];
+            event.edgeTime = nanos[InstrumentedElementHandler.EDGES];
+            event.attributeTime = nanos[InstrumentedElementHandler.NODE_ATTRIBUTES]
+                    + nanos[InstrumentedElementHandler.EDGE_ATTRIBUTES]
+                    + nanos[InstrumentedElementHandler.NETWORK_ATTRIBUTES];
+            event.outputTime = outputNanos;
+            event.bytesRead = bytesRead;
+            event.bytesWritten = bytesWritten;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return time of the read phase not spent in the element handler, i.e. reading and parsing;
+     *         -1 when the read phase ran across threads, whose waits it would include
+     */
+    private long parseNanos() {
+        if (handler == null) {
+            return 0;
+        }
+        for (PhaseTiming timing : phases) {
+            if (DiagnosticsConstants.READ.equals(timing.name)) {
+                return timing.concurrent ? -1 : Math.max(0, timing.wallNanos - handler.handlerNanos());
+            }
+        }
+        return 0;
+    }
+
+    private static void appendDetail(final StringBuilder text, final String name, final long nanos) {
+        text.append(String.format("    %-28s %12s%n", name, millis(nanos)));
+    }
+
+    private static String millis(final long nanos) {
+        return (nanos < 0) ? "-" : String.format("%.1f", nanos / 1e6);
+    }
+
+    private static String megabytes(final long bytes) {
+        return (bytes < 0) ? "-" : String.format("%.1f", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * A phase being timed; records itself with its Diagnostics when closed.
+     */
+    public final class Phase implements AutoCloseable {
+        private final String name;
+        private final Stopwatch stopwatch;
+        private final boolean concurrent;
+
+        private Phase(final String name, final Stopwatch stopwatch, final boolean concurrent) {
+            this.name = name;
+            this.stopwatch = stopwatch;
+            this.concurrent = concurrent;
+        }
+
+        @Override
+        public void close() {
+            if (stopwatch != null) {
+                record(name, stopwatch, concurrent);
+            }
+        }
+    }
+
+    private static final class PhaseTiming {
+        private final String name;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+        private final boolean concurrent;
+
+        private PhaseTiming(final String name, final long wallNanos, final long cpuNanos, final long allocatedBytes,
+                            final boolean concurrent) {
+            this.name = name;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.concurrent = concurrent;
+        }
+    }
+
+    /**
+     * Names of the phases of a conversion
+     */
+    public static class DiagnosticsConstants {
+
+        public static final String CONFIGURATION = "configuration";
+        public static final String READ = "read (parse + transform)";
+        public static final String READ_PREVIOUS = "read previous version";
+        public static final String TRANSFORM = "transform";
+        public static final String WRITE = "write";
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package ndextools.morphcx.readers.diagnostics;
+
+import ndextools.morphcx.readers.streaming.CXAttribute;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+
+import java.io.IOException;
+
+/**
+ * InstrumentedElementHandler counts the elements of each aspect passed to another handler and
+ * the wall-clock time that handler spends on them, i.e. the transform stage of a conversion
+ * including any output written from within the handler.
+ */
+class InstrumentedElementHandler implements CXElementHandler {
+    static final int NODES = 0;
+    static final int EDGES = 1;
+    static final int NODE_ATTRIBUTES = 2;
+    static final int EDGE_ATTRIBUTES = 3;
+    static final int NETWORK_ATTRIBUTES = 4;
+    static final int END_OF_NETWORK = 5;
+
+    final long[] counts = new long[6];
+    final long[] nanos = new long[6];
+
+    private final CXElementHandler handler;
+
+    InstrumentedElementHandler(final CXElementHandler handler) {
+        this.handler = handler;
+    }
+
+    long handlerNanos() {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        return total;
+    }
+
+    @Override
+    public void startNetwork() throws IOException {
+        handler.startNetwork();
+    }
+
+    @Override
+    public void node(long id, String name, String represents) throws IOException {
+        long start = System.nanoTime();
+        handler.node(id, name, represents);
+        nanos[NODES] += System.nanoTime() - start;
+        counts[NODES]++;
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) throws IOException {
+        long start = System.nanoTime();
+        handler.edge(id, source, target, interaction);
+        nanos[EDGES] += System.nanoTime() - start;
+        counts[EDGES]++;
+    }
+
+    @Override
+    public void nodeAttribute(CXAttribute attribute) throws IOException {
+        long start = System.nanoTime();
+        handler.nodeAttribute(attribute);
+        nanos[NODE_ATTRIBUTES] += System.nanoTime() - start;
+        counts[NODE_ATTRIBUTES]++;
+    }
+
+    @Override
+    public void edgeAttribute(CXAttribute attribute) throws IOException {
+        long start = System.nanoTime();
+        handler.edgeAttribute(attribute);
+        nanos[EDGE_ATTRIBUTES] += System.nanoTime() - start;
+        counts[EDGE_ATTRIBUTES]++;
+    }
+
+    @Override
+    public void networkAttribute(CXAttribute attribute) throws IOException {
+        long start = System.nanoTime();
+        handler.networkAttribute(attribute);
+        nanos[NETWORK_ATTRIBUTES] += System.nanoTime() - start;
+        counts[NETWORK_ATTRIBUTES]++;
+    }
+
+    @Override
+    public void endNetwork() throws IOException {
+        long start = System.nanoTime();
+        handler.endNetwork();
+        nanos[END_OF_NETWORK] += System.nanoTime() - start;
+    }
+
+}
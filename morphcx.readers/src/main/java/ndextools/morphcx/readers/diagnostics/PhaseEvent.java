@@ -0,0 +1,41 @@
+package ndextools.morphcx.readers.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded at the end of each timed phase of a conversion. The phase's own wall
+ * time is carried in a field because a phase may have started before debugging was known
+ * to be on, e.g. parsing the command-line.
+ */
+@Name("morphcx.Phase")
+@Label("MorphCX Phase")
+@Category("MorphCX")
+@Description("Wall-clock time, CPU time and allocation of one phase of a conversion")
+class PhaseEvent extends jdk.jfr.Event {
+
+    @Label("Input")
+    String input;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Wall Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long wallTime;
+
+    @Label("CPU Time")
+    @Description("Of the thread timing the phase only; -1 when the phase ran across threads")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @Description("By the thread timing the phase only; -1 when the phase ran across threads")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+
+}
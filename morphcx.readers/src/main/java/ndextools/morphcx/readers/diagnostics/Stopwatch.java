@@ -0,0 +1,95 @@
+package ndextools.morphcx.readers.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Stopwatch takes a reading of wall-clock time, CPU time and allocated bytes of the current
+ * thread when started, so that the cost of a phase can be computed once it is over. CPU time
+ * and allocation are those of the calling thread only; work handed to other threads is not
+ * included. Readings the JVM does not support are reported as -1.
+ * <p>
+ * CPU time and allocation are read through JMX, which is initialized the first time a
+ * stopwatch reading them is started. A stopwatch started with startWallClock() reads the
+ * wall clock only, for phases timed before it is known whether anyone will look.
+ */
+public final class Stopwatch {
+    private final boolean wallClockOnly;
+    private final long startWall;
+    private final long startCpu;
+    private final long startAllocated;
+
+    private Stopwatch(final boolean wallClockOnly) {
+        this.wallClockOnly = wallClockOnly;
+        this.startWall = System.nanoTime();
+        this.startCpu = wallClockOnly ? -1 : cpuTime();
+        this.startAllocated = wallClockOnly ? -1 : currentAllocatedBytes();
+    }
+
+    /**
+     * @return a stopwatch started now, on the current thread
+     */
+    public static Stopwatch start() {
+        return new Stopwatch(false);
+    }
+
+    /**
+     * @return a stopwatch started now that reads the wall clock only; its CPU time and
+     *         allocation are reported as -1
+     */
+    public static Stopwatch startWallClock() {
+        return new Stopwatch(true);
+    }
+
+    /**
+     * @return nanoseconds of wall-clock time since the stopwatch was started
+     */
+    public long wallNanos() {
+        return System.nanoTime() - startWall;
+    }
+
+    /**
+     * @return nanoseconds of CPU time used by the current thread since the stopwatch was started
+     */
+    public long cpuNanos() {
+        if (wallClockOnly) {
+            return -1;
+        }
+        long now = cpuTime();
+        return (now < 0 || startCpu < 0) ? -1 : now - startCpu;
+    }
+
+    /**
+     * @return bytes allocated by the current thread since the stopwatch was started
+     */
+    public long allocatedBytes() {
+        if (wallClockOnly) {
+            return -1;
+        }
+        long now = currentAllocatedBytes();
+        return (now < 0 || startAllocated < 0) ? -1 : now - startAllocated;
+    }
+
+    private static long cpuTime() {
+        ThreadMXBean threads = ThreadBeans.THREADS;
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long currentAllocatedBytes() {
+        com.sun.management.ThreadMXBean allocations = ThreadBeans.ALLOCATIONS;
+        if (allocations == null || !allocations.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Holds the JMX beans, initialized the first time they are read.
+     */
+    private static final class ThreadBeans {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+        private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+                (THREADS instanceof com.sun.management.ThreadMXBean) ? (com.sun.management.ThreadMXBean) THREADS : null;
+    }
+
+}
@@ -0,0 +1,27 @@
+package ndextools.morphcx.readers.filter;
+
+/**
+ * Thrown when a filter expression cannot be compiled.
+ */
+public class FilterSyntaxException extends IllegalArgumentException {
+    private final int position;
+
+    /**
+     * Constructor
+     * @param message what is wrong
+     * @param position index in the expression at which the error was found
+     */
+    public FilterSyntaxException(final String message, final int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    /**
+     * Getter method
+     * @return index in the expression at which the error was found.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+}
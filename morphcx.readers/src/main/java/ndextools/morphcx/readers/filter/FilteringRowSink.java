@@ -0,0 +1,68 @@
+package ndextools.morphcx.readers.filter;
+
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * FilteringRowSink passes to another RowSink only the rows a RowFilter accepts. The filter is
+ * bound to the columns of each table when the table starts, and rejected rows are dropped
+ * before they reach the sink, so they are never encoded or written.
+ * <p>
+ * When strict, a table lacking a column the filter refers to is an error; otherwise the table
+ * is passed through unfiltered, e.g. the node table of a sharded export filtered on edge
+ * interactions.
+ */
+public class FilteringRowSink implements RowSink {
+    private final RowSink sink;
+    private final RowFilter filter;
+    private final boolean strict;
+
+    private RowPredicate predicate;
+    private long rejectedCount;
+
+    /**
+     * Constructor
+     * @param sink destination of the accepted rows
+     * @param filter compiled filter expression
+     * @param strict true to reject a table lacking a column the filter refers to
+     */
+    public FilteringRowSink(final RowSink sink, final RowFilter filter, final boolean strict) {
+        this.sink = sink;
+        this.filter = filter;
+        this.strict = strict;
+    }
+
+    @Override
+    public void startTable(final List<String> columns) throws IOException {
+        predicate = filter.bind(columns);
+        if (predicate == null && strict) {
+            throw new IllegalArgumentException("filter '" + filter + "' refers to columns not among " + columns);
+        }
+        sink.startTable(columns);
+    }
+
+    @Override
+    public void row(final String[] fields) throws IOException {
+        if (predicate == null || predicate.test(fields)) {
+            sink.row(fields);
+        } else {
+            rejectedCount++;
+        }
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        sink.endTable();
+    }
+
+    /**
+     * Getter method
+     * @return number of rows dropped so far.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+}
@@ -0,0 +1,415 @@
+package ndextools.morphcx.readers.filter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * RowFilter is a compiled filter expression over the columns of a table, e.g.
+ * <pre>
+ *     interaction = 'controls-expression-of' and (score &gt;= 0.5 or not source ~ '^GENE1')
+ * </pre>
+ * An expression is compiled once; bind() then resolves its column names against the columns of
+ * a table and returns a RowPredicate that tests each row without parsing anything again.
+ * <p>
+ * The language:
+ * <ul>
+ *     <li>comparisons {@code a = b}, {@code a != b}, {@code a < b}, {@code a <= b}, {@code a > b},
+ *         {@code a >= b}, and {@code a ~ 'regex'}, true when the regular expression is found in a;</li>
+ *     <li>operands: a column name, or a quoted one such as {@code `node score`}; a string in single
+ *         or double quotes, with the quote doubled to include it; a number;</li>
+ *     <li>{@code not}, {@code and} and {@code or}, in decreasing order of precedence, and
+ *         parentheses.</li>
+ * </ul>
+ * Two operands compare as numbers when both are numbers; otherwise a comparison with a number
+ * is false, except for {@code !=}, and other operands compare as strings. An empty field is the
+ * empty string.
+ */
+public final class RowFilter {
+    private final String expression;
+    private final Node root;
+    private final Set<String> columns;
+
+    private RowFilter(final String expression, final Node root, final Set<String> columns) {
+        this.expression = expression;
+        this.root = root;
+        this.columns = Collections.unmodifiableSet(columns);
+    }
+
+    /**
+     * Factory method
+     * @param expression filter expression
+     * @return the compiled filter
+     * @throws FilterSyntaxException if the expression is not valid
+     */
+    public static RowFilter compile(final String expression) {
+        Set<String> columns = new LinkedHashSet<>();
+        Node root = new Parser(expression, columns).parse();
+        return new RowFilter(expression, root, columns);
+    }
+
+    /**
+     * Getter method
+     * @return names of the columns the expression refers to.
+     */
+    public Set<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Binds the filter to the columns of a table.
+     *
+     * @param tableColumns column headings of the table, in order
+     * @return a predicate over the rows of the table, or null if the table lacks a column the
+     *         expression refers to
+     */
+    public RowPredicate bind(final List<String> tableColumns) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = tableColumns.size() - 1; i >= 0; i--) {
+            indexes.put(tableColumns.get(i), i);
+        }
+        if (!indexes.keySet().containsAll(columns)) {
+            return null;
+        }
+        return root.bind(indexes);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * A node of the compiled expression.
+     */
+    private interface Node {
+        RowPredicate bind(Map<String, Integer> indexes);
+    }
+
+    /**
+     * An operand, bound to a column or constant.
+     */
+    private interface Value {
+        String textOf(String[] fields);
+    }
+
+    private enum Operator {
+        EQ, NE, LT, LE, GT, GE, MATCHES
+    }
+
+    private static final class Operand {
+        private final String column;
+        private final String text;
+        private final boolean number;
+        private final double numeric;
+
+        private Operand(final String column, final String text, final boolean number) {
+            this.column = column;
+            this.text = text;
+            this.number = number;
+            this.numeric = number ? Double.parseDouble(text) : 0;
+        }
+
+        private Value bind(final Map<String, Integer> indexes) {
+            if (column == null) {
+                return fields -> text;
+            }
+            int index = indexes.get(column);
+            return fields -> (index < fields.length && fields[index] != null) ? fields[index] : "";
+        }
+    }
+
+    private static final class Comparison implements Node {
+        private final Operand left;
+        private final Operator operator;
+        private final Operand right;
+        private final Pattern pattern;
+
+        private Comparison(final Operand left, final Operator operator, final Operand right, final Pattern pattern) {
+            this.left = left;
+            this.operator = operator;
+            this.right = right;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public RowPredicate bind(final Map<String, Integer> indexes) {
+            Value a = left.bind(indexes);
+            if (operator == Operator.MATCHES) {
+                Matcher matcher = pattern.matcher("");
+                return fields -> matcher.reset(a.textOf(fields)).find();
+            }
+            Value b = right.bind(indexes);
+            boolean numberLiteral = left.number || right.number;
+            return fields -> compare(a.textOf(fields), b.textOf(fields), numberLiteral);
+        }
+
+        private boolean compare(final String a, final String b, final boolean numberLiteral) {
+            int order;
+            if ((left.number || isNumber(a)) && (right.number || isNumber(b))) {
+                order = Double.compare(left.number ? left.numeric : Double.parseDouble(a),
+                        right.number ? right.numeric : Double.parseDouble(b));
+            } else if (numberLiteral) {
+                return operator == Operator.NE;
+            } else {
+                order = a.compareTo(b);
+            }
+            switch (operator) {
+                case EQ:
+                    return order == 0;
+                case NE:
+                    return order != 0;
+                case LT:
+                    return order < 0;
+                case LE:
+                    return order <= 0;
+                case GT:
+                    return order > 0;
+                default:
+                    return order >= 0;
+            }
+        }
+    }
+
+    /**
+     * @return true if the text is a decimal number, so that Double.parseDouble() accepts it
+     *         without the cost of an exception
+     */
+    static boolean isNumber(final String text) {
+        int length = text.length();
+        int i = 0;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < length && isDigit(text.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(text.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < length && isDigit(text.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Recursive-descent parser of the filter language.
+     */
+    private static final class Parser {
+        private final String source;
+        private final Set<String> columns;
+        private int position;
+
+        private Parser(final String source, final Set<String> columns) {
+            this.source = (source != null) ? source : "";
+            this.columns = columns;
+        }
+
+        private Node parse() {
+            Node node = parseOr();
+            skipSpaces();
+            if (position < source.length()) {
+                throw new FilterSyntaxException("unexpected '" + source.charAt(position) + "'", position);
+            }
+            return node;
+        }
+
+        private Node parseOr() {
+            Node node = parseAnd();
+            while (keyword("or")) {
+                Node left = node;
+                Node right = parseAnd();
+                node = indexes -> {
+                    RowPredicate a = left.bind(indexes);
+                    RowPredicate b = right.bind(indexes);
+                    return fields -> a.test(fields) || b.test(fields);
+                };
+            }
+            return node;
+        }
+
+        private Node parseAnd() {
+            Node node = parseNot();
+            while (keyword("and")) {
+                Node left = node;
+                Node right = parseNot();
+                node = indexes -> {
+                    RowPredicate a = left.bind(indexes);
+                    RowPredicate b = right.bind(indexes);
+                    return fields -> a.test(fields) && b.test(fields);
+                };
+            }
+            return node;
+        }
+
+        private Node parseNot() {
+            if (keyword("not")) {
+                Node operand = parseNot();
+                return indexes -> {
+                    RowPredicate a = operand.bind(indexes);
+                    return fields -> !a.test(fields);
+                };
+            }
+            skipSpaces();
+            if (peek() == '(') {
+                position++;
+                Node node = parseOr();
+                skipSpaces();
+                if (peek() != ')') {
+                    throw new FilterSyntaxException("')' expected", position);
+                }
+                position++;
+                return node;
+            }
+            return parseComparison();
+        }
+
+        private Node parseComparison() {
+            Operand left = parseOperand();
+            skipSpaces();
+            int at = position;
+            Operator operator = parseOperator();
+            Operand right = parseOperand();
+            Pattern pattern = null;
+            if (operator == Operator.MATCHES) {
+                if (right.column != null || right.number) {
+                    throw new FilterSyntaxException("'~' takes a quoted regular expression", at);
+                }
+                try {
+                    pattern = Pattern.compile(right.text);
+                } catch (PatternSyntaxException e) {
+                    throw new FilterSyntaxException("invalid regular expression: " + e.getDescription(), at);
+                }
+            }
+            return new Comparison(left, operator, right, pattern);
+        }
+
+        private Operator parseOperator() {
+            String[] symbols = {"==", "!=", "<=", ">=", "=", "<", ">", "~"};
+            Operator[] operators = {Operator.EQ, Operator.NE, Operator.LE, Operator.GE, Operator.EQ, Operator.LT,
+                    Operator.GT, Operator.MATCHES};
+            for (int i = 0; i < symbols.length; i++) {
+                if (source.startsWith(symbols[i], position)) {
+                    position += symbols[i].length();
+                    return operators[i];
+                }
+            }
+            throw new FilterSyntaxException("comparison operator expected", position);
+        }
+
+        private Operand parseOperand() {
+            skipSpaces();
+            int start = position;
+            char c = peek();
+            if (c == '\'' || c == '"') {
+                return new Operand(null, quoted(c), false);
+            }
+            if (c == '`') {
+                String column = quoted(c);
+                columns.add(column);
+                return new Operand(column, null, false);
+            }
+            if (c == '-' || c == '+' || c == '.' || Character.isDigit(c)) {
+                while (position < source.length() && "+-.eE".indexOf(source.charAt(position)) >= 0
+                        || position < source.length() && Character.isDigit(source.charAt(position))) {
+                    position++;
+                }
+                String text = source.substring(start, position);
+                if (!isNumber(text)) {
+                    throw new FilterSyntaxException("invalid number '" + text + "'", start);
+                }
+                return new Operand(null, text, true);
+            }
+            if (Character.isLetter(c) || c == '_') {
+                while (position < source.length() && isNameChar(source.charAt(position))) {
+                    position++;
+                }
+                String column = source.substring(start, position);
+                if (isKeyword(column)) {
+                    throw new FilterSyntaxException("operand expected", start);
+                }
+                columns.add(column);
+                return new Operand(column, null, false);
+            }
+            throw new FilterSyntaxException((position < source.length()) ? "operand expected" : "unexpected end", start);
+        }
+
+        private String quoted(final char quote) {
+            int start = position++;
+            StringBuilder text = new StringBuilder();
+            while (position < source.length()) {
+                char c = source.charAt(position++);
+                if (c != quote) {
+                    text.append(c);
+                } else if (peek() == quote) {
+                    text.append(c);
+                    position++;
+                } else {
+                    return text.toString();
+                }
+            }
+            throw new FilterSyntaxException("unterminated quoted text", start);
+        }
+
+        private boolean keyword(final String word) {
+            skipSpaces();
+            int end = position + word.length();
+            if (source.regionMatches(true, position, word, 0, word.length())
+                    && (end == source.length() || !isNameChar(source.charAt(end)))) {
+                position = end;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isKeyword(final String word) {
+            return word.equalsIgnoreCase("and") || word.equalsIgnoreCase("or") || word.equalsIgnoreCase("not");
+        }
+
+        private static boolean isNameChar(final char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == ':' || c == '-';
+        }
+
+        private void skipSpaces() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+
+        private char peek() {
+            return (position < source.length()) ? source.charAt(position) : '\0';
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package ndextools.morphcx.readers.filter;
+
+/**
+ * RowPredicate is a RowFilter bound to the columns of one table: it tests a row given as the
+ * fields of those columns, in order.
+ */
+@FunctionalInterface
+public interface RowPredicate {
+
+    /**
+     * @param fields one value per column; a null field counts as empty
+     * @return true if the row is to be written
+     */
+    boolean test(String[] fields);
+
+}
@@ -0,0 +1,167 @@
+package ndextools.morphcx.readers.index;
+
+import java.util.Arrays;
+
+/**
+ * LongIntHashIndex assigns dense ordinals 0, 1, 2, ... to long keys in the order they are
+ * first added. It is an open-addressing hash table over primitive arrays with linear
+ * probing, so neither lookups nor insertions of existing keys allocate.
+ * <p>
+ * Keys cannot be removed. The index is not thread-safe.
+ */
+public final class LongIntHashIndex {
+    public static final int ABSENT = -1;
+
+    private static final int DEFAULT_EXPECTED_SIZE = 1024;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] slotKeys;
+    private int[] slotOrdinals;
+    private int mask;
+    private int resizeThreshold;
+
+    private long[] keys;
+    private int size;
+    private int emptyKeyOrdinal = ABSENT;
+
+    public LongIntHashIndex() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param expectedSize number of keys expected; the index grows beyond it as needed
+     */
+    public LongIntHashIndex(final int expectedSize) {
+        int capacity = tableSizeFor(Math.max(expectedSize, 16));
+        allocateSlots(capacity);
+        keys = new long[Math.max(expectedSize, 16)];
+    }
+
+    /**
+     * Returns the ordinal of a key, adding the key if it is not yet present.
+     *
+     * @param key any long value
+     * @return the key's ordinal
+     */
+    public int add(final long key) {
+        if (key == EMPTY) {
+            if (emptyKeyOrdinal == ABSENT) {
+                emptyKeyOrdinal = appendKey(key);
+            }
+            return emptyKeyOrdinal;
+        }
+
+        int slot = slotOf(key);
+        long slotKey;
+        while ((slotKey = slotKeys[slot]) != EMPTY) {
+            if (slotKey == key) {
+                return slotOrdinals[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int ordinal = appendKey(key);
+        slotKeys[slot] = key;
+        slotOrdinals[slot] = ordinal;
+        if (size > resizeThreshold) {
+            rehash(slotKeys.length << 1);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @param key any long value
+     * @return the key's ordinal, or ABSENT if the key has not been added
+     */
+    public int ordinalOf(final long key) {
+        if (key == EMPTY) {
+            return emptyKeyOrdinal;
+        }
+
+        int slot = slotOf(key);
+        long slotKey;
+        while ((slotKey = slotKeys[slot]) != EMPTY) {
+            if (slotKey == key) {
+                return slotOrdinals[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * @param key any long value
+     * @return true if the key has been added
+     */
+    public boolean contains(final long key) {
+        return ordinalOf(key) != ABSENT;
+    }
+
+    /**
+     * @param ordinal an ordinal returned by add()
+     * @return the key holding that ordinal
+     */
+    public long keyAt(final int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("ordinal " + ordinal + " of " + size);
+        }
+        return keys[ordinal];
+    }
+
+    /**
+     * Getter method
+     * @return number of keys added, which is also the next ordinal to be assigned.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int appendKey(final long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length << 1);
+        }
+        keys[size] = key;
+        return size++;
+    }
+
+    private int slotOf(final long key) {
+        // Fibonacci hashing spreads sequential CX ids evenly over the table.
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocateSlots(final int capacity) {
+        slotKeys = new long[capacity];
+        Arrays.fill(slotKeys, EMPTY);
+        slotOrdinals = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(final int capacity) {
+        long[] oldKeys = slotKeys;
+        int[] oldOrdinals = slotOrdinals;
+        allocateSlots(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = slotOf(key);
+                while (slotKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slotKeys[slot] = key;
+                slotOrdinals[slot] = oldOrdinals[i];
+            }
+        }
+    }
+
+    private static int tableSizeFor(final int expectedSize) {
+        long capacity = (long) Math.ceil(expectedSize / LOAD_FACTOR);
+        int size = Integer.highestOneBit((int) Math.min(capacity, 1 << 30));
+        return (size < capacity) ? size << 1 : size;
+    }
+
+}
@@ -0,0 +1,114 @@
+package ndextools.morphcx.readers.index;
+
+import org.ndexbio.cxio.aspects.datamodels.NodesElement;
+import org.ndexbio.model.cx.NiceCXNetwork;
+
+import java.util.Arrays;
+
+/**
+ * NodeTable maps CX node ids to dense ordinals and keeps each node's name and represents
+ * value in arrays indexed by ordinal. It is shared by all exporters for resolving edge end
+ * points: once the table is built, resolving an id to a name allocates nothing.
+ * <p>
+ * Ordinals follow the order in which nodes were first added.
+ */
+public final class NodeTable {
+    private final LongIntHashIndex index;
+    private String[] names;
+    private String[] represents;
+
+    public NodeTable() {
+        this(1024);
+    }
+
+    /**
+     * Constructor
+     * @param expectedSize number of nodes expected; the table grows beyond it as needed
+     */
+    public NodeTable(final int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        index = new LongIntHashIndex(capacity);
+        names = new String[capacity];
+        represents = new String[capacity];
+    }
+
+    /**
+     * Builds a table from a fully materialized NiceCX network.
+     *
+     * @param cx network produced by ToNiceCX
+     * @return table holding every node of the network
+     */
+    public static NodeTable fromNiceCX(final NiceCXNetwork cx) {
+        NodeTable table = new NodeTable(cx.getNodes().size());
+        for (NodesElement node : cx.getNodes().values()) {
+            table.put(node.getId(), node.getNodeName(), node.getNodeRepresents());
+        }
+        return table;
+    }
+
+    /**
+     * Adds a node, or replaces the name and represents value of a node already present.
+     *
+     * @return the node's ordinal
+     */
+    public int put(final long id, final String name, final String represents) {
+        int ordinal = index.add(id);
+        if (ordinal == names.length) {
+            int capacity = names.length << 1;
+            names = Arrays.copyOf(names, capacity);
+            this.represents = Arrays.copyOf(this.represents, capacity);
+        }
+        names[ordinal] = name;
+        this.represents[ordinal] = represents;
+        return ordinal;
+    }
+
+    /**
+     * @param id CX node id
+     * @return the node's ordinal, or LongIntHashIndex.ABSENT if the node is unknown
+     */
+    public int ordinalOf(final long id) {
+        return index.ordinalOf(id);
+    }
+
+    /**
+     * @param id CX node id
+     * @return true if the node is known
+     */
+    public boolean contains(final long id) {
+        return index.contains(id);
+    }
+
+    /**
+     * @param ordinal node ordinal
+     * @return the node's CX id
+     */
+    public long idAt(final int ordinal) {
+        return index.keyAt(ordinal);
+    }
+
+    /**
+     * @param ordinal node ordinal
+     * @return the node's name (n), which may be null
+     */
+    public String nameAt(final int ordinal) {
+        return names[ordinal];
+    }
+
+    /**
+     * @param ordinal node ordinal
+     * @return the node's represents value (r), which may be null
+     */
+    public String representsAt(final int ordinal) {
+        return represents[ordinal];
+    }
+
+    /**
+     * Getter method
+     * @return number of nodes in the table.
+     */
+    public int size() {
+        return index.size();
+    }
+
+}
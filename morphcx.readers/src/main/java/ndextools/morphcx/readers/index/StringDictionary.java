@@ -0,0 +1,196 @@
+package ndextools.morphcx.readers.index;
+
+import java.util.Arrays;
+
+/**
+ * StringDictionary is a shared string table that assigns dense integer codes 0, 1, 2, ... to
+ * distinct strings in the order they are first encoded. Repetitive CX content such as attribute
+ * names, data types, species or interaction types is then held once, and a column of values
+ * costs four bytes per entry instead of a String per entry.
+ * <p>
+ * Strings can be encoded straight from a character buffer, e.g. a JSON parser's, so encoding a
+ * string that is already in the table does not allocate. The table is an open-addressing hash
+ * table over primitive arrays with linear probing, like LongIntHashIndex.
+ * <p>
+ * Strings cannot be removed. The dictionary is not thread-safe.
+ */
+public final class StringDictionary {
+    public static final int NULL_CODE = -1;
+
+    private static final int DEFAULT_EXPECTED_SIZE = 1024;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int EMPTY = -1;
+
+    private int[] slotCodes;
+    private int mask;
+    private int resizeThreshold;
+
+    private String[] strings;
+    private int[] hashes;
+    private int size;
+
+    public StringDictionary() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param expectedSize number of distinct strings expected; the dictionary grows beyond it as needed
+     */
+    public StringDictionary(final int expectedSize) {
+        int capacity = tableSizeFor(Math.max(expectedSize, 16));
+        allocateSlots(capacity);
+        strings = new String[Math.max(expectedSize, 16)];
+        hashes = new int[strings.length];
+    }
+
+    /**
+     * Returns the code of a string, adding the string if it is not yet present.
+     *
+     * @param string any string, or null
+     * @return the string's code, or NULL_CODE for null
+     */
+    public int encode(final String string) {
+        if (string == null) {
+            return NULL_CODE;
+        }
+
+        int hash = string.hashCode();
+        int slot = slotOf(hash);
+        int code;
+        while ((code = slotCodes[slot]) != EMPTY) {
+            if (hashes[code] == hash && strings[code].equals(string)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return append(slot, string, hash);
+    }
+
+    /**
+     * Returns the code of the string held in a region of a character buffer, adding the string
+     * if it is not yet present. No String is created unless the string is new.
+     *
+     * @param chars character buffer
+     * @param offset index of the first character
+     * @param length number of characters
+     * @return the string's code
+     */
+    public int encode(final char[] chars, final int offset, final int length) {
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int slot = slotOf(hash);
+        int code;
+        while ((code = slotCodes[slot]) != EMPTY) {
+            if (hashes[code] == hash && matches(strings[code], chars, offset, length)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return append(slot, new String(chars, offset, length), hash);
+    }
+
+    /**
+     * @param string any string, or null
+     * @return the string's code, or NULL_CODE if the string has not been encoded
+     */
+    public int codeOf(final String string) {
+        if (string == null) {
+            return NULL_CODE;
+        }
+
+        int hash = string.hashCode();
+        int slot = slotOf(hash);
+        int code;
+        while ((code = slotCodes[slot]) != EMPTY) {
+            if (hashes[code] == hash && strings[code].equals(string)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NULL_CODE;
+    }
+
+    /**
+     * @param code a code returned by encode(), or NULL_CODE
+     * @return the string holding that code; null for NULL_CODE
+     */
+    public String decode(final int code) {
+        if (code == NULL_CODE) {
+            return null;
+        }
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("code " + code + " of " + size);
+        }
+        return strings[code];
+    }
+
+    /**
+     * Getter method
+     * @return number of distinct strings, which is also the next code to be assigned.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int append(final int slot, final String string, final int hash) {
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, strings.length << 1);
+            hashes = Arrays.copyOf(hashes, hashes.length << 1);
+        }
+        int code = size++;
+        strings[code] = string;
+        hashes[code] = hash;
+        slotCodes[slot] = code;
+        if (size > resizeThreshold) {
+            rehash(slotCodes.length << 1);
+        }
+        return code;
+    }
+
+    private static boolean matches(final String string, final char[] chars, final int offset, final int length) {
+        if (string.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slotOf(final int hash) {
+        // String hashes of similar values differ only in their low bits; spread them first.
+        int spread = hash * 0x9E3779B9;
+        return (spread ^ (spread >>> 16)) & mask;
+    }
+
+    private void allocateSlots(final int capacity) {
+        slotCodes = new int[capacity];
+        Arrays.fill(slotCodes, EMPTY);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(final int capacity) {
+        allocateSlots(capacity);
+        for (int code = 0; code < size; code++) {
+            int slot = slotOf(hashes[code]);
+            while (slotCodes[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slotCodes[slot] = code;
+        }
+    }
+
+    private static int tableSizeFor(final int expectedSize) {
+        long capacity = (long) Math.ceil(expectedSize / LOAD_FACTOR);
+        int size = Integer.highestOneBit((int) Math.min(capacity, 1 << 30));
+        return (size < capacity) ? size << 1 : size;
+    }
+
+}
@@ -0,0 +1,52 @@
+package ndextools.morphcx.readers.input;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * CXInput opens the CX input selected by a Configuration for all readers.
+ * <p>
+ * A regular input file is read through a MappedFileInputStream. StdIn, pipes and other
+ * special files cannot be mapped and are read through a BufferedInputStream instead, as
+ * is every file when the system property "morphcx.input.mmap" is set to false.
+ */
+public final class CXInput {
+    public static final String MMAP_PROPERTY = "morphcx.input.mmap";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CXInput() {
+    }
+
+    /**
+     * @param cfg configuration naming an input file, or none for StdIn
+     * @return a stream over the CX input; closing it also closes StdIn
+     * @throws IOException if the input file cannot be opened
+     */
+    public static InputStream open(final Configuration cfg) throws IOException {
+        if (cfg.usesInputFile()) {
+            return openFile(Paths.get(cfg.getInputFilename().orElse("")));
+        }
+        return new BufferedInputStream(System.in, BUFFER_SIZE);
+    }
+
+    /**
+     * @param file CX file
+     * @return a memory-mapped stream over a regular file, otherwise a buffered stream
+     * @throws IOException if the file cannot be opened
+     */
+    public static InputStream openFile(final Path file) throws IOException {
+        boolean mmap = Boolean.parseBoolean(System.getProperty(MMAP_PROPERTY, "true"));
+        if (mmap && Files.isRegularFile(file)) {
+            return new MappedFileInputStream(file);
+        }
+        return new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+    }
+
+}
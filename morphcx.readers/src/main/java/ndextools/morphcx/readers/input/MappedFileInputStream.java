@@ -0,0 +1,163 @@
+package ndextools.morphcx.readers.input;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedFileInputStream reads a file through memory-mapped windows of its FileChannel.
+ * Bytes are copied straight from the mapped pages into the caller's buffer, with no read
+ * system call and no intermediate buffer per chunk.
+ * <p>
+ * A single MappedByteBuffer cannot exceed 2 GB, so larger files are mapped one window at a
+ * time; a window is released once the stream has moved past it.
+ * <p>
+ * The stream supports mark() and reset(), and map() hands out the next bytes as a mapped
+ * buffer instead of copying them, e.g. to read a binary network snapshot in place.
+ */
+public class MappedFileInputStream extends InputStream {
+    public static final long DEFAULT_WINDOW_SIZE = 1L << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private long markPosition;
+
+    public MappedFileInputStream(final Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param file regular file to be read
+     * @param windowSize number of bytes mapped at a time; at most Integer.MAX_VALUE
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedFileInputStream(final Path file, final long windowSize) throws IOException {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("windowSize must be between 1 and " + Integer.MAX_VALUE);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            this.windowSize = windowSize;
+            mapWindow(0L);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!window.hasRemaining() && !nextWindow()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!window.hasRemaining() && !nextWindow()) {
+            return -1;
+        }
+        int count = Math.min(len, window.remaining());
+        window.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long position = windowStart + window.position();
+        long skipped = Math.min(n, size - position);
+        seek(position + skipped);
+        return skipped;
+    }
+
+    /**
+     * Returns the next bytes of the file as a read-only buffer over the mapped pages, without
+     * copying them, and moves the stream past them.
+     *
+     * @param length number of bytes
+     * @return a big-endian buffer of the given length
+     * @throws EOFException if fewer bytes remain
+     * @throws IOException if the bytes cannot be mapped
+     */
+    public ByteBuffer map(final int length) throws IOException {
+        long position = windowStart + window.position();
+        if (length < 0 || length > size - position) {
+            throw new EOFException("cannot map " + length + " bytes at offset " + position + " of " + size);
+        }
+        if (length <= window.remaining()) {
+            ByteBuffer bytes = window.slice().limit(length);
+            window.position(window.position() + length);
+            return bytes;
+        }
+        ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        seek(position + length);
+        return bytes;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readLimit) {
+        markPosition = windowStart + window.position();
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        seek(markPosition);
+    }
+
+    @Override
+    public int available() {
+        return window.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private void seek(final long target) throws IOException {
+        if (target >= windowStart && target < windowStart + window.limit()) {
+            window.position((int) (target - windowStart));
+        } else {
+            mapWindow(target);
+        }
+    }
+
+    private boolean nextWindow() throws IOException {
+        long next = windowStart + window.limit();
+        if (next >= size) {
+            return false;
+        }
+        mapWindow(next);
+        return true;
+    }
+
+    private void mapWindow(final long start) throws IOException {
+        long length = Math.min(windowSize, size - start);
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+
+}
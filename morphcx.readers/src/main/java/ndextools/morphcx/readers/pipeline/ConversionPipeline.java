@@ -0,0 +1,377 @@
+package ndextools.morphcx.readers.pipeline;
+
+import ndextools.morphcx.readers.rows.RowSink;
+import ndextools.morphcx.readers.streaming.CXAttribute;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+import ndextools.morphcx.readers.streaming.ElementBatch;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ConversionPipeline runs a conversion as three stages: a reader, which parses the CX input
+ * into elements; a transformer, which turns the elements into table rows; and an encoder,
+ * which writes the rows to the output. When pipelined, the reader and the transformer each run
+ * on a thread of their own and the encoder on the calling thread, so that reading and parsing,
+ * transforming and encoding overlap on a multi-core machine.
+ * <p>
+ * The stages hand each other batches of elements or rows through bounded queues. A stage that
+ * gets ahead blocks until the next one has taken a batch, so memory is bounded by the queue
+ * capacities whatever the size of the network, and batches are recycled rather than allocated.
+ * If any stage fails, the others are stopped and run() throws the first failure.
+ * <p>
+ * When not pipelined, the three stages run one inside the other on the calling thread, exactly
+ * as the conversion would without a pipeline; this is the mode to debug in.
+ * <p>
+ * Elements cross threads as ElementBatch copies, without dictionary codes, so a reader that
+ * encodes through a StringDictionary cannot be pipelined.
+ */
+public final class ConversionPipeline {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 8;
+
+    private static final long POLL_MILLIS = 100;
+    private static final ElementBatch END_OF_ELEMENTS = new ElementBatch(1);
+    private static final RowBatch END_OF_ROWS = new RowBatch(1);
+
+    private final boolean pipelined;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    /**
+     * The reader stage: delivers every element of the network to a handler.
+     */
+    @FunctionalInterface
+    public interface ElementSource {
+        void readInto(CXElementHandler handler) throws IOException;
+    }
+
+    /**
+     * The transformer stage: reads the elements from a source, once, and writes the table rows
+     * they make to a sink.
+     */
+    @FunctionalInterface
+    public interface Transformer {
+        void transform(ElementSource elements, RowSink rows) throws IOException;
+    }
+
+    /**
+     * Constructor
+     * @param pipelined true to run the reader and transformer on threads of their own
+     */
+    public ConversionPipeline(final boolean pipelined) {
+        this(pipelined, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param pipelined true to run the reader and transformer on threads of their own
+     * @param batchSize number of elements or rows handed from one stage to the next at a time
+     * @param queueCapacity number of batches a stage can get ahead of the next
+     */
+    public ConversionPipeline(final boolean pipelined, final int batchSize, final int queueCapacity) {
+        if (batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("batchSize and queueCapacity must be positive");
+        }
+        this.pipelined = pipelined;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Getter method
+     * @return true when the reader and transformer run on threads of their own.
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Runs the conversion and waits for all stages to finish.
+     *
+     * @param reader the reader stage
+     * @param transformer the transformer stage
+     * @param encoder the encoder stage, called on the calling thread
+     * @throws IOException if a stage fails with an IOException
+     */
+    public void run(final ElementSource reader, final Transformer transformer, final RowSink encoder)
+            throws IOException {
+        if (!pipelined) {
+            transformer.transform(reader, encoder);
+            return;
+        }
+        new Run(reader, transformer, encoder).execute();
+    }
+
+    /**
+     * Thrown inside a stage to unwind it once another stage has failed.
+     */
+    private static final class StageCancelled extends RuntimeException {
+        private StageCancelled() {
+            super("conversion pipeline cancelled", null, false, false);
+        }
+    }
+
+    /**
+     * The state of one pipelined conversion.
+     */
+    private final class Run {
+        private final ElementSource reader;
+        private final Transformer transformer;
+        private final RowSink encoder;
+
+        private final BlockingQueue<ElementBatch> elements = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<ElementBatch> freeElements = new ArrayBlockingQueue<>(queueCapacity + 2);
+        private final BlockingQueue<RowBatch> rows = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<RowBatch> freeRows = new ArrayBlockingQueue<>(queueCapacity + 2);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        private Run(final ElementSource reader, final Transformer transformer, final RowSink encoder) {
+            this.reader = reader;
+            this.transformer = transformer;
+            this.encoder = encoder;
+        }
+
+        private void execute() throws IOException {
+            Thread readerThread = new Thread(this::read, "morphcx-reader");
+            Thread transformerThread = new Thread(this::transform, "morphcx-transformer");
+            readerThread.setDaemon(true);
+            transformerThread.setDaemon(true);
+            readerThread.start();
+            transformerThread.start();
+
+            try {
+                encode();
+            } catch (StageCancelled e) {
+                // the failure of another stage is rethrown below
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                cancelled = true;
+                join(transformerThread);
+                join(readerThread);
+            }
+
+            Throwable cause = failure.get();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause != null) {
+                throw new IOException(cause);
+            }
+        }
+
+        private void read() {
+            try {
+                BatchingElementHandler handler = new BatchingElementHandler();
+                reader.readInto(handler);
+                handler.flush();
+                put(elements, END_OF_ELEMENTS);
+            } catch (StageCancelled e) {
+                // stopped because another stage failed
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void transform() {
+            try {
+                BatchingRowSink sink = new BatchingRowSink();
+                transformer.transform(this::replayElements, sink);
+                sink.flush();
+                put(rows, END_OF_ROWS);
+            } catch (StageCancelled e) {
+                // stopped because another stage failed
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void replayElements(final CXElementHandler handler) throws IOException {
+            for (ElementBatch batch = take(elements); batch != END_OF_ELEMENTS; batch = take(elements)) {
+                batch.replay(handler);
+                batch.clear();
+                freeElements.offer(batch);
+            }
+        }
+
+        private void encode() throws IOException {
+            for (RowBatch batch = take(rows); batch != END_OF_ROWS; batch = take(rows)) {
+                batch.replay(encoder);
+                batch.clear();
+                freeRows.offer(batch);
+            }
+        }
+
+        private void fail(final Throwable e) {
+            failure.compareAndSet(null, e);
+            cancelled = true;
+        }
+
+        private <T> void put(final BlockingQueue<T> queue, final T batch) {
+            try {
+                while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    checkCancelled();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StageCancelled();
+            }
+        }
+
+        private <T> T take(final BlockingQueue<T> queue) {
+            try {
+                T batch;
+                while ((batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                    checkCancelled();
+                }
+                return batch;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StageCancelled();
+            }
+        }
+
+        private void checkCancelled() {
+            if (cancelled) {
+                throw new StageCancelled();
+            }
+        }
+
+        private void join(final Thread thread) {
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Reader-side handler that records elements into batches and queues each full batch.
+         */
+        private final class BatchingElementHandler implements CXElementHandler {
+            private ElementBatch batch = newElementBatch();
+
+            @Override
+            public void startNetwork() {
+                batch.addStartNetwork();
+                flushIfFull();
+            }
+
+            @Override
+            public void node(long id, String name, String represents) {
+                batch.addNode(id, name, represents);
+                flushIfFull();
+            }
+
+            @Override
+            public void edge(long id, long source, long target, String interaction) {
+                batch.addEdge(id, source, target, interaction);
+                flushIfFull();
+            }
+
+            @Override
+            public void nodeAttribute(CXAttribute attribute) {
+                batch.addNodeAttribute(attribute);
+                flushIfFull();
+            }
+
+            @Override
+            public void edgeAttribute(CXAttribute attribute) {
+                batch.addEdgeAttribute(attribute);
+                flushIfFull();
+            }
+
+            @Override
+            public void networkAttribute(CXAttribute attribute) {
+                batch.addNetworkAttribute(attribute);
+                flushIfFull();
+            }
+
+            @Override
+            public void endNetwork() {
+                batch.addEndNetwork();
+                flushIfFull();
+            }
+
+            private void flushIfFull() {
+                if (batch.isFull()) {
+                    flush();
+                }
+            }
+
+            private void flush() {
+                if (batch.size() > 0) {
+                    put(elements, batch);
+                    batch = newElementBatch();
+                }
+            }
+
+            private ElementBatch newElementBatch() {
+                ElementBatch free = freeElements.poll();
+                return (free != null) ? free : new ElementBatch(batchSize);
+            }
+        }
+
+        /**
+         * Transformer-side sink that records rows into batches and queues each full batch.
+         */
+        private final class BatchingRowSink implements RowSink {
+            private RowBatch batch = newRowBatch();
+
+            @Override
+            public void startTable(final List<String> columns) {
+                batch.addStartTable(columns);
+                flushIfFull();
+            }
+
+            @Override
+            public void row(final String[] fields) {
+                batch.addRow(fields);
+                flushIfFull();
+            }
+
+            @Override
+            public void endTable() {
+                batch.addEndTable();
+                flushIfFull();
+            }
+
+            private void flushIfFull() {
+                if (batch.isFull()) {
+                    flush();
+                }
+            }
+
+            private void flush() {
+                if (batch.size() > 0) {
+                    put(rows, batch);
+                    batch = newRowBatch();
+                }
+            }
+
+            private RowBatch newRowBatch() {
+                RowBatch free = freeRows.poll();
+                return (free != null) ? free : new RowBatch(batchSize);
+            }
+        }
+    }
+
+}
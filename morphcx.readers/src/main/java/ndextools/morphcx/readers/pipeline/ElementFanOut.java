@@ -0,0 +1,315 @@
+package ndextools.morphcx.readers.pipeline;
+
+import ndextools.morphcx.readers.pipeline.ConversionPipeline.ElementSource;
+import ndextools.morphcx.readers.streaming.CXAttribute;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+import ndextools.morphcx.readers.streaming.ElementBatch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ElementFanOut reads a network once and delivers every element to several consumers, e.g.
+ * the converters of one network into several output formats. The reader runs on the calling
+ * thread and each consumer on a thread of its own, so the consumers work at the same time and
+ * the input is parsed only once.
+ * <p>
+ * The reader records the elements into batches drawn from a bounded pool shared by all the
+ * consumers. Every consumer replays every batch, without copying it, and a batch returns to
+ * the pool once the last consumer has replayed it; the reader blocks while the pool is empty.
+ * Memory is thus bounded by the pool whatever the size of the network, and the slowest
+ * consumer sets the pace. If the reader or a consumer fails, the others are stopped and run()
+ * throws the first failure.
+ * <p>
+ * Elements cross threads as ElementBatch copies, without dictionary codes.
+ */
+public final class ElementFanOut {
+    private static final long POLL_MILLIS = 100;
+
+    private final int batchSize;
+    private final int poolCapacity;
+
+    /**
+     * A consumer of the elements: reads them from a source, once, on a thread of its own.
+     */
+    @FunctionalInterface
+    public interface Consumer {
+        void consume(ElementSource elements) throws IOException;
+    }
+
+    /**
+     * Constructor
+     */
+    public ElementFanOut() {
+        this(ConversionPipeline.DEFAULT_BATCH_SIZE, ConversionPipeline.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param batchSize number of elements handed to the consumers at a time
+     * @param poolCapacity number of batches shared by the reader and the consumers
+     */
+    public ElementFanOut(final int batchSize, final int poolCapacity) {
+        if (batchSize < 1 || poolCapacity < 1) {
+            throw new IllegalArgumentException("batchSize and poolCapacity must be positive");
+        }
+        this.batchSize = batchSize;
+        this.poolCapacity = poolCapacity;
+    }
+
+    /**
+     * Reads the network and waits for every consumer to finish.
+     *
+     * @param reader delivers every element of the network, on the calling thread
+     * @param consumers consumers of the elements, at least one
+     * @param name prefix of the consumer threads' names
+     * @throws IOException if the reader or a consumer fails with an IOException
+     */
+    public void run(final ElementSource reader, final List<? extends Consumer> consumers, final String name)
+            throws IOException {
+        if (consumers.isEmpty()) {
+            throw new IllegalArgumentException("consumers must not be empty");
+        }
+        new Run(reader, consumers, name).execute();
+    }
+
+    /**
+     * Thrown inside the reader or a consumer to unwind it once another has failed.
+     */
+    private static final class FanOutCancelled extends RuntimeException {
+        private FanOutCancelled() {
+            super("element fan-out cancelled", null, false, false);
+        }
+    }
+
+    /**
+     * A pooled batch, and the number of consumers yet to replay it.
+     */
+    private static final class SharedBatch {
+        private final ElementBatch elements;
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private SharedBatch(final int capacity) {
+            this.elements = new ElementBatch(capacity);
+        }
+    }
+
+    /**
+     * The state of one fan-out.
+     */
+    private final class Run {
+        private final SharedBatch endOfElements = new SharedBatch(1);
+
+        private final ElementSource reader;
+        private final List<? extends Consumer> consumers;
+        private final String name;
+        private final BlockingQueue<SharedBatch> freeBatches = new ArrayBlockingQueue<>(poolCapacity);
+        private final List<BlockingQueue<SharedBatch>> queues = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        private Run(final ElementSource reader, final List<? extends Consumer> consumers, final String name) {
+            this.reader = reader;
+            this.consumers = consumers;
+            this.name = name;
+            for (int i = 0; i < poolCapacity; i++) {
+                freeBatches.add(new SharedBatch(batchSize));
+            }
+            for (int i = 0; i < consumers.size(); i++) {
+                // room for every pooled batch and the end, so the reader never waits on a queue
+                queues.add(new ArrayBlockingQueue<>(poolCapacity + 1));
+            }
+        }
+
+        private void execute() throws IOException {
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < consumers.size(); i++) {
+                Consumer consumer = consumers.get(i);
+                BlockingQueue<SharedBatch> queue = queues.get(i);
+                Thread thread = new Thread(() -> consume(consumer, queue), name + "-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+            }
+            threads.forEach(Thread::start);
+
+            try {
+                BatchingElementHandler handler = new BatchingElementHandler();
+                reader.readInto(handler);
+                handler.flush();
+                deal(endOfElements);
+            } catch (FanOutCancelled e) {
+                // the failure of a consumer is rethrown below
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                threads.forEach(this::join);
+            }
+
+            Throwable cause = failure.get();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause != null) {
+                throw new IOException(cause);
+            }
+        }
+
+        private void consume(final Consumer consumer, final BlockingQueue<SharedBatch> queue) {
+            try {
+                consumer.consume(handler -> replay(queue, handler));
+                // a consumer that stopped reading early must not hold the reader back
+                drain(queue);
+            } catch (FanOutCancelled e) {
+                // stopped because the reader or another consumer failed
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void replay(final BlockingQueue<SharedBatch> queue, final CXElementHandler handler)
+                throws IOException {
+            for (SharedBatch batch = take(queue); batch != endOfElements; batch = take(queue)) {
+                try {
+                    batch.elements.replayConcurrently(handler);
+                } finally {
+                    release(batch);
+                }
+            }
+            // the end is left in the queue, so that reading again finds no more elements
+            queue.offer(endOfElements);
+        }
+
+        private void drain(final BlockingQueue<SharedBatch> queue) {
+            for (SharedBatch batch = take(queue); batch != endOfElements; batch = take(queue)) {
+                release(batch);
+            }
+        }
+
+        private void deal(final SharedBatch batch) {
+            batch.pending.set(queues.size());
+            for (BlockingQueue<SharedBatch> queue : queues) {
+                queue.add(batch);
+            }
+        }
+
+        private void release(final SharedBatch batch) {
+            if (batch.pending.decrementAndGet() == 0) {
+                batch.elements.clear();
+                freeBatches.offer(batch);
+            }
+        }
+
+        private void fail(final Throwable e) {
+            failure.compareAndSet(null, e);
+            cancelled = true;
+        }
+
+        private SharedBatch take(final BlockingQueue<SharedBatch> queue) {
+            try {
+                SharedBatch batch;
+                while ((batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                    if (cancelled) {
+                        throw new FanOutCancelled();
+                    }
+                }
+                return batch;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FanOutCancelled();
+            }
+        }
+
+        private void join(final Thread thread) {
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Reader-side handler that records elements into pooled batches and deals each full
+         * batch to every consumer.
+         */
+        private final class BatchingElementHandler implements CXElementHandler {
+            private SharedBatch batch = take(freeBatches);
+
+            @Override
+            public void startNetwork() {
+                batch.elements.addStartNetwork();
+                flushIfFull();
+            }
+
+            @Override
+            public void node(long id, String name, String represents) {
+                batch.elements.addNode(id, name, represents);
+                flushIfFull();
+            }
+
+            @Override
+            public void edge(long id, long source, long target, String interaction) {
+                batch.elements.addEdge(id, source, target, interaction);
+                flushIfFull();
+            }
+
+            @Override
+            public void nodeAttribute(CXAttribute attribute) {
+                batch.elements.addNodeAttribute(attribute);
+                flushIfFull();
+            }
+
+            @Override
+            public void edgeAttribute(CXAttribute attribute) {
+                batch.elements.addEdgeAttribute(attribute);
+                flushIfFull();
+            }
+
+            @Override
+            public void networkAttribute(CXAttribute attribute) {
+                batch.elements.addNetworkAttribute(attribute);
+                flushIfFull();
+            }
+
+            @Override
+            public void endNetwork() {
+                batch.elements.addEndNetwork();
+                flushIfFull();
+            }
+
+            private void flushIfFull() {
+                if (batch.elements.isFull()) {
+                    deal(batch);
+                    batch = take(freeBatches);
+                }
+            }
+
+            private void flush() {
+                if (batch.elements.size() > 0) {
+                    deal(batch);
+                } else {
+                    freeBatches.offer(batch);
+                }
+                batch = null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package ndextools.morphcx.readers.pipeline;
+
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RowBatch records a run of RowSink calls so that they can be replayed on another thread.
+ * It is the unit handed from the transformer stage to the encoder stage of a
+ * ConversionPipeline. The fields of all rows are copied into one array, since the caller of
+ * RowSink.row() reuses its array.
+ */
+final class RowBatch {
+    private static final byte START = 0;
+    private static final byte ROW = 1;
+    private static final byte END = 2;
+
+    private final byte[] kinds;
+    private final int[] offsets;
+    private String[] cells;
+    private int size;
+    private int cellCount;
+
+    private String[] fields = new String[0];
+
+    RowBatch(final int capacity) {
+        this.kinds = new byte[capacity];
+        this.offsets = new int[capacity + 1];
+        this.cells = new String[capacity * 4];
+    }
+
+    boolean isFull() {
+        return size == kinds.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void addStartTable(final List<String> columns) {
+        add(START, columns.toArray(new String[0]));
+    }
+
+    void addRow(final String[] rowFields) {
+        add(ROW, rowFields);
+    }
+
+    void addEndTable() {
+        add(END, new String[0]);
+    }
+
+    void replay(final RowSink sink) throws IOException {
+        for (int i = 0; i < size; i++) {
+            int width = offsets[i + 1] - offsets[i];
+            switch (kinds[i]) {
+                case START:
+                    sink.startTable(Arrays.asList(Arrays.copyOfRange(cells, offsets[i], offsets[i + 1])));
+                    break;
+                case ROW:
+                    if (fields.length != width) {
+                        fields = new String[width];
+                    }
+                    System.arraycopy(cells, offsets[i], fields, 0, width);
+                    sink.row(fields);
+                    break;
+                default:
+                    sink.endTable();
+                    break;
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(cells, 0, cellCount, null);
+        size = 0;
+        cellCount = 0;
+    }
+
+    private void add(final byte kind, final String[] values) {
+        if (size == kinds.length) {
+            throw new IllegalStateException("row batch is full");
+        }
+        if (cellCount + values.length > cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(cells.length * 2, cellCount + values.length));
+        }
+        System.arraycopy(values, 0, cells, cellCount, values.length);
+        cellCount += values.length;
+        kinds[size] = kind;
+        offsets[++size] = cellCount;
+    }
+
+}
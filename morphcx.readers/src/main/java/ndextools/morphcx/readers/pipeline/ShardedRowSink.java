@@ -0,0 +1,240 @@
+package ndextools.morphcx.readers.pipeline;
+
+import ndextools.morphcx.readers.rows.RowSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ShardedRowSink splits one table across several RowSinks, its shards, e.g. the part files of
+ * a large table. Rows are gathered into batches and the batches dealt to the shards in turn,
+ * so each shard receives every n-th batch, in order; every shard receives the column headings
+ * and the end of the table.
+ * <p>
+ * When threaded, each shard is driven by a writer thread of its own, fed through a bounded
+ * queue, so that encoding and writing of the shards overlap with each other and with the
+ * caller. The caller blocks once a shard falls a queue's length behind. If a shard fails, the
+ * next call on the sink, or close() if there is none, throws the failure.
+ * <p>
+ * close() waits for the writer threads to finish but does not close the shards; they belong
+ * to the caller.
+ */
+public final class ShardedRowSink implements RowSink, Closeable {
+    private static final long POLL_MILLIS = 100;
+    private static final RowBatch END_OF_ROWS = new RowBatch(1);
+
+    private final RowSink[] shards;
+    private final int batchSize;
+    private final List<BlockingQueue<RowBatch>> queues = new ArrayList<>();
+    private final BlockingQueue<RowBatch> freeBatches;
+    private final List<Thread> writers = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean cancelled;
+    private boolean failureThrown;
+
+    private RowBatch batch;
+    private int nextShard;
+    private boolean closed;
+
+    /**
+     * Constructor
+     * @param shards destinations of the rows, at least one
+     * @param threaded true to drive each shard from a writer thread of its own
+     * @param name prefix of the writer threads' names
+     */
+    public ShardedRowSink(final List<? extends RowSink> shards, final boolean threaded, final String name) {
+        this(shards, threaded, name, ConversionPipeline.DEFAULT_BATCH_SIZE, ConversionPipeline.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param shards destinations of the rows, at least one
+     * @param threaded true to drive each shard from a writer thread of its own
+     * @param name prefix of the writer threads' names
+     * @param batchSize number of rows dealt to a shard at a time
+     * @param queueCapacity number of batches a shard can fall behind
+     */
+    public ShardedRowSink(final List<? extends RowSink> shards, final boolean threaded, final String name,
+                          final int batchSize, final int queueCapacity) {
+        if (shards.isEmpty() || batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("shards, batchSize and queueCapacity must not be empty or zero");
+        }
+        this.shards = shards.toArray(new RowSink[0]);
+        this.batchSize = batchSize;
+        this.freeBatches = new ArrayBlockingQueue<>(this.shards.length * (queueCapacity + 1));
+        this.batch = new RowBatch(batchSize);
+
+        if (threaded) {
+            for (int i = 0; i < this.shards.length; i++) {
+                BlockingQueue<RowBatch> queue = new ArrayBlockingQueue<>(queueCapacity);
+                RowSink shard = this.shards[i];
+                Thread writer = new Thread(() -> write(queue, shard), name + "-" + i);
+                writer.setDaemon(true);
+                queues.add(queue);
+                writers.add(writer);
+            }
+            writers.forEach(Thread::start);
+        }
+    }
+
+    /**
+     * Getter method
+     * @return number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void startTable(final List<String> columns) throws IOException {
+        dealBatch();
+        for (int i = 0; i < shards.length; i++) {
+            RowBatch heading = newBatch();
+            heading.addStartTable(columns);
+            send(i, heading);
+        }
+    }
+
+    @Override
+    public void row(final String[] fields) throws IOException {
+        batch.addRow(fields);
+        if (batch.isFull()) {
+            dealBatch();
+        }
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        dealBatch();
+        for (int i = 0; i < shards.length; i++) {
+            RowBatch end = newBatch();
+            end.addEndTable();
+            send(i, end);
+        }
+        nextShard = 0;
+    }
+
+    /**
+     * Waits for the writer threads to write everything sent so far, then stops them.
+     *
+     * @throws IOException if a shard failed and the failure has not been thrown yet
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (int i = 0; i < queues.size() && failure.get() == null; i++) {
+                put(queues.get(i), END_OF_ROWS);
+            }
+        } finally {
+            if (failure.get() != null) {
+                cancelled = true;
+            }
+            writers.forEach(ShardedRowSink::join);
+        }
+        if (!failureThrown) {
+            rethrowFailure();
+        }
+    }
+
+    private void dealBatch() throws IOException {
+        if (batch.size() > 0) {
+            send(nextShard, batch);
+            nextShard = (nextShard + 1) % shards.length;
+            batch = newBatch();
+        }
+    }
+
+    private void send(final int shard, final RowBatch rows) throws IOException {
+        rethrowFailure();
+        if (queues.isEmpty()) {
+            rows.replay(shards[shard]);
+            rows.clear();
+            freeBatches.offer(rows);
+            return;
+        }
+        put(queues.get(shard), rows);
+    }
+
+    private RowBatch newBatch() {
+        RowBatch free = freeBatches.poll();
+        return (free != null) ? free : new RowBatch(batchSize);
+    }
+
+    private void write(final BlockingQueue<RowBatch> queue, final RowSink shard) {
+        try {
+            for (RowBatch rows = take(queue); rows != END_OF_ROWS; rows = take(queue)) {
+                rows.replay(shard);
+                rows.clear();
+                freeBatches.offer(rows);
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+            cancelled = true;
+        }
+    }
+
+    private void put(final BlockingQueue<RowBatch> queue, final RowBatch rows) throws IOException {
+        try {
+            while (!queue.offer(rows, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                rethrowFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while writing a sharded table", e);
+        }
+    }
+
+    private RowBatch take(final BlockingQueue<RowBatch> queue) throws InterruptedException {
+        RowBatch rows;
+        while ((rows = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            if (cancelled) {
+                return END_OF_ROWS;
+            }
+        }
+        return rows;
+    }
+
+    private void rethrowFailure() throws IOException {
+        Throwable cause = failure.get();
+        if (cause == null) {
+            return;
+        }
+        cancelled = true;
+        failureThrown = true;
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IOException(cause);
+    }
+
+    private static void join(final Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
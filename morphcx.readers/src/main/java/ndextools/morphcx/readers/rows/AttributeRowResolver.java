@@ -0,0 +1,90 @@
+package ndextools.morphcx.readers.rows;
+
+import ndextools.morphcx.readers.streaming.CXAttribute;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * AttributeRowResolver turns the nodeAttributes or the edgeAttributes aspect of a CX stream
+ * into an "id, name, value, type, subnetwork" table, one row per attribute of a node or edge.
+ * A list-valued attribute is written as a JSON array of its values, see ListValues. Every
+ * attribute is written as soon as it is read; nothing is retained.
+ */
+public class AttributeRowResolver implements CXElementHandler {
+    public static final List<String> COLUMNS = List.of("id", "name", "value", "type", "subnetwork");
+
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int VALUE = 2;
+    private static final int TYPE = 3;
+    private static final int SUBNETWORK = 4;
+
+    private final RowSink sink;
+    private final boolean ofEdges;
+    private final String[] fields = new String[COLUMNS.size()];
+
+    private AttributeRowResolver(final RowSink sink, final boolean ofEdges) {
+        this.sink = sink;
+        this.ofEdges = ofEdges;
+    }
+
+    /**
+     * @param sink destination of the rows
+     * @return a resolver of the nodeAttributes aspect
+     */
+    public static AttributeRowResolver ofNodes(final RowSink sink) {
+        return new AttributeRowResolver(sink, false);
+    }
+
+    /**
+     * @param sink destination of the rows
+     * @return a resolver of the edgeAttributes aspect
+     */
+    public static AttributeRowResolver ofEdges(final RowSink sink) {
+        return new AttributeRowResolver(sink, true);
+    }
+
+    @Override
+    public void startNetwork() throws IOException {
+        sink.startTable(COLUMNS);
+    }
+
+    @Override
+    public void node(long id, String name, String represents) {
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) {
+    }
+
+    @Override
+    public void nodeAttribute(CXAttribute attribute) throws IOException {
+        if (!ofEdges) {
+            row(attribute);
+        }
+    }
+
+    @Override
+    public void edgeAttribute(CXAttribute attribute) throws IOException {
+        if (ofEdges) {
+            row(attribute);
+        }
+    }
+
+    @Override
+    public void endNetwork() throws IOException {
+        sink.endTable();
+    }
+
+    private void row(final CXAttribute attribute) throws IOException {
+        fields[ID] = Long.toString(attribute.getPropertyOf());
+        fields[NAME] = attribute.getName();
+        fields[VALUE] = attribute.isSingleValue() ? attribute.getValue() : ListValues.toText(attribute.getValues());
+        fields[TYPE] = attribute.getDataType();
+        fields[SUBNETWORK] = attribute.hasSubnetwork() ? Long.toString(attribute.getSubnetwork()) : null;
+        sink.row(fields);
+    }
+
+}
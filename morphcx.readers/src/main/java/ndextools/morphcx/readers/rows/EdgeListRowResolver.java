@@ -0,0 +1,51 @@
+package ndextools.morphcx.readers.rows;
+
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * EdgeListRowResolver turns the edges aspect of a CX stream into an "id, source, target,
+ * interaction" table, with the end points as node ids rather than names. Every edge is
+ * written as soon as it is read; nothing is retained.
+ */
+public class EdgeListRowResolver implements CXElementHandler {
+    public static final List<String> COLUMNS = List.of("id", "source", "target", "interaction");
+
+    private static final int ID = 0;
+    private static final int SOURCE = 1;
+    private static final int TARGET = 2;
+    private static final int INTERACTION = 3;
+
+    private final RowSink sink;
+    private final String[] fields = new String[COLUMNS.size()];
+
+    public EdgeListRowResolver(final RowSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void startNetwork() throws IOException {
+        sink.startTable(COLUMNS);
+    }
+
+    @Override
+    public void node(long id, String name, String represents) {
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) throws IOException {
+        fields[ID] = Long.toString(id);
+        fields[SOURCE] = Long.toString(source);
+        fields[TARGET] = Long.toString(target);
+        fields[INTERACTION] = interaction;
+        sink.row(fields);
+    }
+
+    @Override
+    public void endNetwork() throws IOException {
+        sink.endTable();
+    }
+
+}
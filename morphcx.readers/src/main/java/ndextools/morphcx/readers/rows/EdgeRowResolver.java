@@ -0,0 +1,115 @@
+package ndextools.morphcx.readers.rows;
+
+import ndextools.morphcx.readers.index.LongIntHashIndex;
+import ndextools.morphcx.readers.index.NodeTable;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * EdgeRowResolver turns a stream of CX elements into a "source, interaction, target" table.
+ * Each edge is written to the RowSink as soon as both of its end points have been seen;
+ * edges that arrive before their nodes are held back until the end of the network. Nodes
+ * that take part in no edge are written last, as rows with only a source.
+ * <p>
+ * Only node names are retained, in a NodeTable, so memory grows with the number of nodes
+ * rather than with the number of edges (provided the nodes aspect precedes the edges
+ * aspect, as NDEx produces it), and resolving an edge allocates nothing.
+ */
+public class EdgeRowResolver implements CXElementHandler {
+    public static final List<String> COLUMNS = List.of("source", "interaction", "target");
+
+    private static final int SOURCE = 0;
+    private static final int INTERACTION = 1;
+    private static final int TARGET = 2;
+
+    private final RowSink sink;
+    private final String[] fields = new String[COLUMNS.size()];
+
+    private final NodeTable nodes = new NodeTable();
+    private final BitSet connectedNodes = new BitSet();
+
+    private long[] pendingSources = new long[0];
+    private long[] pendingTargets = new long[0];
+    private String[] pendingInteractions = new String[0];
+    private int pendingCount;
+
+    public EdgeRowResolver(final RowSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void startNetwork() throws IOException {
+        sink.startTable(COLUMNS);
+    }
+
+    @Override
+    public void node(long id, String name, String represents) {
+        nodes.put(id, (name != null) ? name : Long.toString(id), represents);
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) throws IOException {
+        int sourceOrdinal = nodes.ordinalOf(source);
+        int targetOrdinal = nodes.ordinalOf(target);
+
+        if (sourceOrdinal != LongIntHashIndex.ABSENT && targetOrdinal != LongIntHashIndex.ABSENT) {
+            connectedNodes.set(sourceOrdinal);
+            connectedNodes.set(targetOrdinal);
+            fields[SOURCE] = nodes.nameAt(sourceOrdinal);
+            fields[INTERACTION] = interaction;
+            fields[TARGET] = nodes.nameAt(targetOrdinal);
+            sink.row(fields);
+        } else {
+            addPending(source, target, interaction);
+        }
+    }
+
+    @Override
+    public void endNetwork() throws IOException {
+        for (int i = 0; i < pendingCount; i++) {
+            fields[SOURCE] = resolve(pendingSources[i]);
+            fields[INTERACTION] = pendingInteractions[i];
+            fields[TARGET] = resolve(pendingTargets[i]);
+            sink.row(fields);
+        }
+        pendingCount = 0;
+
+        for (int ordinal = connectedNodes.nextClearBit(0); ordinal < nodes.size();
+             ordinal = connectedNodes.nextClearBit(ordinal + 1))
+        {
+            fields[SOURCE] = nodes.nameAt(ordinal);
+            fields[INTERACTION] = null;
+            fields[TARGET] = null;
+            sink.row(fields);
+        }
+
+        sink.endTable();
+    }
+
+    private String resolve(long id) {
+        int ordinal = nodes.ordinalOf(id);
+        if (ordinal == LongIntHashIndex.ABSENT) {
+            return Long.toString(id);
+        }
+        connectedNodes.set(ordinal);
+        return nodes.nameAt(ordinal);
+    }
+
+    private void addPending(long source, long target, String interaction) {
+        if (pendingCount == pendingSources.length) {
+            int capacity = Math.max(16, pendingCount * 2);
+            pendingSources = Arrays.copyOf(pendingSources, capacity);
+            pendingTargets = Arrays.copyOf(pendingTargets, capacity);
+            pendingInteractions = Arrays.copyOf(pendingInteractions, capacity);
+        }
+        pendingSources[pendingCount] = source;
+        pendingTargets[pendingCount] = target;
+        pendingInteractions[pendingCount] = interaction;
+        pendingCount++;
+    }
+
+}
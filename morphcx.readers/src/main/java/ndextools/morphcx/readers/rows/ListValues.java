@@ -0,0 +1,44 @@
+package ndextools.morphcx.readers.rows;
+
+import com.fasterxml.jackson.core.util.BufferRecyclers;
+
+import java.util.List;
+
+/**
+ * ListValues writes the values of a list-valued attribute as a single field: a JSON array of
+ * strings, e.g. ["C","c, \"quoted\""]. Every value is quoted and escaped, so a value holding a
+ * comma, a quote or a bracket stays one element, and the field can be read back by any JSON
+ * parser. Every table writes list values this way.
+ */
+public final class ListValues {
+
+    private ListValues() {
+    }
+
+    /**
+     * @param values values of a list-valued attribute
+     * @return the values as a JSON array of strings
+     */
+    public static String toText(final List<String> values) {
+        StringBuilder text = new StringBuilder();
+        text.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            appendValue(text, values.get(i));
+        }
+        return text.append(']').toString();
+    }
+
+    private static void appendValue(final StringBuilder text, final String value) {
+        if (value == null) {
+            text.append("null");
+            return;
+        }
+        text.append('"');
+        BufferRecyclers.getJsonStringEncoder().quoteAsString(value, text);
+        text.append('"');
+    }
+
+}
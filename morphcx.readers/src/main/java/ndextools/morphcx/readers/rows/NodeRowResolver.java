@@ -0,0 +1,50 @@
+package ndextools.morphcx.readers.rows;
+
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * NodeRowResolver turns the nodes aspect of a CX stream into an "id, name, represents"
+ * table. Every node is written as soon as it is read; nothing is retained.
+ */
+public class NodeRowResolver implements CXElementHandler {
+    public static final List<String> COLUMNS = List.of("id", "name", "represents");
+    /** The CX data type of every column, in order; the ids are numeric. */
+    public static final List<String> DATA_TYPES = List.of("long", "string", "string");
+
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int REPRESENTS = 2;
+
+    private final RowSink sink;
+    private final String[] fields = new String[COLUMNS.size()];
+
+    public NodeRowResolver(final RowSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void startNetwork() throws IOException {
+        sink.startTable(COLUMNS);
+    }
+
+    @Override
+    public void node(long id, String name, String represents) throws IOException {
+        fields[ID] = Long.toString(id);
+        fields[NAME] = name;
+        fields[REPRESENTS] = represents;
+        sink.row(fields);
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) {
+    }
+
+    @Override
+    public void endNetwork() throws IOException {
+        sink.endTable();
+    }
+
+}
@@ -0,0 +1,32 @@
+package ndextools.morphcx.readers.rows;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * RowSink is the interface shared by all output processors. A table is delivered as one
+ * call to startTable(), any number of calls to row() and one call to endTable().
+ */
+public interface RowSink {
+
+    /**
+     * Begins a table.
+     *
+     * @param columns column headings, in output order
+     */
+    void startTable(List<String> columns) throws IOException;
+
+    /**
+     * Writes one row.
+     *
+     * @param fields one value per column; the array is reused by the caller and is only
+     *               valid for the duration of the call. A null field is written as empty.
+     */
+    void row(String[] fields) throws IOException;
+
+    /**
+     * Ends the current table.
+     */
+    void endTable() throws IOException;
+
+}
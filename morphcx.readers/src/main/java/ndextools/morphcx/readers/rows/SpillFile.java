@@ -0,0 +1,395 @@
+package ndextools.morphcx.readers.rows;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * SpillFile is a temporary file of records keyed by element id, which are read back grouped
+ * by key. A record is either an edge (source, target, interaction) or one cell of a row
+ * (column number, text).
+ * <p>
+ * Records are buffered in memory until the buffer is full, then sorted by key and written
+ * to the file as a run. Replaying merges the runs, so every record of a key is delivered
+ * together, keys in ascending order, and records of the same key in the order they were
+ * added. Memory is bounded by the buffer and one read buffer per run, however many records
+ * are spilled.
+ * <p>
+ * Keys are delta-encoded and numbers written as variable-length integers, so a run of
+ * consecutive ids costs one byte per key. close() deletes the file.
+ */
+final class SpillFile implements Closeable {
+    static final int EDGE = -1;
+    static final int DEFAULT_RUN_SIZE = 1 << 18;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final int READ_BUFFER_SIZE = 1 << 15;
+
+    private final Path path;
+    private final OutputStream out;
+    private final int runSize;
+
+    private final long[] keys;
+    private final int[] columns;
+    private final long[] sources;
+    private final long[] targets;
+    private final String[] texts;
+    private int count;
+
+    private long[] runOffsets = new long[16];
+    private int runCount;
+    private long length;
+    private boolean closedForWriting;
+
+    SpillFile() throws IOException {
+        this(DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param runSize number of records buffered in memory before they are sorted and written
+     * @throws IOException if the temporary file cannot be created
+     */
+    SpillFile(final int runSize) throws IOException {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("runSize must be positive");
+        }
+        this.runSize = runSize;
+        this.keys = new long[runSize];
+        this.columns = new int[runSize];
+        this.sources = new long[runSize];
+        this.targets = new long[runSize];
+        this.texts = new String[runSize];
+        this.path = Files.createTempFile("morphcx-", ".spill");
+        this.out = new BufferedOutputStream(Files.newOutputStream(path), WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Adds an edge record.
+     */
+    void addEdge(final long key, final long source, final long target, final String interaction) throws IOException {
+        int i = reserve();
+        keys[i] = key;
+        columns[i] = EDGE;
+        sources[i] = source;
+        targets[i] = target;
+        texts[i] = interaction;
+    }
+
+    /**
+     * Adds a cell record.
+     *
+     * @param key id of the element the cell belongs to
+     * @param column column number, zero or greater
+     * @param text cell text, or null
+     */
+    void addCell(final long key, final int column, final String text) throws IOException {
+        int i = reserve();
+        keys[i] = key;
+        columns[i] = column;
+        texts[i] = text;
+    }
+
+    /**
+     * Getter method
+     * @return number of bytes written to the file so far.
+     */
+    long length() {
+        return length;
+    }
+
+    /**
+     * Writes the records still buffered and opens the file for reading. No record can be
+     * added afterwards.
+     *
+     * @return cursor over all records, grouped by key
+     * @throws IOException if the file cannot be written or read
+     */
+    Cursor replay() throws IOException {
+        if (closedForWriting) {
+            throw new IllegalStateException("spill file already replayed");
+        }
+        writeRun();
+        out.close();
+        closedForWriting = true;
+        return new Cursor(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!closedForWriting) {
+                closedForWriting = true;
+                out.close();
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private int reserve() throws IOException {
+        if (closedForWriting) {
+            throw new IllegalStateException("spill file already replayed");
+        }
+        if (count == runSize) {
+            writeRun();
+        }
+        return count++;
+    }
+
+    private void writeRun() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (runCount == runOffsets.length) {
+            runOffsets = Arrays.copyOf(runOffsets, runCount * 2);
+        }
+        runOffsets[runCount++] = length;
+
+        int[] order = sortedOrder();
+        long previous = 0;
+        for (int n = 0; n < count; n++) {
+            int i = order[n];
+            writeVarLong(zigzag(keys[i] - previous));
+            previous = keys[i];
+            writeVarLong(columns[i] + 1);
+            if (columns[i] == EDGE) {
+                writeVarLong(zigzag(sources[i]));
+                writeVarLong(zigzag(targets[i]));
+            }
+            writeText(texts[i]);
+            texts[i] = null;
+        }
+        count = 0;
+    }
+
+    /**
+     * @return positions of the buffered records in stable key order
+     */
+    private int[] sortedOrder() {
+        int[] order = new int[count];
+        boolean sorted = true;
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            if (i > 0 && keys[i] < keys[i - 1]) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            int[] scratch = new int[count];
+            for (int width = 1; width < count; width *= 2) {
+                for (int low = 0; low < count; low += 2 * width) {
+                    int middle = Math.min(low + width, count);
+                    int high = Math.min(low + 2 * width, count);
+                    int left = low;
+                    int right = middle;
+                    for (int n = low; n < high; n++) {
+                        if (left < middle && (right >= high || keys[order[left]] <= keys[order[right]])) {
+                            scratch[n] = order[left++];
+                        } else {
+                            scratch[n] = order[right++];
+                        }
+                    }
+                }
+                int[] swap = order;
+                order = scratch;
+                scratch = swap;
+            }
+        }
+        return order;
+    }
+
+    private void writeText(final String text) throws IOException {
+        if (text == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        out.write(bytes);
+        length += bytes.length;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+            length++;
+        }
+        out.write((int) value);
+        length++;
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Cursor over the records of a replayed SpillFile, merging its runs. Call next() before
+     * reading the first record.
+     */
+    final class Cursor implements Closeable {
+        private final FileChannel channel;
+        private final PriorityQueue<Run> runs;
+        private Run current;
+
+        private Cursor(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.runs = new PriorityQueue<>(Math.max(1, runCount),
+                    (a, b) -> (a.key != b.key) ? Long.compare(a.key, b.key) : Integer.compare(a.index, b.index));
+            for (int r = 0; r < runCount; r++) {
+                long end = (r + 1 < runCount) ? runOffsets[r + 1] : length;
+                Run run = new Run(channel, r, runOffsets[r], end);
+                if (run.next()) {
+                    runs.add(run);
+                }
+            }
+        }
+
+        /**
+         * Advances to the next record.
+         *
+         * @return false when there are no more records
+         */
+        boolean next() throws IOException {
+            if (current != null && current.next()) {
+                runs.add(current);
+            }
+            current = runs.poll();
+            return current != null;
+        }
+
+        long key() {
+            return current.key;
+        }
+
+        int column() {
+            return current.column;
+        }
+
+        long source() {
+            return current.source;
+        }
+
+        long target() {
+            return current.target;
+        }
+
+        String text() {
+            return current.text;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reader of one sorted run, holding the record it is positioned on.
+     */
+    private static final class Run {
+        private final FileChannel channel;
+        private final int index;
+        private final long end;
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private long position;
+
+        private long key;
+        private int column;
+        private long source;
+        private long target;
+        private String text;
+
+        private Run(final FileChannel channel, final int index, final long start, final long end) {
+            this.channel = channel;
+            this.index = index;
+            this.position = start;
+            this.end = end;
+            buffer.limit(0);
+        }
+
+        private boolean next() throws IOException {
+            if (!buffer.hasRemaining() && position == end) {
+                return false;
+            }
+            key += unzigzag(readVarLong());
+            column = (int) readVarLong() - 1;
+            if (column == EDGE) {
+                source = unzigzag(readVarLong());
+                target = unzigzag(readVarLong());
+            }
+            text = readText();
+            return true;
+        }
+
+        private String readText() throws IOException {
+            int size = (int) readVarLong() - 1;
+            if (size < 0) {
+                return null;
+            }
+            if (size <= buffer.capacity()) {
+                ensure(size);
+                String value = new String(buffer.array(), buffer.position(), size, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + size);
+                return value;
+            }
+            byte[] bytes = new byte[size];
+            int copied = 0;
+            while (copied < size) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), size - copied);
+                buffer.get(bytes, copied, chunk);
+                copied += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                ensure(1);
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        /**
+         * Makes at least the given number of bytes (at most the buffer size) available.
+         */
+        private void ensure(final int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int limit = (int) Math.min(buffer.limit(), buffer.position() + (end - position));
+                buffer.limit(limit);
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    throw new EOFException("truncated spill file");
+                }
+                position += read;
+            }
+            buffer.flip();
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package ndextools.morphcx.readers.rows;
+
+import ndextools.morphcx.readers.index.LongIntHashIndex;
+import ndextools.morphcx.readers.index.NodeTable;
+import ndextools.morphcx.readers.streaming.CXAttribute;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WideEdgeRowResolver turns a stream of CX elements into an edge table with one column per
+ * edge attribute: source, interaction, target, then the attributes in the order their names
+ * are first seen.
+ * <p>
+ * The heading is not known until every edge attribute has been read, so edges and attribute
+ * values are streamed into a SpillFile while the attribute names are collected. Once the
+ * network has been read, writeTable() replays the spill file, joins each edge with its
+ * attribute values and writes the rows to the RowSink. Memory is bounded by the node names,
+ * the attribute names and the spill buffers, whatever the number of edges and attributes.
+ * <p>
+ * Rows come out in edge id order, which is the order NDEx writes edges in. As with
+ * EdgeRowResolver, a node without a name is written as its id, and declared nodes that take
+ * part in no edge follow as rows with only a source. Attribute values of edges that are not
+ * declared are dropped; a list-valued attribute is written as a JSON array of its values, see
+ * ListValues.
+ */
+public class WideEdgeRowResolver implements CXElementHandler, Closeable {
+    private static final int SOURCE = 0;
+    private static final int INTERACTION = 1;
+    private static final int TARGET = 2;
+
+    private final RowSink sink;
+    private final SpillFile spill;
+
+    private final NodeTable nodes = new NodeTable();
+    private final Map<String, Integer> columnNumbers = new HashMap<>();
+    private final List<String> attributeNames = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param sink destination of the table
+     * @throws IOException if the spill file cannot be created
+     */
+    public WideEdgeRowResolver(final RowSink sink) throws IOException {
+        this(sink, SpillFile.DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param sink destination of the table
+     * @param runSize number of records held in memory before they are sorted and spilled
+     * @throws IOException if the spill file cannot be created
+     */
+    public WideEdgeRowResolver(final RowSink sink, final int runSize) throws IOException {
+        this.sink = sink;
+        this.spill = new SpillFile(runSize);
+    }
+
+    @Override
+    public void node(long id, String name, String represents) {
+        nodes.put(id, (name != null) ? name : Long.toString(id), represents);
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) throws IOException {
+        spill.addEdge(id, source, target, interaction);
+    }
+
+    @Override
+    public void edgeAttribute(CXAttribute attribute) throws IOException {
+        if (attribute.getName() == null) {
+            return;
+        }
+        String text = attribute.isSingleValue() ? attribute.getValue() : ListValues.toText(attribute.getValues());
+        spill.addCell(attribute.getPropertyOf(), columnOf(attribute.getName()), text);
+    }
+
+    /**
+     * Getter method
+     * @return names of the edge attributes seen so far, in column order.
+     */
+    public List<String> getAttributeNames() {
+        return List.copyOf(attributeNames);
+    }
+
+    /**
+     * Getter method
+     * @return number of bytes spilled to the temporary file so far.
+     */
+    public long getSpilledBytes() {
+        return spill.length();
+    }
+
+    /**
+     * Writes the table to the RowSink. Call once, after the network has been read.
+     *
+     * @throws IOException if the spill file cannot be read or the sink cannot be written
+     */
+    public void writeTable() throws IOException {
+        List<String> columns = new ArrayList<>(EdgeRowResolver.COLUMNS);
+        columns.addAll(attributeNames);
+        int fixed = EdgeRowResolver.COLUMNS.size();
+        String[] fields = new String[columns.size()];
+        BitSet connectedNodes = new BitSet(nodes.size());
+
+        sink.startTable(columns);
+        try (SpillFile.Cursor cursor = spill.replay()) {
+            boolean more = cursor.next();
+            while (more) {
+                long key = cursor.key();
+                boolean declared = false;
+                Arrays.fill(fields, null);
+                do {
+                    if (cursor.column() == SpillFile.EDGE) {
+                        declared = true;
+                        fields[SOURCE] = resolve(cursor.source(), connectedNodes);
+                        fields[INTERACTION] = cursor.text();
+                        fields[TARGET] = resolve(cursor.target(), connectedNodes);
+                    } else {
+                        fields[fixed + cursor.column()] = cursor.text();
+                    }
+                    more = cursor.next();
+                } while (more && cursor.key() == key);
+
+                if (declared) {
+                    sink.row(fields);
+                }
+            }
+        }
+
+        Arrays.fill(fields, null);
+        for (int ordinal = connectedNodes.nextClearBit(0); ordinal < nodes.size();
+             ordinal = connectedNodes.nextClearBit(ordinal + 1))
+        {
+            fields[SOURCE] = nodes.nameAt(ordinal);
+            sink.row(fields);
+        }
+        sink.endTable();
+    }
+
+    /**
+     * Deletes the spill file.
+     */
+    @Override
+    public void close() throws IOException {
+        spill.close();
+    }
+
+    private int columnOf(final String name) {
+        Integer column = columnNumbers.get(name);
+        if (column == null) {
+            column = attributeNames.size();
+            columnNumbers.put(name, column);
+            attributeNames.add(name);
+        }
+        return column;
+    }
+
+    private String resolve(final long id, final BitSet connectedNodes) {
+        int ordinal = nodes.ordinalOf(id);
+        if (ordinal == LongIntHashIndex.ABSENT) {
+            return Long.toString(id);
+        }
+        connectedNodes.set(ordinal);
+        return nodes.nameAt(ordinal);
+    }
+
+}
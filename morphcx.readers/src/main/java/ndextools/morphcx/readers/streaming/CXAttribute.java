@@ -0,0 +1,206 @@
+package ndextools.morphcx.readers.streaming;
+
+import ndextools.morphcx.readers.index.StringDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CXAttribute is a mutable, reusable holder for a single node, edge or network attribute
+ * element. CXStreamReader refills one instance per aspect for every element it parses, so
+ * a handler must copy out whatever it wants to keep before returning.
+ * <p>
+ * When the reader encodes through a StringDictionary, the name, value(s) and data type are
+ * also available as dictionary codes, which a handler can keep instead of the strings.
+ * Otherwise every code is StringDictionary.NULL_CODE.
+ */
+public final class CXAttribute {
+    public static final String DEFAULT_DATA_TYPE = "string";
+
+    private long propertyOf;
+    private String name;
+    private String value;
+    private final List<String> values = new ArrayList<>();
+    private boolean singleValue;
+    private String dataType;
+    private long subnetwork;
+    private boolean hasSubnetwork;
+
+    private int nameCode;
+    private int valueCode;
+    private int[] valueCodes = new int[8];
+    private int dataTypeCode;
+
+    CXAttribute() {
+        clear();
+    }
+
+    final void clear() {
+        propertyOf = -1L;
+        name = null;
+        value = null;
+        values.clear();
+        singleValue = true;
+        dataType = DEFAULT_DATA_TYPE;
+        subnetwork = -1L;
+        hasSubnetwork = false;
+        nameCode = StringDictionary.NULL_CODE;
+        valueCode = StringDictionary.NULL_CODE;
+        dataTypeCode = StringDictionary.NULL_CODE;
+    }
+
+    void setPropertyOf(long propertyOf) {
+        this.propertyOf = propertyOf;
+    }
+
+    void setName(String name, int code) {
+        this.name = name;
+        this.nameCode = code;
+    }
+
+    void setValue(String value, int code) {
+        this.value = value;
+        this.valueCode = code;
+        this.singleValue = true;
+    }
+
+    void startListValue() {
+        this.value = null;
+        this.valueCode = StringDictionary.NULL_CODE;
+        this.values.clear();
+        this.singleValue = false;
+    }
+
+    void addListValue(String value, int code) {
+        int index = values.size();
+        if (index == valueCodes.length) {
+            valueCodes = Arrays.copyOf(valueCodes, index * 2);
+        }
+        valueCodes[index] = code;
+        this.values.add(value);
+    }
+
+    void setDataType(String dataType, int code) {
+        this.dataType = dataType;
+        this.dataTypeCode = code;
+    }
+
+    void setSubnetwork(long subnetwork) {
+        this.subnetwork = subnetwork;
+        this.hasSubnetwork = true;
+    }
+
+    /**
+     * Getter method
+     * @return id of the node or edge this attribute belongs to (po); -1 for network attributes.
+     */
+    public long getPropertyOf() {
+        return propertyOf;
+    }
+
+    /**
+     * Getter method
+     * @return attribute name (n).
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter method
+     * @return the scalar value (v) of a single-valued attribute, otherwise null.
+     */
+    public String getValue() {
+        return singleValue ? value : null;
+    }
+
+    /**
+     * Getter method
+     * @return the values of a list-valued attribute, otherwise an empty list.
+     */
+    public List<String> getValues() {
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Getter method
+     * @return true when the value (v) is a scalar rather than a JSON array.
+     */
+    public boolean isSingleValue() {
+        return singleValue;
+    }
+
+    /**
+     * Getter method
+     * @return CX data type (d), "string" when absent.
+     */
+    public String getDataType() {
+        return dataType;
+    }
+
+    /**
+     * Getter method
+     * @return true when a subnetwork (s) was given.
+     */
+    public boolean hasSubnetwork() {
+        return hasSubnetwork;
+    }
+
+    /**
+     * Getter method
+     * @return subnetwork id (s), or -1 when absent.
+     */
+    public long getSubnetwork() {
+        return subnetwork;
+    }
+
+    /**
+     * Getter method
+     * @return dictionary code of the name, or NULL_CODE.
+     */
+    public int getNameCode() {
+        return nameCode;
+    }
+
+    /**
+     * Getter method
+     * @return dictionary code of the scalar value of a single-valued attribute, or NULL_CODE.
+     */
+    public int getValueCode() {
+        return singleValue ? valueCode : StringDictionary.NULL_CODE;
+    }
+
+    /**
+     * @param index position in the list, less than getValues().size()
+     * @return dictionary code of a value of a list-valued attribute, or NULL_CODE.
+     */
+    public int getValueCodeAt(final int index) {
+        if (index < 0 || index >= values.size()) {
+            throw new IndexOutOfBoundsException("value " + index + " of " + values.size());
+        }
+        return valueCodes[index];
+    }
+
+    /**
+     * Getter method
+     * @return dictionary code of the data type, or NULL_CODE; also NULL_CODE when the data type
+     *         is absent and defaults to "string".
+     */
+    public int getDataTypeCode() {
+        return dataTypeCode;
+    }
+
+    @Override
+    public String toString() {
+        return "CXAttribute{" +
+                "propertyOf=" + propertyOf +
+                ", name=" + name +
+                ", value=" + (singleValue ? value : values) +
+                ", dataType=" + dataType +
+                ", subnetwork=" + (hasSubnetwork ? Long.toString(subnetwork) : "") +
+                '}';
+    }
+
+}
@@ -0,0 +1,70 @@
+package ndextools.morphcx.readers.streaming;
+
+import java.io.IOException;
+
+/**
+ * CXElementHandler receives the elements of a CX network one at a time, in the order they
+ * appear in the CX stream, as CXStreamReader parses them. Nothing is retained by the reader
+ * between callbacks; an implementation keeps only the state it needs.
+ * <p>
+ * The CX specification does not order aspects, so an implementation must not assume, for
+ * example, that all nodes have been delivered before the first edge.
+ */
+public interface CXElementHandler {
+
+    /**
+     * Called once before the first element is delivered.
+     */
+    default void startNetwork() throws IOException {
+    }
+
+    /**
+     * Called for every element of the "nodes" aspect.
+     *
+     * @param id node id (@id)
+     * @param name node name (n), or null when absent
+     * @param represents represented entity (r), or null when absent
+     */
+    void node(long id, String name, String represents) throws IOException;
+
+    /**
+     * Called for every element of the "edges" aspect.
+     *
+     * @param id edge id (@id)
+     * @param source id of the source node (s)
+     * @param target id of the target node (t)
+     * @param interaction interaction type (i), or null when absent
+     */
+    void edge(long id, long source, long target, String interaction) throws IOException;
+
+    /**
+     * Called once per node referenced by an element of the "nodeAttributes" aspect.
+     *
+     * @param attribute reusable attribute holder; only valid for the duration of the call
+     */
+    default void nodeAttribute(CXAttribute attribute) throws IOException {
+    }
+
+    /**
+     * Called once per edge referenced by an element of the "edgeAttributes" aspect.
+     *
+     * @param attribute reusable attribute holder; only valid for the duration of the call
+     */
+    default void edgeAttribute(CXAttribute attribute) throws IOException {
+    }
+
+    /**
+     * Called for every element of the "networkAttributes" aspect.
+     *
+     * @param attribute reusable attribute holder; only valid for the duration of the call
+     */
+    default void networkAttribute(CXAttribute attribute) throws IOException {
+    }
+
+    /**
+     * Called once after the last element has been delivered.
+     */
+    default void endNetwork() throws IOException {
+    }
+
+}
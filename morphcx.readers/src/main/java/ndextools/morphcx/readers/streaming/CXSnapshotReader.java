@@ -0,0 +1,341 @@
+package ndextools.morphcx.readers.streaming;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.readers.index.StringDictionary;
+import ndextools.morphcx.readers.input.MappedFileInputStream;
+import ndextools.morphcx.readers.streaming.CXStreamReader.CXAspectConstants;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * CXSnapshotReader replays a binary network snapshot, written by CXSnapshotWriter, to a
+ * CXElementHandler, delivering the same elements in the same order as parsing the CX network
+ * would. CXStreamReader hands a snapshot over to it, so every converter accepts a snapshot
+ * wherever it accepts CX.
+ * <p>
+ * Layout, all numbers big-endian:
+ * <pre>
+ *     header:  8-byte MAGIC, int VERSION, int flags (0)
+ *     block:   byte kind, int length, then length bytes:
+ *              int count, int stringCount, int[stringCount] UTF-8 lengths, the UTF-8 bytes,
+ *              then one column per field of the aspect, count values each:
+ *     NODES:   long id, int name, int represents
+ *     EDGES:   long id, long source, long target, int interaction
+ *     *_ATTRIBUTES: long propertyOf, int name, int dataType, byte flags (LIST_VALUE,
+ *              HAS_SUBNETWORK), long subnetwork, int valueCount, then int[sum of valueCount]
+ *              values
+ *     end:     byte END, int 0
+ * </pre>
+ * Strings are indexes into the block's string table, NULL_STRING for none. A reader skips a
+ * block of an unselected aspect by its length, and reads the blocks of a memory-mapped file in
+ * place, without copying them.
+ */
+public class CXSnapshotReader {
+    private final StringDictionary dictionary;
+    private final Set<String> selectedAspects;
+    private final Set<String> selectedAttributeNames;
+
+    private final CXAttribute attribute = new CXAttribute();
+    private String[] strings = new String[1024];
+    private int[] stringCodes = new int[1024];
+    private int[] lengths = new int[1024];
+    private byte[] scratch = new byte[1024];
+    private long[] longs1 = new long[0];
+    private long[] longs2 = new long[0];
+    private long[] longs3 = new long[0];
+    private int[] ints1 = new int[0];
+    private int[] ints2 = new int[0];
+    private int[] ints3 = new int[0];
+    private int[] values = new int[0];
+    private byte[] flags = new byte[0];
+
+    public CXSnapshotReader(final Configuration cfg) {
+        this(cfg, null);
+    }
+
+    /**
+     * Constructor
+     * @param cfg configuration whose projection applies, or null for none
+     * @param dictionary string table to encode strings into, or null for none
+     */
+    public CXSnapshotReader(final Configuration cfg, final StringDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.selectedAspects = (cfg != null) ? cfg.getSelectedAspects() : Set.of();
+        this.selectedAttributeNames = (cfg != null) ? cfg.getSelectedAttributeNames() : Set.of();
+    }
+
+    /**
+     * Tells whether a stream starts with a snapshot, leaving it where it was.
+     *
+     * @param input stream supporting mark() and reset()
+     * @return true if the stream starts with the snapshot MAGIC
+     * @throws IOException if the stream cannot be read
+     */
+    public static boolean isSnapshot(final InputStream input) throws IOException {
+        input.mark(SnapshotConstants.MAGIC.length);
+        try {
+            return Arrays.equals(input.readNBytes(SnapshotConstants.MAGIC.length), SnapshotConstants.MAGIC);
+        } finally {
+            input.reset();
+        }
+    }
+
+    /**
+     * Reads a snapshot from an already opened stream, which is left open.
+     *
+     * @param input snapshot byte stream
+     * @param handler receiver of the elements
+     * @throws IOException if the input cannot be read or is not a valid snapshot
+     */
+    public void read(final InputStream input, final CXElementHandler handler) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(input.readNBytes(SnapshotConstants.HEADER_SIZE));
+        byte[] magic = new byte[SnapshotConstants.MAGIC.length];
+        if (header.remaining() < SnapshotConstants.HEADER_SIZE
+                || !Arrays.equals(header.get(magic).array(), 0, magic.length, SnapshotConstants.MAGIC, 0, magic.length)) {
+            throw new IOException(getClass().getSimpleName() + ": not a network snapshot");
+        }
+        int version = header.getInt();
+        if (version != SnapshotConstants.VERSION) {
+            throw new IOException(getClass().getSimpleName() + ": unsupported snapshot version " + version);
+        }
+
+        handler.startNetwork();
+        while (true) {
+            ByteBuffer prefix = ByteBuffer.wrap(input.readNBytes(1 + Integer.BYTES));
+            if (prefix.remaining() < 1 + Integer.BYTES) {
+                throw new EOFException(getClass().getSimpleName() + ": snapshot is truncated");
+            }
+            byte kind = prefix.get();
+            int length = prefix.getInt();
+            if (kind == SnapshotConstants.END) {
+                break;
+            }
+            String aspect = aspectOf(kind);
+            if (!selectedAspects.isEmpty() && !selectedAspects.contains(aspect)) {
+                skipFully(input, length);
+                continue;
+            }
+            replayBlock(kind, blockOf(input, length), handler);
+        }
+        handler.endNetwork();
+    }
+
+    private ByteBuffer blockOf(final InputStream input, final int length) throws IOException {
+        if (input instanceof MappedFileInputStream) {
+            try {
+                return ((MappedFileInputStream) input).map(length);
+            } catch (EOFException e) {
+                throw new EOFException(getClass().getSimpleName() + ": snapshot is truncated");
+            }
+        }
+        byte[] bytes = input.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException(getClass().getSimpleName() + ": snapshot is truncated");
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private void replayBlock(final byte kind, final ByteBuffer block, final CXElementHandler handler)
+            throws IOException {
+        int count = block.getInt();
+        readStrings(block);
+        switch (kind) {
+            case SnapshotConstants.NODES:
+                longs1 = getLongs(block, longs1, count);
+                ints1 = getInts(block, ints1, count);
+                ints2 = getInts(block, ints2, count);
+                for (int i = 0; i < count; i++) {
+                    handler.node(longs1[i], stringAt(ints1[i]), stringAt(ints2[i]));
+                }
+                break;
+            case SnapshotConstants.EDGES:
+                longs1 = getLongs(block, longs1, count);
+                longs2 = getLongs(block, longs2, count);
+                longs3 = getLongs(block, longs3, count);
+                ints1 = getInts(block, ints1, count);
+                for (int i = 0; i < count; i++) {
+                    handler.edge(longs1[i], longs2[i], longs3[i], stringAt(ints1[i]));
+                }
+                break;
+            default:
+                replayAttributes(kind, block, count, handler);
+                break;
+        }
+    }
+
+    private void replayAttributes(final byte kind, final ByteBuffer block, final int count,
+                                  final CXElementHandler handler) throws IOException {
+        longs1 = getLongs(block, longs1, count);
+        ints1 = getInts(block, ints1, count);
+        ints2 = getInts(block, ints2, count);
+        if (flags.length < count) {
+            flags = new byte[count];
+        }
+        block.get(flags, 0, count);
+        longs2 = getLongs(block, longs2, count);
+        ints3 = getInts(block, ints3, count);
+        int valueCount = 0;
+        for (int i = 0; i < count; i++) {
+            valueCount += ints3[i];
+        }
+        values = getInts(block, values, valueCount);
+
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int first = value;
+            value += ints3[i];
+            String name = stringAt(ints1[i]);
+            if (!selectedAttributeNames.isEmpty() && !selectedAttributeNames.contains(name)) {
+                continue;
+            }
+            attribute.clear();
+            attribute.setPropertyOf(longs1[i]);
+            attribute.setName(name, codeAt(ints1[i]));
+            attribute.setDataType(stringAt(ints2[i]), codeAt(ints2[i]));
+            if ((flags[i] & SnapshotConstants.LIST_VALUE) != 0) {
+                attribute.startListValue();
+                for (int v = first; v < value; v++) {
+                    attribute.addListValue(stringAt(values[v]), codeAt(values[v]));
+                }
+            } else {
+                attribute.setValue(stringAt(values[first]), codeAt(values[first]));
+            }
+            if ((flags[i] & SnapshotConstants.HAS_SUBNETWORK) != 0) {
+                attribute.setSubnetwork(longs2[i]);
+            }
+            switch (kind) {
+                case SnapshotConstants.NODE_ATTRIBUTES:
+                    handler.nodeAttribute(attribute);
+                    break;
+                case SnapshotConstants.EDGE_ATTRIBUTES:
+                    handler.edgeAttribute(attribute);
+                    break;
+                default:
+                    handler.networkAttribute(attribute);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Decodes the block's string table, through the dictionary when there is one.
+     */
+    private void readStrings(final ByteBuffer block) {
+        int count = block.getInt();
+        if (strings.length < count) {
+            int capacity = Math.max(count, strings.length * 2);
+            strings = new String[capacity];
+            stringCodes = new int[capacity];
+            lengths = new int[capacity];
+        }
+        block.asIntBuffer().get(lengths, 0, count);
+        block.position(block.position() + count * Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            int length = lengths[i];
+            String text;
+            if (block.hasArray()) {
+                text = new String(block.array(), block.arrayOffset() + block.position(), length, StandardCharsets.UTF_8);
+                block.position(block.position() + length);
+            } else {
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                block.get(scratch, 0, length);
+                text = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            if (dictionary != null) {
+                stringCodes[i] = dictionary.encode(text);
+                text = dictionary.decode(stringCodes[i]);
+            } else {
+                stringCodes[i] = StringDictionary.NULL_CODE;
+            }
+            strings[i] = text;
+        }
+    }
+
+    private String stringAt(final int index) {
+        return (index == SnapshotConstants.NULL_STRING) ? null : strings[index];
+    }
+
+    private int codeAt(final int index) {
+        return (index == SnapshotConstants.NULL_STRING) ? StringDictionary.NULL_CODE : stringCodes[index];
+    }
+
+    private static long[] getLongs(final ByteBuffer block, final long[] reuse, final int count) {
+        long[] longs = (reuse.length >= count) ? reuse : new long[count];
+        block.asLongBuffer().get(longs, 0, count);
+        block.position(block.position() + count * Long.BYTES);
+        return longs;
+    }
+
+    private static int[] getInts(final ByteBuffer block, final int[] reuse, final int count) {
+        int[] ints = (reuse.length >= count) ? reuse : new int[count];
+        block.asIntBuffer().get(ints, 0, count);
+        block.position(block.position() + count * Integer.BYTES);
+        return ints;
+    }
+
+    private String aspectOf(final byte kind) throws IOException {
+        switch (kind) {
+            case SnapshotConstants.NODES:
+                return CXAspectConstants.NODES;
+            case SnapshotConstants.EDGES:
+                return CXAspectConstants.EDGES;
+            case SnapshotConstants.NODE_ATTRIBUTES:
+                return CXAspectConstants.NODE_ATTRIBUTES;
+            case SnapshotConstants.EDGE_ATTRIBUTES:
+                return CXAspectConstants.EDGE_ATTRIBUTES;
+            case SnapshotConstants.NETWORK_ATTRIBUTES:
+                return CXAspectConstants.NETWORK_ATTRIBUTES;
+            default:
+                throw new IOException(getClass().getSimpleName() + ": unknown snapshot block kind " + kind);
+        }
+    }
+
+    private void skipFully(final InputStream input, final long length) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            long skipped = input.skip(remaining);
+            if (skipped <= 0) {
+                if (input.read() < 0) {
+                    throw new EOFException(getClass().getSimpleName() + ": snapshot is truncated");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Constants of the snapshot layout
+     */
+    public static class SnapshotConstants {
+
+        public static final byte[] MAGIC = {(byte) 0x89, 'M', 'C', 'X', 'S', '\r', '\n', 0x1A};
+        public static final int VERSION = 1;
+        public static final int HEADER_SIZE = MAGIC.length + 2 * Integer.BYTES;
+        public static final String EXTENSION = ".cxs";
+
+        public static final byte END = 0;
+        public static final byte NODES = 1;
+        public static final byte EDGES = 2;
+        public static final byte NODE_ATTRIBUTES = 3;
+        public static final byte EDGE_ATTRIBUTES = 4;
+        public static final byte NETWORK_ATTRIBUTES = 5;
+
+        public static final int NULL_STRING = -1;
+        public static final byte LIST_VALUE = 1;
+        public static final byte HAS_SUBNETWORK = 2;
+
+        public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+        public static final int BUFFER_SIZE = 1 << 16;
+
+    }
+
+}
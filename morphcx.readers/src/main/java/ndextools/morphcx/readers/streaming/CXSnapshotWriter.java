@@ -0,0 +1,290 @@
+package ndextools.morphcx.readers.streaming;
+
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.readers.diagnostics.Diagnostics;
+import ndextools.morphcx.readers.diagnostics.Diagnostics.DiagnosticsConstants;
+import ndextools.morphcx.readers.input.CXInput;
+import ndextools.morphcx.readers.streaming.CXSnapshotReader.SnapshotConstants;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CXSnapshotWriter records the elements of a parsed CX network as a binary snapshot, which
+ * CXSnapshotReader replays much faster than CX can be parsed, so that a network exported in
+ * several formats is parsed only once. See CXSnapshotReader for the layout.
+ * <p>
+ * Elements are gathered into blocks of one aspect, in the order they arrive, and each block is
+ * written once it is full or the next element belongs to another aspect. A block holds its
+ * own string table, so memory is bounded by the block size whatever the size of the network.
+ * <p>
+ * The snapshot is complete once endNetwork() has been called. close() flushes the output but
+ * leaves it open; it belongs to the caller.
+ */
+public class CXSnapshotWriter implements CXElementHandler, AutoCloseable {
+    private final OutputStream output;
+    private final int blockSize;
+
+    private byte kind = SnapshotConstants.END;
+    private int count;
+    private long[] ids;
+    private long[] sources;
+    private long[] targets;
+    private int[] nameCodes;
+    private int[] secondCodes;
+    private byte[] flags;
+    private int[] valueCounts;
+    private int[] valueCodes = new int[1024];
+    private int valueCodeCount;
+
+    private final Map<String, Integer> stringCodes = new HashMap<>();
+    private byte[][] strings = new byte[1024][];
+    private int stringCount;
+    private int stringBytes;
+
+    public CXSnapshotWriter(final OutputStream output) {
+        this(output, SnapshotConstants.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param output destination of the snapshot
+     * @param blockSize most elements per block
+     */
+    public CXSnapshotWriter(final OutputStream output, final int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        this.output = output;
+        this.blockSize = blockSize;
+        this.ids = new long[blockSize];
+        this.sources = new long[blockSize];
+        this.targets = new long[blockSize];
+        this.nameCodes = new int[blockSize];
+        this.secondCodes = new int[blockSize];
+        this.flags = new byte[blockSize];
+        this.valueCounts = new int[blockSize];
+    }
+
+    /**
+     * Parses the CX network named by the configuration (a file, otherwise StdIn) and writes its
+     * snapshot to the configuration's output (a file, otherwise StdOut).
+     *
+     * @param cfg configuration of the conversion, whose projection applies
+     * @param diagnostics instrumentation of the conversion's phases and bytes
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public static void writeSnapshot(final Configuration cfg, final Diagnostics diagnostics) throws IOException {
+        try (InputStream input = CXInput.open(cfg);
+             OutputStream file = cfg.usesOutputFile() ? new FileOutputStream(cfg.getOutputFilename().orElse("")) : null) {
+            writeSnapshot(cfg, input, (file != null) ? file : System.out, diagnostics);
+        }
+    }
+
+    /**
+     * Parses a CX network from a stream and writes its snapshot to another, e.g. for a
+     * conversion server. Neither stream is closed.
+     *
+     * @param cfg configuration of the conversion, whose projection applies
+     * @param input CX network
+     * @param output destination of the snapshot
+     * @param diagnostics instrumentation of the conversion's phases and bytes
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public static void writeSnapshot(final Configuration cfg, final InputStream input, final OutputStream output,
+                                     final Diagnostics diagnostics) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(diagnostics.countOutput(output), SnapshotConstants.BUFFER_SIZE);
+        try (CXSnapshotWriter writer = new CXSnapshotWriter(buffered);
+             Diagnostics.Phase read = diagnostics.phase(DiagnosticsConstants.READ)) {
+            new CXStreamReader(cfg).read(diagnostics.countInput(input), diagnostics.instrument(writer));
+        }
+    }
+
+    @Override
+    public void startNetwork() throws IOException {
+        byte[] header = new byte[SnapshotConstants.HEADER_SIZE];
+        ByteBuffer.wrap(header).put(SnapshotConstants.MAGIC).putInt(SnapshotConstants.VERSION).putInt(0);
+        output.write(header);
+    }
+
+    @Override
+    public void node(long id, String name, String represents) throws IOException {
+        int i = slot(SnapshotConstants.NODES);
+        ids[i] = id;
+        nameCodes[i] = code(name);
+        secondCodes[i] = code(represents);
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) throws IOException {
+        int i = slot(SnapshotConstants.EDGES);
+        ids[i] = id;
+        sources[i] = source;
+        targets[i] = target;
+        nameCodes[i] = code(interaction);
+    }
+
+    @Override
+    public void nodeAttribute(CXAttribute attribute) throws IOException {
+        addAttribute(SnapshotConstants.NODE_ATTRIBUTES, attribute);
+    }
+
+    @Override
+    public void edgeAttribute(CXAttribute attribute) throws IOException {
+        addAttribute(SnapshotConstants.EDGE_ATTRIBUTES, attribute);
+    }
+
+    @Override
+    public void networkAttribute(CXAttribute attribute) throws IOException {
+        addAttribute(SnapshotConstants.NETWORK_ATTRIBUTES, attribute);
+    }
+
+    @Override
+    public void endNetwork() throws IOException {
+        writeBlock();
+        output.write(SnapshotConstants.END);
+        output.write(new byte[Integer.BYTES]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.flush();
+    }
+
+    private void addAttribute(final byte attributeKind, final CXAttribute attribute) throws IOException {
+        int i = slot(attributeKind);
+        ids[i] = attribute.getPropertyOf();
+        nameCodes[i] = code(attribute.getName());
+        secondCodes[i] = code(attribute.getDataType());
+        flags[i] = (byte) ((attribute.isSingleValue() ? 0 : SnapshotConstants.LIST_VALUE)
+                | (attribute.hasSubnetwork() ? SnapshotConstants.HAS_SUBNETWORK : 0));
+        sources[i] = attribute.getSubnetwork();
+        if (attribute.isSingleValue()) {
+            valueCounts[i] = 1;
+            addValueCode(code(attribute.getValue()));
+        } else {
+            List<String> values = attribute.getValues();
+            valueCounts[i] = values.size();
+            for (String value : values) {
+                addValueCode(code(value));
+            }
+        }
+    }
+
+    private void addValueCode(final int code) {
+        if (valueCodeCount == valueCodes.length) {
+            valueCodes = Arrays.copyOf(valueCodes, valueCodeCount * 2);
+        }
+        valueCodes[valueCodeCount++] = code;
+    }
+
+    /**
+     * @return index of the next element of the current block, writing the block first if it is
+     *         full or of another aspect
+     */
+    private int slot(final byte elementKind) throws IOException {
+        if (elementKind != kind || count == blockSize) {
+            writeBlock();
+            kind = elementKind;
+        }
+        return count++;
+    }
+
+    /**
+     * @return code of the string in the current block's string table, or NULL_STRING
+     */
+    private int code(final String text) {
+        if (text == null) {
+            return SnapshotConstants.NULL_STRING;
+        }
+        Integer code = stringCodes.get(text);
+        if (code != null) {
+            return code;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+        strings[stringCount] = bytes;
+        stringBytes += bytes.length;
+        stringCodes.put(text, stringCount);
+        return stringCount++;
+    }
+
+    private void writeBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        int size = Integer.BYTES + Integer.BYTES + stringCount * Integer.BYTES + stringBytes;
+        switch (kind) {
+            case SnapshotConstants.NODES:
+                size += count * (Long.BYTES + 2 * Integer.BYTES);
+                break;
+            case SnapshotConstants.EDGES:
+                size += count * (3 * Long.BYTES + Integer.BYTES);
+                break;
+            default:
+                size += count * (2 * Long.BYTES + 3 * Integer.BYTES + 1) + valueCodeCount * Integer.BYTES;
+                break;
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(1 + Integer.BYTES + size);
+        block.put(kind).putInt(size).putInt(count).putInt(stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            block.putInt(strings[i].length);
+        }
+        for (int i = 0; i < stringCount; i++) {
+            block.put(strings[i]);
+        }
+        switch (kind) {
+            case SnapshotConstants.NODES:
+                putLongs(block, ids);
+                putInts(block, nameCodes, count);
+                putInts(block, secondCodes, count);
+                break;
+            case SnapshotConstants.EDGES:
+                putLongs(block, ids);
+                putLongs(block, sources);
+                putLongs(block, targets);
+                putInts(block, nameCodes, count);
+                break;
+            default:
+                putLongs(block, ids);
+                putInts(block, nameCodes, count);
+                putInts(block, secondCodes, count);
+                block.put(flags, 0, count);
+                putLongs(block, sources);
+                putInts(block, valueCounts, count);
+                putInts(block, valueCodes, valueCodeCount);
+                break;
+        }
+        output.write(block.array(), 0, block.position());
+
+        count = 0;
+        valueCodeCount = 0;
+        stringCodes.clear();
+        Arrays.fill(strings, 0, stringCount, null);
+        stringCount = 0;
+        stringBytes = 0;
+    }
+
+    private void putLongs(final ByteBuffer block, final long[] values) {
+        block.asLongBuffer().put(values, 0, count);
+        block.position(block.position() + count * Long.BYTES);
+    }
+
+    private static void putInts(final ByteBuffer block, final int[] values, final int length) {
+        block.asIntBuffer().put(values, 0, length);
+        block.position(block.position() + length * Integer.BYTES);
+    }
+
+}
@@ -0,0 +1,344 @@
+package ndextools.morphcx.readers.streaming;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import ndextools.morphcx.configuration.cli.base.Configuration;
+import ndextools.morphcx.readers.index.StringDictionary;
+import ndextools.morphcx.readers.input.CXInput;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * CXStreamReader parses a CX network incrementally and hands each node, edge and attribute
+ * element to a CXElementHandler as soon as it has been read. Unlike ToNiceCX, no network
+ * object is built, so memory use does not grow with the size of the network.
+ * <p>
+ * Aspects other than nodes, edges, nodeAttributes, edgeAttributes and networkAttributes
+ * are skipped without being materialized.
+ * <p>
+ * The configuration can narrow this further. An aspect not among its selected aspects is
+ * skipped in the same way, so its strings are never decoded. An attribute whose name is not
+ * among the selected attribute names has the rest of its fields skipped and is not passed to
+ * the handler; as NDEx writes the name before the value, the value is usually never decoded.
+ * <p>
+ * Given a StringDictionary, the reader encodes edge interactions and attribute names, values
+ * and data types straight from the parser's buffer. Repeated strings are then not allocated
+ * again, handlers receive one shared String instance per distinct string, and CXAttribute
+ * carries the dictionary codes. Node names and represents are mostly unique and are not
+ * encoded.
+ * <p>
+ * A stream holding a binary network snapshot rather than CX is handed over to
+ * CXSnapshotReader, which delivers the same elements without parsing.
+ */
+public class CXStreamReader {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Configuration cfg;
+    private final StringDictionary dictionary;
+    private final Set<String> selectedAspects;
+    private final Set<String> selectedAttributeNames;
+
+    private final CXAttribute attribute = new CXAttribute();
+    private long[] propertyOf = new long[8];
+    private int propertyOfCount;
+    private int lastCode;
+
+    public CXStreamReader(Configuration cfg) {
+        this(cfg, null);
+    }
+
+    /**
+     * Constructor
+     * @param cfg configuration naming the input
+     * @param dictionary string table to encode repetitive strings into, or null for none
+     */
+    public CXStreamReader(final Configuration cfg, final StringDictionary dictionary) {
+        this.cfg = cfg;
+        this.dictionary = dictionary;
+        this.selectedAspects = (cfg != null) ? cfg.getSelectedAspects() : Set.of();
+        this.selectedAttributeNames = (cfg != null) ? cfg.getSelectedAttributeNames() : Set.of();
+    }
+
+    /**
+     * Reads the CX network named by the configuration (a file, otherwise StdIn).
+     *
+     * @param handler receiver of the parsed elements
+     * @throws IOException if the input cannot be read or is not valid CX
+     */
+    public void read(final CXElementHandler handler) throws IOException {
+        try (InputStream input = CXInput.open(cfg)) {
+            read(input, handler);
+        }
+    }
+
+    /**
+     * Reads a CX network, or a network snapshot, from an already opened stream, which is left open.
+     *
+     * @param input CX or snapshot byte stream
+     * @param handler receiver of the parsed elements
+     * @throws IOException if the input cannot be read or is not valid CX
+     */
+    public void read(final InputStream input, final CXElementHandler handler) throws IOException {
+        InputStream markable = input.markSupported() ? input : new BufferedInputStream(input);
+        if (CXSnapshotReader.isSnapshot(markable)) {
+            new CXSnapshotReader(cfg, dictionary).read(markable, handler);
+            return;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(markable)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            parseNetwork(parser, handler);
+        }
+        catch (IOException e) {
+            String msg = this.getClass().getSimpleName() + ": " + e.getMessage();
+            throw new IOException(msg, e);
+        }
+    }
+
+    private void parseNetwork(final JsonParser parser, final CXElementHandler handler) throws IOException {
+        expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+        handler.startNetwork();
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String aspectName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_ARRAY) {
+                    parseAspect(parser, aspectName, handler);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        expect(parser, token, JsonToken.END_ARRAY);
+
+        handler.endNetwork();
+    }
+
+    private void parseAspect(final JsonParser parser, final String aspectName, final CXElementHandler handler)
+            throws IOException {
+        if (!selectedAspects.isEmpty() && !selectedAspects.contains(aspectName)) {
+            parser.skipChildren();
+            return;
+        }
+        switch (aspectName) {
+            case CXAspectConstants.NODES:
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    parseNode(parser, handler);
+                }
+                break;
+            case CXAspectConstants.EDGES:
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    parseEdge(parser, handler);
+                }
+                break;
+            case CXAspectConstants.NODE_ATTRIBUTES:
+            case CXAspectConstants.EDGE_ATTRIBUTES:
+            case CXAspectConstants.NETWORK_ATTRIBUTES:
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    parseAttribute(parser, aspectName, handler);
+                }
+                break;
+            default:
+                parser.skipChildren();
+                break;
+        }
+    }
+
+    private void parseNode(final JsonParser parser, final CXElementHandler handler) throws IOException {
+        long id = -1L;
+        String name = null;
+        String represents = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case CXAspectConstants.ID:
+                    id = parser.getValueAsLong();
+                    break;
+                case CXAspectConstants.NAME:
+                    name = textOf(parser, value);
+                    break;
+                case CXAspectConstants.REPRESENTS:
+                    represents = textOf(parser, value);
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        handler.node(id, name, represents);
+    }
+
+    private void parseEdge(final JsonParser parser, final CXElementHandler handler) throws IOException {
+        long id = -1L;
+        long source = -1L;
+        long target = -1L;
+        String interaction = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case CXAspectConstants.ID:
+                    id = parser.getValueAsLong();
+                    break;
+                case CXAspectConstants.SOURCE:
+                    source = parser.getValueAsLong();
+                    break;
+                case CXAspectConstants.TARGET:
+                    target = parser.getValueAsLong();
+                    break;
+                case CXAspectConstants.INTERACTION:
+                    interaction = encodedTextOf(parser, value);
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        handler.edge(id, source, target, interaction);
+    }
+
+    private void parseAttribute(final JsonParser parser, final String aspectName, final CXElementHandler handler)
+            throws IOException {
+        attribute.clear();
+        propertyOfCount = 0;
+        boolean selected = true;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (!selected) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case CXAspectConstants.PROPERTY_OF:
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            addPropertyOf(parser.getValueAsLong());
+                        }
+                    } else {
+                        addPropertyOf(parser.getValueAsLong());
+                    }
+                    break;
+                case CXAspectConstants.NAME:
+                    attribute.setName(encodedTextOf(parser, value), lastCode);
+                    selected = selectedAttributeNames.isEmpty() || selectedAttributeNames.contains(attribute.getName());
+                    break;
+                case CXAspectConstants.VALUE:
+                    if (value == JsonToken.START_ARRAY) {
+                        attribute.startListValue();
+                        while ((value = parser.nextToken()) != JsonToken.END_ARRAY) {
+                            attribute.addListValue(encodedTextOf(parser, value), lastCode);
+                        }
+                    } else {
+                        attribute.setValue(encodedTextOf(parser, value), lastCode);
+                    }
+                    break;
+                case CXAspectConstants.DATA_TYPE:
+                    attribute.setDataType(encodedTextOf(parser, value), lastCode);
+                    break;
+                case CXAspectConstants.SUBNETWORK:
+                    attribute.setSubnetwork(parser.getValueAsLong());
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        if (!selected) {
+            return;
+        }
+
+        switch (aspectName) {
+            case CXAspectConstants.NODE_ATTRIBUTES:
+                for (int i = 0; i < propertyOfCount; i++) {
+                    attribute.setPropertyOf(propertyOf[i]);
+                    handler.nodeAttribute(attribute);
+                }
+                break;
+            case CXAspectConstants.EDGE_ATTRIBUTES:
+                for (int i = 0; i < propertyOfCount; i++) {
+                    attribute.setPropertyOf(propertyOf[i]);
+                    handler.edgeAttribute(attribute);
+                }
+                break;
+            default:
+                handler.networkAttribute(attribute);
+                break;
+        }
+    }
+
+    private void addPropertyOf(final long id) {
+        if (propertyOfCount == propertyOf.length) {
+            propertyOf = Arrays.copyOf(propertyOf, propertyOfCount * 2);
+        }
+        propertyOf[propertyOfCount++] = id;
+    }
+
+    /**
+     * Like textOf, but through the dictionary when there is one. The code of the returned string
+     * is left in lastCode, NULL_CODE without a dictionary.
+     */
+    private String encodedTextOf(final JsonParser parser, final JsonToken value) throws IOException {
+        lastCode = StringDictionary.NULL_CODE;
+        if (dictionary == null || value == JsonToken.VALUE_NULL
+                || value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+            return textOf(parser, value);
+        }
+        lastCode = dictionary.encode(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        return dictionary.decode(lastCode);
+    }
+
+    private static String textOf(final JsonParser parser, final JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static void expect(final JsonParser parser, final JsonToken actual, final JsonToken expected)
+            throws IOException {
+        if (actual != expected) {
+            throw new IOException("expected " + expected + " but found " + actual
+                    + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    /**
+     * Aspect and field names defined by the CX specification.
+     */
+    public static class CXAspectConstants {
+
+        public static final String NODES = "nodes";
+        public static final String EDGES = "edges";
+        public static final String NODE_ATTRIBUTES = "nodeAttributes";
+        public static final String EDGE_ATTRIBUTES = "edgeAttributes";
+        public static final String NETWORK_ATTRIBUTES = "networkAttributes";
+
+        public static final String ID = "@id";
+        public static final String NAME = "n";
+        public static final String REPRESENTS = "r";
+        public static final String SOURCE = "s";
+        public static final String TARGET = "t";
+        public static final String INTERACTION = "i";
+        public static final String PROPERTY_OF = "po";
+        public static final String VALUE = "v";
+        public static final String DATA_TYPE = "d";
+        public static final String SUBNETWORK = "s";
+
+    }
+
+}
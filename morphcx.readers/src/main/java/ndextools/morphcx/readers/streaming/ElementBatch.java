@@ -0,0 +1,215 @@
+package ndextools.morphcx.readers.streaming;
+
+import ndextools.morphcx.readers.index.StringDictionary;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * ElementBatch records a run of CX element callbacks so that they can be replayed later,
+ * normally on another thread, to a CXElementHandler. It is the unit handed from the reader
+ * stage to the transformer stage of a ConversionPipeline.
+ * <p>
+ * Elements are kept in parallel arrays, one slot per element, and a batch is meant to be
+ * cleared and reused. Attributes are copied out of the reader's reusable CXAttribute holders;
+ * their dictionary codes are not, so they replay as StringDictionary.NULL_CODE.
+ * <p>
+ * A filled batch can be replayed by several threads at once with replayConcurrently(), as
+ * long as none of them adds to or clears it meanwhile.
+ */
+public final class ElementBatch {
+    private static final byte START = 0;
+    private static final byte NODE = 1;
+    private static final byte EDGE = 2;
+    private static final byte NODE_ATTRIBUTE = 3;
+    private static final byte EDGE_ATTRIBUTE = 4;
+    private static final byte NETWORK_ATTRIBUTE = 5;
+    private static final byte END = 6;
+
+    private static final long NO_SUBNETWORK = Long.MIN_VALUE;
+
+    private final byte[] kinds;
+    private final long[] ids;
+    private final long[] sources;
+    private final long[] targets;
+    private final String[] names;
+    private final String[] texts;
+    private final Object[] values;
+    private int size;
+
+    private final CXAttribute attribute = new CXAttribute();
+
+    /**
+     * Constructor
+     * @param capacity number of elements the batch holds
+     */
+    public ElementBatch(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.kinds = new byte[capacity];
+        this.ids = new long[capacity];
+        this.sources = new long[capacity];
+        this.targets = new long[capacity];
+        this.names = new String[capacity];
+        this.texts = new String[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Getter method
+     * @return number of elements in the batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter method
+     * @return true when no more element can be added.
+     */
+    public boolean isFull() {
+        return size == kinds.length;
+    }
+
+    /**
+     * Getter method
+     * @return true when the batch ends the network, i.e. replaying it calls endNetwork().
+     */
+    public boolean isEndOfNetwork() {
+        return size > 0 && kinds[size - 1] == END;
+    }
+
+    public void addStartNetwork() {
+        kinds[reserve()] = START;
+    }
+
+    public void addNode(final long id, final String name, final String represents) {
+        int i = reserve();
+        kinds[i] = NODE;
+        ids[i] = id;
+        names[i] = name;
+        texts[i] = represents;
+    }
+
+    public void addEdge(final long id, final long source, final long target, final String interaction) {
+        int i = reserve();
+        kinds[i] = EDGE;
+        ids[i] = id;
+        sources[i] = source;
+        targets[i] = target;
+        names[i] = interaction;
+    }
+
+    public void addNodeAttribute(final CXAttribute attribute) {
+        addAttribute(NODE_ATTRIBUTE, attribute);
+    }
+
+    public void addEdgeAttribute(final CXAttribute attribute) {
+        addAttribute(EDGE_ATTRIBUTE, attribute);
+    }
+
+    public void addNetworkAttribute(final CXAttribute attribute) {
+        addAttribute(NETWORK_ATTRIBUTE, attribute);
+    }
+
+    public void addEndNetwork() {
+        kinds[reserve()] = END;
+    }
+
+    /**
+     * Delivers the recorded elements to a handler, in the order they were added.
+     *
+     * @param handler handler of the elements
+     * @throws IOException if the handler fails
+     */
+    public void replay(final CXElementHandler handler) throws IOException {
+        replay(handler, attribute);
+    }
+
+    /**
+     * Like replay(), but through an attribute holder of the caller's own, so that other threads
+     * can replay the same batch at the same time.
+     *
+     * @param handler handler of the elements
+     * @throws IOException if the handler fails
+     */
+    public void replayConcurrently(final CXElementHandler handler) throws IOException {
+        replay(handler, new CXAttribute());
+    }
+
+    private void replay(final CXElementHandler handler, final CXAttribute holder) throws IOException {
+        for (int i = 0; i < size; i++) {
+            switch (kinds[i]) {
+                case START:
+                    handler.startNetwork();
+                    break;
+                case NODE:
+                    handler.node(ids[i], names[i], texts[i]);
+                    break;
+                case EDGE:
+                    handler.edge(ids[i], sources[i], targets[i], names[i]);
+                    break;
+                case NODE_ATTRIBUTE:
+                    handler.nodeAttribute(attributeAt(i, holder));
+                    break;
+                case EDGE_ATTRIBUTE:
+                    handler.edgeAttribute(attributeAt(i, holder));
+                    break;
+                case NETWORK_ATTRIBUTE:
+                    handler.networkAttribute(attributeAt(i, holder));
+                    break;
+                default:
+                    handler.endNetwork();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Empties the batch for reuse, releasing the strings it refers to.
+     */
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(texts, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    private int reserve() {
+        if (size == kinds.length) {
+            throw new IllegalStateException("element batch is full");
+        }
+        return size++;
+    }
+
+    private void addAttribute(final byte kind, final CXAttribute source) {
+        int i = reserve();
+        kinds[i] = kind;
+        ids[i] = source.getPropertyOf();
+        targets[i] = source.hasSubnetwork() ? source.getSubnetwork() : NO_SUBNETWORK;
+        names[i] = source.getName();
+        texts[i] = source.getDataType();
+        values[i] = source.isSingleValue() ? source.getValue() : source.getValues().toArray(new String[0]);
+    }
+
+    private CXAttribute attributeAt(final int i, final CXAttribute attribute) {
+        attribute.clear();
+        attribute.setPropertyOf(ids[i]);
+        attribute.setName(names[i], StringDictionary.NULL_CODE);
+        if (values[i] instanceof String[]) {
+            attribute.startListValue();
+            for (String value : (String[]) values[i]) {
+                attribute.addListValue(value, StringDictionary.NULL_CODE);
+            }
+        } else {
+            attribute.setValue((String) values[i], StringDictionary.NULL_CODE);
+        }
+        attribute.setDataType(texts[i], StringDictionary.NULL_CODE);
+        if (targets[i] != NO_SUBNETWORK) {
+            attribute.setSubnetwork(targets[i]);
+        }
+        return attribute;
+    }
+
+}
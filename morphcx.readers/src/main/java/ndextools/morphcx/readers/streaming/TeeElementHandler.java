@@ -0,0 +1,70 @@
+package ndextools.morphcx.readers.streaming;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * TeeElementHandler forwards every CX element to each of several handlers, in the order
+ * they were given, so that one pass over the input can feed more than one consumer.
+ */
+public class TeeElementHandler implements CXElementHandler {
+    private final CXElementHandler[] handlers;
+
+    public TeeElementHandler(final CXElementHandler... handlers) {
+        this.handlers = handlers.clone();
+    }
+
+    public TeeElementHandler(final List<? extends CXElementHandler> handlers) {
+        this.handlers = handlers.toArray(new CXElementHandler[0]);
+    }
+
+    @Override
+    public void startNetwork() throws IOException {
+        for (CXElementHandler handler : handlers) {
+            handler.startNetwork();
+        }
+    }
+
+    @Override
+    public void node(long id, String name, String represents) throws IOException {
+        for (CXElementHandler handler : handlers) {
+            handler.node(id, name, represents);
+        }
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) throws IOException {
+        for (CXElementHandler handler : handlers) {
+            handler.edge(id, source, target, interaction);
+        }
+    }
+
+    @Override
+    public void nodeAttribute(CXAttribute attribute) throws IOException {
+        for (CXElementHandler handler : handlers) {
+            handler.nodeAttribute(attribute);
+        }
+    }
+
+    @Override
+    public void edgeAttribute(CXAttribute attribute) throws IOException {
+        for (CXElementHandler handler : handlers) {
+            handler.edgeAttribute(attribute);
+        }
+    }
+
+    @Override
+    public void networkAttribute(CXAttribute attribute) throws IOException {
+        for (CXElementHandler handler : handlers) {
+            handler.networkAttribute(attribute);
+        }
+    }
+
+    @Override
+    public void endNetwork() throws IOException {
+        for (CXElementHandler handler : handlers) {
+            handler.endNetwork();
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package ndextools.morphcx.readers.delta;
+
+import ndextools.morphcx.readers.rows.RowSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaRowSinkTest {
+    private static final List<String> COLUMNS = List.of("id", "name", "score");
+
+    /**
+     * Records a table as its columns followed by its rows.
+     */
+    private static final class RecordingSink implements RowSink {
+        private final List<List<String>> rows = new ArrayList<>();
+        private boolean ended;
+
+        @Override
+        public void startTable(final List<String> columns) {
+            rows.add(List.copyOf(columns));
+        }
+
+        @Override
+        public void row(final String[] fields) {
+            rows.add(Arrays.asList(fields.clone()));
+        }
+
+        @Override
+        public void endTable() {
+            ended = true;
+        }
+    }
+
+    private static void stream(final RowSink sink, final List<String> columns, final String[]... rows)
+            throws IOException {
+        sink.startTable(columns);
+        for (String[] row : rows) {
+            sink.row(row);
+        }
+        sink.endTable();
+    }
+
+    private static RowFingerprints fingerprintsOf(final String[]... rows) throws IOException {
+        RowFingerprints previous = new RowFingerprints(List.of("id"));
+        stream(previous, COLUMNS, rows);
+        return previous;
+    }
+
+    private static final String[][] PREVIOUS = {
+            {"1", "A", "0.5"},
+            {"2", "B", "0.7"},
+            {"3", "C", null},
+    };
+
+    @Test
+    void writesAddedChangedAndRemovedRows() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        DeltaRowSink delta = new DeltaRowSink(sink, fingerprintsOf(PREVIOUS));
+        stream(delta, COLUMNS,
+                new String[] {"1", "A", "0.5"},
+                new String[] {"2", "B", "0.8"},
+                new String[] {"4", "D", "1"});
+        assertFalse(sink.ended);
+        assertTrue(delta.hasRemovedRows());
+        stream(delta.removedRows(), COLUMNS, PREVIOUS);
+        delta.finish();
+
+        assertTrue(sink.ended);
+        assertEquals(List.of(
+                List.of("change", "id", "name", "score"),
+                List.of("changed", "2", "B", "0.8"),
+                List.of("added", "4", "D", "1"),
+                Arrays.asList("removed", "3", "C", null)), sink.rows);
+        assertEquals(1, delta.getAddedCount());
+        assertEquals(1, delta.getChangedCount());
+        assertEquals(1, delta.getRemovedCount());
+    }
+
+    @Test
+    void unchangedTableWritesOnlyHeading() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        DeltaRowSink delta = new DeltaRowSink(sink, fingerprintsOf(PREVIOUS));
+        stream(delta, COLUMNS, PREVIOUS);
+        assertFalse(delta.hasRemovedRows());
+        delta.finish();
+
+        assertEquals(List.of(List.of("change", "id", "name", "score")), sink.rows);
+        assertEquals(0, delta.getAddedCount() + delta.getChangedCount() + delta.getRemovedCount());
+    }
+
+    @Test
+    void keyIsFoundWhateverTheColumnOrder() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        DeltaRowSink delta = new DeltaRowSink(sink, fingerprintsOf(PREVIOUS));
+        stream(delta, List.of("name", "id", "score"),
+                new String[] {"A", "1", "0.5"},
+                new String[] {"B", "2", "0.7"},
+                new String[] {"C", "3", null});
+        delta.finish();
+
+        assertEquals(0, delta.getAddedCount());
+        assertFalse(delta.hasRemovedRows());
+        // rows are fingerprinted field by field, in the order of the columns
+        assertEquals(3, delta.getChangedCount());
+    }
+
+    @Test
+    void nullFieldEqualsEmptyOne() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        DeltaRowSink delta = new DeltaRowSink(sink, fingerprintsOf(PREVIOUS));
+        stream(delta, COLUMNS, new String[] {"3", "C", ""});
+        stream(delta.removedRows(), COLUMNS, PREVIOUS);
+        delta.finish();
+
+        assertEquals(0, delta.getChangedCount());
+        assertEquals(2, delta.getRemovedCount());
+    }
+
+    @Test
+    void shortRowIsPaddedWithNulls() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        DeltaRowSink delta = new DeltaRowSink(sink, fingerprintsOf());
+        stream(delta, COLUMNS, new String[] {"9"});
+        delta.finish();
+
+        assertEquals(Arrays.asList("added", "9", null, null), sink.rows.get(1));
+    }
+
+}
@@ -0,0 +1,138 @@
+package ndextools.morphcx.readers.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowFilterTest {
+    private static final List<String> COLUMNS = List.of("a", "b", "c", "name", "score");
+
+    private static boolean test(final String expression, final String... fields) {
+        return RowFilter.compile(expression).bind(COLUMNS).test(fields);
+    }
+
+    private static FilterSyntaxException syntaxError(final String expression) {
+        return assertThrows(FilterSyntaxException.class, () -> RowFilter.compile(expression));
+    }
+
+    @Test
+    void andBindsTighterThanOr() {
+        assertTrue(test("a = 1 or b = 1 and c = 1", "1", "0", "0"));
+        assertFalse(test("(a = 1 or b = 1) and c = 1", "1", "0", "0"));
+        assertTrue(test("b = 1 and c = 1 or a = 1", "1", "0", "0"));
+    }
+
+    @Test
+    void notBindsTighterThanAnd() {
+        assertFalse(test("not a = 1 and b = 1", "1", "1"));
+        assertTrue(test("not (a = 1 and b = 1)", "1", "0"));
+    }
+
+    @Test
+    void notChainsAlternate() {
+        assertFalse(test("not a = 1", "1"));
+        assertTrue(test("not not a = 1", "1"));
+        assertFalse(test("not not not a = 1", "1"));
+        assertTrue(test("NOT Not a = 1", "1"));
+    }
+
+    @Test
+    void doubledQuoteIsIncludedInText() {
+        assertTrue(test("name = 'it''s'", null, null, null, "it's"));
+        assertTrue(test("name = \"say \"\"hi\"\"\"", null, null, null, "say \"hi\""));
+        assertTrue(test("name = \"it's\"", null, null, null, "it's"));
+        assertTrue(test("name = ''", null, null, null, null));
+    }
+
+    @Test
+    void backquotedColumnNameMayHoldSpaces() {
+        RowFilter filter = RowFilter.compile("`node score` > 1");
+        assertEquals(List.of("node score"), List.copyOf(filter.getColumns()));
+        assertTrue(filter.bind(List.of("node score")).test(new String[] {"2"}));
+    }
+
+    @Test
+    void numbersCompareNumerically() {
+        assertTrue(test("score > 9", null, null, null, null, "10"));
+        assertTrue(test("score = 1", null, null, null, null, "1.0"));
+        assertTrue(test("score < -1e2", null, null, null, null, "-101"));
+        assertTrue(test("a < b", "9", "10"));
+        assertTrue(test("name = '10'", null, null, null, "10.0"));
+    }
+
+    @Test
+    void nonNumberAgainstNumberLiteralIsOnlyUnequal() {
+        assertFalse(test("score > 9", null, null, null, null, "abc"));
+        assertFalse(test("score <= 9", null, null, null, null, "abc"));
+        assertFalse(test("score = 9", null, null, null, null, ""));
+        assertTrue(test("score != 9", null, null, null, null, "abc"));
+    }
+
+    @Test
+    void nonNumbersCompareAsStrings() {
+        assertTrue(test("a < b", "abc", "abd"));
+        assertTrue(test("a < b", "10", "x"));
+        assertTrue(test("name >= 'B'", null, null, null, "b"));
+        assertFalse(test("name = 'b'", null, null, null, "B"));
+    }
+
+    @Test
+    void matchesFindsRegularExpression() {
+        assertTrue(test("name ~ '^GEN'", null, null, null, "GENE1"));
+        assertTrue(test("name ~ 'E1'", null, null, null, "GENE1"));
+        assertFalse(test("name ~ '^E1'", null, null, null, "GENE1"));
+        assertTrue(test("not name ~ 'x'", null, null, null, null));
+    }
+
+    @Test
+    void bindIsNullWhenTableLacksColumn() {
+        RowFilter filter = RowFilter.compile("a = 1 and missing = 2");
+        assertEquals(List.of("a", "missing"), List.copyOf(filter.getColumns()));
+        assertNull(filter.bind(COLUMNS));
+    }
+
+    @Test
+    void shortRowReadsAsEmpty() {
+        assertTrue(test("score = ''", "1"));
+    }
+
+    @Test
+    void errorsGiveTheirPosition() {
+        assertPosition("unterminated quoted text", 4, syntaxError("a = 'x"));
+        assertPosition("unexpected end", 3, syntaxError("a ="));
+        assertPosition("comparison operator expected", 2, syntaxError("a 1"));
+        assertPosition("')' expected", 6, syntaxError("(a = 1"));
+        assertPosition("unexpected 'b'", 6, syntaxError("a = 1 b"));
+        assertPosition("invalid number '1e'", 4, syntaxError("a = 1e"));
+        assertPosition("operand expected", 0, syntaxError("and = 1"));
+        assertPosition("'~' takes a quoted regular expression", 2, syntaxError("a ~ b"));
+        assertPosition("'~' takes a quoted regular expression", 2, syntaxError("a ~ 1"));
+        assertEquals(2, syntaxError("a ~ '('").getPosition());
+    }
+
+    @Test
+    void isNumberAcceptsOnlyDecimalNumbers() {
+        assertTrue(RowFilter.isNumber("-1.5e3"));
+        assertTrue(RowFilter.isNumber(".5"));
+        assertTrue(RowFilter.isNumber("+7"));
+        assertFalse(RowFilter.isNumber(""));
+        assertFalse(RowFilter.isNumber("."));
+        assertFalse(RowFilter.isNumber("1e"));
+        assertFalse(RowFilter.isNumber(" 1"));
+        assertFalse(RowFilter.isNumber("1d"));
+        assertFalse(RowFilter.isNumber("0x10"));
+        assertFalse(RowFilter.isNumber("NaN"));
+    }
+
+    private static void assertPosition(final String message, final int position, final FilterSyntaxException e) {
+        assertEquals(message + " at position " + position, e.getMessage());
+        assertEquals(position, e.getPosition());
+    }
+
+}
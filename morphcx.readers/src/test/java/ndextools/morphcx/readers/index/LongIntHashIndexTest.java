@@ -0,0 +1,76 @@
+package ndextools.morphcx.readers.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntHashIndexTest {
+
+    @Test
+    void ordinalsAreDenseInOrderOfFirstAddition() {
+        LongIntHashIndex index = new LongIntHashIndex();
+        assertEquals(0, index.add(42));
+        assertEquals(1, index.add(-7));
+        assertEquals(0, index.add(42));
+        assertEquals(2, index.add(0));
+        assertEquals(3, index.size());
+        assertEquals(-7, index.keyAt(1));
+        assertEquals(2, index.ordinalOf(0));
+    }
+
+    @Test
+    void absentKeyHasNoOrdinal() {
+        LongIntHashIndex index = new LongIntHashIndex();
+        index.add(1);
+        assertEquals(LongIntHashIndex.ABSENT, index.ordinalOf(2));
+        assertFalse(index.contains(2));
+        assertTrue(index.contains(1));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void sentinelValueIsAnOrdinaryKey() {
+        LongIntHashIndex index = new LongIntHashIndex();
+        assertEquals(LongIntHashIndex.ABSENT, index.ordinalOf(Long.MIN_VALUE));
+        assertEquals(0, index.add(5));
+        assertEquals(1, index.add(Long.MIN_VALUE));
+        assertEquals(1, index.add(Long.MIN_VALUE));
+        assertEquals(2, index.add(Long.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE, index.keyAt(1));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void growsPastExpectedSizeKeepingEveryOrdinal() {
+        LongIntHashIndex index = new LongIntHashIndex(1);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 100_000; i++) {
+            // sequential ids, ids sharing their low bits, and random ids
+            long key = (i % 3 == 0) ? i : (i % 3 == 1) ? (long) i << 32 : random.nextLong();
+            int ordinal = index.add(key);
+            assertEquals(expected.computeIfAbsent(key, k -> expected.size()), ordinal);
+        }
+        assertEquals(expected.size(), index.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), index.ordinalOf(entry.getKey()));
+            assertEquals(entry.getKey(), index.keyAt(entry.getValue()));
+        }
+    }
+
+    @Test
+    void keyAtRejectsUnassignedOrdinal() {
+        LongIntHashIndex index = new LongIntHashIndex();
+        index.add(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> index.keyAt(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.keyAt(-1));
+    }
+
+}
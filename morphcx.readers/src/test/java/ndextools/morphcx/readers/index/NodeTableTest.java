@@ -0,0 +1,47 @@
+package ndextools.morphcx.readers.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NodeTableTest {
+
+    @Test
+    void resolvesIdToNameAndRepresents() {
+        NodeTable table = new NodeTable();
+        int a = table.put(100, "A", "hgnc:1");
+        int b = table.put(7, "B", null);
+        assertEquals(a, table.ordinalOf(100));
+        assertEquals("A", table.nameAt(a));
+        assertEquals("hgnc:1", table.representsAt(a));
+        assertNull(table.representsAt(b));
+        assertEquals(7, table.idAt(b));
+        assertFalse(table.contains(8));
+        assertEquals(LongIntHashIndex.ABSENT, table.ordinalOf(8));
+    }
+
+    @Test
+    void putAgainReplacesValuesUnderSameOrdinal() {
+        NodeTable table = new NodeTable();
+        int ordinal = table.put(1, "old", "r1");
+        assertEquals(ordinal, table.put(1, "new", null));
+        assertEquals("new", table.nameAt(ordinal));
+        assertNull(table.representsAt(ordinal));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void growsPastExpectedSize() {
+        NodeTable table = new NodeTable(1);
+        for (long id = 0; id < 10_000; id++) {
+            table.put(id * 31, "n" + id, null);
+        }
+        assertEquals(10_000, table.size());
+        for (long id = 0; id < 10_000; id++) {
+            assertEquals("n" + id, table.nameAt(table.ordinalOf(id * 31)));
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package ndextools.morphcx.readers.input;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFileInputStreamTest {
+    private static final int WINDOW_SIZE = 7;
+
+    @TempDir
+    Path directory;
+
+    private Path fileOf(final int length) throws IOException {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return Files.write(directory.resolve("input.cx"), bytes);
+    }
+
+    @Test
+    void readsEveryByteAcrossWindows() throws IOException {
+        Path file = fileOf(100);
+        try (MappedFileInputStream input = new MappedFileInputStream(file, WINDOW_SIZE)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            int b;
+            while ((b = input.read()) != -1) {
+                bytes.write(b);
+            }
+            assertArrayEquals(Files.readAllBytes(file), bytes.toByteArray());
+        }
+        try (MappedFileInputStream input = new MappedFileInputStream(file, WINDOW_SIZE)) {
+            assertArrayEquals(Files.readAllBytes(file), input.readAllBytes());
+            assertEquals(-1, input.read(new byte[4], 0, 4));
+        }
+    }
+
+    @Test
+    void bulkReadStopsAtEndOfWindow() throws IOException {
+        try (MappedFileInputStream input = new MappedFileInputStream(fileOf(100), WINDOW_SIZE)) {
+            byte[] buffer = new byte[50];
+            assertEquals(WINDOW_SIZE, input.read(buffer, 0, buffer.length));
+            assertEquals(WINDOW_SIZE, input.read(buffer, 0, buffer.length));
+            assertEquals(0, input.read(buffer, 0, 0));
+        }
+    }
+
+    @Test
+    void skipAndResetMoveAcrossWindows() throws IOException {
+        Path file = fileOf(100);
+        byte[] expected = Files.readAllBytes(file);
+        try (MappedFileInputStream input = new MappedFileInputStream(file, WINDOW_SIZE)) {
+            assertEquals(20, input.skip(20));
+            assertEquals(expected[20] & 0xFF, input.read());
+            input.mark(0);
+            assertEquals(30, input.skip(30));
+            assertEquals(expected[51] & 0xFF, input.read());
+            input.reset();
+            assertEquals(expected[21] & 0xFF, input.read());
+            assertEquals(78, input.skip(1000));
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    void mapWithinAndAcrossWindows() throws IOException {
+        Path file = fileOf(100);
+        byte[] expected = Files.readAllBytes(file);
+        try (MappedFileInputStream input = new MappedFileInputStream(file, WINDOW_SIZE)) {
+            assertEquals(ByteBuffer.wrap(expected, 0, 5), input.map(5));
+            // 5..40 spans several windows, so it is mapped on its own
+            assertEquals(ByteBuffer.wrap(expected, 5, 35), input.map(35));
+            assertEquals(expected[40] & 0xFF, input.read());
+            assertThrows(EOFException.class, () -> input.map(60));
+            assertEquals(expected[41] & 0xFF, input.read());
+        }
+    }
+
+    @Test
+    void emptyFileIsAtEnd() throws IOException {
+        try (MappedFileInputStream input = new MappedFileInputStream(fileOf(0), WINDOW_SIZE)) {
+            assertEquals(-1, input.read());
+            assertEquals(0, input.skip(10));
+        }
+    }
+
+    @Test
+    void openFileMapsRegularFileUnlessDisabled() throws IOException {
+        Path file = fileOf(100);
+        try (InputStream input = CXInput.openFile(file)) {
+            assertTrue(input instanceof MappedFileInputStream);
+        }
+        String previous = System.getProperty(CXInput.MMAP_PROPERTY);
+        System.setProperty(CXInput.MMAP_PROPERTY, "false");
+        try (InputStream input = CXInput.openFile(file)) {
+            assertTrue(input instanceof BufferedInputStream);
+            assertArrayEquals(Files.readAllBytes(file), input.readAllBytes());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(CXInput.MMAP_PROPERTY);
+            } else {
+                System.setProperty(CXInput.MMAP_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    void windowSizeIsChecked() throws IOException {
+        Path file = fileOf(1);
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileInputStream(file, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileInputStream(file, 1L << 31));
+    }
+
+}
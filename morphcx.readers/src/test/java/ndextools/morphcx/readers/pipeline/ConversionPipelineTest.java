@@ -0,0 +1,186 @@
+package ndextools.morphcx.readers.pipeline;
+
+import ndextools.morphcx.readers.pipeline.ConversionPipeline.ElementSource;
+import ndextools.morphcx.readers.pipeline.ConversionPipeline.Transformer;
+import ndextools.morphcx.readers.rows.RowSink;
+import ndextools.morphcx.readers.streaming.CXElementHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConversionPipelineTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final List<String> COLUMNS = List.of("id", "name");
+
+    /**
+     * Delivers the nodes 0 .. count - 1, counting them.
+     */
+    private static ElementSource nodes(final int count, final AtomicInteger read, final Set<String> threads) {
+        return handler -> {
+            threads.add("reader " + Thread.currentThread().getName());
+            handler.startNetwork();
+            for (int id = 0; id < count; id++) {
+                read.incrementAndGet();
+                handler.node(id, "n" + id, null);
+            }
+            handler.endNetwork();
+        };
+    }
+
+    /**
+     * Writes one row per node.
+     */
+    private static Transformer nodeRows(final Set<String> threads) {
+        return (elements, rows) -> {
+            threads.add("transformer " + Thread.currentThread().getName());
+            rows.startTable(COLUMNS);
+            elements.readInto(new CXElementHandler() {
+                @Override
+                public void node(long id, String name, String represents) throws IOException {
+                    rows.row(new String[] {Long.toString(id), name});
+                }
+
+                @Override
+                public void edge(long id, long source, long target, String interaction) {
+                }
+            });
+            rows.endTable();
+        };
+    }
+
+    /**
+     * Records a table as its columns followed by its rows.
+     */
+    private static class RecordingSink implements RowSink {
+        final List<List<String>> rows = new ArrayList<>();
+
+        @Override
+        public void startTable(final List<String> columns) {
+            rows.add(List.copyOf(columns));
+        }
+
+        @Override
+        public void row(final String[] fields) throws IOException {
+            rows.add(List.of(fields));
+        }
+
+        @Override
+        public void endTable() {
+            rows.add(List.of("end"));
+        }
+    }
+
+    private static List<List<String>> convert(final ConversionPipeline pipeline, final int count,
+                                              final Set<String> threads) throws IOException {
+        RecordingSink sink = new RecordingSink() {
+            @Override
+            public void row(final String[] fields) throws IOException {
+                threads.add("encoder " + Thread.currentThread().getName());
+                super.row(fields);
+            }
+        };
+        pipeline.run(nodes(count, new AtomicInteger(), threads), nodeRows(threads), sink);
+        return sink.rows;
+    }
+
+    @Test
+    void pipelinedRowsEqualSequentialRows() throws IOException {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<List<String>> expected = convert(new ConversionPipeline(false), 5_000, threads);
+        assertEquals(5_000 + 2, expected.size());
+        assertEquals(List.of("4999", "n4999"), expected.get(5_000));
+        String caller = Thread.currentThread().getName();
+        assertEquals(Set.of("reader " + caller, "transformer " + caller, "encoder " + caller), threads);
+
+        threads.clear();
+        assertEquals(expected, convert(new ConversionPipeline(true, 7, 2), 5_000, threads));
+        assertEquals(Set.of("reader morphcx-reader", "transformer morphcx-transformer", "encoder " + caller),
+                threads);
+    }
+
+    @Test
+    void slowEncoderHoldsReaderBack() {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger encoded = new AtomicInteger();
+        AtomicInteger lead = new AtomicInteger();
+        RowSink slowEncoder = new RecordingSink() {
+            @Override
+            public void row(final String[] fields) throws IOException {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                lead.accumulateAndGet(read.get() - encoded.incrementAndGet(), Math::max);
+            }
+        };
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        assertTimeoutPreemptively(TIMEOUT, () ->
+                new ConversionPipeline(true, 1, 1).run(nodes(300, read, threads), nodeRows(threads), slowEncoder));
+        assertEquals(300, encoded.get());
+        // one batch of one element or row in each queue and in each stage
+        assertTrue(lead.get() <= 8, "reader ran " + lead.get() + " elements ahead of the encoder");
+    }
+
+    @Test
+    void readerFailureIsRethrown() {
+        IOException failure = new IOException("unreadable");
+        ElementSource reader = handler -> {
+            handler.startNetwork();
+            handler.node(1, "A", null);
+            throw failure;
+        };
+        IOException thrown = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IOException.class, () ->
+                new ConversionPipeline(true, 1, 1).run(reader, nodeRows(ConcurrentHashMap.newKeySet()),
+                        new RecordingSink())));
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void transformerErrorIsRethrown() {
+        Transformer transformer = (elements, rows) -> {
+            throw new AssertionError("transformer failed");
+        };
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        AssertionError thrown = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(AssertionError.class, () ->
+                new ConversionPipeline(true, 1, 1).run(nodes(1_000, new AtomicInteger(), threads), transformer,
+                        new RecordingSink())));
+        assertEquals("transformer failed", thrown.getMessage());
+    }
+
+    @Test
+    void encoderFailureStopsOtherStages() {
+        AtomicInteger read = new AtomicInteger();
+        RowSink failingEncoder = new RecordingSink() {
+            @Override
+            public void row(final String[] fields) {
+                throw new IllegalStateException("disk full");
+            }
+        };
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        IllegalStateException thrown = assertTimeoutPreemptively(TIMEOUT, () ->
+                assertThrows(IllegalStateException.class, () -> new ConversionPipeline(true, 1, 1)
+                        .run(nodes(1_000_000, read, threads), nodeRows(threads), failingEncoder)));
+        assertEquals("disk full", thrown.getMessage());
+        assertTrue(read.get() < 1_000_000, "the reader was not stopped");
+    }
+
+    @Test
+    void sizesMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ConversionPipeline(true, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConversionPipeline(true, 1, 0));
+    }
+
+}
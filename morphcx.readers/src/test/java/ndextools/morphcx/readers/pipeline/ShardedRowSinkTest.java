@@ -0,0 +1,162 @@
+package ndextools.morphcx.readers.pipeline;
+
+import ndextools.morphcx.readers.rows.RowSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ShardedRowSinkTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final List<String> COLUMNS = List.of("id");
+
+    /**
+     * Records a table as its columns followed by its rows, and the threads it was written from.
+     */
+    private static class RecordingSink implements RowSink {
+        final List<List<String>> rows = new ArrayList<>();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void startTable(final List<String> columns) {
+            rows.add(List.copyOf(columns));
+        }
+
+        @Override
+        public void row(final String[] fields) throws IOException {
+            threads.add(Thread.currentThread().getName());
+            rows.add(List.of(fields));
+        }
+
+        @Override
+        public void endTable() {
+            rows.add(List.of("end"));
+        }
+    }
+
+    private static List<RecordingSink> shards(final int count) {
+        List<RecordingSink> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(new RecordingSink());
+        }
+        return shards;
+    }
+
+    /**
+     * Writes the rows 0 .. count - 1, reusing one array as a converter does.
+     */
+    private static void write(final ShardedRowSink sink, final int count) throws IOException {
+        String[] fields = new String[1];
+        sink.startTable(COLUMNS);
+        for (int id = 0; id < count; id++) {
+            fields[0] = Integer.toString(id);
+            sink.row(fields);
+        }
+        sink.endTable();
+    }
+
+    /**
+     * The table shard number shard of shardCount receives: every shardCount-th batch of
+     * batchSize rows, in order, between the heading and the end.
+     */
+    private static List<List<String>> expected(final int count, final int batchSize, final int shardCount,
+                                               final int shard) {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(COLUMNS);
+        for (int id = 0; id < count; id++) {
+            if ((id / batchSize) % shardCount == shard) {
+                rows.add(List.of(Integer.toString(id)));
+            }
+        }
+        rows.add(List.of("end"));
+        return rows;
+    }
+
+    private static void assertDealt(final List<RecordingSink> shards, final int count, final int batchSize) {
+        for (int i = 0; i < shards.size(); i++) {
+            assertEquals(expected(count, batchSize, shards.size(), i), shards.get(i).rows, "shard " + i);
+        }
+    }
+
+    @Test
+    void batchesAreDealtToShardsInTurn() throws IOException {
+        List<RecordingSink> shards = shards(3);
+        try (ShardedRowSink sink = new ShardedRowSink(shards, false, "shard", 4, 2)) {
+            assertEquals(3, sink.getShardCount());
+            write(sink, 30);
+        }
+        assertDealt(shards, 30, 4);
+        assertEquals(List.of(List.of("id"), List.of("0"), List.of("1"), List.of("2"), List.of("3"),
+                List.of("12")), shards.get(0).rows.subList(0, 6));
+    }
+
+    @Test
+    void shardsWithoutRowsGetHeadingAndEnd() throws IOException {
+        List<RecordingSink> shards = shards(4);
+        try (ShardedRowSink sink = new ShardedRowSink(shards, false, "shard", 10, 2)) {
+            write(sink, 5);
+        }
+        assertDealt(shards, 5, 10);
+        assertEquals(List.of(COLUMNS, List.of("end")), shards.get(3).rows);
+    }
+
+    @Test
+    void dealingRestartsWithEachTable() throws IOException {
+        List<RecordingSink> shards = shards(2);
+        try (ShardedRowSink sink = new ShardedRowSink(shards, false, "shard", 2, 2)) {
+            write(sink, 3);
+            write(sink, 3);
+        }
+        List<List<String>> once = expected(3, 2, 2, 0);
+        List<List<String>> twice = new ArrayList<>(once);
+        twice.addAll(once);
+        assertEquals(twice, shards.get(0).rows);
+    }
+
+    @Test
+    void threadedShardsReceiveTheSameRows() {
+        List<RecordingSink> shards = shards(3);
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            try (ShardedRowSink sink = new ShardedRowSink(shards, true, "shard", 7, 1)) {
+                write(sink, 10_000);
+            }
+        });
+        assertDealt(shards, 10_000, 7);
+        for (int i = 0; i < shards.size(); i++) {
+            assertEquals(Set.of("shard-" + i), shards.get(i).threads);
+        }
+    }
+
+    @Test
+    void shardFailureIsRethrown() {
+        List<RecordingSink> shards = shards(2);
+        shards.set(1, new RecordingSink() {
+            @Override
+            public void row(final String[] fields) throws IOException {
+                throw new IOException("disk full");
+            }
+        });
+        IOException thrown = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IOException.class, () -> {
+            try (ShardedRowSink sink = new ShardedRowSink(shards, true, "shard", 1, 1)) {
+                write(sink, 1_000_000);
+            }
+        }));
+        assertEquals("disk full", thrown.getMessage());
+    }
+
+    @Test
+    void sizesMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedRowSink(List.of(), false, "shard"));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedRowSink(shards(1), false, "shard", 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedRowSink(shards(1), false, "shard", 1, 0));
+    }
+
+}
@@ -0,0 +1,108 @@
+package ndextools.morphcx.readers.rows;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpillFileTest {
+
+    private static String recordOf(final long key, final int column, final long source, final long target,
+                                   final String text) {
+        return (column == SpillFile.EDGE)
+                ? key + " edge " + source + " " + target + " " + text
+                : key + " cell " + column + " " + text;
+    }
+
+    private static List<String> replayed(final SpillFile spill) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (SpillFile.Cursor cursor = spill.replay()) {
+            while (cursor.next()) {
+                records.add(recordOf(cursor.key(), cursor.column(), cursor.source(), cursor.target(), cursor.text()));
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void recordsReplayByKeyInOrderAddedAcrossRuns() throws IOException {
+        Random random = new Random(13);
+        List<long[]> order = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        try (SpillFile spill = new SpillFile(7)) {
+            for (int i = 0; i < 1_000; i++) {
+                long key = random.nextInt(200) - 100;
+                String text = (i % 10 == 0) ? null : "t" + i + "é";
+                if (i % 3 == 0) {
+                    long source = random.nextLong();
+                    long target = -random.nextInt(1000);
+                    spill.addEdge(key, source, target, text);
+                    added.add(recordOf(key, SpillFile.EDGE, source, target, text));
+                } else {
+                    int column = random.nextInt(5);
+                    spill.addCell(key, column, text);
+                    added.add(recordOf(key, column, 0, 0, text));
+                }
+                order.add(new long[] {key, i});
+            }
+            order.sort(Comparator.<long[]>comparingLong(k -> k[0]).thenComparingLong(k -> k[1]));
+            List<String> expected = new ArrayList<>();
+            for (long[] k : order) {
+                expected.add(added.get((int) k[1]));
+            }
+
+            assertEquals(expected, replayed(spill));
+        }
+    }
+
+    @Test
+    void textLongerThanReadBufferIsReplayedWhole() throws IOException {
+        String longText = "x".repeat(100_000) + "€";
+        try (SpillFile spill = new SpillFile(2)) {
+            spill.addCell(2, 0, longText);
+            spill.addCell(1, 0, "short");
+            spill.addCell(3, 1, longText);
+            assertEquals(List.of("1 cell 0 short", "2 cell 0 " + longText, "3 cell 1 " + longText), replayed(spill));
+        }
+    }
+
+    @Test
+    void emptySpillReplaysNothing() throws IOException {
+        try (SpillFile spill = new SpillFile(4)) {
+            try (SpillFile.Cursor cursor = spill.replay()) {
+                assertFalse(cursor.next());
+            }
+            assertEquals(0, spill.length());
+        }
+    }
+
+    @Test
+    void consecutiveKeysCostOneByteEach() throws IOException {
+        try (SpillFile spill = new SpillFile(1_000)) {
+            for (long key = 1_000_000; key < 1_000_100; key++) {
+                spill.addCell(key, 0, null);
+            }
+            replayed(spill);
+            // first key: 3 bytes; then one byte of key delta, one of column, one of null text
+            assertEquals(3 + 2 + 99 * 3, spill.length());
+        }
+    }
+
+    @Test
+    void noRecordAfterReplay() throws IOException {
+        try (SpillFile spill = new SpillFile(4)) {
+            spill.addCell(1, 0, "a");
+            replayed(spill);
+            assertThrows(IllegalStateException.class, () -> spill.addCell(2, 0, "b"));
+            assertThrows(IllegalStateException.class, spill::replay);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package ndextools.morphcx.readers.rows;
+
+import ndextools.morphcx.readers.streaming.CXStreamReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WideEdgeRowResolverTest {
+    // the attributes come before the edges, and edge 13 is not declared
+    private static final String CX = "[{\"nodes\":[{\"@id\":1,\"n\":\"A\"},{\"@id\":2,\"n\":\"B\"},{\"@id\":3},"
+            + "{\"@id\":4,\"n\":\"D\"}]},"
+            + "{\"edgeAttributes\":[{\"po\":12,\"n\":\"weight\",\"v\":\"5\"},"
+            + "{\"po\":[10,11],\"n\":\"tags\",\"v\":[\"a\",\"b,c\"],\"d\":\"list_of_string\"},"
+            + "{\"po\":13,\"n\":\"weight\",\"v\":\"9\"},"
+            + "{\"po\":10,\"n\":\"weight\",\"v\":\"3\"}]},"
+            + "{\"edges\":[{\"@id\":11,\"s\":2,\"t\":3,\"i\":\"x\"},{\"@id\":10,\"s\":1,\"t\":2,\"i\":\"binds\"},"
+            + "{\"@id\":12,\"s\":1,\"t\":99}]}]";
+
+    /**
+     * Records a table as its columns followed by its rows.
+     */
+    private static final class RecordingSink implements RowSink {
+        private final List<List<String>> rows = new ArrayList<>();
+
+        @Override
+        public void startTable(final List<String> columns) {
+            rows.add(List.copyOf(columns));
+        }
+
+        @Override
+        public void row(final String[] fields) {
+            rows.add(Arrays.asList(fields.clone()));
+        }
+
+        @Override
+        public void endTable() {
+            rows.add(List.of("end"));
+        }
+    }
+
+    private static List<List<String>> tableOf(final int runSize) throws IOException {
+        RecordingSink sink = new RecordingSink();
+        try (WideEdgeRowResolver resolver = new WideEdgeRowResolver(sink, runSize)) {
+            new CXStreamReader(null).read(new ByteArrayInputStream(CX.getBytes(StandardCharsets.UTF_8)), resolver);
+            assertEquals(List.of("weight", "tags"), resolver.getAttributeNames());
+            resolver.writeTable();
+            assertTrue(resolver.getSpilledBytes() > 0);
+        }
+        return sink.rows;
+    }
+
+    @Test
+    void joinsEveryEdgeWithItsAttributesInEdgeIdOrder() throws IOException {
+        List<List<String>> expected = List.of(
+                List.of("source", "interaction", "target", "weight", "tags"),
+                List.of("A", "binds", "B", "3", "[\"a\",\"b,c\"]"),
+                Arrays.asList("B", "x", "3", null, "[\"a\",\"b,c\"]"),
+                Arrays.asList("A", null, "99", "5", null),
+                Arrays.asList("D", null, null, null, null),
+                List.of("end"));
+        assertEquals(expected, tableOf(SpillFile.DEFAULT_RUN_SIZE));
+    }
+
+    @Test
+    void tableDoesNotDependOnRunSize() throws IOException {
+        List<List<String>> expected = tableOf(SpillFile.DEFAULT_RUN_SIZE);
+        assertEquals(expected, tableOf(1));
+        assertEquals(expected, tableOf(2));
+    }
+
+}
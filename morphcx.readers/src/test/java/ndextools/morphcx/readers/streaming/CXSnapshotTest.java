@@ -0,0 +1,103 @@
+package ndextools.morphcx.readers.streaming;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CXSnapshotTest {
+    private static final String CX = "[{\"numberVerification\":[{\"longNumber\":281474976710655}]},"
+            + "{\"networkAttributes\":[{\"n\":\"name\",\"v\":\"test network\"},"
+            + "{\"n\":\"version\",\"v\":\"1.0\",\"d\":\"double\",\"s\":7}]},"
+            + "{\"nodes\":[{\"@id\":1,\"n\":\"A\",\"r\":\"hgnc:1\"},{\"@id\":2,\"n\":\"B\"},{\"@id\":3},"
+            + "{\"@id\":4,\"n\":\"\\u00e9t\\u00e9 \\\"quoted\\\"\"}]},"
+            + "{\"edges\":[{\"@id\":10,\"s\":1,\"t\":2,\"i\":\"binds\"},{\"@id\":11,\"s\":2,\"t\":3},"
+            + "{\"@id\":12,\"s\":3,\"t\":4,\"i\":\"binds\"}]},"
+            + "{\"nodeAttributes\":[{\"po\":1,\"n\":\"score\",\"v\":\"0.5\",\"d\":\"double\"},"
+            + "{\"po\":[2,3],\"n\":\"alias\",\"v\":[\"a,b\",\"c\"],\"d\":\"list_of_string\"}]},"
+            + "{\"edgeAttributes\":[{\"po\":10,\"n\":\"weight\",\"v\":\"3\",\"d\":\"long\"},"
+            + "{\"po\":11,\"n\":\"tags\",\"v\":[],\"d\":\"list_of_string\"}]},"
+            + "{\"nodes\":[{\"@id\":5,\"n\":\"late\"}]},"
+            + "{\"status\":[{\"error\":\"\",\"success\":true}]}]";
+
+    private static InputStream cx() {
+        return new ByteArrayInputStream(CX.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> parsed() throws IOException {
+        RecordingHandler handler = new RecordingHandler();
+        new CXStreamReader(null).read(cx(), handler);
+        return handler.getElements();
+    }
+
+    private static byte[] snapshotOf(final int blockSize) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (CXSnapshotWriter writer = new CXSnapshotWriter(output, blockSize)) {
+            new CXStreamReader(null).read(cx(), writer);
+        }
+        return output.toByteArray();
+    }
+
+    private static List<String> replayed(final byte[] snapshot) throws IOException {
+        RecordingHandler handler = new RecordingHandler();
+        new CXSnapshotReader(null).read(new ByteArrayInputStream(snapshot), handler);
+        return handler.getElements();
+    }
+
+    @Test
+    void snapshotReplaysParsedElementsInOrder() throws IOException {
+        List<String> expected = parsed();
+        assertEquals(17, expected.size());
+        assertEquals(expected, replayed(snapshotOf(CXSnapshotReader.SnapshotConstants.DEFAULT_BLOCK_SIZE)));
+    }
+
+    @Test
+    void elementsSplitAcrossBlocksReplayInOrder() throws IOException {
+        List<String> expected = parsed();
+        assertEquals(expected, replayed(snapshotOf(1)));
+        assertEquals(expected, replayed(snapshotOf(2)));
+    }
+
+    @Test
+    void streamReaderReplaysSnapshot() throws IOException {
+        RecordingHandler handler = new RecordingHandler();
+        new CXStreamReader(null).read(new ByteArrayInputStream(snapshotOf(2)), handler);
+        assertEquals(parsed(), handler.getElements());
+    }
+
+    @Test
+    void isSnapshotLeavesStreamWhereItWas() throws IOException {
+        InputStream snapshot = new BufferedInputStream(new ByteArrayInputStream(snapshotOf(2)));
+        assertTrue(CXSnapshotReader.isSnapshot(snapshot));
+        assertTrue(CXSnapshotReader.isSnapshot(snapshot));
+
+        InputStream cx = new BufferedInputStream(cx());
+        assertFalse(CXSnapshotReader.isSnapshot(cx));
+        assertEquals('[', cx.read());
+    }
+
+    @Test
+    void truncatedSnapshotFails() throws IOException {
+        byte[] snapshot = snapshotOf(2);
+        byte[] truncated = Arrays.copyOf(snapshot, snapshot.length - 1);
+        assertThrows(EOFException.class, () -> replayed(truncated));
+    }
+
+    @Test
+    void otherInputIsNotSnapshot() {
+        assertThrows(IOException.class, () -> replayed(CX.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
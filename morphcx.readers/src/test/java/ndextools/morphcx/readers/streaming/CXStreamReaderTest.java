@@ -0,0 +1,90 @@
+package ndextools.morphcx.readers.streaming;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CXStreamReaderTest {
+
+    private static List<String> read(final String cx) throws IOException {
+        RecordingHandler handler = new RecordingHandler();
+        InputStream input = new ByteArrayInputStream(cx.getBytes(StandardCharsets.UTF_8));
+        new CXStreamReader(null).read(input, handler);
+        return handler.getElements();
+    }
+
+    @Test
+    void elementsArriveInStreamOrder() throws IOException {
+        assertEquals(List.of(
+                "start",
+                "edge 10 1 2 binds",
+                "node 1 A hgnc:1",
+                "node 2 B null",
+                "edge 11 2 1 null",
+                "end"), read("[{\"edges\":[{\"@id\":10,\"s\":1,\"t\":2,\"i\":\"binds\"}]},"
+                + "{\"nodes\":[{\"@id\":1,\"n\":\"A\",\"r\":\"hgnc:1\"},{\"@id\":2,\"n\":\"B\"}]},"
+                + "{\"edges\":[{\"@id\":11,\"s\":2,\"t\":1}]}]"));
+    }
+
+    @Test
+    void otherAspectsAndFieldsAreSkipped() throws IOException {
+        assertEquals(List.of(
+                "start",
+                "node 1 A null",
+                "end"), read("[{\"numberVerification\":[{\"longNumber\":281474976710655}]},"
+                + "{\"metaData\":[{\"name\":\"nodes\",\"properties\":[{\"k\":[1,{\"x\":2}]}]}]},"
+                + "{\"status\":{\"success\":true}},"
+                + "{\"nodes\":[{\"x\":{\"n\":\"nested\"},\"@id\":1,\"y\":[\"n\"],\"n\":\"A\"}]},"
+                + "{\"cartesianLayout\":[{\"node\":1,\"x\":0.5,\"y\":1.5}]}]"));
+    }
+
+    @Test
+    void attributeIsDeliveredOncePerElementItBelongsTo() throws IOException {
+        assertEquals(List.of(
+                "start",
+                "nodeAttribute 1 alias [a,b, c] list_of_string -",
+                "nodeAttribute 2 alias [a,b, c] list_of_string -",
+                "edgeAttribute 10 weight 3 long 7",
+                "networkAttribute -1 name test string -",
+                "end"), read("[{\"nodeAttributes\":[{\"po\":[1,2],\"n\":\"alias\",\"v\":[\"a,b\",\"c\"],"
+                + "\"d\":\"list_of_string\"}]},"
+                + "{\"edgeAttributes\":[{\"po\":10,\"n\":\"weight\",\"v\":\"3\",\"d\":\"long\",\"s\":7}]},"
+                + "{\"networkAttributes\":[{\"n\":\"name\",\"v\":\"test\"}]}]"));
+    }
+
+    @Test
+    void scalarValuesAreReadAsText() throws IOException {
+        assertEquals(List.of(
+                "start",
+                "nodeAttribute 1 score 0.5 double -",
+                "nodeAttribute 1 flag true boolean -",
+                "nodeAttribute 1 missing null string -",
+                "nodeAttribute 1 names [x, null] list_of_string -",
+                "end"), read("[{\"nodeAttributes\":["
+                + "{\"po\":1,\"n\":\"score\",\"v\":0.5,\"d\":\"double\"},"
+                + "{\"po\":1,\"n\":\"flag\",\"v\":true,\"d\":\"boolean\"},"
+                + "{\"po\":1,\"n\":\"missing\",\"v\":null},"
+                + "{\"po\":1,\"n\":\"names\",\"v\":[\"x\",null],\"d\":\"list_of_string\"}]}]"));
+    }
+
+    @Test
+    void emptyNetworkHasOnlyStartAndEnd() throws IOException {
+        assertEquals(List.of("start", "end"), read("[]"));
+        assertEquals(List.of("start", "end"), read("[{\"nodes\":[]}]"));
+    }
+
+    @Test
+    void invalidInputFails() {
+        assertThrows(IOException.class, () -> read("{\"nodes\":[]}"));
+        assertThrows(IOException.class, () -> read("[{\"nodes\":[{\"@id\":1"));
+        assertThrows(IOException.class, () -> read(""));
+    }
+
+}
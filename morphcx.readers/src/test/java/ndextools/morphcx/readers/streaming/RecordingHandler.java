@@ -0,0 +1,58 @@
+package ndextools.morphcx.readers.streaming;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records every element as a line of text, so that a read can be checked or two reads compared.
+ */
+final class RecordingHandler implements CXElementHandler {
+    private final List<String> elements = new ArrayList<>();
+
+    List<String> getElements() {
+        return elements;
+    }
+
+    @Override
+    public void startNetwork() {
+        elements.add("start");
+    }
+
+    @Override
+    public void node(long id, String name, String represents) {
+        elements.add("node " + id + " " + name + " " + represents);
+    }
+
+    @Override
+    public void edge(long id, long source, long target, String interaction) {
+        elements.add("edge " + id + " " + source + " " + target + " " + interaction);
+    }
+
+    @Override
+    public void nodeAttribute(CXAttribute attribute) {
+        elements.add("nodeAttribute " + textOf(attribute));
+    }
+
+    @Override
+    public void edgeAttribute(CXAttribute attribute) {
+        elements.add("edgeAttribute " + textOf(attribute));
+    }
+
+    @Override
+    public void networkAttribute(CXAttribute attribute) {
+        elements.add("networkAttribute " + textOf(attribute));
+    }
+
+    @Override
+    public void endNetwork() {
+        elements.add("end");
+    }
+
+    private static String textOf(final CXAttribute attribute) {
+        return attribute.getPropertyOf() + " " + attribute.getName() + " "
+                + (attribute.isSingleValue() ? attribute.getValue() : attribute.getValues()) + " "
+                + attribute.getDataType() + " "
+                + (attribute.hasSubnetwork() ? attribute.getSubnetwork() : "-");
+    }
+
+}
@@ -2,5 +2,21 @@ mvn clean package
 
 #java -p mods -m morphcx.launcher.poi/ndextools.morphcx.launcher.poi.ExportPOI -h
 #java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -h
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV --serve 8411 -w 4 &
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV --connect 8411 -i inp.txt -o out.txt -t comma
+#curl -s --data-binary @inp.txt "http://127.0.0.1:8411/convert?arg=-t&arg=comma" -o out.txt
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV --dump-startup-archive exportcsv.jsa
+#java -XX:SharedArchiveFile=exportcsv.jsa -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -i inp.txt -o out.txt
+#mvn -P jlink package && morphcx.image/target/image/bin/exportcsv -i inp.txt -o out.txt
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -i inp.txt -o outdir --layout sharded --parts 4
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -i inp.txt -o out.txt -a --aspects nodes,edges,edgeAttributes --attribute-names weight,score
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -i inp.txt -o out.txt -a --filter "interaction = 'controls-expression-of' and score >= 0.5"
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -i inp.txt -o out.txt --cache ~/.cache/morphcx --cache-size 2048
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -i new.txt -o deltadir --layout sharded --previous old.txt
+#java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -i inp.txt -o inp.cxs --snapshot && java -p mods -m morphcx.launcher.poi/ndextools.morphcx.launcher.poi.ExportPOI -i inp.cxs -o out.xlsx
+#java -p mods -m morphcx.launcher.all/ndextools.morphcx.launcher.all.ExportAll -i inp.txt -o out --formats tsv,csv,xlsx
+#java -p mods -m morphcx.launcher.poi/ndextools.morphcx.launcher.poi.ExportPOI -i inp.txt -o out.xlsx -a
+#java -p mods -m morphcx.launcher.poi/ndextools.morphcx.launcher.poi.ExportPOI -i inp.txt -o out.xlsx --shared-strings
+#java -p mods -m morphcx.generator/ndextools.morphcx.generator.GenerateCX -n 100000 -e 1000000 -d powerlaw -o inp.txt
 java -p mods -m morphcx.launcher.poi/ndextools.morphcx.launcher.poi.ExportPOI -X -i inp.txt -o out.txt
 java -p mods -m morphcx.launcher.csv/ndextools.morphcx.launcher.csv.ExportCSV -X -i inp.txt -o out.txt -t comma -n linux